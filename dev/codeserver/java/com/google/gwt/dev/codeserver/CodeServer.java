@@ -151,7 +151,8 @@ public class CodeServer {
         makeOutboxTable(options, startupLogger, unitCache, minimalRebuildCacheManager);
 
     JobEventTable eventTable = new JobEventTable();
-    JobRunner runner = new JobRunner(eventTable, minimalRebuildCacheManager);
+    JobRunner runner = new JobRunner(eventTable, minimalRebuildCacheManager,
+        options.getCompileWorkers());
 
     JsonExporter exporter = new JsonExporter(options, outboxTable);
 
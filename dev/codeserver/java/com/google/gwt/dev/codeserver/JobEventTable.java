@@ -21,9 +21,12 @@ import com.google.gwt.dev.codeserver.JobEvent.Status;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Contains the current status of each {@link Job}.
@@ -43,11 +46,35 @@ class JobEventTable {
   private final Set<String> activeJobIds = new LinkedHashSet<String>();
 
   /**
-   * The set of compiling job ids. Since compiling is single-threaded, this set should
-   * contain zero or one entries.
+   * The set of compiling job ids, in the order they started compiling. Jobs for different
+   * outboxes may compile at the same time.
    */
   private final Set<String> compilingJobIds = new LinkedHashSet<String>();
 
+  /**
+   * How many finished jobs to keep the latency of.
+   */
+  private static final int MAX_FINISHED_JOBS = 100;
+
+  /**
+   * When each job was submitted or started compiling, as reported by {@link System#nanoTime}.
+   * (Only kept while the job is waiting or compiling.)
+   */
+  private final Map<String, Long> submitNanosByJobId = Maps.newHashMap();
+  private final Map<String, Long> startNanosByJobId = Maps.newHashMap();
+
+  /**
+   * How long each compiling job waited before it started compiling.
+   */
+  private final Map<String, Long> compilingQueueMillisByJobId = Maps.newHashMap();
+
+  /**
+   * How long each of the most recently finished jobs waited before it started compiling (or
+   * before a newer job's result was used instead), and how long the compile took.
+   */
+  private final Map<String, Long> queueMillisByJobId = newFinishedJobMap();
+  private final Map<String, Long> runMillisByJobId = newFinishedJobMap();
+
   /**
    * Returns the event that's currently published for the given job.
    */
@@ -62,6 +89,7 @@ class JobEventTable {
     String id = event.getJobId();
 
     eventsByJobId.put(id, event);
+    recordLatency(id, event.getStatus(), logger);
 
     // Update indexes
 
@@ -73,7 +101,6 @@ class JobEventTable {
 
     if (event.getStatus() == Status.COMPILING) {
       compilingJobIds.add(id);
-      assert compilingJobIds.size() <= 1;
     } else {
       compilingJobIds.remove(id);
     }
@@ -81,6 +108,48 @@ class JobEventTable {
     logger.log(Type.TRACE, "job's progress set to " + event.getStatus() + ": " + id);
   }
 
+  /**
+   * Records how long a job waited in the queue and how long it compiled, and logs both once it is
+   * done. (A job that is superseded by a newer one doesn't compile.)
+   */
+  private void recordLatency(String id, Status status, TreeLogger logger) {
+    long now = System.nanoTime();
+    if (status == Status.WAITING) {
+      submitNanosByJobId.put(id, now);
+    } else if (status == Status.COMPILING) {
+      Long submitNanos = submitNanosByJobId.remove(id);
+      if (submitNanos != null) {
+        compilingQueueMillisByJobId.put(id, TimeUnit.NANOSECONDS.toMillis(now - submitNanos));
+        startNanosByJobId.put(id, now);
+      }
+    } else {
+      Long submitNanos = submitNanosByJobId.remove(id);
+      if (submitNanos != null) {
+        long queueMillis = TimeUnit.NANOSECONDS.toMillis(now - submitNanos);
+        queueMillisByJobId.put(id, queueMillis);
+        logger.log(Type.INFO, String.format("job waited %d ms and was superseded", queueMillis));
+      }
+      Long startNanos = startNanosByJobId.remove(id);
+      if (startNanos != null) {
+        long queueMillis = compilingQueueMillisByJobId.remove(id);
+        long runMillis = TimeUnit.NANOSECONDS.toMillis(now - startNanos);
+        queueMillisByJobId.put(id, queueMillis);
+        runMillisByJobId.put(id, runMillis);
+        logger.log(Type.INFO, String.format("job waited %d ms in the queue and compiled in %d ms",
+            queueMillis, runMillis));
+      }
+    }
+  }
+
+  private static Map<String, Long> newFinishedJobMap() {
+    return new LinkedHashMap<String, Long>() {
+      @Override
+      protected boolean removeEldestEntry(Entry<String, Long> eldest) {
+        return size() > MAX_FINISHED_JOBS;
+      }
+    };
+  }
+
   private static boolean isActive(Status status) {
     return status == Status.WAITING || status == Status.COMPILING || status == Status.SERVING;
   }
@@ -97,8 +166,24 @@ class JobEventTable {
   }
 
   /**
-   * Returns an event indicating the current status of the job that's currently being compiled,
-   * or null if idle.
+   * Returns how many milliseconds the job waited in the queue, or null if it's still waiting or
+   * compiling, or if it isn't one of the most recently finished jobs.
+   */
+  synchronized Long getQueueMillis(Job job) {
+    return queueMillisByJobId.get(job.getId());
+  }
+
+  /**
+   * Returns how many milliseconds the job took to compile, or null if it didn't finish compiling,
+   * or if it isn't one of the most recently finished jobs.
+   */
+  synchronized Long getRunMillis(Job job) {
+    return runMillisByJobId.get(job.getId());
+  }
+
+  /**
+   * Returns an event indicating the current status of the job that has been compiling the
+   * longest, or null if idle.
    */
   synchronized JobEvent getCompilingJobEvent() {
     if (compilingJobIds.isEmpty()) {
@@ -20,17 +20,34 @@ import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.MinimalRebuildCacheManager;
 import com.google.gwt.dev.javac.UnitCacheSingleton;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * Executes requests to compile modules using Super Dev Mode.
  *
- * <p>Guarantees that only one thread invokes the GWT compiler at a time and reports
- * progress on waiting jobs.
+ * <p>Jobs for different outboxes may be compiled at the same time, up to the configured number
+ * of workers. Jobs for the same outbox are compiled one at a time, and a job that is still
+ * waiting is superseded by a newer job for the same outbox; it finishes with the newer job's
+ * result. A compile only starts alongside others if the heap seems to have room for it.
  *
  * <p>JobRunners are thread-safe.
  */
@@ -38,41 +55,52 @@ public class JobRunner {
 
   private final JobEventTable table;
   private final MinimalRebuildCacheManager minimalRebuildCacheManager;
-  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+  private final int workerCount;
+  private final ExecutorService executor;
+
+  /**
+   * Held for reading while compiling and for writing while clearing the caches.
+   */
+  private final ReadWriteLock compilerLock = new ReentrantReadWriteLock();
+
+  // Guarded by "this".
+  private final Map<Outbox, OutboxQueue> queuesByOutbox = Maps.newHashMap();
+  private final Deque<OutboxQueue> readyQueues = Queues.newArrayDeque();
+  private int compilingCount = 0;
 
   JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager) {
+    this(table, minimalRebuildCacheManager, 1);
+  }
+
+  JobRunner(JobEventTable table, MinimalRebuildCacheManager minimalRebuildCacheManager,
+      int workerCount) {
     this.table = table;
     this.minimalRebuildCacheManager = minimalRebuildCacheManager;
+    this.workerCount = workerCount;
+    this.executor = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+        Queues.<Runnable>newLinkedBlockingQueue(),
+        new ThreadFactoryBuilder().setNameFormat("CodeServerCompiler-%d").build());
   }
 
   /**
-   * Submits a cleaner job to be executed. (Waits for completion.)
+   * Clears the caches once no compile is running. (Waits for completion.)
    */
   void clean(final TreeLogger logger, final OutboxTable outboxTable) throws ExecutionException {
-    try {
-      TreeLogger branch = logger.branch(TreeLogger.INFO, "Cleaning disk caches.");
-      executor.submit(new CleanerJob(branch, outboxTable)).get();
-    } catch (InterruptedException e) {
-      // Allow the JVM to shutdown.
-    }
+    TreeLogger branch = logger.branch(TreeLogger.INFO, "Cleaning disk caches.");
+    callWhileHolding(compilerLock.writeLock(), new CleanerJob(branch, outboxTable));
   }
 
   /**
-   * Submits a recompile js creation job to be executed. (Waits for completion and returns JS.).
+   * Creates the recompile js for an outbox. (Waits for completion and returns JS.).
    */
   public String getRecompileJs(final TreeLogger logger, final Outbox box)
       throws ExecutionException {
-    try {
-      return executor.submit(new Callable<String>() {
-        @Override
-        public String call() throws Exception {
-          return box.getRecompileJs(logger);
-        }
-      }).get();
-    } catch (InterruptedException e) {
-      // Allow the JVM to shutdown.
-      return null;
-    }
+    return callWhileHolding(compilerLock.readLock(), new Callable<String>() {
+      @Override
+      public String call() throws Exception {
+        return box.getRecompileJs(logger);
+      }
+    });
   }
 
   /**
@@ -83,29 +111,106 @@ public class JobRunner {
       throw new IllegalStateException("job already submitted: " + job.getId());
     }
     job.onSubmitted(table);
-    executor.submit(new Runnable() {
+
+    OutboxQueue queue = queuesByOutbox.get(job.getOutbox());
+    if (queue == null) {
+      queue = new OutboxQueue();
+      queuesByOutbox.put(job.getOutbox(), queue);
+    }
+    if (queue.waitingJob != null) {
+      queue.waitingJob.getLogger().log(Type.INFO, "superseded by job: " + job.getId());
+      queue.supersededJobs.add(queue.waitingJob);
+      queue.waitingJob = job;
+    } else {
+      queue.waitingJob = job;
+      if (!queue.compiling) {
+        markReady(queue);
+      }
+    }
+    job.getLogger().log(Type.TRACE, "added job to queue");
+  }
+
+  /**
+   * Queues a worker task for an outbox that has a job waiting and none compiling.
+   */
+  private void markReady(OutboxQueue queue) {
+    readyQueues.add(queue);
+    executor.execute(new Runnable() {
       @Override
       public void run() {
+        compileNext();
+      }
+    });
+  }
+
+  /**
+   * Compiles the job that has been waiting the longest, once there is room for it.
+   */
+  private void compileNext() {
+    OutboxQueue queue;
+    Job job;
+    List<Job> supersededJobs;
+    synchronized (this) {
+      while (compilingCount > 0 && !hasMemoryForAnotherCompile()) {
         try {
-          recompile(job);
-        } catch (Throwable t) {
-          // Try to release the job so the HTTP request will return an error.
-          // (But this might not work if the same exception is thrown while
-          // sending the finished event.)
-          if (!job.isDone()) {
-            try {
-              job.onFinished(new Job.Result(null, null, t));
-              return;
-            } catch (Throwable t2) {
-              // fall through and log original exception
-            }
-          }
-          // Assume everything is broken. Last-ditch attempt to report the error.
-          t.printStackTrace();
+          wait();
+        } catch (InterruptedException e) {
+          // Only happens on shutdown; give up on the remaining jobs.
+          Thread.currentThread().interrupt();
+          return;
         }
       }
-    });
-    job.getLogger().log(Type.TRACE, "added job to queue");
+      queue = readyQueues.remove();
+      job = queue.waitingJob;
+      supersededJobs = queue.supersededJobs;
+      queue.waitingJob = null;
+      queue.supersededJobs = Lists.newArrayList();
+      queue.compiling = true;
+      compilingCount++;
+    }
+
+    compilerLock.readLock().lock();
+    try {
+      run(job);
+    } finally {
+      compilerLock.readLock().unlock();
+      synchronized (this) {
+        queue.compiling = false;
+        compilingCount--;
+        if (queue.waitingJob != null) {
+          markReady(queue);
+        }
+        notifyAll();
+      }
+    }
+
+    if (!supersededJobs.isEmpty()) {
+      Job.Result result = job.isDone() ? job.waitForResult() : new Job.Result(null, null,
+          new IllegalStateException("superseding job didn't finish: " + job.getId()));
+      for (Job supersededJob : supersededJobs) {
+        supersededJob.onFinished(result);
+      }
+    }
+  }
+
+  private static void run(Job job) {
+    try {
+      recompile(job);
+    } catch (Throwable t) {
+      // Try to release the job so the HTTP request will return an error.
+      // (But this might not work if the same exception is thrown while
+      // sending the finished event.)
+      if (!job.isDone()) {
+        try {
+          job.onFinished(new Job.Result(null, null, t));
+          return;
+        } catch (Throwable t2) {
+          // fall through and log original exception
+        }
+      }
+      // Assume everything is broken. Last-ditch attempt to report the error.
+      t.printStackTrace();
+    }
   }
 
   private static void recompile(Job job) {
@@ -113,11 +218,63 @@ public class JobRunner {
     job.getOutbox().recompile(job);
   }
 
+  /**
+   * Returns true if the free heap is at least an even share of the maximum heap per worker.
+   * Usage after the last garbage collection is used where available, since the current usage
+   * includes garbage that hasn't been collected yet.
+   */
+  private boolean hasMemoryForAnotherCompile() {
+    long maxBytes = Runtime.getRuntime().maxMemory();
+    if (maxBytes == Long.MAX_VALUE) {
+      return true;
+    }
+    return maxBytes - getUsedHeapBytes() >= maxBytes / workerCount;
+  }
+
+  private static long getUsedHeapBytes() {
+    long usedBytes = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() != MemoryType.HEAP) {
+        continue;
+      }
+      MemoryUsage usage = pool.getCollectionUsage();
+      if (usage == null) {
+        usage = pool.getUsage();
+      }
+      usedBytes += usage.getUsed();
+    }
+    return usedBytes;
+  }
+
+  /**
+   * Runs a task on the calling thread while holding the given lock, reporting failures the
+   * same way as {@link java.util.concurrent.Future#get}.
+   */
+  private static <T> T callWhileHolding(Lock lock, Callable<T> task) throws ExecutionException {
+    lock.lock();
+    try {
+      return task.call();
+    } catch (Exception e) {
+      throw new ExecutionException(e);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The jobs for one outbox that haven't finished yet.
+   */
+  private static class OutboxQueue {
+    private boolean compiling;
+    private Job waitingJob;
+    private List<Job> supersededJobs = Lists.newArrayList();
+  }
+
   /**
    * A callable for clearing both unit and minimalRebuild caches. It also forces the next recompile
    * even if no input files have changed.
    * <p>
-   * By packaging it as a callable and running it in the ExecutorService any danger of clearing
+   * It's only called while holding the compiler lock for writing, so any danger of clearing
    * caches at the same time as an active compile job is avoided.
    */
   private class CleanerJob implements Callable<Void> {
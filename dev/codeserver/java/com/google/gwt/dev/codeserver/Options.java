@@ -86,6 +86,7 @@ public class Options {
   private SourceLevel sourceLevel = SourceLevel.DEFAULT_SOURCE_LEVEL;
   private boolean failOnError = false;
   private int compileTestRecompiles = 0;
+  private int compileWorkers = 1;
   private boolean generateJsInteropExports = false;
   private WhitelistRegexFilter jsInteropExportFilter = new WhitelistRegexFilter();
   private OptionMethodNameDisplayMode.Mode methodNameDisplayMode =
@@ -123,6 +124,11 @@ public class Options {
       return false;
     }
 
+    if (compileWorkers < 1) {
+      System.err.println("Usage: -compileWorkers must be at least 1");
+      return false;
+    }
+
     if (incremental && !noPrecompile) {
       System.out.println("Turning off precompile in incremental mode.");
       noPrecompile = true;
@@ -260,6 +266,13 @@ public class Options {
     return compileTestRecompiles;
   }
 
+  /**
+   * The maximum number of modules that may be compiled at the same time.
+   */
+  int getCompileWorkers() {
+    return compileWorkers;
+  }
+
   /**
    * The hostname to put in a URL pointing to the code server.
    */
@@ -315,6 +328,7 @@ public class Options {
       registerHandler(new AllowMissingSourceDirFlag());
       registerHandler(new CompileTestFlag());
       registerHandler(new CompileTestRecompilesFlag());
+      registerHandler(new CompileWorkersFlag());
       registerHandler(new FailOnErrorFlag());
       registerHandler(new ModuleNameArgument());
       registerHandler(new NoPrecompileFlag());
@@ -518,6 +532,29 @@ public class Options {
     }
   }
 
+  private class CompileWorkersFlag extends ArgHandlerInt {
+
+    @Override
+    public String getTag() {
+      return "-compileWorkers";
+    }
+
+    @Override
+    public String[] getTagArgs() {
+      return new String[] { "count" };
+    }
+
+    @Override
+    public String getPurpose() {
+      return "The maximum number of modules to compile at the same time. (Defaults to 1.)";
+    }
+
+    @Override
+    public void setInt(int value) {
+      compileWorkers = value;
+    }
+  }
+
   private class PortFlag extends ArgHandlerInt {
 
     @Override
@@ -63,6 +63,13 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public class Recompiler {
 
+  /**
+   * Held while loading a module. ModuleDefLoader keeps its caches in static maps that aren't
+   * thread-safe, and loading clears the static class path caches, so Recompilers for different
+   * outboxes that compile at the same time load their modules one at a time.
+   */
+  private static final Object moduleLoadLock = new Object();
+
   private final OutboxDir outboxDir;
   private final LauncherDir launcherDir;
   private final MinimalRebuildCacheManager minimalRebuildCacheManager;
@@ -432,6 +439,12 @@ public class Recompiler {
    * Loads the module and configures it for SuperDevMode. (Does not restrict permutations.)
    */
   private ModuleDef loadModule(TreeLogger logger) throws UnableToCompleteException {
+    synchronized (moduleLoadLock) {
+      return loadModuleWhileLocked(logger);
+    }
+  }
+
+  private ModuleDef loadModuleWhileLocked(TreeLogger logger) throws UnableToCompleteException {
 
     // make sure we get the latest version of any modified jar
     ZipFileClassPathEntry.clearCache();
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link JobEventTable}.
+ */
+public class JobEventTableTest extends TestCase {
+
+  private final JobEventTable table = new JobEventTable();
+  private Outbox outbox;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    outbox = new Outbox("com.example.First", null, new Options(), TreeLogger.NULL) {
+      @Override
+      String getInputModuleName() {
+        return "com.example.Module";
+      }
+    };
+  }
+
+  public void testPublish_recordsLatency() {
+    Job compiled = submitJob();
+    Job superseded = submitJob();
+    assertNull(table.getQueueMillis(compiled));
+
+    compiled.onStarted(1, null);
+    assertNull(table.getQueueMillis(compiled));
+    assertNull(table.getRunMillis(compiled));
+
+    finish(compiled);
+    finish(superseded);
+    assertNotNull(table.getQueueMillis(compiled));
+    assertNotNull(table.getRunMillis(compiled));
+    assertNotNull(table.getQueueMillis(superseded));
+    assertNull(table.getRunMillis(superseded));
+  }
+
+  public void testPublish_keepsLatencyOfRecentJobsOnly() {
+    Job first = submitJob();
+    first.onStarted(1, null);
+    finish(first);
+
+    Job last = null;
+    for (int i = 0; i < 100; i++) {
+      last = submitJob();
+      last.onStarted(i + 2, null);
+      finish(last);
+    }
+
+    assertNull(table.getQueueMillis(first));
+    assertNull(table.getRunMillis(first));
+    assertNotNull(table.getQueueMillis(last));
+    assertNotNull(table.getRunMillis(last));
+  }
+
+  private Job submitJob() {
+    Job job = outbox.makeJob(ImmutableMap.<String, String>of(), TreeLogger.NULL);
+    job.onSubmitted(table);
+    return job;
+  }
+
+  private static void finish(Job job) {
+    job.onFinished(new Job.Result(null, null, new RuntimeException(job.getId())));
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.codeserver;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link JobRunner}.
+ */
+public class JobRunnerTest extends TestCase {
+
+  /**
+   * An outbox whose compiles only record that they ran, optionally waiting for a latch first.
+   */
+  private static class FakeOutbox extends Outbox {
+    private final List<String> compiledJobIds =
+        Collections.synchronizedList(Lists.<String>newArrayList());
+    private final AtomicInteger compiling = new AtomicInteger();
+    private final AtomicInteger maxCompiling = new AtomicInteger();
+    private volatile CountDownLatch started = new CountDownLatch(0);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    FakeOutbox(String id) throws UnableToCompleteException {
+      super(id, null, new Options(), TreeLogger.NULL);
+    }
+
+    @Override
+    void maybePrecompile(TreeLogger logger) {
+    }
+
+    @Override
+    String getInputModuleName() {
+      return "com.example.Module";
+    }
+
+    @Override
+    void recompile(Job job) {
+      int count = compiling.incrementAndGet();
+      synchronized (maxCompiling) {
+        maxCompiling.set(Math.max(maxCompiling.get(), count));
+      }
+      compiledJobIds.add(job.getId());
+      started.countDown();
+      try {
+        release.await(10, TimeUnit.SECONDS);
+        Thread.sleep(2);
+      } catch (InterruptedException e) {
+        throw new RuntimeException(e);
+      } finally {
+        compiling.decrementAndGet();
+      }
+      job.onFinished(new Job.Result(null, null, new RuntimeException(job.getId())));
+    }
+
+    Job makeJob() {
+      return makeJob(ImmutableMap.<String, String>of(), TreeLogger.NULL);
+    }
+  }
+
+  public void testSubmit_newerJobReplacesWaitingJob() throws Exception {
+    JobRunner runner = new JobRunner(new JobEventTable(), null, 1);
+    FakeOutbox outbox = new FakeOutbox("com.example.First");
+    outbox.started = new CountDownLatch(1);
+    outbox.release = new CountDownLatch(1);
+
+    Job running = outbox.makeJob();
+    runner.submit(running);
+    assertTrue(outbox.started.await(10, TimeUnit.SECONDS));
+
+    Job superseded = outbox.makeJob();
+    Job newest = outbox.makeJob();
+    runner.submit(superseded);
+    runner.submit(newest);
+    outbox.release.countDown();
+
+    Job.Result newestResult = newest.waitForResult();
+    assertSame(newestResult, superseded.waitForResult());
+    assertEquals(running.getId(), running.waitForResult().error.getMessage());
+    assertEquals(newest.getId(), newestResult.error.getMessage());
+    assertEquals(Lists.newArrayList(running.getId(), newest.getId()), outbox.compiledJobIds);
+  }
+
+  public void testSubmit_sameOutboxNeverCompilesConcurrently() throws Exception {
+    JobRunner runner = new JobRunner(new JobEventTable(), null, 4);
+    FakeOutbox first = new FakeOutbox("com.example.First");
+    FakeOutbox second = new FakeOutbox("com.example.Second");
+
+    List<Job> jobs = Lists.newArrayList();
+    for (int i = 0; i < 20; i++) {
+      for (FakeOutbox outbox : Lists.newArrayList(first, second)) {
+        Job job = outbox.makeJob();
+        jobs.add(job);
+        runner.submit(job);
+      }
+    }
+    for (Job job : jobs) {
+      assertFalse(job.waitForResult().isOk());
+    }
+
+    assertEquals(1, first.maxCompiling.get());
+    assertEquals(1, second.maxCompiling.get());
+  }
+}
@@ -56,6 +56,27 @@ public class SourceMapRecorder {
     }
   }
 
+  /**
+   * Generates the sourcemap for one fragment. This lets a fragment's sourcemap be written as soon
+   * as its JavaScript has been generated, so that its source info can be discarded right away.
+   *
+   * @param sourceFilePrefix the prefix that a debugger should add to the beginning of each
+   * filename in a sourcemap to determine the file's full URL.
+   * If null, filenames are relative to the sourcemap's URL.
+   */
+  public static SyntheticArtifact exec(int permutationId, int fragment,
+      JsSourceMap fragmentMap, String sourceFilePrefix) {
+    Event event = SpeedTracerLogger.start(CompilerEventType.SOURCE_MAP_RECORDER);
+    try {
+      return new SourceMapRecorder(permutationId, null, sourceFilePrefix).createArtifact(
+          new SourceMapGeneratorV3(), new ByteArrayOutputStream(), fragment, fragmentMap);
+    } catch (Exception e) {
+      throw new InternalCompilerException(e.toString(), e);
+    } finally {
+      event.end();
+    }
+  }
+
   /**
    * Generates a sourcemap for each fragment in the list, with JavaScript-to-Java
    * name mappings included.
@@ -91,26 +112,32 @@ public class SourceMapRecorder {
     SourceMapGeneratorV3 generator = new SourceMapGeneratorV3();
     int fragment = 0;
     for (JsSourceMap sourceMap : fragmentMaps) {
-      generator.reset();
-
-      if (sourceRoot != null) {
-        generator.setSourceRoot(sourceRoot);
-      }
-      addExtensions(generator, fragment);
-      addMappings(new SourceMappingWriter(generator), sourceMap);
-
-      baos.reset();
-      OutputStreamWriter out = new OutputStreamWriter(baos);
-      generator.appendTo(out, "sourceMap" + fragment);
-      out.flush();
-      toReturn.add(new SymbolMapsLinker.SourceMapArtifact(permutationId, fragment,
-          baos.toByteArray(), sourceRoot));
+      toReturn.add(createArtifact(generator, baos, fragment, sourceMap));
       fragment++;
     }
     event.end();
     return toReturn;
   }
 
+  private SyntheticArtifact createArtifact(SourceMapGeneratorV3 generator,
+      ByteArrayOutputStream baos, int fragment, JsSourceMap sourceMap)
+      throws IOException, SourceMapParseException {
+    generator.reset();
+
+    if (sourceRoot != null) {
+      generator.setSourceRoot(sourceRoot);
+    }
+    addExtensions(generator, fragment);
+    addMappings(new SourceMappingWriter(generator), sourceMap);
+
+    baos.reset();
+    OutputStreamWriter out = new OutputStreamWriter(baos);
+    generator.appendTo(out, "sourceMap" + fragment);
+    out.flush();
+    return new SymbolMapsLinker.SourceMapArtifact(permutationId, fragment,
+        baos.toByteArray(), sourceRoot);
+  }
+
   private void addExtensions(SourceMapGeneratorV3 generator, int fragment)
       throws SourceMapParseException {
     // We don't convert to a string here so that the values will be added
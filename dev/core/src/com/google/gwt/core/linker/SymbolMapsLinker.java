@@ -46,10 +46,13 @@ import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapGeneratorV3;
 import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapParseException;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.io.Closeables;
+import com.google.gwt.util.tools.shared.SymbolMapIndexFormat;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.net.URISyntaxException;
@@ -60,6 +63,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 /**
@@ -211,6 +215,13 @@ public class SymbolMapsLinker extends AbstractLinker {
    */
   public static final String STRONG_NAME_SUFFIX = ".symbolMap";
 
+  /**
+   * This value is appended to the strong name of the CompilationResult to form the filename of
+   * the symbol map index, which lets the server-side StackTraceDeobfuscator look up method symbols
+   * without parsing the whole symbol map.
+   */
+  public static final String INDEX_SUFFIX = SymbolMapIndexFormat.FILE_SUFFIX;
+
   public static String propertyMapToString(
       Map<SelectionProperty, String> propertyMap) {
     StringWriter writer = new StringWriter();
@@ -285,6 +296,10 @@ public class SymbolMapsLinker extends AbstractLinker {
 
           doEmitSymbolMap(logger, artifacts, result, out);
           out.reset();
+
+          doWriteSymbolMapIndex(logger, result, out);
+          doEmitSymbolMapIndex(logger, artifacts, result, out);
+          out.reset();
         }
       }
       writeSymbolMapsEvent.end();
@@ -430,6 +445,95 @@ public class SymbolMapsLinker extends AbstractLinker {
     artifacts.add(symbolMapArtifact);
   }
 
+  /**
+   * Override to change the manner in which the symbol map index is emitted.
+   */
+  protected void doEmitSymbolMapIndex(TreeLogger logger, ArtifactSet artifacts,
+      CompilationResult result, ByteArrayOutputStream out)
+      throws UnableToCompleteException {
+    EmittedArtifact indexArtifact = emitBytes(logger, out.toByteArray(),
+        result.getStrongName() + INDEX_SUFFIX);
+    indexArtifact.setVisibility(Visibility.LegacyDeploy);
+    artifacts.add(indexArtifact);
+  }
+
+  /**
+   * Writes the method symbols of the symbol map in a binary form that is quick to load:
+   *
+   * <pre>
+   * int magic (0x47575349), int version (1), int entry count
+   * for each entry, sorted by symbol: int length, UTF-8 symbol, int length, UTF-8 data
+   * </pre>
+   *
+   * where the data is everything after the symbol on its line in the symbol map. This is the
+   * format read by {@code com.google.gwt.core.server.SymbolMapIndex}.
+   *
+   * @param logger the logger to write to
+   * @param result the compilation result
+   * @param out    the output stream
+   * @throws UnableToCompleteException if an error occurs
+   */
+  protected void doWriteSymbolMapIndex(TreeLogger logger, CompilationResult result,
+      OutputStream out) throws UnableToCompleteException {
+    SortedMap<String, String> dataBySymbol = new TreeMap<String, String>();
+    StringBuilder sb = new StringBuilder();
+    for (SymbolData symbol : result.getSymbolMap()) {
+      if (!symbol.isMethod()) {
+        continue;
+      }
+      appendSymbolData(sb, symbol);
+      dataBySymbol.put(symbol.getSymbolName(), sb.toString());
+      sb.setLength(0);
+    }
+
+    try {
+      DataOutputStream dataOut = new DataOutputStream(out);
+      dataOut.writeInt(SymbolMapIndexFormat.MAGIC);
+      dataOut.writeInt(SymbolMapIndexFormat.VERSION);
+      dataOut.writeInt(dataBySymbol.size());
+      for (Entry<String, String> entry : dataBySymbol.entrySet()) {
+        writeUtf8(dataOut, entry.getKey());
+        writeUtf8(dataOut, entry.getValue());
+      }
+      dataOut.flush();
+    } catch (IOException e) {
+      logger.log(TreeLogger.ERROR, "Unable to write the symbol map index", e);
+      throw new UnableToCompleteException();
+    }
+  }
+
+  private static void writeUtf8(DataOutputStream out, String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Appends the fields of a symbol map line that follow the symbol name.
+   */
+  private static void appendSymbolData(StringBuilder sb, SymbolData symbol) {
+    String jsniIdent = symbol.getJsniIdent();
+    if (jsniIdent != null) {
+      sb.append(jsniIdent);
+    }
+    sb.append(',');
+    sb.append(symbol.getClassName());
+    sb.append(',');
+    String memberName = symbol.getMemberName();
+    if (memberName != null) {
+      sb.append(memberName);
+    }
+    sb.append(',');
+    String sourceUri = symbol.getSourceUri();
+    if (sourceUri != null) {
+      sb.append(sourceUri);
+    }
+    sb.append(',');
+    sb.append(symbol.getSourceLine());
+    sb.append(',');
+    sb.append(symbol.getFragmentNumber());
+  }
+
   /**
    * Override to change the format of the symbol map.
    *
@@ -453,28 +557,8 @@ public class SymbolMapsLinker extends AbstractLinker {
     char[] buf = new char[1024];
     for (SymbolData symbol : result.getSymbolMap()) {
       sb.append(symbol.getSymbolName());
-
-      sb.append(',');
-      String jsniIdent = symbol.getJsniIdent();
-      if (jsniIdent != null) {
-        sb.append(jsniIdent);
-      }
-      sb.append(',');
-      sb.append(symbol.getClassName());
-      sb.append(',');
-      String memberName = symbol.getMemberName();
-      if (memberName != null) {
-        sb.append(memberName);
-      }
-      sb.append(',');
-      String sourceUri = symbol.getSourceUri();
-      if (sourceUri != null) {
-        sb.append(sourceUri);
-      }
-      sb.append(',');
-      sb.append(symbol.getSourceLine());
       sb.append(',');
-      sb.append(symbol.getFragmentNumber());
+      appendSymbolData(sb, symbol);
       sb.append('\n');
 
       int sbLen = sb.length();
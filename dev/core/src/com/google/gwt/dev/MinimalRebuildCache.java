@@ -375,8 +375,15 @@ public class MinimalRebuildCache implements Serializable {
    * <p>
    * Should only be called once per compile, so that the "lastReachableTypeNames" list accurately
    * reflects the reachable types of the immediately previous compile.
+   * <p>
+   * The analysis covers the whole program, so it is skipped if recompiling the stale types left
+   * their control flow unchanged, which is common when only method bodies were edited.
    */
   public Set<String> computeReachableTypeNames() {
+    if (!typeEnvironment.isReachabilityAnalysisStale()) {
+      return Sets.newHashSet(lastReachableTypeNames);
+    }
+
     RapidTypeAnalyzer rapidTypeAnalyzer = new RapidTypeAnalyzer(typeEnvironment);
 
     // Artificially reach and traverse immortal codegen types since references to these may have
@@ -441,6 +448,7 @@ public class MinimalRebuildCache implements Serializable {
     }
 
     copyCollection(reachableTypeNames, lastReachableTypeNames);
+    typeEnvironment.markReachabilityAnalyzed();
     return reachableTypeNames;
   }
 
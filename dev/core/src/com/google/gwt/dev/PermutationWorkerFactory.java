@@ -23,14 +23,23 @@ import com.google.gwt.dev.util.PersistenceBackedObject;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
 
 /**
  * Represents a factory for implementations of an endpoint that will invoke
@@ -43,8 +52,16 @@ public abstract class PermutationWorkerFactory {
   /**
    * Coordinates the actions of a set of {@link PermutationWorker}s, running
    * each in its own thread.
+   * <p>
+   * All workers take permutations from a shared queue, largest first, so
+   * in-process threads and external workers each take the next permutation as
+   * soon as they are free. In-process workers share this JVM's heap, so only
+   * one of them compiles until the first in-process permutation finishes. Its
+   * peak heap usage is then taken as the cost of a permutation, and another
+   * in-process compile is only started when the heap has room for it.
    */
-  private static class Manager {
+  @VisibleForTesting
+  static class Manager {
 
     private static enum Result {
       SUCCESS, FAIL, WORKER_DEATH
@@ -55,9 +72,11 @@ public abstract class PermutationWorkerFactory {
      */
     private class WorkerThread implements Runnable {
       private final PermutationWorker worker;
+      private final boolean inProcess;
 
-      public WorkerThread(PermutationWorker worker) {
+      public WorkerThread(PermutationWorker worker, boolean inProcess) {
         this.worker = worker;
+        this.inProcess = inProcess;
       }
 
       @Override
@@ -65,26 +84,37 @@ public abstract class PermutationWorkerFactory {
         Result threadDeathResult = Result.FAIL;
         try {
           while (true) {
-            Work work = workQueue.take();
-            if (work == POISON_PILL) {
-              return;
+            if (inProcess) {
+              startInProcessCompile();
             }
-            TreeLogger logger = work.getLogger();
+            boolean compiled = false;
             try {
-              worker.compile(
-                  logger, work.getCompilerContext(), work.getPerm(), work.getResultFile());
-              logger.log(TreeLogger.DEBUG, "Successfully compiled permutation");
-              resultsQueue.put(Result.SUCCESS);
-            } catch (TransientWorkerException e) {
-              logger.log(TreeLogger.DEBUG,
-                  "Worker died, will retry Permutation", e);
-              workQueue.add(work);
-              threadDeathResult = Result.WORKER_DEATH;
-              return;
-            } catch (UnableToCompleteException e) {
-              logger.log(TreeLogger.ERROR,
-                  "Unrecoverable exception, shutting down", e);
-              return;
+              Work work = workQueue.take();
+              if (work == POISON_PILL) {
+                return;
+              }
+              TreeLogger logger = work.getLogger();
+              try {
+                worker.compile(
+                    logger, work.getCompilerContext(), work.getPerm(), work.getResultFile());
+                logger.log(TreeLogger.DEBUG, "Successfully compiled permutation");
+                compiled = true;
+                resultsQueue.put(Result.SUCCESS);
+              } catch (TransientWorkerException e) {
+                logger.log(TreeLogger.DEBUG,
+                    "Worker died, will retry Permutation", e);
+                workQueue.add(work);
+                threadDeathResult = Result.WORKER_DEATH;
+                return;
+              } catch (UnableToCompleteException e) {
+                logger.log(TreeLogger.ERROR,
+                    "Unrecoverable exception, shutting down", e);
+                return;
+              }
+            } finally {
+              if (inProcess) {
+                finishInProcessCompile(compiled);
+              }
             }
           }
         } catch (InterruptedException e) {
@@ -99,15 +129,69 @@ public abstract class PermutationWorkerFactory {
       }
     }
 
-    private static final Work POISON_PILL = new Work(null, null, null, null);
+    private static final Work POISON_PILL = new Work(null, null, null, null, -1);
+
+    /**
+     * How often a waiting in-process worker checks the heap again, since memory
+     * can be freed by a garbage collection as well as by a finished compile.
+     */
+    private static final long HEAP_RECHECK_MS = 1000;
 
     public static void run(TreeLogger logger, List<Work> work,
-        List<PermutationWorker> workers) throws UnableToCompleteException {
-      new Manager().doRun(logger, work, workers);
+        List<PermutationWorker> workers, Set<PermutationWorker> inProcessWorkers)
+        throws UnableToCompleteException {
+      new Manager().doRun(logger, work, workers, inProcessWorkers);
     }
 
     /**
-     * The queue of work to do.
+     * Returns the heap in use after the last garbage collection where available,
+     * since the current usage includes garbage that hasn't been collected yet.
+     */
+    @VisibleForTesting
+    long getUsedHeapBytes() {
+      long usedBytes = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() != MemoryType.HEAP) {
+          continue;
+        }
+        MemoryUsage usage = pool.getCollectionUsage();
+        if (usage == null) {
+          usage = pool.getUsage();
+        }
+        usedBytes += usage.getUsed();
+      }
+      return usedBytes;
+    }
+
+    /**
+     * Returns the sum of the heap pools' peak usage since
+     * {@link #resetPeakHeapUsage}. This overestimates the actual peak, since the
+     * pools don't all peak at the same time.
+     */
+    @VisibleForTesting
+    long getPeakHeapBytes() {
+      long peakBytes = 0;
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          peakBytes += pool.getPeakUsage().getUsed();
+        }
+      }
+      return peakBytes;
+    }
+
+    @VisibleForTesting
+    void resetPeakHeapUsage() {
+      for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+        if (pool.getType() == MemoryType.HEAP) {
+          pool.resetPeakUsage();
+        }
+      }
+    }
+
+    private TreeLogger logger;
+
+    /**
+     * The queue of work to do, largest permutations first.
      */
     BlockingQueue<Work> workQueue;
 
@@ -116,20 +200,36 @@ public abstract class PermutationWorkerFactory {
      */
     BlockingQueue<Result> resultsQueue;
 
-    private Manager() {
+    // Guarded by "this".
+    private long baselineHeapBytes;
+    private long heapBytesPerCompile;
+    private int inProcessCompileCount;
+
+    @VisibleForTesting
+    Manager() {
+    }
+
+    @VisibleForTesting
+    long getMaxHeapBytes() {
+      return Runtime.getRuntime().maxMemory();
     }
 
-    private void doRun(TreeLogger logger, List<Work> work,
-        List<PermutationWorker> workers) throws UnableToCompleteException {
+    @VisibleForTesting
+    void doRun(TreeLogger logger, List<Work> work,
+        List<PermutationWorker> workers, Set<PermutationWorker> inProcessWorkers)
+        throws UnableToCompleteException {
 
       // Initialize state.
-      workQueue = new LinkedBlockingQueue<Work>(work);
+      this.logger = logger;
+      workQueue = new PriorityBlockingQueue<Work>(Math.max(1, work.size()), Work.LARGEST_FIRST);
+      workQueue.addAll(work);
       resultsQueue = new LinkedBlockingQueue<Result>();
 
       List<Thread> threads = new ArrayList<Thread>(workers.size());
       try {
         for (PermutationWorker worker : workers) {
-          Thread thread = new Thread(new WorkerThread(worker), worker.getName());
+          Thread thread = new Thread(
+              new WorkerThread(worker, inProcessWorkers.contains(worker)), worker.getName());
           threads.add(thread);
           thread.start();
         }
@@ -176,33 +276,105 @@ public abstract class PermutationWorkerFactory {
         }
       }
     }
+
+    /**
+     * Waits until the heap has room for another in-process compile. The first
+     * in-process compile runs by itself so that its heap usage can be measured.
+     */
+    private synchronized void startInProcessCompile() throws InterruptedException {
+      while (inProcessCompileCount > 0 && !hasHeapForAnotherCompile()) {
+        wait(HEAP_RECHECK_MS);
+      }
+      if (heapBytesPerCompile == 0) {
+        baselineHeapBytes = getUsedHeapBytes();
+        resetPeakHeapUsage();
+      }
+      inProcessCompileCount++;
+    }
+
+    private synchronized void finishInProcessCompile(boolean compiled) {
+      if (compiled && heapBytesPerCompile == 0) {
+        heapBytesPerCompile = Math.max(1, getPeakHeapBytes() - baselineHeapBytes);
+        if (logger.isLoggable(TreeLogger.DEBUG)) {
+          logger.log(TreeLogger.DEBUG, "Estimated heap per in-process permutation: "
+              + heapBytesPerCompile / (1024 * 1024) + " MB");
+        }
+      }
+      inProcessCompileCount--;
+      notifyAll();
+    }
+
+    /**
+     * Returns true if the heap left after the compiles already running, and the
+     * heap that is actually free, are each enough for one more compile.
+     */
+    private boolean hasHeapForAnotherCompile() {
+      if (heapBytesPerCompile == 0) {
+        return false;
+      }
+      long maxBytes = getMaxHeapBytes();
+      if (maxBytes == Long.MAX_VALUE) {
+        return true;
+      }
+      return maxBytes - baselineHeapBytes >= heapBytesPerCompile * (inProcessCompileCount + 1)
+          && maxBytes - getUsedHeapBytes() >= heapBytesPerCompile;
+    }
   }
 
   /**
    * Represents work to do.
    */
-  private static class Work {
+  @VisibleForTesting
+  static class Work {
+
+    /**
+     * Orders work by decreasing estimated size, so that the largest
+     * permutations don't end up running by themselves at the end of the
+     * compile. Ties keep the original order.
+     */
+    private static final Comparator<Work> LARGEST_FIRST = new Comparator<Work>() {
+      @Override
+      public int compare(Work a, Work b) {
+        int result = Integer.compare(b.getEstimatedSize(), a.getEstimatedSize());
+        return result != 0 ? result : Integer.compare(a.getOrder(), b.getOrder());
+      }
+    };
+
     private final TreeLogger logger;
     private final Permutation perm;
     private final PersistenceBackedObject<PermutationResult> resultFile;
     private final CompilerContext compilerContext;
+    private final int order;
+    private final int estimatedSize;
 
     public Work(TreeLogger logger, CompilerContext compilerContext, Permutation perm,
-        PersistenceBackedObject<PermutationResult> resultFile) {
+        PersistenceBackedObject<PermutationResult> resultFile, int order) {
       this.logger = logger;
       this.compilerContext = compilerContext;
       this.perm = perm;
       this.resultFile = resultFile;
+      this.order = order;
+      // A permutation that soft permutations were collapsed into has to keep the
+      // code for each of them, so it is usually bigger.
+      this.estimatedSize = perm == null ? 0 : perm.getPropertyAndBindingInfos().size();
     }
 
     public CompilerContext getCompilerContext() {
       return compilerContext;
     }
 
+    public int getEstimatedSize() {
+      return estimatedSize;
+    }
+
     public TreeLogger getLogger() {
       return logger;
     }
 
+    public int getOrder() {
+      return order;
+    }
+
     public Permutation getPerm() {
       return perm;
     }
@@ -245,16 +417,18 @@ public abstract class PermutationWorkerFactory {
         logger.log(TreeLogger.DEBUG,
             "Creating worker permutation " + perm.getId() + " of " + permutations.length);
       }
-      work.add(new Work(logger, compilerContext, perm, resultFiles.get(i)));
+      work.add(new Work(logger, compilerContext, perm, resultFiles.get(i), i));
     }
 
     // Create the workers.
     List<PermutationWorker> workers = new ArrayList<PermutationWorker>();
+    Set<PermutationWorker> inProcessWorkers = Sets.newIdentityHashSet();
     try {
-      createWorkers(logger, precompilation.getUnifiedAst(), work.size(), localWorkers, workers);
+      createWorkers(logger, precompilation.getUnifiedAst(), work.size(), localWorkers, workers,
+          inProcessWorkers);
 
       // Get it done!
-      Manager.run(logger, work, workers);
+      Manager.run(logger, work, workers, inProcessWorkers);
     } finally {
       Throwable caught = null;
       for (PermutationWorker worker : workers) {
@@ -330,8 +504,8 @@ public abstract class PermutationWorkerFactory {
    * Create as many workers as possible to service the Permutations.
    */
   private static void createWorkers(TreeLogger logger, UnifiedAst unifiedAst,
-      int workersNeeded, int localWorkers, List<PermutationWorker> workers)
-      throws UnableToCompleteException {
+      int workersNeeded, int localWorkers, List<PermutationWorker> workers,
+      Set<PermutationWorker> inProcessWorkers) throws UnableToCompleteException {
     if (localWorkers <= WORKERS_AUTO) {
       // TODO: something smarter?
       localWorkers = 1;
@@ -352,6 +526,9 @@ public abstract class PermutationWorkerFactory {
           unifiedAst, wanted);
 
       workers.addAll(newWorkers);
+      if (factory.isInProcess()) {
+        inProcessWorkers.addAll(newWorkers);
+      }
       workersNeeded -= newWorkers.size();
       if (factory.isLocal()) {
         localWorkers -= newWorkers.size();
@@ -381,4 +558,13 @@ public abstract class PermutationWorkerFactory {
    * per-permutation work being performed on a remote system.
    */
   public abstract boolean isLocal();
+
+  /**
+   * Indicates if the PermutationWorkers created by the factory compile in this
+   * JVM and share its heap. In-process workers only start a permutation when
+   * the heap seems to have room for it. Returns false by default.
+   */
+  public boolean isInProcess() {
+    return false;
+  }
 }
@@ -27,22 +27,93 @@ import com.google.gwt.dev.cfg.PropertyCombinations;
 import com.google.gwt.dev.cfg.Rule;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.StandardGeneratorContext;
-import com.google.gwt.dev.jdt.RebindOracle;
 import com.google.gwt.dev.jdt.RebindPermutationOracle;
 import com.google.gwt.dev.jjs.PrecompilationContext;
 import com.google.gwt.dev.shell.StandardRebindOracle;
+import com.google.gwt.dev.util.log.BufferingTreeLogger;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
+import java.util.Collection;
 import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.SortedSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Creates the context encapsulating necessary data for precompile.
  */
 class PrecompilationContextCreator {
+
+  /**
+   * Whether a deferred binding answer is reused in the permutations that have the same values of
+   * the selection properties that were read to find it, instead of running the rules and
+   * generators again for each permutation. Enable with {@code -Dgwt.shareRebindAnswers=true}.
+   */
+  @VisibleForTesting
+  static boolean shareRebindAnswers =
+      Boolean.parseBoolean(System.getProperty("gwt.shareRebindAnswers"));
+
+  /**
+   * Whether independent deferred binding requests are answered concurrently ahead of time. Follows
+   * {@link StandardGeneratorContext#CONCURRENT_GENERATORS}.
+   */
+  @VisibleForTesting
+  static boolean concurrentPrefetch = StandardGeneratorContext.CONCURRENT_GENERATORS;
+
+  /**
+   * A deferred binding answer and the values of the selection properties that were read to find
+   * it. It is the answer in every permutation with the same values.
+   */
+  private static class PropertyDependentAnswer {
+    private final Map<String, String> selectionPropertyValues;
+    private final String resultTypeName;
+
+    PropertyDependentAnswer(Map<String, String> selectionPropertyValues, String resultTypeName) {
+      this.selectionPropertyValues = selectionPropertyValues;
+      this.resultTypeName = resultTypeName;
+    }
+
+    boolean holdsFor(BindingProperties bindingProperties) {
+      for (Map.Entry<String, String> entry : selectionPropertyValues.entrySet()) {
+        if (!Objects.equals(entry.getValue(), bindingProperties.getString(entry.getKey(), null))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Runs the generators of independent deferred binding requests when
+   * {@link #concurrentPrefetch} is set.
+   */
+  private static final ThreadPoolExecutor generatorExecutor = createGeneratorExecutor();
+
+  private static ThreadPoolExecutor createGeneratorExecutor() {
+    int threads = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+        Queues.<Runnable>newLinkedBlockingQueue(),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("Generator-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   static PrecompilationContext create(CompilerContext compilerContext,
       final CompilationState compilationState, PropertyCombinations propertyCombinations,
       String[] entryPoints, String[] additionalRootTypes,
@@ -51,7 +122,10 @@ class PrecompilationContextCreator {
     ModuleDef module = compilerContext.getModule();
     final ArtifactSet generatorArtifacts = new ArtifactSet();
     final Permutation[] permutations = new Permutation[propertyCombinations.size()];
-    final RebindOracle[] rebindOracles = new RebindOracle[propertyCombinations.size()];
+    final StandardRebindOracle[] rebindOracles =
+        new StandardRebindOracle[propertyCombinations.size()];
+    final BindingProperties[] permutationProperties =
+        new BindingProperties[propertyCombinations.size()];
     final StandardGeneratorContext generatorContext =
         new StandardGeneratorContext(compilerContext, compilationState, generatorArtifacts, true);
     BindingProperty[] orderedProperties = propertyCombinations.getOrderedProperties();
@@ -63,10 +137,22 @@ class PrecompilationContextCreator {
       rebindOracles[i] =
           new StandardRebindOracle(bindingProperties.toPropertyOracle(), rules, generatorContext);
       permutations[i] = new Permutation(i, bindingProperties);
+      permutationProperties[i] = bindingProperties;
     }
 
     RebindPermutationOracle rebindPermutationOracle =
         new RebindPermutationOracle() {
+          /**
+           * The requests that have been answered or attempted ahead of time.
+           */
+          private final Set<String> prefetchedTypeNames = Sets.newHashSet();
+
+          /**
+           * The answers found so far for each request, with the properties they depend on.
+           */
+          private final Map<String, List<PropertyDependentAnswer>> answersByTypeName =
+              Maps.newHashMap();
+
           @Override
           public void clear() {
             generatorContext.clear();
@@ -81,17 +167,126 @@ class PrecompilationContextCreator {
 
             Set<String> answers = Sets.newHashSet();
             Event getAllRebindsEvent = SpeedTracerLogger.start(CompilerEventType.GET_ALL_REBINDS);
+            List<PropertyDependentAnswer> dependentAnswers = answersByTypeName.get(requestTypeName);
+            if (dependentAnswers == null) {
+              dependentAnswers = Lists.newArrayList();
+              answersByTypeName.put(requestTypeName, dependentAnswers);
+            }
+            String[] resultTypeNames =
+                rebindAllPermutations(logger, requestTypeName, null, dependentAnswers);
             for (int i = 0; i < permutations.length; ++i) {
-              String resultTypeName = rebindOracles[i].rebind(logger, requestTypeName);
-              answers.add(resultTypeName);
+              answers.add(resultTypeNames[i]);
               // Record the correct answer into each permutation.
-              permutations[i].putRebindAnswer(requestTypeName, resultTypeName);
+              rebindOracles[i].putRebindAnswer(requestTypeName, resultTypeNames[i]);
+              permutations[i].putRebindAnswer(requestTypeName, resultTypeNames[i]);
             }
             String[] result = answers.toArray(String[]::new);
             getAllRebindsEvent.end();
+            prefetchedTypeNames.add(requestTypeName);
             return result;
           }
 
+          @Override
+          public void prefetchRebindAnswers(TreeLogger logger, Collection<String> sourceTypeNames)
+              throws UnableToCompleteException {
+            if (!concurrentPrefetch) {
+              return;
+            }
+            List<String> requestTypeNames = Lists.newArrayList();
+            for (String requestTypeName : sourceTypeNames) {
+              if (prefetchedTypeNames.add(requestTypeName)) {
+                requestTypeNames.add(requestTypeName);
+              }
+            }
+            if (requestTypeNames.size() < 2) {
+              // Nothing to run concurrently; the request is answered when it is reached.
+              return;
+            }
+
+            Event getAllRebindsEvent = SpeedTracerLogger.start(CompilerEventType.GET_ALL_REBINDS,
+                "concurrent requests", String.valueOf(requestTypeNames.size()));
+            List<StandardGeneratorContext> forks = Lists.newArrayList();
+            List<BufferingTreeLogger> buffers = Lists.newArrayList();
+            List<List<PropertyDependentAnswer>> dependentAnswerLists = Lists.newArrayList();
+            List<Future<String[]>> futures = Lists.newArrayList();
+            for (final String requestTypeName : requestTypeNames) {
+              final StandardGeneratorContext fork = generatorContext.fork();
+              final BufferingTreeLogger buffer = new BufferingTreeLogger(logger);
+              final List<PropertyDependentAnswer> dependentAnswers = Lists.newArrayList();
+              forks.add(fork);
+              buffers.add(buffer);
+              dependentAnswerLists.add(dependentAnswers);
+              futures.add(generatorExecutor.submit(new Callable<String[]>() {
+                @Override
+                public String[] call() {
+                  try {
+                    return rebindAllPermutations(buffer, requestTypeName, fork, dependentAnswers);
+                  } catch (UnableToCompleteException | RuntimeException e) {
+                    // Left to getAllPossibleRebindAnswers(), which reports the problem.
+                    return null;
+                  }
+                }
+              }));
+            }
+
+            List<String[]> results = Lists.newArrayList();
+            for (Future<String[]> future : futures) {
+              try {
+                results.add(Uninterruptibles.getUninterruptibly(future));
+              } catch (ExecutionException e) {
+                // Only errors get here.
+                throw (Error) e.getCause();
+              }
+            }
+
+            for (StandardGeneratorContext fork : forks) {
+              if (fork.collidedWithOtherFork()) {
+                // Which generator created the shared types depended on scheduling. Leave the
+                // whole wave to getAllPossibleRebindAnswers(), which runs it in program order.
+                // (Other forks may have been affected by which generator won, too.)
+                for (StandardGeneratorContext discarded : forks) {
+                  generatorContext.discard(discarded);
+                }
+                logger.log(TreeLogger.DEBUG, "Generators for " + requestTypeNames.size()
+                    + " requests created the same types; running them one at a time");
+                getAllRebindsEvent.end();
+                return;
+              }
+            }
+
+            // Merge in request order, so that the output doesn't depend on scheduling.
+            for (int i = 0; i < requestTypeNames.size(); ++i) {
+              String requestTypeName = requestTypeNames.get(i);
+              String[] resultTypeNames = results.get(i);
+              if (resultTypeNames == null) {
+                generatorContext.discard(forks.get(i));
+                continue;
+              }
+              generatorContext.merge(forks.get(i));
+              answersByTypeName.put(requestTypeName, dependentAnswerLists.get(i));
+              buffers.get(i).replay(logger.branch(TreeLogger.DEBUG,
+                  "Computing all possible rebind results for '" + requestTypeName + "'", null));
+              for (int j = 0; j < permutations.length; ++j) {
+                rebindOracles[j].putRebindAnswer(requestTypeName, resultTypeNames[j]);
+                permutations[j].putRebindAnswer(requestTypeName, resultTypeNames[j]);
+              }
+            }
+            generatorContext.finish(logger);
+            getAllRebindsEvent.end();
+          }
+
+          @Override
+          public SortedSet<String> getPropertiesReadForRebind(String requestTypeName) {
+            SortedSet<String> propertyNames = Sets.newTreeSet();
+            List<PropertyDependentAnswer> dependentAnswers = answersByTypeName.get(requestTypeName);
+            if (dependentAnswers != null) {
+              for (PropertyDependentAnswer answer : dependentAnswers) {
+                propertyNames.addAll(answer.selectionPropertyValues.keySet());
+              }
+            }
+            return propertyNames;
+          }
+
           @Override
           public CompilationState getCompilationState() {
             return compilationState;
@@ -101,6 +296,49 @@ class PrecompilationContextCreator {
           public StandardGeneratorContext getGeneratorContext() {
             return generatorContext;
           }
+
+          /**
+           * Returns the answers for {@code requestTypeName} in each permutation, adding the ones
+           * that were found to {@code dependentAnswers}. With {@link #shareRebindAnswers}, a
+           * permutation reuses an answer in {@code dependentAnswers} if it has the same values of
+           * the properties that answer depends on. Runs the rebinds in {@code fork} if it isn't
+           * null, without recording the answers in the rebind oracles.
+           */
+          private String[] rebindAllPermutations(TreeLogger logger, String requestTypeName,
+              StandardGeneratorContext fork, List<PropertyDependentAnswer> dependentAnswers)
+              throws UnableToCompleteException {
+            String[] resultTypeNames = new String[permutations.length];
+            int rebinds = 0;
+            for (int i = 0; i < permutations.length; ++i) {
+              PropertyDependentAnswer answer = null;
+              for (PropertyDependentAnswer candidate : dependentAnswers) {
+                if (candidate.holdsFor(permutationProperties[i])) {
+                  answer = candidate;
+                  break;
+                }
+              }
+              if (answer != null && shareRebindAnswers) {
+                resultTypeNames[i] = answer.resultTypeName;
+                continue;
+              }
+              Map<String, String> selectionPropertyValues = Maps.newTreeMap();
+              resultTypeNames[i] = fork == null
+                  ? rebindOracles[i].rebindRecordingProperties(logger, requestTypeName,
+                      selectionPropertyValues)
+                  : rebindOracles[i].rebindInFork(logger, requestTypeName, fork,
+                      selectionPropertyValues);
+              rebinds++;
+              if (answer == null) {
+                dependentAnswers.add(
+                    new PropertyDependentAnswer(selectionPropertyValues, resultTypeNames[i]));
+              }
+            }
+            if (rebinds < permutations.length && logger.isLoggable(TreeLogger.DEBUG)) {
+              logger.log(TreeLogger.DEBUG, "Answered " + permutations.length
+                  + " permutations with " + rebinds + " rebinds");
+            }
+            return resultTypeNames;
+          }
         };
 
     return new PrecompilationContext(rebindPermutationOracle, entryPoints, additionalRootTypes,
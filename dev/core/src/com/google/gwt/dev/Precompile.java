@@ -23,11 +23,13 @@ import com.google.gwt.core.ext.linker.PrecompilationMetricsArtifact;
 import com.google.gwt.core.ext.linker.impl.StandardLinkerContext;
 import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.google.gwt.dev.CompileTaskRunner.CompileTask;
+import com.google.gwt.dev.cfg.BindingProperty;
 import com.google.gwt.dev.cfg.ModuleDef;
 import com.google.gwt.dev.cfg.ModuleDefLoader;
 import com.google.gwt.dev.cfg.PropertyCombinations;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.CompilationUnit;
+import com.google.gwt.dev.jdt.RebindPermutationOracle;
 import com.google.gwt.dev.jjs.JavaToJavaScriptCompiler;
 import com.google.gwt.dev.jjs.PrecompilationContext;
 import com.google.gwt.dev.jjs.UnifiedAst;
@@ -37,6 +39,7 @@ import com.google.gwt.dev.util.collect.Lists;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.collect.SortedSetMultimap;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -48,12 +51,15 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Performs the first phase of compilation, generating the set of permutations
@@ -282,6 +288,9 @@ public class Precompile {
 
       permutations.clear();
       permutations.addAll(merged.values());
+      logPermutationMerging(logger, propertyCombinations, permutations,
+          precompilationContext.getRebindPermutationOracle(), liveRebindRequests,
+          unifiedAst.getPropertyRequests());
 
       if (jjsOptions.isCompilerMetricsEnabled()) {
         int[] ids = new int[propertyCombinations.size()];
@@ -313,6 +322,61 @@ public class Precompile {
     throw new UnableToCompleteException();
   }
 
+  /**
+   * Logs how many property combinations were merged into fewer permutations because their live
+   * deferred binding answers are the same, and which multi-valued binding properties the compiled
+   * code doesn't depend on. A property is only considered to matter if it was read while finding
+   * an answer that differs between permutations, or is read by a live System.getProperty() call.
+   * Logs at INFO only if some combinations were merged, otherwise at DEBUG.
+   */
+  private static void logPermutationMerging(TreeLogger logger,
+      PropertyCombinations propertyCombinations, List<Permutation> permutations,
+      RebindPermutationOracle rebindPermutationOracle, SortedSet<String> liveRebindRequests,
+      SortedSet<String> propertyRequests) {
+    boolean merged = permutations.size() < propertyCombinations.size();
+    TreeLogger.Type logLevel = merged ? TreeLogger.INFO : TreeLogger.DEBUG;
+    if (!logger.isLoggable(logLevel) || propertyCombinations.size() < 2) {
+      return;
+    }
+    List<PropertyAndBindingInfo> infos = new ArrayList<PropertyAndBindingInfo>();
+    for (Permutation permutation : permutations) {
+      infos.addAll(permutation.getPropertyAndBindingInfos());
+    }
+
+    SortedSet<String> usedProperties = new TreeSet<String>(propertyRequests);
+    SortedSetMultimap<String, String> answersByRequest =
+        PropertyAndBindingInfo.getPossibleReboundTypesByRequestType(infos, liveRebindRequests);
+    for (String requestTypeName : answersByRequest.keySet()) {
+      if (answersByRequest.get(requestTypeName).size() > 1) {
+        usedProperties.addAll(rebindPermutationOracle.getPropertiesReadForRebind(requestTypeName));
+      }
+    }
+    SortedSet<String> unusedProperties = new TreeSet<String>();
+    for (BindingProperty property : propertyCombinations.getOrderedProperties()) {
+      Set<String> values = new HashSet<String>();
+      for (PropertyAndBindingInfo info : infos) {
+        values.add(info.getPropertyValue(property.getName()));
+      }
+      if (values.size() > 1 && !usedProperties.contains(property.getName())) {
+        unusedProperties.add(property.getName());
+      }
+    }
+
+    if (merged) {
+      logger.log(TreeLogger.INFO, "Compiling " + permutations.size() + " permutations for "
+          + propertyCombinations.size() + " property combinations; combinations with the same "
+          + "deferred binding answers share a permutation");
+    }
+    if (!unusedProperties.isEmpty()) {
+      logger.log(logLevel, "The compiled code does not depend on binding properties "
+          + unusedProperties + "; permutations that differ only in them share compiled code");
+    }
+    if (logger.isLoggable(TreeLogger.DEBUG)) {
+      logger.log(TreeLogger.DEBUG, "The compiled code depends on binding properties "
+          + usedProperties);
+    }
+  }
+
   /**
    * This merges Permutations that can be considered equivalent by considering
    * their collapsed properties. The list passed into this method may have
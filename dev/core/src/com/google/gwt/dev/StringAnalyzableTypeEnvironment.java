@@ -66,6 +66,12 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
   }
 
   private final IntMultimap calleeMethodIdsByCallerMethodId = new IntMultimap();
+  /**
+   * The control flow indexes of types as they were before being re-recorded, for the types that
+   * were re-recorded since reachability was last analyzed.
+   */
+  private final Map<Integer, List<IntArrayList>> controlFlowBeforeRecordingByTypeId =
+      Maps.newHashMap();
   private final OpenIntIntHashMap enclosingTypeIdByMethodId = new OpenIntIntHashMap();
   private final IntArrayList entryMethodIds = new IntArrayList();
   private final IntMultimap exportedMethodIdsByTypeId = new IntMultimap();
@@ -75,6 +81,11 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
   private final List<String> methodNamesById = Lists.newArrayList();
   private final IntMultimap overidingMethodIdsByOverriddenMethodId = new IntMultimap();
   private final IntHashMultimap overriddenMethodIdsByOverridingMethodId = new IntHashMultimap();
+  /**
+   * Whether the last reachability analysis still holds, as far as changes other than re-recorded
+   * types go.
+   */
+  private boolean reachabilityAnalysisCurrent;
   private final IntHashMultimap staticallyReferencedTypeIdsByMethodId = new IntHashMultimap();
   private final Map<String, Integer> typeIdsByName = Maps.newHashMap();
   private final OpenIntIntHashMap typeIdsWithExportedStaticReferences = new OpenIntIntHashMap();
@@ -113,25 +124,55 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
     return instantiatedTypeIdsByMethodId.get(inMethodId);
   }
 
+  /**
+   * Returns true if the reachable types might differ from those found by the last analysis, that
+   * is, if the analysis has never run, the entry methods changed, or the control flow recorded for
+   * some type is no longer the same as before.
+   */
+  public boolean isReachabilityAnalysisStale() {
+    if (!reachabilityAnalysisCurrent) {
+      return true;
+    }
+    for (Map.Entry<Integer, List<IntArrayList>> entry :
+        controlFlowBeforeRecordingByTypeId.entrySet()) {
+      if (!entry.getValue().equals(captureControlFlowIndexes(entry.getKey()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Records that the reachable types were just computed from the current contents.
+   */
+  public void markReachabilityAnalyzed() {
+    controlFlowBeforeRecordingByTypeId.clear();
+    reachabilityAnalysisCurrent = true;
+  }
+
   public void recordExportedMethodInType(String methodName, String typeName) {
     int typeId = getTypeIdByName(typeName);
     int methodId = getMethodIdByName(methodName);
     exportedMethodIdsByTypeId.put(typeId, methodId);
+    noteChangeInType(typeId);
   }
 
   public void recordExportedStaticReferenceInType(String typeName) {
     int typeId = getTypeIdByName(typeName);
     typeIdsWithExportedStaticReferences.put(typeId, typeId);
+    noteChangeInType(typeId);
   }
 
   public void recordMethodCallsMethod(String callerMethodName, String calleeMethodName) {
-    calleeMethodIdsByCallerMethodId.put(getMethodIdByName(callerMethodName),
-        getMethodIdByName(calleeMethodName));
+    int callerMethodId = getMethodIdByName(callerMethodName);
+    calleeMethodIdsByCallerMethodId.put(callerMethodId, getMethodIdByName(calleeMethodName));
+    noteChangeInMethod(callerMethodId);
   }
 
   public void recordMethodInstantiatesType(String methodName, String instantiatedTypeName) {
-    instantiatedTypeIdsByMethodId.put(getMethodIdByName(methodName),
-        getTypeIdByName(instantiatedTypeName));
+    int methodId = getMethodIdByName(methodName);
+    instantiatedTypeIdsByMethodId.put(methodId, getTypeIdByName(instantiatedTypeName));
+    noteChangeInMethod(methodId);
   }
 
   public void recordMethodOverridesMethod(String overriderMethodName, String overriddenMethodName) {
@@ -139,11 +180,13 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
     int overriddenMethodId = getMethodIdByName(overriddenMethodName);
     overriddenMethodIdsByOverridingMethodId.put(overriderMethodId, overriddenMethodId);
     overidingMethodIdsByOverriddenMethodId.put(overriddenMethodId, overriderMethodId);
+    noteChangeInMethod(overriderMethodId);
   }
 
   public void recordStaticReferenceInMethod(String typeName, String methodName) {
-    staticallyReferencedTypeIdsByMethodId.put(getMethodIdByName(methodName),
-        getTypeIdByName(typeName));
+    int methodId = getMethodIdByName(methodName);
+    staticallyReferencedTypeIdsByMethodId.put(methodId, getTypeIdByName(typeName));
+    noteChangeInMethod(methodId);
   }
 
   public void recordTypeEnclosesMethod(String enclosingTypeName, String nestedMethodName) {
@@ -151,6 +194,7 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
     int nestedMethodId = getMethodIdByName(nestedMethodName);
     memberMethodIdsByTypeId.put(enclosingTypeId, nestedMethodId);
     enclosingTypeIdByMethodId.put(nestedMethodId, enclosingTypeId);
+    noteChangeInType(enclosingTypeId);
   }
 
   /**
@@ -158,6 +202,11 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
    */
   public void removeControlFlowIndexesFor(String typeName) {
     int typeId = getTypeIdByName(typeName);
+    if (!controlFlowBeforeRecordingByTypeId.containsKey(typeId)) {
+      // Remember what the type looked like, so that re-recording the same control flow doesn't
+      // invalidate the last reachability analysis.
+      controlFlowBeforeRecordingByTypeId.put(typeId, captureControlFlowIndexes(typeId));
+    }
     exportedMethodIdsByTypeId.remove(typeId);
     typeIdsWithExportedStaticReferences.removeKey(typeId);
 
@@ -178,7 +227,7 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
         for (int j = 0; j < overriddenMethodIds.size(); j++) {
           int overriddenMethodId = overriddenMethodIds.get(j);
           while (overidingMethodIdsByOverriddenMethodId
-              .remove(memberMethodId, overriddenMethodId)) {
+              .remove(overriddenMethodId, memberMethodId)) {
             // Remove all instances by repeating remove one.
           }
         }
@@ -188,10 +237,14 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
   }
 
   public void setEntryMethodNames(List<String> entryMethodNames) {
+    IntArrayList previousEntryMethodIds = entryMethodIds.copy();
     this.entryMethodIds.clear();
     for (String entryMethodName : entryMethodNames) {
       this.entryMethodIds.add(getMethodIdByName(entryMethodName));
     }
+    if (!entryMethodIds.equals(previousEntryMethodIds)) {
+      reachabilityAnalysisCurrent = false;
+    }
   }
 
   void copyFrom(StringAnalyzableTypeEnvironment that) {
@@ -214,6 +267,9 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
     copyCollection(that.entryMethodIds, this.entryMethodIds);
     copyCollection(that.methodNamesById, this.methodNamesById);
     copyCollection(that.typeNamesById, this.typeNamesById);
+
+    copyMap(that.controlFlowBeforeRecordingByTypeId, this.controlFlowBeforeRecordingByTypeId);
+    this.reachabilityAnalysisCurrent = that.reachabilityAnalysisCurrent;
   }
 
   int getEnclosingTypeId(int memberMethodId) {
@@ -260,6 +316,53 @@ public class StringAnalyzableTypeEnvironment implements AnalyzableTypeEnvironmen
     return typeNamesById.get(typeId);
   }
 
+  /**
+   * Returns a copy of everything recorded while processing the given type, in a form that can be
+   * compared with {@code equals}.
+   */
+  private List<IntArrayList> captureControlFlowIndexes(int typeId) {
+    List<IntArrayList> indexes = Lists.newArrayList();
+    indexes.add(copyOf(exportedMethodIdsByTypeId.get(typeId)));
+    IntArrayList exportedStaticReference = new IntArrayList();
+    if (typeIdsWithExportedStaticReferences.containsKey(typeId)) {
+      exportedStaticReference.add(typeId);
+    }
+    indexes.add(exportedStaticReference);
+
+    IntArrayList memberMethodIds = copyOf(memberMethodIdsByTypeId.get(typeId));
+    indexes.add(memberMethodIds);
+    for (int i = 0; i < memberMethodIds.size(); i++) {
+      int memberMethodId = memberMethodIds.get(i);
+      indexes.add(copyOf(calleeMethodIdsByCallerMethodId.get(memberMethodId)));
+      indexes.add(copyOf(instantiatedTypeIdsByMethodId.get(memberMethodId)));
+      indexes.add(copyOf(overriddenMethodIdsByOverridingMethodId.get(memberMethodId)));
+      indexes.add(copyOf(staticallyReferencedTypeIdsByMethodId.get(memberMethodId)));
+    }
+    return indexes;
+  }
+
+  private static IntArrayList copyOf(IntArrayList list) {
+    return list == null ? new IntArrayList() : list.copy();
+  }
+
+  private void noteChangeInMethod(int methodId) {
+    if (!enclosingTypeIdByMethodId.containsKey(methodId)) {
+      reachabilityAnalysisCurrent = false;
+      return;
+    }
+    noteChangeInType(enclosingTypeIdByMethodId.get(methodId));
+  }
+
+  /**
+   * Changes to types that are being re-recorded are checked when the analysis is next needed; any
+   * other change invalidates it right away.
+   */
+  private void noteChangeInType(int typeId) {
+    if (!controlFlowBeforeRecordingByTypeId.containsKey(typeId)) {
+      reachabilityAnalysisCurrent = false;
+    }
+  }
+
   @VisibleForTesting
   boolean hasSameContent(StringAnalyzableTypeEnvironment that) {
     return Objects.equal(this.calleeMethodIdsByCallerMethodId, that.calleeMethodIdsByCallerMethodId)
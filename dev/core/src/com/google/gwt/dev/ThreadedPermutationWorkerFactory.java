@@ -99,6 +99,11 @@ public class ThreadedPermutationWorkerFactory extends PermutationWorkerFactory {
     return toReturn;
   }
 
+  @Override
+  public boolean isInProcess() {
+    return true;
+  }
+
   @Override
   public boolean isLocal() {
     return true;
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.cfg;
+
+import com.google.gwt.core.ext.BadPropertyValueException;
+import com.google.gwt.core.ext.ConfigurationProperty;
+import com.google.gwt.core.ext.PropertyOracle;
+import com.google.gwt.core.ext.SelectionProperty;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A property oracle that records the names of the properties that are looked up through it,
+ * including the ones that don't exist.<br />
+ *
+ * Used to find out which properties a rebind decision or a generator run depended on, so that its
+ * result can be reused wherever those properties have the same values.
+ */
+public class RecordingPropertyOracle implements PropertyOracle {
+
+  private final Set<String> configurationPropertyNames = Sets.newLinkedHashSet();
+  private final Set<String> selectionPropertyNames = Sets.newLinkedHashSet();
+  private final PropertyOracle wrappedPropertyOracle;
+
+  public RecordingPropertyOracle(PropertyOracle wrappedPropertyOracle) {
+    this.wrappedPropertyOracle = wrappedPropertyOracle;
+  }
+
+  @Override
+  public ConfigurationProperty getConfigurationProperty(String propertyName)
+      throws BadPropertyValueException {
+    configurationPropertyNames.add(propertyName);
+    return wrappedPropertyOracle.getConfigurationProperty(propertyName);
+  }
+
+  /**
+   * Returns the names of the configuration properties looked up so far, in the order they were
+   * first looked up.
+   */
+  public Set<String> getConfigurationPropertyNames() {
+    return Collections.unmodifiableSet(configurationPropertyNames);
+  }
+
+  @Override
+  public SelectionProperty getSelectionProperty(TreeLogger logger, String propertyName)
+      throws BadPropertyValueException {
+    selectionPropertyNames.add(propertyName);
+    return wrappedPropertyOracle.getSelectionProperty(logger, propertyName);
+  }
+
+  /**
+   * Returns the names of the selection properties looked up so far, in the order they were first
+   * looked up.
+   */
+  public Set<String> getSelectionPropertyNames() {
+    return Collections.unmodifiableSet(selectionPropertyNames);
+  }
+
+  /**
+   * Returns the current value of each selection property looked up so far, or null for the ones
+   * that don't exist.
+   */
+  public Map<String, String> getSelectionPropertyValues() {
+    Map<String, String> values = Maps.newLinkedHashMap();
+    for (String propertyName : selectionPropertyNames) {
+      try {
+        values.put(propertyName,
+            wrappedPropertyOracle.getSelectionProperty(TreeLogger.NULL, propertyName)
+                .getCurrentValue());
+      } catch (BadPropertyValueException e) {
+        values.put(propertyName, null);
+      }
+    }
+    return values;
+  }
+
+  /**
+   * Returns the property oracle that lookups are passed on to.
+   */
+  public PropertyOracle getWrappedPropertyOracle() {
+    return wrappedPropertyOracle;
+  }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.collect.Iterables;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+import com.google.gwt.thirdparty.guava.common.hash.Hasher;
+import com.google.gwt.thirdparty.guava.common.hash.Hashing;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
+import com.google.gwt.thirdparty.guava.common.io.CountingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * Remembers what {@link JdtCompiler} found when it looked up binary types and packages in the
+ * class path: which packages exist, which types don't, and the class files of the types that were
+ * found in jars. The answers are shared by all compiles in a process that use the same class
+ * loader, and are saved to disk so that the next process with the same class path doesn't have to
+ * probe the class loader again.
+ * <p>
+ * The answers are only valid for the class path they were found in. It is identified by a
+ * fingerprint of the Java runtime and of every class path entry: the path, length and last
+ * modified time of jars, and the path and last modified time of every directory under a class
+ * directory. (When the class path is a single jar, the entries of its manifest's Class-Path are
+ * included.) Adding or removing a class file changes the last modified time of its directory, so
+ * a type that wasn't found is looked up again once it might exist. The class path of a class
+ * loader is only found once, and jars in it are assumed not to change while it is in use, but
+ * the class directories in it are fingerprinted again for each compile. Class files found in
+ * directories can change in place, so only those found in jars and in the runtime are kept.
+ * <p>
+ * There is one file per fingerprint, named after it. It starts with an int magic (0x4757434c) and
+ * an int version (2), followed by records:
+ *
+ * <pre>
+ * byte 0, UTF package name, boolean exists
+ * byte 1, UTF internal name of a type that isn't in the class path
+ * byte 2, UTF internal name, UTF file name, int length, bytes of a type that is
+ * </pre>
+ *
+ * Each save appends the answers found since the last one while holding a lock on the file, and a
+ * truncated last record is ignored, so concurrent processes never see a partial answer. Class
+ * files are not kept in memory once they have been saved; they are read back from the file when
+ * they are needed. Files that haven't been used for {@link #MAX_UNUSED_MILLIS} are deleted the
+ * first time a directory is used.
+ * <p>
+ * The disk cache is off unless the {@value #DIR_PROPERTY} system property names a directory;
+ * which packages exist and which types don't are then still shared by the compiles in a process.
+ * Since the saved class files are compiled against, the directory and the cache file are only used
+ * if they are owned by the current user.
+ */
+class ClassPathLookupCache {
+
+  /**
+   * A class file found in the class path.
+   */
+  static class BinaryType {
+    private final byte[] bytes;
+    private final String fileName;
+
+    BinaryType(byte[] bytes, String fileName) {
+      this.bytes = bytes;
+      this.fileName = fileName;
+    }
+
+    byte[] getBytes() {
+      return bytes;
+    }
+
+    String getFileName() {
+      return fileName;
+    }
+  }
+
+  /**
+   * A class file that has been saved, and is read back from the cache file when it is needed.
+   */
+  private static class SavedBinaryType extends BinaryType {
+    private final long recordOffset;
+
+    SavedBinaryType(long recordOffset) {
+      super(null, null);
+      this.recordOffset = recordOffset;
+    }
+  }
+
+  static final String DIR_PROPERTY = "gwt.classPathLookupDir";
+
+  /**
+   * How long a cache file is kept after it was last read or written.
+   */
+  static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  /**
+   * Returned by {@link #getType} for types that are known not to be in the class path.
+   */
+  static final BinaryType NOT_FOUND = new BinaryType(null, null);
+
+  private static final int MAGIC = 0x4757434c;
+  private static final int VERSION = 2;
+
+  private static final byte PACKAGE_RECORD = 0;
+  private static final byte NOT_FOUND_RECORD = 1;
+  private static final byte TYPE_RECORD = 2;
+
+  /**
+   * Reads don't mark a cache file as used more often than this.
+   */
+  private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  /**
+   * The class path of a class loader, and the cache for what it currently contains.
+   */
+  private static class ClassLoaderState {
+    /**
+     * Null if the class path can't be determined.
+     */
+    private final List<File> classPath;
+
+    /**
+     * Whether the class path has class directories, whose contents can change at any time.
+     */
+    private final boolean hasDirectories;
+
+    private ClassPathLookupCache cache;
+
+    ClassLoaderState(List<File> classPath) {
+      this.classPath = classPath;
+      this.hasDirectories = classPath != null && Iterables.any(classPath, File::isDirectory);
+    }
+  }
+
+  /**
+   * The class loaders that are still in use. Compiles in a process almost always use the same
+   * class loader, and a class loader's class path doesn't change.
+   */
+  private static final Map<ClassLoader, ClassLoaderState> statesByClassLoader =
+      new WeakHashMap<ClassLoader, ClassLoaderState>();
+
+  /**
+   * The directories whose unused files have been deleted by this process.
+   */
+  private static final Set<File> sweptDirs = Sets.newHashSet();
+
+  /**
+   * Returns the cache for the current contents of the class path of {@code classLoader}. Called
+   * once per compile. If its class path can't be determined, the returned cache is empty and never
+   * saved.
+   */
+  static synchronized ClassPathLookupCache forClassLoader(ClassLoader classLoader) {
+    ClassLoaderState state = statesByClassLoader.get(classLoader);
+    if (state == null) {
+      state = new ClassLoaderState(getClassPath(classLoader));
+      statesByClassLoader.put(classLoader, state);
+    } else if (!state.hasDirectories) {
+      return state.cache;
+    }
+    String fingerprint = state.classPath == null ? null : fingerprint(state.classPath);
+    if (state.cache == null || !Objects.equals(fingerprint, state.cache.fingerprint)) {
+      // A class directory has changed; the answers found so far may be wrong.
+      state.cache = new ClassPathLookupCache(fingerprint == null ? null : getDir(), fingerprint);
+    }
+    return state.cache;
+  }
+
+  /**
+   * Returns a fingerprint of the Java runtime and the given class path entries.
+   */
+  static String fingerprint(List<File> classPath) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    hasher.putString(System.getProperty("java.home"), StandardCharsets.UTF_8);
+    hasher.putString(System.getProperty("java.version"), StandardCharsets.UTF_8);
+    for (File entry : classPath) {
+      hasher.putString(entry.getAbsolutePath(), StandardCharsets.UTF_8);
+      if (entry.isFile()) {
+        hasher.putByte((byte) 'f').putLong(entry.length()).putLong(entry.lastModified());
+      } else if (entry.isDirectory()) {
+        hasher.putByte((byte) 'd');
+        putDirectories(hasher, entry, "");
+      } else {
+        hasher.putByte((byte) '-');
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Returns the class path entries that {@code classLoader} loads from, in lookup order, or null
+   * if it loads from anything other than local jars and directories.
+   */
+  static List<File> getClassPath(ClassLoader classLoader) {
+    List<ClassLoader> loaders = Lists.newArrayList();
+    for (ClassLoader loader = classLoader; loader != null; loader = loader.getParent()) {
+      loaders.add(loader);
+    }
+    // Parents are asked first.
+    Collections.reverse(loaders);
+
+    List<File> classPath = Lists.newArrayList();
+    for (ClassLoader loader : loaders) {
+      if (loader == ClassLoader.getPlatformClassLoader()) {
+        // Part of the runtime, which is in the fingerprint.
+        continue;
+      }
+      if (loader == ClassLoader.getSystemClassLoader()) {
+        String[] entries = System.getProperty("java.class.path").split(File.pathSeparator);
+        for (String entry : entries) {
+          if (!entry.isEmpty()) {
+            classPath.add(new File(entry));
+          }
+        }
+        if (entries.length == 1 && !addManifestClassPath(classPath, new File(entries[0]))) {
+          return null;
+        }
+      } else if (loader instanceof URLClassLoader) {
+        for (URL url : ((URLClassLoader) loader).getURLs()) {
+          if (!"file".equals(url.getProtocol())) {
+            return null;
+          }
+          try {
+            classPath.add(new File(url.toURI()));
+          } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+          }
+        }
+      } else {
+        return null;
+      }
+    }
+    return classPath;
+  }
+
+  /**
+   * Adds the entries of the Class-Path attribute in the manifest of {@code jar}, which is how a
+   * class path that is too long for the command line is usually passed. Returns false if they
+   * couldn't be read.
+   */
+  private static boolean addManifestClassPath(List<File> classPath, File jar) {
+    if (!jar.isFile()) {
+      return true;
+    }
+    try (JarFile jarFile = new JarFile(jar)) {
+      Manifest manifest = jarFile.getManifest();
+      String manifestClassPath = manifest == null
+          ? null : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+      if (manifestClassPath == null) {
+        return true;
+      }
+      URL base = jar.toURI().toURL();
+      for (String entry : manifestClassPath.trim().split("\\s+")) {
+        URL url = new URL(base, entry);
+        if (!"file".equals(url.getProtocol())) {
+          return false;
+        }
+        classPath.add(new File(url.toURI()));
+      }
+      return true;
+    } catch (IOException | URISyntaxException | IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Returns the directory named by {@value #DIR_PROPERTY}, or null if it isn't set, can't be
+   * created or isn't owned by the current user.
+   */
+  private static File getDir() {
+    String dirName = System.getProperty(DIR_PROPERTY);
+    if (dirName == null || dirName.isEmpty()) {
+      return null;
+    }
+    File dir = new File(dirName);
+    try {
+      if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+        return null;
+      }
+      return Util.isOwnedByCurrentUser(dir) ? dir : null;
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Returns true unless {@code file} doesn't exist or is owned by the current user.
+   */
+  private static boolean isOwnedByOtherUser(File file) {
+    try {
+      return file.exists() && !Util.isOwnedByCurrentUser(file);
+    } catch (IOException e) {
+      return true;
+    }
+  }
+
+  private static void putDirectories(Hasher hasher, File directory, String relativePath) {
+    hasher.putString(relativePath, StandardCharsets.UTF_8).putLong(directory.lastModified());
+    File[] subdirectories = directory.listFiles(File::isDirectory);
+    if (subdirectories == null) {
+      return;
+    }
+    Arrays.sort(subdirectories);
+    for (File subdirectory : subdirectories) {
+      putDirectories(hasher, subdirectory, relativePath + "/" + subdirectory.getName());
+    }
+  }
+
+  /**
+   * Deletes the cache files in {@code dir}, and temporary files left by earlier versions, that
+   * haven't been used for {@link #MAX_UNUSED_MILLIS}. Only done once per directory and process.
+   */
+  private static synchronized void deleteUnusedFiles(File dir) {
+    if (!sweptDirs.add(dir)) {
+      return;
+    }
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    long oldestToKeep = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    for (File file : files) {
+      String name = file.getName();
+      if ((name.endsWith(".cpl") || name.endsWith(".tmp")) && file.isFile()
+          && file.lastModified() < oldestToKeep) {
+        file.delete();
+      }
+    }
+  }
+
+  private final File file;
+  private final String fingerprint;
+  private final Map<String, Boolean> packageExistsByName = Maps.newHashMap();
+  private final Map<String, BinaryType> typesByInternalName = Maps.newHashMap();
+
+  /**
+   * The packages and types that were looked up since the answers were last saved.
+   */
+  private final List<String> unsavedPackages = Lists.newArrayList();
+  private final List<String> unsavedTypes = Lists.newArrayList();
+
+  /**
+   * @param dir where to keep the cache files, or null to keep the answers in memory only
+   * @param fingerprint the class path fingerprint, or null if the class path is unknown
+   */
+  ClassPathLookupCache(File dir, String fingerprint) {
+    this.fingerprint = fingerprint;
+    File cacheFile = dir == null || fingerprint == null ? null : new File(dir, fingerprint + ".cpl");
+    this.file = cacheFile == null || isOwnedByOtherUser(cacheFile) ? null : cacheFile;
+    if (file != null) {
+      deleteUnusedFiles(dir);
+      read();
+    }
+  }
+
+  /**
+   * Returns the class file of a type, {@link #NOT_FOUND} if it is known not to be in the class
+   * path, or null if it hasn't been looked up.
+   */
+  synchronized BinaryType getType(String internalName) {
+    BinaryType binaryType = typesByInternalName.get(internalName);
+    if (!(binaryType instanceof SavedBinaryType)) {
+      return binaryType;
+    }
+    BinaryType savedType = readType(internalName, ((SavedBinaryType) binaryType).recordOffset);
+    if (savedType == null) {
+      // The file was replaced; look the type up again.
+      typesByInternalName.remove(internalName);
+    }
+    return savedType;
+  }
+
+  /**
+   * Returns whether a package exists, or null if it hasn't been looked up.
+   */
+  synchronized Boolean isPackage(String slashedPackageName) {
+    return packageExistsByName.get(slashedPackageName);
+  }
+
+  synchronized void putPackage(String slashedPackageName, boolean exists) {
+    if (fingerprint != null && packageExistsByName.put(slashedPackageName, exists) == null) {
+      unsavedPackages.add(slashedPackageName);
+    }
+  }
+
+  /**
+   * Records a type that was looked up. {@code binaryType} is {@link #NOT_FOUND} if it isn't in the
+   * class path. Class files are only remembered if they can be saved to disk.
+   */
+  synchronized void putType(String internalName, BinaryType binaryType) {
+    if (fingerprint == null || (file == null && binaryType != NOT_FOUND)) {
+      return;
+    }
+    if (typesByInternalName.put(internalName, binaryType) == null) {
+      unsavedTypes.add(internalName);
+    }
+  }
+
+  /**
+   * Appends the answers that were added since the last save to the file. Failures are logged and
+   * otherwise ignored.
+   */
+  synchronized void save(TreeLogger logger) {
+    if (file == null || (unsavedPackages.isEmpty() && unsavedTypes.isEmpty())) {
+      return;
+    }
+    Map<String, BinaryType> savedTypes = Maps.newHashMap();
+    try {
+      File dir = file.getParentFile();
+      if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+        throw new IOException("Unable to create directory " + dir);
+      }
+      try (FileOutputStream fileOut = new FileOutputStream(file, true);
+          FileLock lock = fileOut.getChannel().lock()) {
+        long start = fileOut.getChannel().size();
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut));
+        if (start == 0) {
+          out.writeInt(MAGIC);
+          out.writeInt(VERSION);
+        }
+        for (String packageName : unsavedPackages) {
+          out.writeByte(PACKAGE_RECORD);
+          out.writeUTF(packageName);
+          out.writeBoolean(packageExistsByName.get(packageName));
+        }
+        for (String internalName : unsavedTypes) {
+          BinaryType binaryType = typesByInternalName.get(internalName);
+          if (binaryType == NOT_FOUND) {
+            out.writeByte(NOT_FOUND_RECORD);
+            out.writeUTF(internalName);
+            continue;
+          }
+          savedTypes.put(internalName, new SavedBinaryType(start + out.size()));
+          out.writeByte(TYPE_RECORD);
+          out.writeUTF(internalName);
+          out.writeUTF(binaryType.getFileName());
+          out.writeInt(binaryType.getBytes().length);
+          out.write(binaryType.getBytes());
+        }
+        out.flush();
+      }
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Unable to save the class path lookups to " + file, e);
+      // Don't keep class files in memory that can't be read back.
+      for (String internalName : unsavedTypes) {
+        if (typesByInternalName.get(internalName) != NOT_FOUND) {
+          typesByInternalName.remove(internalName);
+        }
+      }
+      savedTypes.clear();
+    }
+    typesByInternalName.putAll(savedTypes);
+    unsavedPackages.clear();
+    unsavedTypes.clear();
+  }
+
+  private void read() {
+    if (!file.isFile()) {
+      return;
+    }
+    try (CountingInputStream counter = new CountingInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      DataInputStream in = new DataInputStream(counter);
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        // Written by another version; start over.
+        file.delete();
+        return;
+      }
+      while (true) {
+        long recordOffset = counter.getCount();
+        int recordType = in.read();
+        if (recordType == -1) {
+          break;
+        }
+        String name = in.readUTF();
+        if (recordType == PACKAGE_RECORD) {
+          boolean exists = in.readBoolean();
+          packageExistsByName.put(name, exists);
+        } else if (recordType == NOT_FOUND_RECORD) {
+          typesByInternalName.put(name, NOT_FOUND);
+        } else if (recordType == TYPE_RECORD) {
+          in.readUTF();
+          int length = in.readInt();
+          if (length < 0) {
+            throw new IOException("Invalid class file length " + length);
+          }
+          ByteStreams.skipFully(in, length);
+          typesByInternalName.put(name, new SavedBinaryType(recordOffset));
+        } else {
+          throw new IOException("Invalid record type " + recordType);
+        }
+      }
+    } catch (EOFException e) {
+      // A record that is still being written by another process, or was cut short; the complete
+      // records before it are still valid.
+    } catch (IOException | RuntimeException e) {
+      // A corrupt file; start over.
+      packageExistsByName.clear();
+      typesByInternalName.clear();
+      file.delete();
+      return;
+    }
+    long now = System.currentTimeMillis();
+    if (file.lastModified() < now - TOUCH_INTERVAL_MILLIS) {
+      // Keep the file from being deleted as unused.
+      file.setLastModified(now);
+    }
+  }
+
+  /**
+   * Reads the class file saved at {@code recordOffset}, or returns null if the record there is
+   * not the expected type.
+   */
+  private BinaryType readType(String internalName, long recordOffset) {
+    try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+      in.seek(recordOffset);
+      if (in.readByte() != TYPE_RECORD || !in.readUTF().equals(internalName)) {
+        return null;
+      }
+      String fileName = in.readUTF();
+      int length = in.readInt();
+      if (length < 0 || length > in.length() - in.getFilePointer()) {
+        return null;
+      }
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new BinaryType(bytes, fileName);
+    } catch (IOException e) {
+      return null;
+    }
+  }
+}
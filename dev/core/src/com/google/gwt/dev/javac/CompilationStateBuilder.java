@@ -284,51 +284,67 @@ public class CompilationStateBuilder {
         final TreeLogger branch = logger.branch(TreeLogger.TRACE, "Compiling...");
         // Compile anything that needs to be compiled.
         buildQueue = new LinkedBlockingQueue<CompilationUnitBuilder>();
-        final List<CompilationUnit> newlyBuiltUnits = Lists.newArrayList();
+        final List<CompilationUnit> newlyBuiltUnits =
+            Collections.synchronizedList(Lists.<CompilationUnit>newArrayList());
         final CompilationUnitBuilder sentinel = CompilationUnitBuilder.create((GeneratedUnit) null);
         final Throwable[] workerException = new Throwable[1];
         final ProgressLogger progressLogger =
             new ProgressLogger(branch, TreeLogger.TRACE, builders.size(), 10);
-        Thread buildThread = new Thread() {
-          @Override
-          public void run() {
-            int processedCompilationUnitBuilders = 0;
-            try {
-              do {
-                CompilationUnitBuilder builder = buildQueue.take();
-                if (!progressLogger.isTimerStarted()) {
-                  // Set start time here, after first job has arrived, since it can take a little
-                  // while for the first job to arrive, and this helps with the accuracy of the
-                  // estimated times.
-                  progressLogger.startTimer();
-                }
-                if (builder == sentinel) {
-                  return;
+        final int[] processedCompilationUnitBuilders = new int[1];
+        List<Thread> buildThreads = Lists.newArrayList();
+        for (int i = 0; i < getBuildThreadCount(); i++) {
+          Thread buildThread = new Thread() {
+            @Override
+            public void run() {
+              try {
+                do {
+                  CompilationUnitBuilder builder = buildQueue.take();
+                  synchronized (progressLogger) {
+                    if (!progressLogger.isTimerStarted()) {
+                      // Set start time here, after first job has arrived, since it can take a
+                      // little while for the first job to arrive, and this helps with the
+                      // accuracy of the estimated times.
+                      progressLogger.startTimer();
+                    }
+                  }
+                  if (builder == sentinel) {
+                    // Leave it for the other build threads.
+                    buildQueue.add(sentinel);
+                    return;
+                  }
+                  // Expensive, must serialize GWT AST types to bytes.
+                  CompilationUnit unit = builder.build();
+                  newlyBuiltUnits.add(unit);
+
+                  synchronized (progressLogger) {
+                    progressLogger.updateProgress(++processedCompilationUnitBuilders[0]);
+                  }
+                } while (true);
+              } catch (Throwable e) {
+                synchronized (workerException) {
+                  if (workerException[0] == null) {
+                    workerException[0] = e;
+                  }
                 }
-                // Expensive, must serialize GWT AST types to bytes.
-                CompilationUnit unit = builder.build();
-                newlyBuiltUnits.add(unit);
-
-                processedCompilationUnitBuilders++;
-                progressLogger.updateProgress(processedCompilationUnitBuilders);
-              } while (true);
-            } catch (Throwable e) {
-              workerException[0] = e;
+              }
             }
-          }
-        };
-        buildThread.setName("CompilationUnitBuilder");
-        buildThread.start();
+          };
+          buildThread.setName("CompilationUnitBuilder-" + i);
+          buildThread.start();
+          buildThreads.add(buildThread);
+        }
         Event jdtCompilerEvent = SpeedTracerLogger.start(eventType);
         long compilationStartNanos = System.nanoTime();
         try {
           compiler.doCompile(branch, builders);
         } finally {
           jdtCompilerEvent.end();
+          buildQueue.add(sentinel);
         }
-        buildQueue.add(sentinel);
         try {
-          buildThread.join();
+          for (Thread buildThread : buildThreads) {
+            buildThread.join();
+          }
           long compilationNanos = System.nanoTime() - compilationStartNanos;
           // Convert nanos to seconds.
           double compilationSeconds = compilationNanos / (double) TimeUnit.SECONDS.toNanos(1);
@@ -337,6 +353,10 @@ public class CompilationStateBuilder {
           if (workerException[0] != null) {
             throw workerException[0];
           }
+          if (JdtCompiler.parallelCompilation) {
+            // The order in which the build threads finished is arbitrary.
+            Collections.sort(newlyBuiltUnits, CompilationUnit.COMPARATOR);
+          }
         } catch (RuntimeException e) {
           throw e;
         } catch (Throwable e) {
@@ -453,6 +473,14 @@ public class CompilationStateBuilder {
 
   private static final CompilationStateBuilder instance = new CompilationStateBuilder();
 
+  /**
+   * Returns the number of threads that build compilation units, mostly serializing their GWT ASTs,
+   * while JDT compiles.
+   */
+  private static int getBuildThreadCount() {
+    return JdtCompiler.parallelCompilation ? Runtime.getRuntime().availableProcessors() : 1;
+  }
+
   /**
    * Compiles the given source files and adds them to the CompilationState. See
    * {@link CompileMoreLater#compile} for details.
@@ -17,6 +17,7 @@ package com.google.gwt.dev.javac;
 
 import com.google.gwt.dev.jjs.ast.JDeclaredType;
 import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.util.CompactObjectOutputStream;
 import com.google.gwt.dev.util.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.base.Predicate;
 import com.google.gwt.thirdparty.guava.common.collect.Iterables;
@@ -72,7 +73,7 @@ abstract class CompilationUnitImpl extends CompilationUnit {
     }
     try {
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
-      ObjectOutputStream out = new ObjectOutputStream(baos);
+      ObjectOutputStream out = new CompactObjectOutputStream(baos);
       JProgram.serializeTypes(types, out);
       out.close();
       astToken = diskCache.writeByteArray(baos.toByteArray());
@@ -18,6 +18,7 @@ package com.google.gwt.dev.javac;
 import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.CompilerContext;
+import com.google.gwt.dev.javac.ClassPathLookupCache.BinaryType;
 import com.google.gwt.dev.jdt.TypeRefVisitor;
 import com.google.gwt.dev.jjs.InternalCompilerException;
 import com.google.gwt.dev.jjs.ast.JDeclaredType;
@@ -26,12 +27,14 @@ import com.google.gwt.dev.util.collect.Lists;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 import com.google.gwt.thirdparty.guava.common.collect.ArrayListMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
 import com.google.gwt.thirdparty.guava.common.collect.ListMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import com.google.gwt.thirdparty.guava.common.io.BaseEncoding;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
 
 import org.eclipse.jdt.core.compiler.CharOperation;
 import org.eclipse.jdt.internal.compiler.ClassFile;
@@ -243,6 +246,15 @@ public class JdtCompiler {
    */
   private static final double ABORT_COUNT_MAX = 100;
 
+  /**
+   * Whether JDT processes (resolves, analyzes and generates code for) compilation units on a
+   * worker thread while the compiling thread accepts the results of the previous ones, and the
+   * resulting compilation units are built on several threads. Enable with
+   * {@code -Dgwt.jdt.parallel=true}.
+   */
+  @VisibleForTesting
+  static boolean parallelCompilation = Boolean.parseBoolean(System.getProperty("gwt.jdt.parallel"));
+
   private static class CompilerImpl extends Compiler {
     private final TreeLogger logger;
     private int abortCount = 0;
@@ -263,6 +275,8 @@ public class JdtCompiler {
       this.logger = logger;
       this.processor = processor;
       this.internalTypes = internalTypes;
+      // Units are still processed one at a time, so process() doesn't need to be thread safe.
+      this.useSingleThread = !parallelCompilation;
     }
 
     /**
@@ -390,11 +404,24 @@ public class JdtCompiler {
 
     private final FileSystem jrt = FileSystems.getFileSystem(URI.create("jrt:/"));
 
+    /**
+     * Answers from earlier compiles, possibly in earlier processes, with the same class path.
+     */
+    private final ClassPathLookupCache lookupCache =
+        ClassPathLookupCache.forClassLoader(getClassLoader());
+
     public INameEnvironmentImpl(Set<String> packages, Map<String, CompiledClass> internalTypes) {
       this.packages = packages;
       this.internalTypes = internalTypes;
     }
 
+    /**
+     * Saves the class path answers found by this environment for later processes.
+     */
+    public void saveLookupCache(TreeLogger logger) {
+      lookupCache.save(logger);
+    }
+
     @Override
     public void cleanup() {
       try {
@@ -552,19 +579,19 @@ public class JdtCompiler {
     }
 
     private NameEnvironmentAnswer doFindTypeInClassPath(String internalName) {
-      URL resource = getClassLoader().getResource(internalName + ".class");
-      if (resource != null) {
-        try (InputStream openStream = resource.openStream()) {
-
-          ClassFileReader classFileReader =
-              ClassFileReader.read(openStream, resource.toExternalForm(), true);
-          // In case-insensitive file systems we might have found a resource whose name is
-          // different in case and should not be returned as an answer.
-          if (internalName.equals(CharOperation.charToString(classFileReader.getName()))) {
-            return new NameEnvironmentAnswer(classFileReader, null);
-          }
-        } catch (IOException | ClassFormatException e) {
-          // returns null indicating a failure.
+      BinaryType cachedType = lookupCache.getType(internalName);
+      if (cachedType == null) {
+        NameEnvironmentAnswer answer = findTypeInClassLoader(internalName);
+        if (answer != null) {
+          return answer;
+        }
+      } else if (cachedType != ClassPathLookupCache.NOT_FOUND) {
+        try {
+          return new NameEnvironmentAnswer(new ClassFileReader(cachedType.getBytes(),
+              cachedType.getFileName().toCharArray(), true), null);
+        } catch (ClassFormatException e) {
+          // Can't happen, the bytes were read successfully before they were cached.
+          throw new InternalCompilerException("Unable to read cached class " + internalName, e);
         }
       }
       // LambdaMetafactory and SerializedLambda byte-code side-artifacts of JDT compile and actually
@@ -591,6 +618,34 @@ public class JdtCompiler {
       return null;
     }
 
+    private NameEnvironmentAnswer findTypeInClassLoader(String internalName) {
+      URL resource = getClassLoader().getResource(internalName + ".class");
+      if (resource == null) {
+        lookupCache.putType(internalName, ClassPathLookupCache.NOT_FOUND);
+        return null;
+      }
+      try (InputStream openStream = resource.openStream()) {
+        byte[] bytes = ByteStreams.toByteArray(openStream);
+        String fileName = resource.toExternalForm();
+        ClassFileReader classFileReader = new ClassFileReader(bytes, fileName.toCharArray(), true);
+        // In case-insensitive file systems we might have found a resource whose name is
+        // different in case and should not be returned as an answer.
+        if (!internalName.equals(CharOperation.charToString(classFileReader.getName()))) {
+          lookupCache.putType(internalName, ClassPathLookupCache.NOT_FOUND);
+          return null;
+        }
+        // Class files in directories can be rewritten without the class path fingerprint
+        // changing, so only those in jars and in the runtime are remembered.
+        if (!"file".equals(resource.getProtocol())) {
+          lookupCache.putType(internalName, new BinaryType(bytes, fileName));
+        }
+        return new NameEnvironmentAnswer(classFileReader, null);
+      } catch (IOException | ClassFormatException e) {
+        // returns null indicating a failure.
+        return null;
+      }
+    }
+
     @Override
     public boolean isPackage(char[][] parentPkg, char[] pkg) {
       char[] pathChars = CharOperation.concatWith(parentPkg, pkg, '/');
@@ -617,7 +672,12 @@ public class JdtCompiler {
         return false;
       }
       // Include class loader check for binary-only annotations.
-      if (caseSensitivePackageExists(slashedPackageName)) {
+      Boolean exists = lookupCache.isPackage(slashedPackageName);
+      if (exists == null) {
+        exists = caseSensitivePackageExists(slashedPackageName);
+        lookupCache.putPackage(slashedPackageName, exists);
+      }
+      if (exists) {
         addPackages(packages, slashedPackageName);
         return true;
       } else {
@@ -1054,11 +1114,12 @@ public class JdtCompiler {
       icus.add(new Adapter(builder));
     }
 
+    INameEnvironmentImpl nameEnvironment = new INameEnvironmentImpl(packages, internalTypes);
     compilerImpl =
         new CompilerImpl(
             logger,
             getCompilerOptions(),
-            new INameEnvironmentImpl(packages, internalTypes),
+            nameEnvironment,
             processor,
             internalTypes);
     try {
@@ -1079,6 +1140,7 @@ public class JdtCompiler {
       throw new UnableToCompleteException();
     } finally {
       compilerImpl = null;
+      nameEnvironment.saveLookupCache(logger);
     }
   }
 
@@ -47,6 +47,28 @@ public class MemoryUnitCache implements UnitCache {
     public CompilationUnit getUnit() {
       return unit;
     }
+
+    /**
+     * Returns the content id of the unit. Unlike {@link #getUnit()}, this must not require the
+     * unit to be materialized.
+     */
+    ContentId getContentId() {
+      return unit.getContentId();
+    }
+
+    /**
+     * Returns the last modified time of the unit, without requiring it to be materialized.
+     */
+    public long getLastModified() {
+      return unit.getLastModified();
+    }
+
+    /**
+     * Returns the resource path of the unit, without requiring it to be materialized.
+     */
+    public String getResourcePath() {
+      return unit.getResourcePath();
+    }
   }
 
   /**
@@ -89,7 +111,7 @@ public class MemoryUnitCache implements UnitCache {
     String resourcePath = newUnit.getResourcePath();
     UnitCacheEntry oldEntry = unitMap.get(resourcePath);
     if (oldEntry != null) {
-      remove(oldEntry.getUnit());
+      removeEntry(oldEntry);
     }
     unitMap.put(resourcePath, newEntry);
     unitMapByContentId.put(newUnit.getContentId(), newEntry);
@@ -132,4 +154,12 @@ public class MemoryUnitCache implements UnitCache {
     unitMap.remove(unit.getResourcePath());
     unitMapByContentId.remove(unit.getContentId());
   }
+
+  /**
+   * Removes an entry from the cache without materializing its unit.
+   */
+  protected void removeEntry(UnitCacheEntry entry) {
+    unitMap.remove(entry.getResourcePath());
+    unitMapByContentId.remove(entry.getContentId());
+  }
 }
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.BadPropertyValueException;
+import com.google.gwt.core.ext.ConfigurationProperty;
+import com.google.gwt.core.ext.PropertyOracle;
+import com.google.gwt.core.ext.RebindMode;
+import com.google.gwt.core.ext.SelectionProperty;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.linker.Artifact;
+import com.google.gwt.dev.resource.Resource;
+import com.google.gwt.dev.util.StringInterningObjectInputStream;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+import com.google.gwt.thirdparty.guava.common.hash.HashCode;
+import com.google.gwt.thirdparty.guava.common.hash.Hasher;
+import com.google.gwt.thirdparty.guava.common.hash.Hashing;
+import com.google.gwt.thirdparty.guava.common.io.ByteStreams;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps what generators produced in earlier compiles on disk, so that a generator whose inputs
+ * haven't changed doesn't have to run again, even in another process.
+ * <p>
+ * Results are filed under a key made of the generator class and version, the requested type,
+ * whether the compile is a production compile, and a fingerprint of the source of every
+ * compilation unit known when the generator ran. Generators navigate the type oracle freely, so
+ * there is no telling which types one actually read; any source change gives new keys. Each
+ * result also lists the properties and resources the generator read, and is only reused while
+ * their values and contents are the same. A rebound type usually has one result per set of
+ * property values it depends on, such as one per locale.
+ * <p>
+ * The code of the generators is covered by a fingerprint of the class path that is part of every
+ * key: the path, length and last modified time of jars and of every file in class directories.
+ * <p>
+ * There is one file per key, named after a hash of it, holding an int magic (0x47574752), an int
+ * version (1) and the serialized list of results, most recently stored first. Files are written
+ * to a temporary name and then renamed. The directory is set with the {@value #DIR_PROPERTY}
+ * system property; without it nothing is cached.
+ * <p>
+ * Since every source change gives new keys, files are evicted the first time a process uses the
+ * directory: those that haven't been used for {@link #MAX_UNUSED_MILLIS}, and then the least
+ * recently used ones until the directory holds at most {@link #MAX_TOTAL_BYTES}.
+ */
+class PersistentGeneratorResultCache {
+
+  /**
+   * What one generator run read and produced.
+   */
+  static class Result implements Serializable {
+    /**
+     * Values of the selection ({@code s:name}) and configuration ({@code c:name}) properties
+     * that were read, as given by {@link #describeProperty}.
+     */
+    final Map<String, String> propertyValues = Maps.newLinkedHashMap();
+
+    /**
+     * Hashes of the contents of the resources that were read, or the empty string for the ones
+     * that didn't exist.
+     */
+    final Map<String, String> resourceHashes = Maps.newLinkedHashMap();
+
+    /**
+     * Types that the generator found already existed when it tried to create them.
+     */
+    final Set<String> existingTypeNames = Sets.newLinkedHashSet();
+
+    /**
+     * The source of the committed types, in commit order.
+     */
+    final Map<String, String> sourcesByTypeName = Maps.newLinkedHashMap();
+
+    /**
+     * The artifacts committed by the generator, not counting the sources of generated types.
+     */
+    final List<Artifact<?>> artifacts = Lists.newArrayList();
+
+    String resultTypeName;
+
+    RebindMode rebindMode;
+  }
+
+  static final String DIR_PROPERTY = "gwt.generatorResultCacheDir";
+
+  /**
+   * How long a file is kept after it was last read or written.
+   */
+  static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  /**
+   * How many bytes of files are kept.
+   */
+  static final long MAX_TOTAL_BYTES = 256L * 1024 * 1024;
+
+  /**
+   * How many results are kept for one key.
+   */
+  private static final int MAX_RESULTS_PER_KEY = 64;
+
+  /**
+   * Reads don't mark a file as used more often than this.
+   */
+  private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  /**
+   * The directories that have been swept by this process.
+   */
+  private static final Set<File> sweptDirs = Sets.newHashSet();
+
+  private static final int MAGIC = 0x47574752;
+  private static final int VERSION = 1;
+
+  /**
+   * Returns the cache for the class path of {@code classLoader}, or null if caching is off or the
+   * class path can't be determined.
+   */
+  static PersistentGeneratorResultCache create(ClassLoader classLoader) {
+    String dir = System.getProperty(DIR_PROPERTY);
+    if (dir == null || dir.isEmpty()) {
+      return null;
+    }
+    List<File> classPath = ClassPathLookupCache.getClassPath(classLoader);
+    if (classPath == null) {
+      return null;
+    }
+    return new PersistentGeneratorResultCache(new File(dir), fingerprintClassPath(classPath));
+  }
+
+  /**
+   * Returns the value of the property named by {@code key}, {@code s:name} for a selection
+   * property and {@code c:name} for a configuration property, in a form that can be compared
+   * across compiles. Returns the empty string if there is no such property.
+   */
+  static String describeProperty(PropertyOracle propertyOracle, String key) {
+    String name = key.substring(2);
+    try {
+      if (key.startsWith("s:")) {
+        SelectionProperty property = propertyOracle.getSelectionProperty(TreeLogger.NULL, name);
+        return property.getCurrentValue() + "|" + property.getFallbackValue() + "|"
+            + property.getPossibleValues();
+      }
+      ConfigurationProperty property = propertyOracle.getConfigurationProperty(name);
+      return String.valueOf(property.getValues());
+    } catch (BadPropertyValueException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Returns a hash of the contents of {@code resource}, or the empty string if it is null.
+   */
+  static String hashContents(Resource resource) throws IOException {
+    if (resource == null) {
+      return "";
+    }
+    try (InputStream in = resource.openContents()) {
+      return Hashing.murmur3_128().hashBytes(ByteStreams.toByteArray(in)).toString();
+    }
+  }
+
+  /**
+   * Returns a fingerprint of the source of {@code units}, independent of their order.
+   */
+  static String fingerprintUnits(Collection<CompilationUnit> units) {
+    List<HashCode> hashes = Lists.newArrayListWithCapacity(units.size() + 1);
+    hashes.add(Hashing.murmur3_128().hashInt(units.size()));
+    for (CompilationUnit unit : units) {
+      hashes.add(Hashing.murmur3_128().hashString(unit.getContentId().get(),
+          StandardCharsets.UTF_8));
+    }
+    return Hashing.combineUnordered(hashes).toString();
+  }
+
+  /**
+   * Returns a fingerprint of the Java runtime and the contents of the given class path entries.
+   */
+  static String fingerprintClassPath(List<File> classPath) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    hasher.putString(System.getProperty("java.home"), StandardCharsets.UTF_8);
+    hasher.putString(System.getProperty("java.version"), StandardCharsets.UTF_8);
+    for (File entry : classPath) {
+      hasher.putString(entry.getAbsolutePath(), StandardCharsets.UTF_8);
+      if (entry.isFile()) {
+        hasher.putByte((byte) 'f').putLong(entry.length()).putLong(entry.lastModified());
+      } else if (entry.isDirectory()) {
+        hasher.putByte((byte) 'd');
+        putFiles(hasher, entry, "");
+      } else {
+        hasher.putByte((byte) '-');
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * Deletes the files in {@code dir} that haven't been used for {@link #MAX_UNUSED_MILLIS}, and
+   * then the least recently used ones until the rest fit in {@code maxTotalBytes}. Only done once
+   * per directory and process.
+   */
+  @VisibleForTesting
+  static synchronized void evictUnusedFiles(File dir, long maxTotalBytes) {
+    if (!sweptDirs.add(dir)) {
+      return;
+    }
+    File[] files = dir.listFiles(new FileFilter() {
+      @Override
+      public boolean accept(File file) {
+        String name = file.getName();
+        return (name.endsWith(".gen") || name.endsWith(".tmp")) && file.isFile();
+      }
+    });
+    if (files == null) {
+      return;
+    }
+    final Map<File, Long> lastModifiedByFile = Maps.newHashMap();
+    for (File file : files) {
+      lastModifiedByFile.put(file, file.lastModified());
+    }
+    // Most recently used first.
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        return Long.compare(lastModifiedByFile.get(b), lastModifiedByFile.get(a));
+      }
+    });
+    long oldestToKeep = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    long totalBytes = 0;
+    for (File file : files) {
+      totalBytes += file.length();
+      if (lastModifiedByFile.get(file) < oldestToKeep || totalBytes > maxTotalBytes) {
+        file.delete();
+      }
+    }
+  }
+
+  private static void putFiles(Hasher hasher, File directory, String relativePath) {
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return;
+    }
+    Arrays.sort(files);
+    for (File file : files) {
+      String path = relativePath + "/" + file.getName();
+      if (file.isDirectory()) {
+        putFiles(hasher, file, path);
+      } else {
+        hasher.putString(path, StandardCharsets.UTF_8).putLong(file.length())
+            .putLong(file.lastModified());
+      }
+    }
+  }
+
+  private final File dir;
+  private final String classPathFingerprint;
+
+  PersistentGeneratorResultCache(File dir, String classPathFingerprint) {
+    this.dir = dir;
+    this.classPathFingerprint = classPathFingerprint;
+    evictUnusedFiles(dir, MAX_TOTAL_BYTES);
+  }
+
+  /**
+   * Returns the results stored under {@code key}, most recent first.
+   */
+  synchronized List<Result> get(String key) {
+    File file = getFile(key);
+    if (!file.isFile()) {
+      return Collections.emptyList();
+    }
+    return read(file);
+  }
+
+  /**
+   * Stores {@code result} under {@code key}, dropping the oldest results if there are too many.
+   * Failures are logged and otherwise ignored.
+   */
+  synchronized void put(TreeLogger logger, String key, Result result) {
+    File file = getFile(key);
+    List<Result> results = Lists.newArrayList();
+    results.add(result);
+    if (file.isFile()) {
+      for (Result oldResult : read(file)) {
+        if (results.size() == MAX_RESULTS_PER_KEY) {
+          break;
+        }
+        if (!oldResult.propertyValues.equals(result.propertyValues)
+            || !oldResult.resourceHashes.equals(result.resourceHashes)) {
+          results.add(oldResult);
+        }
+      }
+    }
+
+    File tempFile = null;
+    try {
+      if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+        throw new IOException("Unable to create directory " + dir);
+      }
+      tempFile = File.createTempFile("generatorResult", ".tmp", dir);
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        ObjectOutputStream objectOut = new ObjectOutputStream(out);
+        objectOut.writeObject(results);
+        objectOut.flush();
+      }
+      try {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempFile = null;
+    } catch (IOException e) {
+      // Also thrown for artifacts that turn out not to be serializable.
+      logger.log(TreeLogger.DEBUG, "Unable to save the generator result to " + file, e);
+    } finally {
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  private File getFile(String key) {
+    String name = Hashing.murmur3_128().newHasher()
+        .putString(classPathFingerprint, StandardCharsets.UTF_8)
+        .putString(key, StandardCharsets.UTF_8).hash().toString();
+    return new File(dir, name + ".gen");
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Result> read(File file) {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        return Collections.emptyList();
+      }
+      ObjectInputStream objectIn = new StringInterningObjectInputStream(in);
+      List<Result> results = (List<Result>) objectIn.readObject();
+      long now = System.currentTimeMillis();
+      if (file.lastModified() < now - TOUCH_INTERVAL_MILLIS) {
+        // Keep the file from being evicted as unused.
+        file.setLastModified(now);
+      }
+      return results;
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      // A corrupt, truncated or outdated file; it will be overwritten on the next put.
+      return Collections.emptyList();
+    }
+  }
+}
@@ -24,6 +24,9 @@ import com.google.gwt.thirdparty.guava.common.base.Preconditions;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -46,14 +49,23 @@ import java.util.concurrent.atomic.AtomicInteger;
  * intended to support only a single PersistentUnitCache instance in the
  * compiler at a time.
  * <p>
- * As new units are compiled, the cache data is appended to a log. This allows
- * Java serialization to efficiently store references. The next time the cache
- * is started, all logs are replayed and loaded into the cache in chronological
- * order, with newer units taking precedence. A new cache file is created for
+ * As new units are compiled, the cache data is appended to a log. Each unit is
+ * stored as a record with a small header (resource path, content id, last
+ * modified time) in front of its serialized body. The next time the cache is
+ * started, the headers of all logs are replayed in chronological order, with
+ * newer units taking precedence; a unit's body is only deserialized when it is
+ * first returned by {@link #find}. A new cache file is created for
  * any newly compiled units in this session. After a threshold of a certain
  * number of files in the directory is reached
  * {@link PersistentUnitCache#CACHE_FILE_THRESHOLD} , the cache files are
  * consolidated back into a single file.
+ * <p>
+ * Each record also keeps the last time its unit was written or found. When a
+ * maximum size or age is configured, compaction drops units that have not been
+ * used within the maximum age, then the least recently used units until the
+ * rest fit in the maximum size. Units compiled in the current session are
+ * always kept. Compaction runs on the background thread; it can also be run
+ * without a compiler using {@link PersistentUnitCacheCompactor}.
  *
  * <p>
  * System Properties (see {@link UnitCacheSingleton}).
@@ -62,21 +74,25 @@ import java.util.concurrent.atomic.AtomicInteger;
  * <li>gwt.persistentunitcache : enables the persistent cache (eventually will
  * be default)</li>
  * <li>gwt.persistentunitcachedir=<dir>: sets or overrides the cache directory</li>
+ * <li>gwt.persistentunitcache.maxSizeMb=<n>: compacts the cache once its log
+ * files take more than this many megabytes, evicting least recently used units
+ * (default: no limit)</li>
+ * <li>gwt.persistentunitcache.maxAgeDays=<n>: evicts units that have not been
+ * used for this many days (default: no limit)</li>
  * </ul>
  *
  * <p>
  * Known Issues:
  *
  * <ul>
- * <li>This design uses an eager cache to load every unit in the cache on the
- * first reference to find() or add(). When the cache is large (10000 units), it
- * uses lots of heap and takes 5-10 seconds. Once the PersistentUnitCache is
- * created, it starts eagerly loading the cache in a background thread).</li>
+ * <li>The index of every unit in the cache is loaded on the first reference to
+ * find() or add(). Once the PersistentUnitCache is created, it starts loading
+ * the index in a background thread.</li>
  *
- * <li>Although units logged to disk with the same resource path are eventually
- * cleaned up, the most recently compiled unit stays in the cache forever. This
- * means that stale units that are no longer referenced will never be purged,
- * unless by some external action (e.g. ant clean).</li>
+ * <li>Unless a maximum size or age is set, the most recently compiled unit for
+ * each resource path stays in the cache forever. This means that stale units
+ * that are no longer referenced will never be purged, unless by some external
+ * action (e.g. ant clean).</li>
  *
  * <li>Unless ant builds are made aware of the cache directory, the cache will
  * persist if a user does an ant clean.</li>
@@ -91,6 +107,17 @@ class PersistentUnitCache extends MemoryUnitCache {
    */
   static final int CACHE_FILE_THRESHOLD = 40;
 
+  /**
+   * The maximum size of the cache files, in megabytes, before least recently used units are
+   * evicted. Zero or unset means no limit.
+   */
+  static final String MAX_SIZE_PROPERTY = "gwt.persistentunitcache.maxSizeMb";
+
+  /**
+   * The number of days after which unused units are evicted. Zero or unset means no limit.
+   */
+  static final String MAX_AGE_PROPERTY = "gwt.persistentunitcache.maxAgeDays";
+
   /**
    * Note: to avoid deadlock, methods on backgroundService should not be called from
    * within a synchronized method. (The BackgroundService lock should be acquired first.)
@@ -101,9 +128,29 @@ class PersistentUnitCache extends MemoryUnitCache {
   private AtomicInteger newUnitsSinceLastCleanup = new AtomicInteger();
   private final String relevantOptionsHash;
 
+  /**
+   * The maximum size of the closed cache files in bytes, or zero for no limit.
+   */
+  private final long maxCacheBytes;
+
+  /**
+   * The maximum time since a unit was last used, or zero for no limit.
+   */
+  private final long maxAgeMillis;
+
   PersistentUnitCache(final TreeLogger logger, File parentDir, String relevantOptionsHash)
       throws UnableToCompleteException {
+    this(logger, parentDir, relevantOptionsHash,
+        Math.max(0, Long.getLong(MAX_SIZE_PROPERTY, 0)) * 1024 * 1024,
+        TimeUnit.DAYS.toMillis(Math.max(0, Long.getLong(MAX_AGE_PROPERTY, 0))));
+  }
+
+  @VisibleForTesting
+  PersistentUnitCache(final TreeLogger logger, File parentDir, String relevantOptionsHash,
+      long maxCacheBytes, long maxAgeMillis) throws UnableToCompleteException {
     this.relevantOptionsHash = relevantOptionsHash;
+    this.maxCacheBytes = maxCacheBytes;
+    this.maxAgeMillis = maxAgeMillis;
     this.backgroundService = new BackgroundService(logger, parentDir, this);
   }
 
@@ -157,7 +204,8 @@ class PersistentUnitCache extends MemoryUnitCache {
     int addCallCount = newUnitsSinceLastCleanup.getAndSet(0);
     logger.log(TreeLogger.TRACE, "Added " + addCallCount +
         " units to PersistentUnitCache since last cleanup");
-    if (addCallCount == 0) {
+    boolean overLimits = exceedsLimits(logger);
+    if (addCallCount == 0 && !overLimits) {
       // Don't clean up until we compiled something.
       logger.log(TreeLogger.TRACE, "Skipped PersistentUnitCache because no units were added");
       cleanupInProgress.release();
@@ -165,7 +213,7 @@ class PersistentUnitCache extends MemoryUnitCache {
     }
 
     int closedCount = backgroundService.getClosedCacheFileCount();
-    if (closedCount < CACHE_FILE_THRESHOLD) {
+    if (closedCount < CACHE_FILE_THRESHOLD && !overLimits) {
       // Not enough files yet, so just rotate to a new file.
       logger.log(TreeLogger.TRACE, "Rotating PersistentUnitCache file because only " +
           closedCount + " files were added.");
@@ -174,7 +222,58 @@ class PersistentUnitCache extends MemoryUnitCache {
     }
 
     logger.log(Type.TRACE, "Compacting persistent unit cache files");
-    backgroundService.asyncCompact(getUnitsToSaveToDisk(), cleanupInProgress);
+    backgroundService.asyncCompact(getEntriesToSaveToDisk(logger), getOtherOptionsCutoff(),
+        cleanupInProgress);
+  }
+
+  /**
+   * Compacts the cache files now, evicting units as configured, and waits for it to finish.
+   */
+  void compact(TreeLogger logger) throws InterruptedException {
+    backgroundService.waitForCacheToLoad();
+    cleanupInProgress.acquire();
+    if (backgroundService.isShutdown()) {
+      cleanupInProgress.release();
+      return;
+    }
+    logger.log(Type.TRACE, "Compacting persistent unit cache files");
+    backgroundService.asyncCompact(getEntriesToSaveToDisk(logger), getOtherOptionsCutoff(),
+        cleanupInProgress);
+    waitForCleanup();
+  }
+
+  /**
+   * Returns true if the cache files are over the maximum size or hold units that have not been
+   * used within the maximum age.
+   */
+  private boolean exceedsLimits(TreeLogger logger) {
+    if (maxCacheBytes > 0) {
+      long closedBytes = backgroundService.getClosedCacheFileBytes();
+      if (closedBytes > maxCacheBytes) {
+        logger.log(TreeLogger.TRACE, "PersistentUnitCache files take " + closedBytes
+            + " bytes; the limit is " + maxCacheBytes);
+        return true;
+      }
+    }
+    return maxAgeMillis > 0 && hasExpiredEntries(System.currentTimeMillis() - maxAgeMillis);
+  }
+
+  private synchronized boolean hasExpiredEntries(long cutoff) {
+    for (UnitCacheEntry entry : unitMap.values()) {
+      if (entry instanceof PersistentUnitCacheEntry
+          && ((PersistentUnitCacheEntry) entry).record.getLastAccessed() < cutoff) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Cache files for other options that were written before this time are deleted when
+   * compacting. Without a maximum age, they are always deleted.
+   */
+  private long getOtherOptionsCutoff() {
+    return maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MAX_VALUE;
   }
 
   /**
@@ -186,7 +285,6 @@ class PersistentUnitCache extends MemoryUnitCache {
     cleanupInProgress.release();
   }
 
-  @VisibleForTesting
   void shutdown() throws InterruptedException, ExecutionException {
     backgroundService.shutdown();
   }
@@ -196,17 +294,21 @@ class PersistentUnitCache extends MemoryUnitCache {
   @Override
   public CompilationUnit find(ContentId contentId) {
     backgroundService.waitForCacheToLoad();
+    UnitCacheEntry entry;
     synchronized (this) {
-      return super.find(contentId);
+      entry = unitMapByContentId.get(contentId);
     }
+    return materialize(entry);
   }
 
   @Override
   public CompilationUnit find(String resourcePath) {
     backgroundService.waitForCacheToLoad();
+    UnitCacheEntry entry;
     synchronized (this) {
-      return super.find(resourcePath);
+      entry = unitMap.get(resourcePath);
     }
+    return materialize(entry);
   }
 
   @Override
@@ -223,12 +325,12 @@ class PersistentUnitCache extends MemoryUnitCache {
   }
 
   /**
-   * Adds a compilation unit from disk into the in-memory cache.
+   * Adds a compilation unit from disk into the in-memory cache, without deserializing it.
    * (Callback from {@link PersistentUnitCacheDir}.)
    */
-  synchronized void maybeAddLoadedUnit(CachedCompilationUnit unit) {
-    UnitCacheEntry entry = new UnitCacheEntry(unit, UnitOrigin.PERSISTENT);
-    UnitCacheEntry existingEntry = unitMap.get(unit.getResourcePath());
+  synchronized void maybeAddLoadedRecord(PersistentUnitCacheRecord record) {
+    UnitCacheEntry entry = new PersistentUnitCacheEntry(record);
+    UnitCacheEntry existingEntry = unitMap.get(record.getResourcePath());
     /*
      * Don't assume that an existing entry is stale - an entry might have been loaded already from
      * another source that is more up to date. If the timestamps are the same, accept the latest
@@ -236,22 +338,136 @@ class PersistentUnitCache extends MemoryUnitCache {
      * this test the next time the session starts.
      */
     if (existingEntry != null
-        && unit.getLastModified() >= existingEntry.getUnit().getLastModified()) {
-      super.remove(existingEntry.getUnit());
-      unitMap.put(unit.getResourcePath(), entry);
-      unitMapByContentId.put(unit.getContentId(), entry);
+        && record.getLastModified() >= existingEntry.getLastModified()) {
+      removeEntry(existingEntry);
+      unitMap.put(entry.getResourcePath(), entry);
+      unitMapByContentId.put(entry.getContentId(), entry);
     } else if (existingEntry == null) {
-      unitMap.put(unit.getResourcePath(), entry);
-      unitMapByContentId.put(unit.getContentId(), entry);
+      unitMap.put(entry.getResourcePath(), entry);
+      unitMapByContentId.put(entry.getContentId(), entry);
+    }
+  }
+
+  /**
+   * Returns the unit for a cache entry, deserializing it if needed. Entries that can no longer be
+   * read are dropped from the cache and reported as missing, so the unit gets recompiled.
+   */
+  private CompilationUnit materialize(UnitCacheEntry entry) {
+    if (entry == null) {
+      return null;
+    }
+    if (!(entry instanceof PersistentUnitCacheEntry)) {
+      return entry.getUnit();
+    }
+    PersistentUnitCacheEntry persistentEntry = (PersistentUnitCacheEntry) entry;
+    try {
+      return persistentEntry.load();
+    } catch (IOException | ClassNotFoundException e) {
+      backgroundService.logger.log(TreeLogger.TRACE, "Ignoring unreadable cached unit "
+          + entry.getResourcePath(), e);
+      synchronized (this) {
+        if (unitMap.get(entry.getResourcePath()) == entry) {
+          removeEntry(entry);
+        }
+      }
+      return null;
     }
   }
 
-  private synchronized List<CompilationUnit> getUnitsToSaveToDisk() {
-    List<CompilationUnit> result = Lists.newArrayList();
+  /**
+   * Returns what should be written back to disk when the cache is compacted: units that were
+   * loaded from disk are copied as they are, everything else is serialized again.
+   * <p>
+   * Units from disk that are over the configured age, or that don't fit in the configured size
+   * once more recently used units are counted, are evicted from the cache instead.
+   */
+  private synchronized List<UnitCacheEntry> getEntriesToSaveToDisk(TreeLogger logger) {
+    List<UnitCacheEntry> entriesToSave = Lists.newArrayList();
+    List<PersistentUnitCacheEntry> loadedEntries = Lists.newArrayList();
     for (UnitCacheEntry entry : unitMap.values()) {
-      result.add(Preconditions.checkNotNull(entry.getUnit()));
+      if (entry instanceof PersistentUnitCacheEntry) {
+        loadedEntries.add((PersistentUnitCacheEntry) entry);
+      } else {
+        entriesToSave.add(entry);
+      }
+    }
+    if (maxCacheBytes <= 0 && maxAgeMillis <= 0) {
+      entriesToSave.addAll(loadedEntries);
+      return entriesToSave;
+    }
+
+    // Most recently used first.
+    Collections.sort(loadedEntries, new Comparator<PersistentUnitCacheEntry>() {
+      @Override
+      public int compare(PersistentUnitCacheEntry a, PersistentUnitCacheEntry b) {
+        return Long.compare(b.record.getLastAccessed(), a.record.getLastAccessed());
+      }
+    });
+    long cutoff = maxAgeMillis > 0 ? System.currentTimeMillis() - maxAgeMillis : Long.MIN_VALUE;
+    long savedBytes = 0;
+    boolean full = false;
+    int evictedCount = 0;
+    for (PersistentUnitCacheEntry entry : loadedEntries) {
+      savedBytes += entry.record.getBodyLength();
+      // Once a unit doesn't fit, everything less recently used is evicted too.
+      full |= maxCacheBytes > 0 && savedBytes > maxCacheBytes;
+      if (!full && entry.record.getLastAccessed() >= cutoff) {
+        entriesToSave.add(entry);
+      } else {
+        removeEntry(entry);
+        evictedCount++;
+      }
+    }
+    logger.log(TreeLogger.TRACE, "Evicted " + evictedCount + " units from PersistentUnitCache");
+    return entriesToSave;
+  }
+
+  /**
+   * A cache entry for a unit stored in a cache file, which is only deserialized when needed.
+   */
+  private static class PersistentUnitCacheEntry extends UnitCacheEntry {
+    private final ContentId contentId;
+    private final PersistentUnitCacheRecord record;
+    private CachedCompilationUnit unit;
+
+    PersistentUnitCacheEntry(PersistentUnitCacheRecord record) {
+      super(null, UnitOrigin.PERSISTENT);
+      this.record = record;
+      this.contentId = new ContentId(record.getContentId());
+    }
+
+    @Override
+    public CompilationUnit getUnit() {
+      try {
+        return load();
+      } catch (IOException | ClassNotFoundException e) {
+        throw new InternalCompilerException(
+            "Unable to read cached unit " + record.getResourcePath(), e);
+      }
+    }
+
+    @Override
+    ContentId getContentId() {
+      return contentId;
+    }
+
+    @Override
+    public long getLastModified() {
+      return record.getLastModified();
+    }
+
+    @Override
+    public String getResourcePath() {
+      return record.getResourcePath();
+    }
+
+    synchronized CachedCompilationUnit load() throws IOException, ClassNotFoundException {
+      if (unit == null) {
+        unit = record.load();
+      }
+      record.markAccessed(System.currentTimeMillis());
+      return unit;
     }
-    return result;
   }
 
   /**
@@ -361,7 +577,6 @@ class PersistentUnitCache extends MemoryUnitCache {
       return service.isShutdown();
     }
 
-    @VisibleForTesting
     void shutdown() throws InterruptedException, ExecutionException {
       logger.log(Type.INFO, "PersistentUnitCache shutdown requested");
       try {
@@ -375,6 +590,10 @@ class PersistentUnitCache extends MemoryUnitCache {
       return cacheDir.getClosedCacheFileCount();
     }
 
+    long getClosedCacheFileBytes() {
+      return cacheDir.getClosedCacheFileBytes();
+    }
+
     /**
      * Rotates to a new file.
      * @param cleanupInProgress a semaphore to release when done.
@@ -398,21 +617,29 @@ class PersistentUnitCache extends MemoryUnitCache {
     /**
      * Compacts the persistent unit cache and then rotates to a new file.
      * There will be one closed file and one empty, open file when done.
-     * @param unitsToSave all compilation units to keep
+     * @param entriesToSave all cache entries to keep
+     * @param otherOptionsCutoff cache files for other options written before this time are
+     * deleted as well
      * @param cleanupInProgress a semaphore to release when done.
      * (The permit must already be acquired.)
      */
-    Future<?> asyncCompact(final List<CompilationUnit> unitsToSave,
-        final Semaphore cleanupInProgress) {
+    Future<?> asyncCompact(final List<UnitCacheEntry> entriesToSave,
+        final long otherOptionsCutoff, final Semaphore cleanupInProgress) {
 
       return service.submit(new Runnable() {
         @Override
         public void run() {
           try {
-            for (CompilationUnit unit : unitsToSave) {
-              cacheDir.writeUnit(unit);
+            List<PersistentUnitCacheRecord> recordsToCopy = Lists.newArrayList();
+            for (UnitCacheEntry entry : entriesToSave) {
+              if (entry instanceof PersistentUnitCacheEntry) {
+                recordsToCopy.add(((PersistentUnitCacheEntry) entry).record);
+              } else {
+                cacheDir.writeUnit(Preconditions.checkNotNull(entry.getUnit()));
+              }
             }
-            cacheDir.deleteClosedCacheFiles();
+            cacheDir.copyRecords(recordsToCopy);
+            cacheDir.deleteClosedCacheFiles(otherOptionsCutoff);
             cacheDir.rotate(); // Move to a new, empty file.
           } catch (UnableToCompleteException e) {
             shutdownNow();
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.util.log.PrintWriterTreeLogger;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Compacts a persistent unit cache directory outside of a compile, for example from a cron job
+ * on a shared build machine. Units are evicted according to the same system properties as
+ * during a compile (see {@link PersistentUnitCache}).
+ * <p>
+ * Usage: {@code java -Dgwt.persistentunitcache.maxSizeMb=500
+ * com.google.gwt.dev.javac.PersistentUnitCacheCompactor <dir>}, where {@code <dir>} is the
+ * directory containing {@code gwt-unitCache}.
+ * <p>
+ * Compacting deletes cache files written by other processes, so this should not be run while a
+ * compiler is using the same directory.
+ */
+public class PersistentUnitCacheCompactor {
+
+  public static void main(String[] args) {
+    if (args.length != 1) {
+      System.err.println("Usage: java " + PersistentUnitCacheCompactor.class.getName()
+          + " <directory containing gwt-unitCache>");
+      System.exit(1);
+    }
+    PrintWriterTreeLogger logger = new PrintWriterTreeLogger();
+    logger.setMaxDetail(TreeLogger.INFO);
+    System.exit(compact(logger, new File(args[0])) ? 0 : 1);
+  }
+
+  /**
+   * Compacts the cache files for each set of options found in the given directory.
+   * @return true if successful
+   */
+  public static boolean compact(TreeLogger logger, File parentDir) {
+    List<String> optionsHashes = PersistentUnitCacheDir.listOptionsHashes(parentDir);
+    if (Long.getLong(PersistentUnitCache.MAX_AGE_PROPERTY, 0) <= 0 && !optionsHashes.isEmpty()) {
+      // Without a maximum age, compacting deletes the files for all other options, just like
+      // a compile does. Only keep the most recently used ones.
+      optionsHashes = optionsHashes.subList(optionsHashes.size() - 1, optionsHashes.size());
+    }
+    try {
+      for (String optionsHash : optionsHashes) {
+        TreeLogger branch = logger.branch(TreeLogger.INFO,
+            "Compacting persistent unit cache for options " + optionsHash);
+        PersistentUnitCache cache = new PersistentUnitCache(branch, parentDir, optionsHash);
+        cache.compact(branch);
+        cache.shutdown();
+      }
+      return true;
+    } catch (UnableToCompleteException e) {
+      return false;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } catch (ExecutionException e) {
+      logger.log(TreeLogger.ERROR, "Unable to shut down the persistent unit cache", e);
+      return false;
+    }
+  }
+
+  private PersistentUnitCacheCompactor() {
+  }
+}
@@ -20,36 +20,54 @@ import com.google.gwt.core.ext.TreeLogger.Type;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.jjs.impl.GwtAstBuilder;
 import com.google.gwt.dev.util.CompilerVersion;
-import com.google.gwt.dev.util.StringInterningObjectInputStream;
 import com.google.gwt.dev.util.log.speedtracer.DevModeEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.io.Closeables;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.EOFException;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.nio.file.Files;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The directory containing persistent unit cache files.
  * (Helper class for {@link PersistentUnitCache}.)
+ * <p>
+ * Each cache file starts with {@link #FILE_MAGIC} and {@link #FILE_FORMAT_VERSION}, followed by
+ * a sequence of {@link PersistentUnitCacheRecord}s. Loading a file only reads the record headers;
+ * the units themselves are deserialized on demand.
  */
 class PersistentUnitCacheDir {
 
   private static final String DIRECTORY_NAME = "gwt-unitCache";
   private static final String CACHE_FILE_PREFIX = "gwt-unitCache-";
 
+  /**
+   * Marks a file as a persistent unit cache file; files without it are deleted as invalid.
+   */
+  static final int FILE_MAGIC = 0x47574355;
+
+  /**
+   * Incremented whenever the record layout changes.
+   */
+  static final int FILE_FORMAT_VERSION = 4;
+
+  private static final int FILE_HEADER_LENGTH = 8;
+
   static final String CURRENT_VERSION_CACHE_FILE_PREFIX =
       CACHE_FILE_PREFIX + CompilerVersion.getHash();
 
@@ -118,7 +136,7 @@ class PersistentUnitCacheDir {
   }
 
   /**
-   * Load everything cached on disk into memory.
+   * Load the index of everything cached on disk into memory.
    */
   synchronized void loadUnitMap(PersistentUnitCache destination) {
     Event loadPersistentUnitEvent =
@@ -137,10 +155,30 @@ class PersistentUnitCacheDir {
     }
   }
 
+  /**
+   * Returns the total size in bytes of the closed cache files for the current options.
+   */
+  synchronized long getClosedCacheFileBytes() {
+    long total = 0;
+    for (File file : selectClosedFiles(listFiles(filePrefix))) {
+      total += file.length();
+    }
+    return total;
+  }
+
   /**
    * Delete all cache files in the directory except for the currently open file.
    */
   synchronized void deleteClosedCacheFiles() {
+    deleteClosedCacheFiles(Long.MAX_VALUE);
+  }
+
+  /**
+   * Deletes the closed cache files for the current options and the files written by other
+   * compiler versions. Files written with other options are only deleted if they were last
+   * modified before the given time, so their own caches can still use the more recent ones.
+   */
+  synchronized void deleteClosedCacheFiles(long otherOptionsCutoff) {
     SpeedTracerLogger.Event deleteEvent = SpeedTracerLogger.start(DevModeEventType.DELETE_CACHE);
     logger.log(TreeLogger.TRACE, "Deleting cache files from " + dir);
 
@@ -148,6 +186,11 @@ class PersistentUnitCacheDir {
     List<File> allVersionsList = listFiles(CACHE_FILE_PREFIX);
     int deleteCount = 0;
     for (File candidate : allVersionsList) {
+      boolean otherOptions = candidate.getName().startsWith(CURRENT_VERSION_CACHE_FILE_PREFIX)
+          && !candidate.getName().startsWith(filePrefix);
+      if (otherOptions && candidate.lastModified() >= otherOptionsCutoff) {
+        continue;
+      }
       if (deleteUnlessOpen(candidate)) {
         deleteCount++;
       }
@@ -195,6 +238,27 @@ class PersistentUnitCacheDir {
     openFile.writeUnit(logger, unit);
   }
 
+  /**
+   * Copies previously cached units to the disk cache without deserializing them, and updates
+   * the records to point at their new location.
+   */
+  synchronized void copyRecords(List<PersistentUnitCacheRecord> records)
+      throws UnableToCompleteException {
+    if (openFile == null) {
+      logger.log(Type.TRACE, "Skipped copying compilation units to cache because no file is open");
+      return;
+    }
+    long[] newBodyOffsets = new long[records.size()];
+    for (int i = 0; i < records.size(); i++) {
+      newBodyOffsets[i] = openFile.copyRecord(logger, records.get(i));
+    }
+    // The copies must be readable before anyone is pointed at them.
+    openFile.flush(logger);
+    for (int i = 0; i < records.size(); i++) {
+      records.get(i).moveTo(openFile.file, newBodyOffsets[i]);
+    }
+  }
+
   /**
    * Closes the file where cache entries are written.
    * (This should only be called at shutdown.)
@@ -211,58 +275,91 @@ class PersistentUnitCacheDir {
     return new File(parentDir, DIRECTORY_NAME);
   }
 
+  /**
+   * Returns the options hashes that have cache files for the current compiler version in the
+   * cache directory under the given parent, least recently written first.
+   */
+  static List<String> listOptionsHashes(File parentDir) {
+    File[] files = chooseCacheDir(parentDir).listFiles();
+    if (files == null) {
+      return Collections.emptyList();
+    }
+    final Map<String, Long> lastWritten = Maps.newHashMap();
+    String prefix = CURRENT_VERSION_CACHE_FILE_PREFIX + "-";
+    for (File file : files) {
+      String name = file.getName();
+      int timestampStart = name.lastIndexOf('-');
+      if (!name.startsWith(prefix) || timestampStart < prefix.length()) {
+        continue;
+      }
+      String hash = name.substring(prefix.length(), timestampStart);
+      Long previous = lastWritten.get(hash);
+      if (previous == null || previous < file.lastModified()) {
+        lastWritten.put(hash, file.lastModified());
+      }
+    }
+    List<String> hashes = Lists.newArrayList(lastWritten.keySet());
+    Collections.sort(hashes, new Comparator<String>() {
+      @Override
+      public int compare(String a, String b) {
+        return Long.compare(lastWritten.get(a), lastWritten.get(b));
+      }
+    });
+    return hashes;
+  }
+
   private boolean isOpen(File f) {
     return openFile != null && openFile.file.equals(f);
   }
 
   /**
-   * Loads all the units in a cache file into the given cache.
+   * Loads the index of all the units in a cache file into the given cache.
    * Delete it if unable to read it.
    */
   private void loadOrDeleteCacheFile(File cacheFile, PersistentUnitCache destination) {
-    FileInputStream fis = null;
-    BufferedInputStream bis = null;
-    ObjectInputStream inputStream = null;
+    DataInputStream inputStream = null;
 
     boolean ok = false;
+    boolean headerValid = false;
     int unitsLoaded = 0;
     try {
-      fis = new FileInputStream(cacheFile);
-      bis = new BufferedInputStream(fis);
-      /*
-       * It is possible for the next call to throw an exception, leaving
-       * inputStream null and fis still live.
-       */
-      inputStream = new StringInterningObjectInputStream(bis);
-
-      // Read objects until we get an EOF exception.
+      inputStream =
+          new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)));
+
+      if (inputStream.readInt() != FILE_MAGIC
+          || inputStream.readInt() != FILE_FORMAT_VERSION) {
+        throw new IOException("Not a persistent unit cache file in the current format");
+      }
+      headerValid = true;
+
+      // Read record headers until we get to the end of the file.
+      long offset = FILE_HEADER_LENGTH;
       while (true) {
-        CachedCompilationUnit unit = (CachedCompilationUnit) inputStream.readObject();
-        if (unit == null) {
-          // Won't normally get here. Not sure why this check was here before.
-          logger.log(Type.WARN, "unexpected null in cache file: " + cacheFile);
+        PersistentUnitCacheRecord record =
+            PersistentUnitCacheRecord.readHeader(inputStream, cacheFile, offset);
+        if (record == null) {
           break;
         }
-        if (unit.getTypesSerializedVersion() != GwtAstBuilder.getSerializationVersion()) {
+        skipFully(inputStream, record.getBodyLength());
+        offset = record.getBodyOffset() + record.getBodyLength();
+        if (record.getAstVersion() != GwtAstBuilder.getSerializationVersion()) {
           continue;
         }
-        destination.maybeAddLoadedUnit(unit);
+        destination.maybeAddLoadedRecord(record);
         unitsLoaded++;
       }
-
-    } catch (EOFException ignored) {
-      // This is a normal exit. Go on to the next file.
       ok = true;
+    } catch (EOFException e) {
+      // The last record was not completely written, e.g. because the compiler was killed.
+      // Everything before it is still usable.
+      logger.log(TreeLogger.TRACE, "Ignoring truncated record at the end of cache log "
+          + cacheFile.getAbsolutePath(), e);
+      ok = headerValid;
     } catch (IOException e) {
       logger.log(TreeLogger.TRACE, "Ignoring and deleting cache log "
           + cacheFile.getAbsolutePath() + " due to read error.", e);
-    } catch (ClassNotFoundException e) {
-      logger.log(TreeLogger.TRACE, "Ignoring and deleting cache log "
-          + cacheFile.getAbsolutePath() + " due to deserialization error.", e);
     } finally {
       Closeables.closeQuietly(inputStream);
-      Closeables.closeQuietly(bis);
-      Closeables.closeQuietly(fis);
     }
 
     if (ok) {
@@ -275,6 +372,16 @@ class PersistentUnitCacheDir {
     }
   }
 
+  private static void skipFully(DataInputStream in, int length) throws IOException {
+    while (length > 0) {
+      int skipped = in.skipBytes(length);
+      if (skipped <= 0) {
+        throw new EOFException();
+      }
+      length -= skipped;
+    }
+  }
+
   /**
    * Lists files in the cache directory that start with the given prefix.
    *
@@ -345,7 +452,8 @@ class PersistentUnitCacheDir {
    */
   private static class OpenFile {
     private final File file;
-    private final ObjectOutputStream stream;
+    private final DataOutputStream stream;
+    private long position;
     private int unitsWritten = 0;
 
     /**
@@ -356,10 +464,11 @@ class PersistentUnitCacheDir {
     OpenFile(TreeLogger logger, File toOpen)
         throws UnableToCompleteException {
       logger.log(Type.TRACE, "Opening cache file: " + toOpen);
-      ObjectOutputStream newStream = openObjectStream(logger, toOpen);
+      DataOutputStream newStream = openDataStream(logger, toOpen);
 
       this.file = toOpen;
       this.stream = newStream;
+      this.position = FILE_HEADER_LENGTH;
       unitsWritten = 0;
     }
 
@@ -371,7 +480,11 @@ class PersistentUnitCacheDir {
     boolean writeUnit(TreeLogger logger, CompilationUnit unit)
         throws UnableToCompleteException {
       try {
-        stream.writeObject(unit);
+        CachedCompilationUnit cachedUnit = unit.asCachedCompilationUnit();
+        position += PersistentUnitCacheRecord.write(stream, cachedUnit.getResourcePath(),
+            cachedUnit.getContentId().get(), cachedUnit.getLastModified(),
+            cachedUnit.getTypesSerializedVersion(), System.currentTimeMillis(),
+            PersistentUnitCacheRecord.serializeBody(cachedUnit));
         unitsWritten++;
         return true;
       } catch (IOException e) {
@@ -380,6 +493,36 @@ class PersistentUnitCacheDir {
       }
     }
 
+    /**
+     * Appends a copy of a record from another cache file.
+     * @return the offset of the copied body in this file
+     * @throws UnableToCompleteException if the file was open but we can't append.
+     */
+    long copyRecord(TreeLogger logger, PersistentUnitCacheRecord record)
+        throws UnableToCompleteException {
+      try {
+        byte[] body = record.readBody();
+        int recordLength = PersistentUnitCacheRecord.write(stream, record.getResourcePath(),
+            record.getContentId(), record.getLastModified(), record.getAstVersion(),
+            record.getLastAccessed(), body);
+        position += recordLength;
+        unitsWritten++;
+        return position - body.length;
+      } catch (IOException e) {
+        logger.log(TreeLogger.ERROR, "Error copying compilation unit to cache file: " + file, e);
+        throw new UnableToCompleteException();
+      }
+    }
+
+    void flush(TreeLogger logger) throws UnableToCompleteException {
+      try {
+        stream.flush();
+      } catch (IOException e) {
+        logger.log(TreeLogger.ERROR, "Error flushing cache file: " + file, e);
+        throw new UnableToCompleteException();
+      }
+    }
+
     /**
      * Closes the current file and deletes it if it's empty.
      */
@@ -403,13 +546,16 @@ class PersistentUnitCacheDir {
       }
     }
 
-    private static ObjectOutputStream openObjectStream(TreeLogger logger, File file)
+    private static DataOutputStream openDataStream(TreeLogger logger, File file)
         throws UnableToCompleteException {
 
       FileOutputStream fstream = null;
       try {
         fstream = new FileOutputStream(file);
-        return new ObjectOutputStream(new BufferedOutputStream(fstream));
+        DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(fstream));
+        stream.writeInt(FILE_MAGIC);
+        stream.writeInt(FILE_FORMAT_VERSION);
+        return stream;
       } catch (IOException e) {
         logger.log(Type.ERROR, "Can't open persistent unit cache file", e);
         try {
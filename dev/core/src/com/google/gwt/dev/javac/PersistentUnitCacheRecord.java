@@ -0,0 +1,230 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.dev.util.CompactObjectInputStream;
+import com.google.gwt.dev.util.CompactObjectOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The location and index data of one compilation unit stored in a persistent unit cache file.
+ * (Helper class for {@link PersistentUnitCacheDir}.)
+ * <p>
+ * Each unit is stored as a small header followed by a body:
+ *
+ * <pre>
+ * int    header length
+ * header: UTF resource path, UTF content id, long last modified, long AST version,
+ *         long last accessed
+ * int    body length
+ * body:   the {@link CachedCompilationUnit}, serialized with a {@link CompactObjectOutputStream}
+ * </pre>
+ *
+ * The headers are all that is read when a cache file is loaded; the body is only read and
+ * deserialized when the unit is actually requested. Records can be moved to another file when
+ * the cache is compacted, so the location is guarded by this object's monitor.
+ */
+class PersistentUnitCacheRecord {
+
+  /**
+   * Two modified UTF-8 strings and three longs; anything longer means the file is corrupt.
+   */
+  private static final int MAX_HEADER_LENGTH = 2 * (2 + 0xFFFF) + 3 * 8;
+
+  /**
+   * Serializes a unit into a new record body.
+   */
+  static byte[] serializeBody(CachedCompilationUnit unit) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new CompactObjectOutputStream(bytes);
+    out.writeObject(unit);
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Reads the next record header from {@code in}, leaving the stream positioned at the start of
+   * the body.
+   *
+   * @param recordOffset the offset in {@code file} where the record starts
+   * @return the record, or null if the stream is at the end of the file
+   * @throws EOFException if the file ends in the middle of a record
+   */
+  static PersistentUnitCacheRecord readHeader(DataInputStream in, File file, long recordOffset)
+      throws IOException {
+    int headerLength;
+    try {
+      headerLength = in.readInt();
+    } catch (EOFException e) {
+      return null;
+    }
+    if (headerLength < 0 || headerLength > MAX_HEADER_LENGTH) {
+      throw new IOException("Invalid record header length " + headerLength + " in " + file);
+    }
+    byte[] header = new byte[headerLength];
+    in.readFully(header);
+    int bodyLength = in.readInt();
+    if (bodyLength < 0) {
+      throw new IOException("Invalid record body length " + bodyLength + " in " + file);
+    }
+
+    DataInputStream headerIn = new DataInputStream(new ByteArrayInputStream(header));
+    String resourcePath = headerIn.readUTF();
+    String contentId = headerIn.readUTF();
+    long lastModified = headerIn.readLong();
+    long astVersion = headerIn.readLong();
+    long lastAccessed = headerIn.readLong();
+    long bodyOffset = recordOffset + 4 + headerLength + 4;
+    return new PersistentUnitCacheRecord(resourcePath, contentId, lastModified, astVersion,
+        lastAccessed, file, bodyOffset, bodyLength);
+  }
+
+  /**
+   * Writes a complete record and returns the number of bytes written.
+   */
+  static int write(DataOutputStream out, String resourcePath, String contentId,
+      long lastModified, long astVersion, long lastAccessed, byte[] body) throws IOException {
+    ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+    DataOutputStream headerOut = new DataOutputStream(headerBytes);
+    headerOut.writeUTF(resourcePath);
+    headerOut.writeUTF(contentId);
+    headerOut.writeLong(lastModified);
+    headerOut.writeLong(astVersion);
+    headerOut.writeLong(lastAccessed);
+    headerOut.close();
+
+    out.writeInt(headerBytes.size());
+    headerBytes.writeTo(out);
+    out.writeInt(body.length);
+    out.write(body);
+    return 4 + headerBytes.size() + 4 + body.length;
+  }
+
+  private final long astVersion;
+  private final int bodyLength;
+  private final String contentId;
+  private final long lastModified;
+  private final String resourcePath;
+
+  private long bodyOffset;
+  private File file;
+  private long lastAccessed;
+
+  private PersistentUnitCacheRecord(String resourcePath, String contentId, long lastModified,
+      long astVersion, long lastAccessed, File file, long bodyOffset, int bodyLength) {
+    this.resourcePath = resourcePath;
+    this.contentId = contentId;
+    this.lastModified = lastModified;
+    this.astVersion = astVersion;
+    this.lastAccessed = lastAccessed;
+    this.file = file;
+    this.bodyOffset = bodyOffset;
+    this.bodyLength = bodyLength;
+  }
+
+  long getAstVersion() {
+    return astVersion;
+  }
+
+  synchronized long getBodyOffset() {
+    return bodyOffset;
+  }
+
+  int getBodyLength() {
+    return bodyLength;
+  }
+
+  /**
+   * Returns the content id in the form produced by {@link ContentId#get()}.
+   */
+  String getContentId() {
+    return contentId;
+  }
+
+  /**
+   * Returns the last time the unit was written to the cache or returned from it, in milliseconds
+   * since the epoch.
+   */
+  synchronized long getLastAccessed() {
+    return lastAccessed;
+  }
+
+  long getLastModified() {
+    return lastModified;
+  }
+
+  String getResourcePath() {
+    return resourcePath;
+  }
+
+  /**
+   * Reads and deserializes the unit stored in this record.
+   */
+  CachedCompilationUnit load() throws IOException, ClassNotFoundException {
+    ObjectInputStream in = new CompactObjectInputStream(new ByteArrayInputStream(readBody()));
+    try {
+      return (CachedCompilationUnit) in.readObject();
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Reads the serialized unit without deserializing it.
+   */
+  synchronized byte[] readBody() throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      ByteBuffer buffer = ByteBuffer.allocate(bodyLength);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, bodyOffset + buffer.position()) < 0) {
+          throw new EOFException("Truncated persistent unit cache record for " + resourcePath
+              + " in " + file);
+        }
+      }
+      return buffer.array();
+    } finally {
+      channel.close();
+    }
+  }
+
+  /**
+   * Records that the unit was used at the given time. (Saved the next time the record is copied.)
+   */
+  synchronized void markAccessed(long time) {
+    lastAccessed = Math.max(lastAccessed, time);
+  }
+
+  /**
+   * Records that the body of this record was copied to a new location.
+   */
+  synchronized void moveTo(File newFile, long newBodyOffset) {
+    this.file = newFile;
+    this.bodyOffset = newBodyOffset;
+  }
+}
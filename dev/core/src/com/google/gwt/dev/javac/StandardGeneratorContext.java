@@ -34,12 +34,12 @@ import com.google.gwt.core.ext.linker.impl.StandardGeneratedResource;
 import com.google.gwt.core.ext.typeinfo.JClassType;
 import com.google.gwt.core.ext.typeinfo.TypeOracle;
 import com.google.gwt.dev.CompilerContext;
+import com.google.gwt.dev.cfg.RecordingPropertyOracle;
 import com.google.gwt.dev.cfg.RuleGenerateWith;
 import com.google.gwt.dev.resource.Resource;
 import com.google.gwt.dev.resource.ResourceOracle;
 import com.google.gwt.dev.resource.impl.AbstractResourceOracle;
 import com.google.gwt.dev.util.DiskCache;
-import com.google.gwt.dev.util.collect.HashSet;
 import com.google.gwt.dev.util.collect.IdentityHashMap;
 import com.google.gwt.dev.util.log.speedtracer.CompilerEventType;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
@@ -57,19 +57,36 @@ import java.io.StringWriter;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manages generators and generated units during a single compilation.
  */
 public class StandardGeneratorContext implements GeneratorContext {
 
+  /**
+   * Whether the compiler runs the generators for independent deferred binding requests
+   * concurrently, in contexts created with {@link #fork}. Enable with
+   * {@code -Dgwt.concurrentGenerators=true}.
+   * <p>
+   * Each fork has its own generator instances, but the same generator class can run on several
+   * threads at once, so every generator in the module, including user generators, must be thread
+   * safe: static state must be immutable or synchronized. The type oracle is only read while forks
+   * run.
+   */
+  public static final boolean CONCURRENT_GENERATORS =
+      Boolean.parseBoolean(System.getProperty("gwt.concurrentGenerators"));
+
   /**
    * Wraps a ResourceOracle to collect the paths of Resources read by Generators.
    */
@@ -88,19 +105,26 @@ public class StandardGeneratorContext implements GeneratorContext {
 
     @Override
     public Set<String> getPathNames() {
+      persistentResultUnreplayable = true;
       return wrappedResourceOracle.getPathNames();
     }
 
     @Override
     public Resource getResource(String pathName) {
       pathName = Files.simplifyPath(pathName);
-      compilerContext.getMinimalRebuildCache().associateReboundTypeWithInputResource(
-          currentRebindBinaryTypeName, pathName);
+      if (!isFork) {
+        compilerContext.getMinimalRebuildCache().associateReboundTypeWithInputResource(
+            currentRebindBinaryTypeName, pathName);
+      }
+      if (persistentResult != null) {
+        persistentResult.resourceHashes.put(pathName, "");
+      }
       return wrappedResourceOracle.getResource(pathName);
     }
 
     @Override
     public Set<Resource> getResources() {
+      persistentResultUnreplayable = true;
       return wrappedResourceOracle.getResources();
     }
   }
@@ -326,11 +350,50 @@ public class StandardGeneratorContext implements GeneratorContext {
 
   private ArtifactSet newlyGeneratedArtifacts = new ArtifactSet();
 
-  private final Set<String> newlyGeneratedTypeNames = new HashSet<String>();
+  /**
+   * The contexts that created the types generated since the last {@link #finish}, by type name,
+   * shared with forks so that only one of them creates each type.
+   */
+  private final ConcurrentMap<String, StandardGeneratorContext> newlyGeneratedTypeCreators;
 
   private final Map<String, PendingResource> pendingResources =
       new HashMap<String, PendingResource>();
 
+  /**
+   * Whether this is a context created by {@link #fork}, which doesn't record which rebound types
+   * generated units and read resources, since that is only needed in incremental compiles and
+   * the record isn't thread safe.
+   */
+  private final boolean isFork;
+
+  /**
+   * Whether a generator in this fork tried to create a type that another fork had created.
+   */
+  private boolean collidedWithOtherFork;
+
+  /**
+   * Where generator results are kept across compiles, or null if they aren't.
+   */
+  private final PersistentGeneratorResultCache persistentResultCache;
+
+  /**
+   * What the running generator reads and produces, if its result is going to be stored in the
+   * persistent cache.
+   */
+  private PersistentGeneratorResultCache.Result persistentResult;
+
+  /**
+   * Whether the running generator did something whose effect can't be checked or replayed, such
+   * as listing all resources, so that its result must not be stored.
+   */
+  private boolean persistentResultUnreplayable;
+
+  /**
+   * A fingerprint of the compilation units known to the type oracle, computed when first needed
+   * after they change.
+   */
+  private String unitsFingerprint;
+
   private transient PropertyOracle propertyOracle;
 
   private RebindRuleResolver rebindRuleResolver;
@@ -366,10 +429,30 @@ public class StandardGeneratorContext implements GeneratorContext {
 
     this.buildResourceOracle =
         new RecordingResourceOracle(compilerContext.getBuildResourceOracle());
+    this.newlyGeneratedTypeCreators = new ConcurrentHashMap<String, StandardGeneratorContext>();
+    this.isFork = false;
+    this.persistentResultCache = compilerContext.getOptions().isIncrementalCompileEnabled()
+        ? null
+        : PersistentGeneratorResultCache.create(Thread.currentThread().getContextClassLoader());
 
     ResourceLocatorImpl.resetClassLoaderLoadWarningCount();
   }
 
+  private StandardGeneratorContext(StandardGeneratorContext parent) {
+    this.compilerContext = parent.compilerContext;
+    this.compilationState = parent.compilationState;
+    this.genDir = parent.genDir;
+    this.allGeneratedArtifacts = new ArtifactSet(parent.allGeneratedArtifacts);
+    this.isProdMode = parent.isProdMode;
+    this.generatorResultCachingEnabled = parent.generatorResultCachingEnabled;
+    this.buildResourceOracle =
+        new RecordingResourceOracle(compilerContext.getBuildResourceOracle());
+    this.newlyGeneratedTypeCreators = parent.newlyGeneratedTypeCreators;
+    this.isFork = true;
+    this.persistentResultCache = parent.persistentResultCache;
+    this.unitsFingerprint = parent.unitsFingerprint;
+  }
+
   /**
    * Adds a generated unit to the context if not already present, but will not
    * overwrite an existing unit.
@@ -427,6 +510,56 @@ public class StandardGeneratorContext implements GeneratorContext {
     }
   }
 
+  /**
+   * Returns a context in which generators can run on another thread, concurrently with the
+   * generators of other forks. A fork starts out with the generated artifacts of this context and
+   * its own generator instances. Types created in any fork or in this context are not created
+   * again by the others, and a fork that tries to create a type another fork has created
+   * {@link #collidedWithOtherFork collides} with it; resources created by several forks are
+   * replaced in the order the forks are merged. Whatever the generators commit stays in the fork until it is {@link #merge merged}
+   * back; forks that are not merged must be {@link #discard discarded}.
+   * <p>
+   * The type oracle must not change while forks are in use, so {@link #finish} must not be called
+   * until they are done.
+   */
+  public StandardGeneratorContext fork() {
+    return new StandardGeneratorContext(this);
+  }
+
+  /**
+   * Adds the generated units and artifacts committed to {@code fork} to this context, as if its
+   * generators had run here. Must be called on the thread that uses this context, once the fork's
+   * generators are done.
+   */
+  public void merge(StandardGeneratorContext fork) {
+    assert fork.isFork && fork.newlyGeneratedTypeCreators == newlyGeneratedTypeCreators;
+    uncommittedGeneratedCupsByPrintWriter.putAll(fork.uncommittedGeneratedCupsByPrintWriter);
+    committedGeneratedCups.putAll(fork.committedGeneratedCups);
+    pendingResources.putAll(fork.pendingResources);
+    for (Artifact<?> artifact : fork.newlyGeneratedArtifacts) {
+      allGeneratedArtifacts.replace(artifact);
+      newlyGeneratedArtifacts.add(artifact);
+    }
+  }
+
+  /**
+   * Drops whatever the generators committed to {@code fork}, letting this context and other
+   * forks create the types it had claimed.
+   */
+  public void discard(StandardGeneratorContext fork) {
+    assert fork.isFork && fork.newlyGeneratedTypeCreators == newlyGeneratedTypeCreators;
+    newlyGeneratedTypeCreators.values().removeAll(Collections.singleton(fork));
+  }
+
+  /**
+   * Whether a generator in this fork tried to create a type that another fork had already
+   * created. Which of them got to create it depended on scheduling, so the output of the forks
+   * involved isn't deterministic.
+   */
+  public boolean collidedWithOtherFork() {
+    return collidedWithOtherFork;
+  }
+
   /**
    * Frees memory used up by compilation state.
    */
@@ -448,6 +581,9 @@ public class StandardGeneratorContext implements GeneratorContext {
     gcup.commit(logger);
     uncommittedGeneratedCupsByPrintWriter.remove(pw);
     committedGeneratedCups.put(gcup.getTypeName(), gcup);
+    if (persistentResult != null) {
+      persistentResult.sourcesByTypeName.put(gcup.getTypeName(), null);
+    }
 
     // Write as a source artifact so that a debugger can use it.
     // TODO: if we're not generating sourcemaps then we should probably skip this entirely
@@ -461,7 +597,7 @@ public class StandardGeneratorContext implements GeneratorContext {
     GeneratedResource debuggerSource =
         new StandardGeneratedResource(gcup.getSourceMapPath(), gcup.getSourceToken());
     debuggerSource.setVisibility(Visibility.Source);
-    commitArtifact(logger, debuggerSource);
+    addArtifact(debuggerSource);
   }
 
   /**
@@ -473,8 +609,10 @@ public class StandardGeneratorContext implements GeneratorContext {
    */
   @Override
   public void commitArtifact(TreeLogger logger, Artifact<?> artifact) {
-    allGeneratedArtifacts.replace(artifact);
-    newlyGeneratedArtifacts.add(artifact);
+    addArtifact(artifact);
+    if (persistentResult != null) {
+      persistentResult.artifacts.add(artifact);
+    }
   }
 
   /**
@@ -549,6 +687,7 @@ public class StandardGeneratorContext implements GeneratorContext {
         }
 
         compilationState.addGeneratedCompilationUnits(logger, committedGeneratedCups.values());
+        unitsFingerprint = null;
       }
       return newlyGeneratedArtifacts;
     } finally {
@@ -582,12 +721,13 @@ public class StandardGeneratorContext implements GeneratorContext {
   public void reset() {
     uncommittedGeneratedCupsByPrintWriter.clear();
     committedGeneratedCups.clear();
-    newlyGeneratedTypeNames.clear();
+    newlyGeneratedTypeCreators.clear();
     newlyGeneratedArtifacts = new ArtifactSet();
     cachedTypeNamesToReuse = null;
   }
 
   public Set<String> getActiveLinkerNames() {
+    persistentResultUnreplayable = true;
     return compilerContext.getModule().getActiveLinkerNames();
   }
 
@@ -711,6 +851,7 @@ public class StandardGeneratorContext implements GeneratorContext {
         SpeedTracerLogger.start(type, "class", generatorClassName, "type", typeName);
 
     PropertyOracle originalPropertyOracle = propertyOracle;
+    RecordingPropertyOracle recordingPropertyOracle = null;
     try {
       RebindResult result;
       // TODO(stalcup): refactor the Generator/PropertyOracle system (in a potentially backwards
@@ -719,6 +860,22 @@ public class StandardGeneratorContext implements GeneratorContext {
       propertyOracle = new SubsetFilteringPropertyOracle(
           RuleGenerateWith.getAccessedPropertyNames(generator.getClass()), originalPropertyOracle,
           generatorClassName + "'s RunsLocal annotation may need to be updated.");
+      String persistentResultKey = getPersistentResultKey(generator, typeName);
+      if (persistentResultKey != null) {
+        result = reusePersistentResult(logger, persistentResultKey);
+        if (result != null) {
+          if (loggable) {
+            logger.log(TreeLogger.DEBUG, "Reused the result of an earlier compile for type '"
+                + typeName + "'", null);
+          }
+          return result;
+        }
+        // Record what the generator reads and produces.
+        persistentResult = new PersistentGeneratorResultCache.Result();
+        persistentResultUnreplayable = false;
+        recordingPropertyOracle = new RecordingPropertyOracle(propertyOracle);
+        propertyOracle = recordingPropertyOracle;
+      }
       if (generator instanceof IncrementalGenerator) {
         IncrementalGenerator incGenerator = (IncrementalGenerator) generator;
 
@@ -745,6 +902,10 @@ public class StandardGeneratorContext implements GeneratorContext {
         result = IncrementalGenerator.generateNonIncrementally(logger, generator, this, typeName);
       }
 
+      if (persistentResult != null) {
+        storePersistentResult(logger, persistentResultKey, result, recordingPropertyOracle);
+      }
+
       if (loggable) {
         long after = System.currentTimeMillis();
         msg =
@@ -764,6 +925,7 @@ public class StandardGeneratorContext implements GeneratorContext {
       throw new UnableToCompleteException();
     } finally {
       propertyOracle = originalPropertyOracle;
+      persistentResult = null;
       generatorEvent.end();
     }
   }
@@ -808,8 +970,11 @@ public class StandardGeneratorContext implements GeneratorContext {
       typeName = packageName + '.' + simpleTypeName;
     }
 
-    compilerContext.getMinimalRebuildCache().associateReboundTypeWithGeneratedCompilationUnitName(
-        currentRebindBinaryTypeName, typeName);
+    if (!isFork) {
+      compilerContext.getMinimalRebuildCache()
+          .associateReboundTypeWithGeneratedCompilationUnitName(currentRebindBinaryTypeName,
+              typeName);
+    }
 
     // Is type already known to the host?
     JClassType existingType = getTypeOracle().findType(packageName, simpleTypeName);
@@ -818,11 +983,21 @@ public class StandardGeneratorContext implements GeneratorContext {
         logger.log(TreeLogger.DEBUG, "Type '" + typeName
             + "' already exists and will not be re-created ", null);
       }
+      if (persistentResult != null) {
+        persistentResult.existingTypeNames.add(typeName);
+      }
       return null;
     }
 
-    // Type recently generated?
-    if (newlyGeneratedTypeNames.contains(typeName)) {
+    // Type recently generated? Claims the name otherwise.
+    StandardGeneratorContext creator = newlyGeneratedTypeCreators.putIfAbsent(typeName, this);
+    if (creator != null) {
+      if (creator != this && creator.isFork) {
+        collidedWithOtherFork = true;
+      }
+      if (persistentResult != null) {
+        persistentResult.existingTypeNames.add(typeName);
+      }
       return null;
     }
 
@@ -854,7 +1029,6 @@ public class StandardGeneratorContext implements GeneratorContext {
       gcup = new GeneratedUnitWithFile(srcFile, sw, typeName);
     }
     uncommittedGeneratedCupsByPrintWriter.put(pw, gcup);
-    newlyGeneratedTypeNames.add(typeName);
     return pw;
   }
 
@@ -894,6 +1068,7 @@ public class StandardGeneratorContext implements GeneratorContext {
     if (compilerContext.getPublicResourceOracle().getResource(partialPath) != null) {
       logger.log(TreeLogger.WARN, "Cannot create resource '" + partialPath
           + "' because it already exists on the public path", null);
+      persistentResultUnreplayable = true;
       return null;
     }
 
@@ -901,6 +1076,7 @@ public class StandardGeneratorContext implements GeneratorContext {
     SortedSet<GeneratedResource> resources = allGeneratedArtifacts.find(GeneratedResource.class);
     for (GeneratedResource resource : resources) {
       if (partialPath.equals(resource.getPartialPath())) {
+        persistentResultUnreplayable = true;
         return null;
       }
     }
@@ -910,6 +1086,7 @@ public class StandardGeneratorContext implements GeneratorContext {
       // It is already pending.
       logger.log(TreeLogger.WARN, "The file '" + partialPath + "' is already a pending resource",
           null);
+      persistentResultUnreplayable = true;
       return null;
     }
     PendingResource pendingResource = new PendingResource(partialPath);
@@ -940,6 +1117,156 @@ public class StandardGeneratorContext implements GeneratorContext {
     return true;
   }
 
+  /**
+   * Returns the key of the generator's results in the persistent cache, or null if they shouldn't
+   * be cached.
+   */
+  private String getPersistentResultKey(Generator generator, String typeName) {
+    if (persistentResultCache == null || generatorResultCachingEnabled) {
+      return null;
+    }
+    if (unitsFingerprint == null) {
+      unitsFingerprint =
+          PersistentGeneratorResultCache.fingerprintUnits(compilationState.getCompilationUnits());
+    }
+    String versionId = generator instanceof IncrementalGenerator
+        ? String.valueOf(((IncrementalGenerator) generator).getVersionId()) : "";
+    return generator.getClass().getName() + '\n' + versionId + '\n' + typeName + '\n'
+        + isProdMode + '\n' + unitsFingerprint;
+  }
+
+  /**
+   * Commits the units and artifacts of a stored result whose inputs are unchanged, as if the
+   * generator had run. Returns null if there is no such result.
+   */
+  private RebindResult reusePersistentResult(TreeLogger logger, String key) {
+    for (PersistentGeneratorResultCache.Result stored : persistentResultCache.get(key)) {
+      if (isReusable(stored) && replay(logger, stored)) {
+        return new RebindResult(stored.rebindMode, stored.resultTypeName);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns whether the generator would read the same inputs as when {@code stored} was recorded,
+   * and would be able to create the same types and resources.
+   */
+  private boolean isReusable(PersistentGeneratorResultCache.Result stored) {
+    for (Entry<String, String> entry : stored.propertyValues.entrySet()) {
+      if (!entry.getValue().equals(
+          PersistentGeneratorResultCache.describeProperty(propertyOracle, entry.getKey()))) {
+        return false;
+      }
+    }
+    ResourceOracle resourceOracle = compilerContext.getBuildResourceOracle();
+    for (Entry<String, String> entry : stored.resourceHashes.entrySet()) {
+      try {
+        if (!entry.getValue().equals(PersistentGeneratorResultCache.hashContents(
+            resourceOracle.getResource(entry.getKey())))) {
+          return false;
+        }
+      } catch (IOException e) {
+        return false;
+      }
+    }
+    TypeOracle typeOracle = getTypeOracle();
+    for (String typeName : stored.existingTypeNames) {
+      if (typeOracle.findType(typeName) == null && !newlyGeneratedTypeCreators.containsKey(typeName)) {
+        return false;
+      }
+    }
+    for (Artifact<?> artifact : stored.artifacts) {
+      if (!(artifact instanceof GeneratedResource)) {
+        continue;
+      }
+      String partialPath = ((GeneratedResource) artifact).getPartialPath();
+      if (compilerContext.getPublicResourceOracle().getResource(partialPath) != null
+          || pendingResources.containsKey(partialPath)) {
+        return false;
+      }
+      for (GeneratedResource resource : allGeneratedArtifacts.find(GeneratedResource.class)) {
+        if (partialPath.equals(resource.getPartialPath())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Creates and commits the types and artifacts of {@code stored}. Returns false, having created
+   * nothing, if one of the types can't be created.
+   */
+  private boolean replay(TreeLogger logger, PersistentGeneratorResultCache.Result stored) {
+    Map<String, PrintWriter> printWriters = new LinkedHashMap<String, PrintWriter>();
+    for (String typeName : stored.sourcesByTypeName.keySet()) {
+      int lastDot = typeName.lastIndexOf('.');
+      PrintWriter pw = tryCreate(TreeLogger.NULL,
+          lastDot < 0 ? "" : typeName.substring(0, lastDot), typeName.substring(lastDot + 1));
+      if (pw == null) {
+        // Created by another fork in the meantime.
+        for (Entry<String, PrintWriter> entry : printWriters.entrySet()) {
+          uncommittedGeneratedCupsByPrintWriter.remove(entry.getValue()).abort();
+          newlyGeneratedTypeCreators.remove(entry.getKey());
+        }
+        return false;
+      }
+      printWriters.put(typeName, pw);
+    }
+    for (Entry<String, PrintWriter> entry : printWriters.entrySet()) {
+      entry.getValue().print(stored.sourcesByTypeName.get(entry.getKey()));
+      commit(logger, entry.getValue());
+    }
+    for (Artifact<?> artifact : stored.artifacts) {
+      commitArtifact(logger, artifact);
+    }
+    return true;
+  }
+
+  /**
+   * Stores what the generator that just ran read and produced, unless it did something that
+   * can't be replayed or left anything uncommitted.
+   */
+  private void storePersistentResult(TreeLogger logger, String key, RebindResult result,
+      RecordingPropertyOracle recordingPropertyOracle) {
+    if (persistentResultUnreplayable || !uncommittedGeneratedCupsByPrintWriter.isEmpty()
+        || !pendingResources.isEmpty()) {
+      return;
+    }
+    for (Entry<String, String> entry : persistentResult.sourcesByTypeName.entrySet()) {
+      entry.setValue(committedGeneratedCups.get(entry.getKey()).getSource());
+    }
+    ResourceOracle resourceOracle = compilerContext.getBuildResourceOracle();
+    for (Entry<String, String> entry : persistentResult.resourceHashes.entrySet()) {
+      try {
+        entry.setValue(
+            PersistentGeneratorResultCache.hashContents(resourceOracle.getResource(entry.getKey())));
+      } catch (IOException e) {
+        return;
+      }
+    }
+    PropertyOracle readPropertyOracle = recordingPropertyOracle.getWrappedPropertyOracle();
+    for (String propertyName : recordingPropertyOracle.getSelectionPropertyNames()) {
+      String propertyKey = "s:" + propertyName;
+      persistentResult.propertyValues.put(propertyKey,
+          PersistentGeneratorResultCache.describeProperty(readPropertyOracle, propertyKey));
+    }
+    for (String propertyName : recordingPropertyOracle.getConfigurationPropertyNames()) {
+      String propertyKey = "c:" + propertyName;
+      persistentResult.propertyValues.put(propertyKey,
+          PersistentGeneratorResultCache.describeProperty(readPropertyOracle, propertyKey));
+    }
+    persistentResult.resultTypeName = result.getResultTypeName();
+    persistentResult.rebindMode = result.getRebindMode();
+    persistentResultCache.put(logger, key, persistentResult);
+  }
+
+  private void addArtifact(Artifact<?> artifact) {
+    allGeneratedArtifacts.replace(artifact);
+    newlyGeneratedArtifacts.add(artifact);
+  }
+
   private void abortUncommittedResources(TreeLogger logger) {
     if (pendingResources.isEmpty()) {
       // Nothing to do.
@@ -27,8 +27,8 @@ import java.util.TreeMap;
 abstract class AbstractMembers {
 
   protected final JClassType classType;
-  private JMethod[] cachedInheritableMethods;
-  private JMethod[] cachedOverridableMethods;
+  private volatile JMethod[] cachedInheritableMethods;
+  private volatile JMethod[] cachedOverridableMethods;
 
   public AbstractMembers(JClassType classType) {
     this.classType = classType;
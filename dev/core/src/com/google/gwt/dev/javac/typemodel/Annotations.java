@@ -57,7 +57,7 @@ class Annotations implements HasAnnotations {
    * Lazily initialized collection of annotations declared on or inherited by
    * the annotated element.
    */
-  private Map<Class<? extends Annotation>, Annotation> lazyAnnotations = null;
+  private volatile Map<Class<? extends Annotation>, Annotation> lazyAnnotations = null;
 
   /**
    * If not <code>null</code> the parent to inherit annotations from.
@@ -88,14 +88,12 @@ class Annotations implements HasAnnotations {
 
   @Override
   public <T extends Annotation> T getAnnotation(Class<T> annotationClass) {
-    initializeAnnotations();
-    return annotationClass.cast(lazyAnnotations.get(annotationClass));
+    return annotationClass.cast(initializeAnnotations().get(annotationClass));
   }
 
   @Override
   public Annotation[] getAnnotations() {
-    initializeAnnotations();
-    List<Annotation> values = new ArrayList<Annotation>(lazyAnnotations.values());
+    List<Annotation> values = new ArrayList<Annotation>(initializeAnnotations().values());
     Collections.sort(values, ANNOTATION_COMPARATOR);
     return values.toArray(new Annotation[values.size()]);
   }
@@ -123,25 +121,28 @@ class Annotations implements HasAnnotations {
     this.parent = parent;
   }
 
-  private void initializeAnnotations() {
-    if (lazyAnnotations != null) {
-      return;
+  private Map<Class<? extends Annotation>, Annotation> initializeAnnotations() {
+    Map<Class<? extends Annotation>, Annotation> annotations = lazyAnnotations;
+    if (annotations != null) {
+      return annotations;
     }
 
     if (parent != null) {
-      lazyAnnotations = new HashMap<Class<? extends Annotation>, Annotation>();
-      parent.initializeAnnotations();
-      for (Entry<Class<? extends Annotation>, Annotation> entry : parent.lazyAnnotations.entrySet()) {
+      annotations = new HashMap<Class<? extends Annotation>, Annotation>();
+      for (Entry<Class<? extends Annotation>, Annotation> entry :
+          parent.initializeAnnotations().entrySet()) {
         if (entry.getValue().annotationType().isAnnotationPresent(
             Inherited.class)) {
-          lazyAnnotations.put(entry.getKey(), entry.getValue());
+          annotations.put(entry.getKey(), entry.getValue());
         }
       }
 
-      lazyAnnotations.putAll(declaredAnnotations);
-      lazyAnnotations = Maps.normalize(lazyAnnotations);
+      annotations.putAll(declaredAnnotations);
+      annotations = Maps.normalize(annotations);
     } else {
-      lazyAnnotations = declaredAnnotations;
+      annotations = declaredAnnotations;
     }
+    lazyAnnotations = annotations;
+    return annotations;
   }
 }
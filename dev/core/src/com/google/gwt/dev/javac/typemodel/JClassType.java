@@ -76,7 +76,7 @@ public abstract class JClassType implements
    * Cached set of supertypes for this type (including itself). If null, the set
    * has not been calculated yet.
    */
-  private Set<JClassType> flattenedSupertypes;
+  private volatile Set<JClassType> flattenedSupertypes;
 
   /**
    * True if this type may be enhanced with server-only fields. This property is
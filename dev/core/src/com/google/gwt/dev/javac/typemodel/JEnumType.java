@@ -23,7 +23,7 @@ import java.util.List;
  */
 public class JEnumType extends JRealClassType implements
     com.google.gwt.core.ext.typeinfo.JEnumType {
-  private JEnumConstant[] lazyEnumConstants;
+  private volatile JEnumConstant[] lazyEnumConstants;
 
   JEnumType(TypeOracle oracle, JPackage declaringPackage,
       String enclosingSimpleName, String simpleName) {
@@ -37,7 +37,8 @@ public class JEnumType extends JRealClassType implements
    */
   @Override
   public JEnumConstant[] getEnumConstants() {
-    if (lazyEnumConstants == null) {
+    JEnumConstant[] result = lazyEnumConstants;
+    if (result == null) {
       List<JEnumConstant> enumConstants = new ArrayList<JEnumConstant>();
       for (JField field : getFields()) {
         if (field.isEnumConstant() != null) {
@@ -45,10 +46,11 @@ public class JEnumType extends JRealClassType implements
         }
       }
 
-      lazyEnumConstants = enumConstants.toArray(new JEnumConstant[enumConstants.size()]);
+      result = enumConstants.toArray(new JEnumConstant[enumConstants.size()]);
+      lazyEnumConstants = result;
     }
 
-    return lazyEnumConstants;
+    return result;
   }
 
   @Override
@@ -84,7 +84,7 @@ public class JGenericType extends JRealClassType implements
   }
 
   @Override
-  public JRawType getRawType() {
+  public synchronized JRawType getRawType() {
     if (lazyRawType == null) {
       lazyRawType = new JRawType(this);
     }
@@ -28,7 +28,7 @@ public class JParameter implements com.google.gwt.core.ext.typeinfo.JParameter {
 
   private final ImmutableAnnotations annotations;
 
-  private boolean argNameIsReal;
+  private volatile boolean argNameIsReal;
 
   private final JAbstractMethod enclosingMethod;
 
@@ -72,15 +72,15 @@ public class JParameterizedType extends JMaybeParameterizedType implements
 
   private final JClassType enclosingType;
 
-  private List<JClassType> interfaces;
+  private volatile List<JClassType> interfaces;
 
   /**
    * This map records the JClassType that should be used in place of a given
    * {@link JTypeParameter}.
    */
-  private Map<JTypeParameter, JClassType> lazySubstitutionMap;
+  private volatile Map<JTypeParameter, JClassType> lazySubstitutionMap;
 
-  private JClassType lazySuperclass;
+  private volatile JClassType lazySuperclass;
 
   private final AbstractMembers members;
 
@@ -157,16 +157,18 @@ public class JParameterizedType extends JMaybeParameterizedType implements
 
   @Override
   public JClassType[] getImplementedInterfaces() {
-    if (interfaces == null) {
-      interfaces = new ArrayList<JClassType>();
+    List<JClassType> result = interfaces;
+    if (result == null) {
+      result = new ArrayList<JClassType>();
       JClassType[] intfs = getBaseType().getImplementedInterfaces();
       for (JClassType intf : intfs) {
         JClassType newIntf = intf.getSubstitutedType(this);
-        interfaces.add(newIntf);
+        result.add(newIntf);
       }
-      interfaces = Lists.normalize(interfaces);
+      result = Lists.normalize(result);
+      interfaces = result;
     }
-    return interfaces.toArray(TypeOracle.NO_JCLASSES);
+    return result.toArray(TypeOracle.NO_JCLASSES);
   }
 
   @Override
@@ -309,14 +311,16 @@ public class JParameterizedType extends JMaybeParameterizedType implements
       return null;
     }
 
-    if (lazySuperclass == null) {
+    JClassType result = lazySuperclass;
+    if (result == null) {
       JGenericType baseType = getBaseType();
       JClassType superclass = baseType.getSuperclass();
       assert (superclass != null);
-      lazySuperclass = superclass.getSubstitutedType(this);
+      result = superclass.getSubstitutedType(this);
+      lazySuperclass = result;
     }
 
-    return lazySuperclass;
+    return result;
   }
 
   @Override
@@ -401,9 +405,8 @@ public class JParameterizedType extends JMaybeParameterizedType implements
    * {@link JTypeParameter} is returned.
    */
   JClassType getTypeParameterSubstitution(JTypeParameter typeParameter) {
-    maybeInitializeTypeParameterSubstitutionMap();
-
-    JClassType substitute = lazySubstitutionMap.get(typeParameter);
+    JClassType substitute =
+        maybeInitializeTypeParameterSubstitutionMap().get(typeParameter);
     if (substitute != null) {
       return substitute;
     }
@@ -432,11 +435,12 @@ public class JParameterizedType extends JMaybeParameterizedType implements
    * corresponding {@link JClassType}s. This can only be initialized after the
    * TypeOracleUpdater has fully resolved all of the {@link JClassType}s.
    */
-  void maybeInitializeTypeParameterSubstitutionMap() {
-    if (lazySubstitutionMap != null) {
-      return;
+  Map<JTypeParameter, JClassType> maybeInitializeTypeParameterSubstitutionMap() {
+    Map<JTypeParameter, JClassType> substitutionMap = lazySubstitutionMap;
+    if (substitutionMap != null) {
+      return substitutionMap;
     }
-    lazySubstitutionMap = new IdentityHashMap<JTypeParameter, JClassType>();
+    substitutionMap = new IdentityHashMap<JTypeParameter, JClassType>();
 
     JParameterizedType currentParameterizedType = this;
 
@@ -446,7 +450,7 @@ public class JParameterizedType extends JMaybeParameterizedType implements
       JClassType[] typeArguments = currentParameterizedType.getTypeArgs();
 
       for (JTypeParameter typeParameter : typeParameters) {
-        lazySubstitutionMap.put(typeParameter,
+        substitutionMap.put(typeParameter,
             typeArguments[typeParameter.getOrdinal()]);
       }
 
@@ -461,7 +465,9 @@ public class JParameterizedType extends JMaybeParameterizedType implements
       }
       currentParameterizedType = maybeParameterizedType.isParameterized();
     }
-    lazySubstitutionMap = Maps.normalize(lazySubstitutionMap);
+    substitutionMap = Maps.normalize(substitutionMap);
+    lazySubstitutionMap = substitutionMap;
+    return substitutionMap;
   }
 
   void setTypeArguments(JClassType[] typeArgs) {
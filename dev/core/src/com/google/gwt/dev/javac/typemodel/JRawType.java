@@ -34,7 +34,7 @@ public class JRawType extends JMaybeParameterizedType implements
     }
   };
 
-  private List<JClassType> interfaces;
+  private volatile List<JClassType> interfaces;
 
   private final AbstractMembers members;
 
@@ -96,15 +96,17 @@ public class JRawType extends JMaybeParameterizedType implements
 
   @Override
   public JClassType[] getImplementedInterfaces() {
-    if (interfaces == null) {
-      interfaces = new ArrayList<JClassType>();
+    List<JClassType> result = interfaces;
+    if (result == null) {
+      result = new ArrayList<JClassType>();
       JClassType[] intfs = getBaseType().getImplementedInterfaces();
       for (JClassType intf : intfs) {
         JClassType newIntf = intf.getErasedType();
-        interfaces.add(newIntf);
+        result.add(newIntf);
       }
+      interfaces = result;
     }
-    return interfaces.toArray(TypeOracle.NO_JCLASSES);
+    return result.toArray(TypeOracle.NO_JCLASSES);
   }
 
   @Override
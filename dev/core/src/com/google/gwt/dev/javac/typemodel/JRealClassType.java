@@ -48,9 +48,9 @@ public class JRealClassType extends JClassType implements
 
   private final boolean isInterface;
 
-  private String lazyQualifiedBinaryName;
+  private volatile String lazyQualifiedBinaryName;
 
-  private String lazyQualifiedName;
+  private volatile String lazyQualifiedName;
 
   private final Members members = new Members(this);
 
@@ -253,29 +253,33 @@ public class JRealClassType extends JClassType implements
 
   @Override
   public String getQualifiedBinaryName() {
-    if (lazyQualifiedBinaryName == null) {
-      lazyQualifiedBinaryName = "";
+    String qualifiedBinaryName = lazyQualifiedBinaryName;
+    if (qualifiedBinaryName == null) {
+      qualifiedBinaryName = "";
       JPackage pkg = getPackage();
       if (!pkg.isDefault()) {
-        lazyQualifiedBinaryName = pkg.getName() + ".";
+        qualifiedBinaryName = pkg.getName() + ".";
       }
-      lazyQualifiedBinaryName += nestedSourceName.replace('.', '$');
+      qualifiedBinaryName += nestedSourceName.replace('.', '$');
+      lazyQualifiedBinaryName = qualifiedBinaryName;
     }
-    return lazyQualifiedBinaryName;
+    return qualifiedBinaryName;
   }
 
   @Override
   public String getQualifiedSourceName() {
-    if (lazyQualifiedName == null) {
+    String qualifiedName = lazyQualifiedName;
+    if (qualifiedName == null) {
       JPackage pkg = getPackage();
       if (!pkg.isDefault()) {
-        lazyQualifiedName = pkg.getName() + "." + nestedSourceName;
+        qualifiedName = pkg.getName() + "." + nestedSourceName;
       } else {
-        lazyQualifiedName = nestedSourceName;
+        qualifiedName = nestedSourceName;
       }
-      lazyQualifiedName = StringInterner.get().intern(lazyQualifiedName);
+      qualifiedName = StringInterner.get().intern(qualifiedName);
+      lazyQualifiedName = qualifiedName;
     }
-    return lazyQualifiedName;
+    return qualifiedName;
   }
 
   @Override
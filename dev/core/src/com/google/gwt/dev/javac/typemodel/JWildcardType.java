@@ -25,8 +25,8 @@ public class JWildcardType extends JDelegatingClassType implements
     com.google.gwt.core.ext.typeinfo.JWildcardType {
 
   private final BoundType boundType;
-  private JClassType[] lazyLowerBounds;
-  private JClassType[] lazyUpperBounds;
+  private volatile JClassType[] lazyLowerBounds;
+  private volatile JClassType[] lazyUpperBounds;
 
   JWildcardType(BoundType boundType, JClassType typeBound) {
     this.boundType = boundType;
@@ -76,14 +76,16 @@ public class JWildcardType extends JDelegatingClassType implements
    */
   @Override
   public JClassType[] getLowerBounds() {
-    if (lazyLowerBounds == null) {
+    JClassType[] lowerBounds = lazyLowerBounds;
+    if (lowerBounds == null) {
       if (isUpperBound()) {
-        lazyLowerBounds = TypeOracle.NO_JCLASSES;
+        lowerBounds = TypeOracle.NO_JCLASSES;
       } else {
-        lazyLowerBounds = new JClassType[]{getFirstBound()};
+        lowerBounds = new JClassType[]{getFirstBound()};
       }
+      lazyLowerBounds = lowerBounds;
     }
-    return lazyLowerBounds;
+    return lowerBounds;
   }
 
   @Override
@@ -154,16 +156,18 @@ public class JWildcardType extends JDelegatingClassType implements
    */
   @Override
   public JClassType[] getUpperBounds() {
-    if (lazyUpperBounds == null) {
+    JClassType[] upperBounds = lazyUpperBounds;
+    if (upperBounds == null) {
       if (isUpperBound()) {
-        lazyUpperBounds = new JClassType[]{getFirstBound()};
+        upperBounds = new JClassType[]{getFirstBound()};
       } else {
         // Object is the default upper bound.
-        lazyUpperBounds = new JClassType[]{getOracle().getJavaLangObject()};
+        upperBounds = new JClassType[]{getOracle().getJavaLangObject()};
       }
+      lazyUpperBounds = upperBounds;
     }
 
-    return lazyUpperBounds;
+    return upperBounds;
   }
 
   @Override
@@ -40,6 +40,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Provides type-related information about a set of types.
@@ -61,7 +62,11 @@ import java.util.Set;
  * </pre>
  *
  * </p>
- *
+ * <p>
+ * Type objects may be read from several threads at once, for example by generators that run
+ * concurrently, as long as no types are being added. Lazily computed parts, such as parameterized
+ * types and their members, keep their stable identity.
+ * </p>
  */
 public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
 
@@ -235,7 +240,8 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
    * Cached types that represent Arrays of other types. These types are created
    * as needed.
    */
-  private final Map<JType, JArrayType> arrayTypes = new MapMaker().weakKeys().weakValues().makeMap();
+  private final ConcurrentMap<JType, JArrayType> arrayTypes =
+      new MapMaker().weakKeys().weakValues().makeMap();
 
   /**
    * Cached singleton type representing <code>java.lang.Object</code>.
@@ -267,7 +273,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
    * Subclasses of generic types that have type parameters filled in. These
    * types are created as needed.
    */
-  private final Map<ParameterizedTypeKey, JParameterizedType> parameterizedTypes =
+  private final ConcurrentMap<ParameterizedTypeKey, JParameterizedType> parameterizedTypes =
       new MapMaker().weakValues().makeMap();
 
   /**
@@ -278,7 +284,8 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
 
   private JWildcardType unboundWildCardType;
 
-  private final Map<WildCardKey, JWildcardType> wildcardTypes = new MapMaker().weakValues().makeMap();
+  private final ConcurrentMap<WildCardKey, JWildcardType> wildcardTypes =
+      new MapMaker().weakValues().makeMap();
 
   public TypeOracle() {
     // Always create the default package.
@@ -344,7 +351,10 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     JArrayType arrayType = arrayTypes.get(componentType);
     if (arrayType == null) {
       arrayType = new JArrayType(componentType, this);
-      arrayTypes.put(componentType, arrayType);
+      JArrayType existingArrayType = arrayTypes.putIfAbsent(componentType, arrayType);
+      if (existingArrayType != null) {
+        return existingArrayType;
+      }
     }
     return arrayType;
   }
@@ -481,8 +491,8 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     // bounds if any were specified
 
     result = new JParameterizedType(genericType, enclosingType, typeArgs);
-    parameterizedTypes.put(key, result);
-    return result;
+    JParameterizedType existingResult = parameterizedTypes.putIfAbsent(key, result);
+    return existingResult == null ? result : existingResult;
   }
 
   /**
@@ -595,10 +605,7 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     JClassType typeBound = (JClassType) extTypeBound;
     if (typeBound == getJavaLangObject()
         && (boundType == BoundType.UNBOUND || boundType == BoundType.EXTENDS)) {
-      if (unboundWildCardType == null) {
-        unboundWildCardType = new JWildcardType(BoundType.UNBOUND, typeBound);
-      }
-      return unboundWildCardType;
+      return getUnboundWildcardType(typeBound);
     }
     // End special case / todo.
 
@@ -609,8 +616,8 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     }
 
     result = new JWildcardType(boundType, typeBound);
-    wildcardTypes.put(key, result);
-    return result;
+    JWildcardType existingResult = wildcardTypes.putIfAbsent(key, result);
+    return existingResult == null ? result : existingResult;
   }
 
   /**
@@ -662,6 +669,13 @@ public class TypeOracle extends com.google.gwt.core.ext.typeinfo.TypeOracle {
     recentTypes.clear();
   }
 
+  private synchronized JWildcardType getUnboundWildcardType(JClassType javaLangObject) {
+    if (unboundWildCardType == null) {
+      unboundWildCardType = new JWildcardType(BoundType.UNBOUND, javaLangObject);
+    }
+    return unboundWildCardType;
+  }
+
   private List<JClassType> classChain(JClassType cls) {
     LinkedList<JClassType> chain = new LinkedList<JClassType>();
     while (cls != null) {
@@ -20,6 +20,9 @@ import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.StandardGeneratorContext;
 
+import java.util.Collection;
+import java.util.SortedSet;
+
 /**
  * Abstract the process of determining all of the possible deferred binding
  * answers for a given type.
@@ -28,8 +31,8 @@ public interface RebindPermutationOracle {
 
   /**
    * Called when the compiler is done with this oracle, so memory can be freed
-   * up. After calling this method, the only legal method to call is
-   * {@link #getAllPossibleRebindAnswers}.
+   * up. After calling this method, the only legal methods to call are
+   * {@link #getAllPossibleRebindAnswers} and {@link #getPropertiesReadForRebind}.
    */
   void clear();
 
@@ -45,6 +48,22 @@ public interface RebindPermutationOracle {
   String[] getAllPossibleRebindAnswers(TreeLogger logger, String sourceTypeName)
       throws UnableToCompleteException;
 
+  /**
+   * Gives the oracle a chance to compute the answers for several GWT.create()
+   * requests that are known to be coming, for instance by running independent
+   * generators concurrently. Requests that can't be answered ahead of time are
+   * left to {@link #getAllPossibleRebindAnswers}, which reports their errors.
+   */
+  void prefetchRebindAnswers(TreeLogger logger, Collection<String> sourceTypeNames)
+      throws UnableToCompleteException;
+
+  /**
+   * Returns the names of the binding properties that were read to find the answers for a
+   * GWT.create() call, in any permutation. The answers are the same in permutations that only
+   * differ in other properties. Returns an empty set for requests that haven't been answered.
+   */
+  SortedSet<String> getPropertiesReadForRebind(String sourceTypeName);
+
   /**
    * Returns the CompilationState.
    */
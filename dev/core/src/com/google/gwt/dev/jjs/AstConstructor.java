@@ -34,6 +34,10 @@ import com.google.gwt.dev.jjs.impl.UnifyAst;
 import com.google.gwt.dev.jjs.impl.codesplitter.CodeSplitters;
 import com.google.gwt.dev.jjs.impl.codesplitter.ReplaceRunAsyncs;
 import com.google.gwt.dev.js.ast.JsProgram;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSortedSet;
+
+import java.util.Collection;
+import java.util.SortedSet;
 
 /**
  * Constructs a full Java AST from source.
@@ -71,6 +75,15 @@ public class AstConstructor {
             return new String[0];
           }
 
+          @Override
+          public void prefetchRebindAnswers(TreeLogger logger, Collection<String> sourceTypeNames) {
+          }
+
+          @Override
+          public SortedSet<String> getPropertiesReadForRebind(String sourceTypeName) {
+            return ImmutableSortedSet.of();
+          }
+
           @Override
           public CompilationState getCompilationState() {
             return state;
@@ -148,6 +148,7 @@ import com.google.gwt.dev.js.JsNormalizer;
 import com.google.gwt.dev.js.JsObfuscateNamer;
 import com.google.gwt.dev.js.JsPrettyNamer;
 import com.google.gwt.dev.js.JsReportGenerationVisitor;
+import com.google.gwt.dev.js.JsSourceGenerationVisitorWithSizeBreakdown;
 import com.google.gwt.dev.js.JsStackEmulator;
 import com.google.gwt.dev.js.JsStaticEval;
 import com.google.gwt.dev.js.JsSymbolResolver;
@@ -178,13 +179,18 @@ import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.soyc.SoycDashboard;
 import com.google.gwt.soyc.io.ArtifactsOutputDirectory;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.base.Throwables;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMap;
 import com.google.gwt.thirdparty.guava.common.collect.Iterables;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Multimap;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import com.google.gwt.thirdparty.guava.common.hash.Hasher;
 import com.google.gwt.thirdparty.guava.common.hash.Hashing;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
 import org.xml.sax.SAXException;
 
@@ -206,6 +212,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.zip.GZIPInputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
@@ -236,11 +247,35 @@ public final class JavaToJavaScriptCompiler {
    */
   private static final int MAX_PASSES = 100;
 
+  /**
+   * Generates the JavaScript for the fragments of a permutation concurrently. Shared by all
+   * permutations compiled in this process.
+   */
+  private static final ExecutorService fragmentExecutor = createFragmentExecutor();
+
+  /**
+   * Whether the fragments of a permutation are generated concurrently. Tests turn this off to
+   * compare the output with serial generation.
+   */
+  @VisibleForTesting
+  static boolean concurrentFragments = true;
+
   static {
     // Preload the internal compiler exception just in case we run out of memory?.
     InternalCompilerException.preload();
   }
 
+  private static ExecutorService createFragmentExecutor() {
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60L,
+        TimeUnit.SECONDS, Queues.<Runnable>newLinkedBlockingQueue(),
+        // Make sure this executor lets the whole process terminate correctly even if there
+        // are still live threads.
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("FragmentRenderer-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   private final CompilerContext compilerContext;
   private final TreeLogger logger;
   private final ModuleDef module;
@@ -441,13 +476,20 @@ public final class JavaToJavaScriptCompiler {
       }
 
       // (8) Generate Js source
-      List<JsSourceMap> sourceInfoMaps = new ArrayList<JsSourceMap>();
       boolean isSourceMapsEnabled = properties.isTrueInAnyPermutation("compiler.useSourceMaps");
-      String[] jsFragments = new String[jsProgram.getFragmentCount()];
+      byte[][] jsFragments = new byte[jsProgram.getFragmentCount()][];
+      // The text and source info of every fragment are only kept for the reports that need them;
+      // plain sourcemaps are made from each fragment as soon as it is generated.
+      String[] jsFragmentText = options.isSoycExtra() ? new String[jsFragments.length] : null;
+      List<JsSourceMap> sourceInfoMaps = options.isJsonSoycEnabled() || options.isSoycExtra()
+          ? new ArrayList<JsSourceMap>() : null;
+      List<SyntheticArtifact> sourceMapArtifacts = isSourceMapsEnabled
+          && !options.isJsonSoycEnabled() ? new ArrayList<SyntheticArtifact>() : null;
       StatementRanges[] ranges = new StatementRanges[jsFragments.length];
       SizeBreakdown[] sizeBreakdowns = options.isJsonSoycEnabled() || options.isSoycEnabled()
           || options.isCompilerMetricsEnabled() ? new SizeBreakdown[jsFragments.length] : null;
-      generateJavaScriptCode(jjsmap, jsFragments, ranges, sizeBreakdowns, sourceInfoMaps,
+      generateJavaScriptCode(permutationId, jjsmap, jsFragments, jsFragmentText, ranges,
+          sizeBreakdowns, sourceInfoMaps, sourceMapArtifacts,
           isSourceMapsEnabled || options.isJsonSoycEnabled());
 
       javaScriptEvent.end();
@@ -458,8 +500,8 @@ public final class JavaToJavaScriptCompiler {
 
       // TODO(stalcup): hide metrics gathering in a callback or subclass
       addSyntheticArtifacts(unifiedAst, permutation, startTimeMs, permutationId, jjsmap,
-          dependenciesAndRecorder, internedLiteralByVariableName, isSourceMapsEnabled, jsFragments,
-          sizeBreakdowns, sourceInfoMaps, permutationResult);
+          dependenciesAndRecorder, internedLiteralByVariableName, isSourceMapsEnabled,
+          jsFragmentText, sizeBreakdowns, sourceInfoMaps, sourceMapArtifacts, permutationResult);
       return permutationResult;
     } catch (Throwable e) {
       throw CompilationProblemReporter.logAndTranslateException(logger, e);
@@ -584,10 +626,12 @@ public final class JavaToJavaScriptCompiler {
       int expectedFragmentCount = options.getFragmentCount();
       int minFragmentSize = properties.getConfigurationProperties()
           .getInteger(CodeSplitters.MIN_FRAGMENT_SIZE, 0);
+      int maxFragmentSize = properties.getConfigurationProperties()
+          .getInteger(CodeSplitters.MAX_FRAGMENT_SIZE, 0);
 
       dependencyRecorder = chooseDependencyRecorder(baos);
       CodeSplitter.exec(logger, jprogram, jsProgram, jjsmap, expectedFragmentCount,
-          minFragmentSize, dependencyRecorder);
+          minFragmentSize, maxFragmentSize, dependencyRecorder);
 
       if (baos.size() == 0) {
         dependencyRecorder = recordNonSplitDependencies(baos);
@@ -667,7 +711,8 @@ public final class JavaToJavaScriptCompiler {
   private void addSourceMapArtifacts(int permutationId, JavaToJavaScriptMap jjsmap,
       Pair<SyntheticArtifact, MultipleDependencyGraphRecorder> dependenciesAndRecorder,
       boolean isSourceMapsEnabled, SizeBreakdown[] sizeBreakdowns,
-      List<JsSourceMap> sourceInfoMaps, PermutationResult permutationResult) {
+      List<JsSourceMap> sourceInfoMaps, List<SyntheticArtifact> sourceMapArtifacts,
+      PermutationResult permutationResult) {
     if (options.isJsonSoycEnabled()) {
       // Is a super set of SourceMapRecorder.makeSourceMapArtifacts().
       permutationResult.addArtifacts(EntityRecorder.makeSoycArtifacts(
@@ -676,8 +721,7 @@ public final class JavaToJavaScriptCompiler {
           ((DependencyGraphRecorder) dependenciesAndRecorder.getRight()), jprogram));
     } else if (isSourceMapsEnabled) {
       logger.log(TreeLogger.INFO, "Source Maps Enabled");
-      permutationResult.addArtifacts(SourceMapRecorder.exec(permutationId, sourceInfoMaps,
-          options.getSourceMapFilePrefix()));
+      permutationResult.addArtifacts(sourceMapArtifacts);
     }
   }
 
@@ -713,8 +757,9 @@ public final class JavaToJavaScriptCompiler {
       long startTimeMs, int permutationId, JavaToJavaScriptMap jjsmap,
       Pair<SyntheticArtifact, MultipleDependencyGraphRecorder> dependenciesAndRecorder,
       Map<JsName, JsLiteral> internedLiteralByVariableName, boolean isSourceMapsEnabled,
-      String[] jsFragments, SizeBreakdown[] sizeBreakdowns,
-      List<JsSourceMap> sourceInfoMaps, PermutationResult permutationResult)
+      String[] jsFragmentText, SizeBreakdown[] sizeBreakdowns,
+      List<JsSourceMap> sourceInfoMaps, List<SyntheticArtifact> sourceMapArtifacts,
+      PermutationResult permutationResult)
       throws IOException, UnableToCompleteException {
 
     assert internedLiteralByVariableName != null;
@@ -724,10 +769,10 @@ public final class JavaToJavaScriptCompiler {
     CompilationMetricsArtifact compilationMetrics = addCompilerMetricsArtifact(
         unifiedAst, permutation, startTimeMs, sizeBreakdowns, permutationResult);
     addSoycArtifacts(unifiedAst, permutationId, jjsmap, dependenciesAndRecorder,
-        internedLiteralByVariableName, jsFragments, sizeBreakdowns, sourceInfoMaps,
+        internedLiteralByVariableName, jsFragmentText, sizeBreakdowns, sourceInfoMaps,
         permutationResult, compilationMetrics);
     addSourceMapArtifacts(permutationId, jjsmap, dependenciesAndRecorder, isSourceMapsEnabled,
-        sizeBreakdowns, sourceInfoMaps, permutationResult);
+        sizeBreakdowns, sourceInfoMaps, sourceMapArtifacts, permutationResult);
     maybeAddGeneratedArtifacts(permutationResult);
 
     event.end();
@@ -735,66 +780,80 @@ public final class JavaToJavaScriptCompiler {
 
   /**
    * Generate Js code from the given Js ASTs. Also produces information about that transformation.
+   * <p>
+   * Fragments are generated concurrently, as many at a time as there are processors. Each fragment
+   * is encoded, and its sourcemap made, as soon as it is generated, so the generated text and
+   * source info of up to that many fragments per permutation are live at a time unless a report
+   * needs them. (Generating them one at a time would only keep one fragment live, at the cost of
+   * using a single core.)
+   *
+   * @param jsFragmentText receives the text of each fragment, or null if it isn't needed
+   * @param sourceInfoMaps receives the source info of each fragment, or null if it isn't needed
+   * @param sourceMapArtifacts receives the sourcemap of each fragment, or null if none are wanted
    */
-  private void generateJavaScriptCode(JavaToJavaScriptMap jjsMap, String[] jsFragments,
-      StatementRanges[] ranges, SizeBreakdown[] sizeBreakdowns,
-      List<JsSourceMap> sourceInfoMaps, boolean sourceMapsEnabled) {
+  private void generateJavaScriptCode(int permutationId, JavaToJavaScriptMap jjsMap,
+      byte[][] jsFragments, String[] jsFragmentText, StatementRanges[] ranges,
+      SizeBreakdown[] sizeBreakdowns, List<JsSourceMap> sourceInfoMaps,
+      List<SyntheticArtifact> sourceMapArtifacts, boolean sourceMapsEnabled) {
 
     Event generateJavascriptEvent =
         SpeedTracerLogger.start(CompilerEventType.GENERATE_JAVASCRIPT);
 
-    for (int i = 0; i < jsFragments.length; i++) {
-      DefaultTextOutput out = new DefaultTextOutput(!options.isIncrementalCompileEnabled() &&
-          options.getOutput().shouldMinimize());
-      JsReportGenerationVisitor v = new JsReportGenerationVisitor(out, jjsMap,
-          options.isJsonSoycEnabled());
-      v.accept(jsProgram.getFragmentBlock(i));
-
-      StatementRanges statementRanges = v.getStatementRanges();
-      String code = out.toString();
-      JsSourceMap infoMap = (sourceInfoMaps != null) ? v.getSourceInfoMap() : null;
-
-      JsAbstractTextTransformer transformer =
-          new JsNoopTransformer(code, statementRanges, infoMap);
-
-      /**
-       * Cut generated JS up on class boundaries and re-link the source (possibly making use of
-       * source from previous compiles, thus making it possible to perform partial recompiles).
-       */
-      if (options.isIncrementalCompileEnabled()) {
-        transformer = new JsTypeLinker(logger, transformer, v.getClassRanges(),
-            v.getProgramClassRange(), getMinimalRebuildCache(), jprogram.typeOracle);
-        transformer.exec();
+    int fragmentCount = jsFragments.length;
+    JsSourceMap[] fragmentSourceInfoMaps =
+        sourceInfoMaps != null ? new JsSourceMap[fragmentCount] : null;
+    SyntheticArtifact[] fragmentSourceMaps =
+        sourceMapArtifacts != null ? new SyntheticArtifact[fragmentCount] : null;
+    FragmentRenderer renderer = new FragmentRenderer(permutationId, jjsMap, sourceMapsEnabled,
+        jsFragments, jsFragmentText, ranges, sizeBreakdowns, fragmentSourceInfoMaps,
+        fragmentSourceMaps);
+
+    // Fragments only read the final JS AST, so they can be generated concurrently. The per-file
+    // linker updates the minimal rebuild cache, so incremental compiles (which never split code
+    // anyway) generate their fragment on this thread.
+    if (!concurrentFragments || options.isIncrementalCompileEnabled() || fragmentCount == 1) {
+      for (int i = 0; i < fragmentCount; i++) {
+        renderer.render(i);
       }
-
-      /**
-       * Reorder function decls to improve compression ratios. Also restructures the top level
-       * blocks into sub-blocks if they exceed 32767 statements.
-       */
-      Event functionClusterEvent = SpeedTracerLogger.start(CompilerEventType.FUNCTION_CLUSTER);
-      // TODO(cromwellian) move to the Js AST optimization, re-enable sourcemaps + clustering
-      if (!sourceMapsEnabled && !options.isClosureCompilerFormatEnabled()
-          && options.shouldClusterSimilarFunctions()
-          && options.getNamespace() == JsNamespaceOption.NONE
-          && options.getOutput() == JsOutputOption.OBFUSCATED) {
-        transformer = new JsFunctionClusterer(transformer);
-        transformer.exec();
+    } else {
+      List<Future<?>> renderedFragments = new ArrayList<Future<?>>(fragmentCount);
+      for (int i = 0; i < fragmentCount; i++) {
+        final int fragment = i;
+        renderedFragments.add(fragmentExecutor.submit(() -> renderer.render(fragment)));
       }
-      functionClusterEvent.end();
+      waitForFragments(renderedFragments);
+    }
 
-      jsFragments[i] = transformer.getJs();
-      ranges[i] = transformer.getStatementRanges();
-      if (sizeBreakdowns != null) {
-        sizeBreakdowns[i] = v.getSizeBreakdown();
-      }
-      if (sourceInfoMaps != null) {
-        sourceInfoMaps.add(transformer.getSourceInfoMap());
-      }
+    if (sourceInfoMaps != null) {
+      Collections.addAll(sourceInfoMaps, fragmentSourceInfoMaps);
+    }
+    if (sourceMapArtifacts != null) {
+      Collections.addAll(sourceMapArtifacts, fragmentSourceMaps);
     }
 
     generateJavascriptEvent.end();
   }
 
+  /**
+   * Waits for every fragment, even when interrupted, and rethrows the first failure.
+   */
+  private static void waitForFragments(List<Future<?>> renderedFragments) {
+    Throwable failure = null;
+    for (Future<?> renderedFragment : renderedFragments) {
+      try {
+        Uninterruptibles.getUninterruptibly(renderedFragment);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure != null) {
+      Throwables.throwIfUnchecked(failure);
+      throw new InternalCompilerException("Unexpected failure generating JavaScript", failure);
+    }
+  }
+
   private Collection<? extends Artifact<?>> makeSoycArtifacts(int permutationId, String[] js,
       SizeBreakdown[] sizeBreakdowns, List<JsSourceMap> sourceInfoMaps,
       SyntheticArtifact dependencies, JavaToJavaScriptMap jjsmap,
@@ -1173,8 +1232,8 @@ public final class JavaToJavaScriptCompiler {
 
       // (4) Construct and return a value.
       Event createUnifiedAstEvent = SpeedTracerLogger.start(CompilerEventType.CREATE_UNIFIED_AST);
-      UnifiedAst result = new UnifiedAst(
-          options, new AST(jprogram, jsProgram), singlePermutation, RecordRebinds.exec(jprogram));
+      UnifiedAst result = new UnifiedAst(options, new AST(jprogram, jsProgram), singlePermutation,
+          RecordRebinds.exec(jprogram), RecordRebinds.execForProperties(jprogram));
       createUnifiedAstEvent.end();
       return result;
     } catch (Throwable e) {
@@ -1520,6 +1579,104 @@ public final class JavaToJavaScriptCompiler {
     return compilerContext.getMinimalRebuildCache();
   }
 
+  /**
+   * Generates the JavaScript for single fragments. Everything generated is stored by fragment
+   * number, so fragments may be generated in any order, and concurrently.
+   */
+  private class FragmentRenderer {
+    private final int permutationId;
+    private final JavaToJavaScriptMap jjsMap;
+    private final boolean sourceMapsEnabled;
+    private final boolean recordSourceInfo;
+
+    private final byte[][] jsFragments;
+    private final String[] jsFragmentText;
+    private final StatementRanges[] ranges;
+    private final SizeBreakdown[] sizeBreakdowns;
+    private final JsSourceMap[] sourceInfoMaps;
+    private final SyntheticArtifact[] sourceMaps;
+
+    /**
+     * Each array receives one element per fragment; the optional ones are null if the data
+     * isn't wanted.
+     */
+    FragmentRenderer(int permutationId, JavaToJavaScriptMap jjsMap, boolean sourceMapsEnabled,
+        byte[][] jsFragments, String[] jsFragmentText, StatementRanges[] ranges,
+        SizeBreakdown[] sizeBreakdowns, JsSourceMap[] sourceInfoMaps,
+        SyntheticArtifact[] sourceMaps) {
+      this.permutationId = permutationId;
+      this.jjsMap = jjsMap;
+      this.sourceMapsEnabled = sourceMapsEnabled;
+      this.jsFragments = jsFragments;
+      this.jsFragmentText = jsFragmentText;
+      this.ranges = ranges;
+      this.sizeBreakdowns = sizeBreakdowns;
+      this.sourceInfoMaps = sourceInfoMaps;
+      this.sourceMaps = sourceMaps;
+      // The per-file linker needs source info to cut the JavaScript up on class boundaries.
+      this.recordSourceInfo = sourceInfoMaps != null || sourceMaps != null
+          || options.isIncrementalCompileEnabled();
+    }
+
+    void render(int i) {
+      DefaultTextOutput out = new DefaultTextOutput(!options.isIncrementalCompileEnabled() &&
+          options.getOutput().shouldMinimize());
+      JsSourceGenerationVisitorWithSizeBreakdown v = recordSourceInfo
+          ? new JsReportGenerationVisitor(out, jjsMap, options.isJsonSoycEnabled())
+          : new JsSourceGenerationVisitorWithSizeBreakdown(out, jjsMap);
+      v.accept(jsProgram.getFragmentBlock(i));
+
+      StatementRanges statementRanges = v.getStatementRanges();
+      String code = out.toString();
+      JsSourceMap infoMap = v.getSourceInfoMap();
+
+      JsAbstractTextTransformer transformer =
+          new JsNoopTransformer(code, statementRanges, infoMap);
+
+      /**
+       * Cut generated JS up on class boundaries and re-link the source (possibly making use of
+       * source from previous compiles, thus making it possible to perform partial recompiles).
+       */
+      if (options.isIncrementalCompileEnabled()) {
+        transformer = new JsTypeLinker(logger, transformer, v.getClassRanges(),
+            v.getProgramClassRange(), getMinimalRebuildCache(), jprogram.typeOracle);
+        transformer.exec();
+      }
+
+      /**
+       * Reorder function decls to improve compression ratios. Also restructures the top level
+       * blocks into sub-blocks if they exceed 32767 statements.
+       */
+      Event functionClusterEvent = SpeedTracerLogger.start(CompilerEventType.FUNCTION_CLUSTER);
+      // TODO(cromwellian) move to the Js AST optimization, re-enable sourcemaps + clustering
+      if (!sourceMapsEnabled && !options.isClosureCompilerFormatEnabled()
+          && options.shouldClusterSimilarFunctions()
+          && options.getNamespace() == JsNamespaceOption.NONE
+          && options.getOutput() == JsOutputOption.OBFUSCATED) {
+        transformer = new JsFunctionClusterer(transformer);
+        transformer.exec();
+      }
+      functionClusterEvent.end();
+
+      String js = transformer.getJs();
+      jsFragments[i] = js.getBytes(StandardCharsets.UTF_8);
+      if (jsFragmentText != null) {
+        jsFragmentText[i] = js;
+      }
+      ranges[i] = transformer.getStatementRanges();
+      if (sizeBreakdowns != null) {
+        sizeBreakdowns[i] = v.getSizeBreakdown();
+      }
+      if (sourceInfoMaps != null) {
+        sourceInfoMaps[i] = transformer.getSourceInfoMap();
+      }
+      if (sourceMaps != null) {
+        sourceMaps[i] = SourceMapRecorder.exec(permutationId, i,
+            transformer.getSourceInfoMap(), options.getSourceMapFilePrefix());
+      }
+    }
+  }
+
   private static class PermutationResultImpl implements PermutationResult {
 
     private final ArtifactSet artifacts = new ArtifactSet();
@@ -1529,17 +1686,15 @@ public final class JavaToJavaScriptCompiler {
     private final byte[] serializedSymbolMap;
     private final StatementRanges[] statementRanges;
 
-    public PermutationResultImpl(String[] jsFragments, Permutation permutation,
+    public PermutationResultImpl(byte[][] jsFragments, Permutation permutation,
         SymbolData[] symbolMap, StatementRanges[] statementRanges) {
-      byte[][] bytes = new byte[jsFragments.length][];
       Hasher h = Hashing.murmur3_128().newHasher();
       h.putInt(jsFragments.length);
-      for (int i = 0; i < jsFragments.length; ++i) {
-        bytes[i] = jsFragments[i].getBytes(StandardCharsets.UTF_8);
-        h.putInt(bytes[i].length);
-        h.putBytes(bytes[i]);
+      for (byte[] fragment : jsFragments) {
+        h.putInt(fragment.length);
+        h.putBytes(fragment);
       }
-      this.js = bytes;
+      this.js = jsFragments;
       this.jsStrongName = h.hash().toString().toUpperCase(Locale.ROOT);
       this.permutation = permutation;
       ByteArrayOutputStream baos = new ByteArrayOutputStream();
@@ -22,12 +22,15 @@ import com.google.gwt.dev.PrecompileTaskOptionsImpl;
 import com.google.gwt.dev.jjs.ast.JProgram;
 import com.google.gwt.dev.js.ast.JsProgram;
 import com.google.gwt.dev.util.DiskCache;
+import com.google.gwt.dev.util.StringInterningObjectInputStream;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
 import java.util.Collections;
 import java.util.Set;
 import java.util.SortedSet;
@@ -94,16 +97,29 @@ public class UnifiedAst implements Serializable {
    */
   private final SortedSet<String> rebindRequests;
 
+  /**
+   * The binding properties read by live {@code System.getProperty()} calls in the AST.
+   */
+  private final SortedSet<String> propertyRequests;
+
   /**
    * The serialized AST.
    */
   private transient long serializedAstToken;
 
+  /**
+   * The bytes of the serialized AST, kept in memory after the first read so that each
+   * permutation deserializes the same snapshot instead of reading it from disk again. Softly
+   * referenced, since they can always be read again. Guarded by {@link #myLockObject}.
+   */
+  private transient SoftReference<byte[]> serializedAstBytes;
+
   public UnifiedAst(PrecompileTaskOptions options, AST initialAst, boolean singlePermutation,
-      Set<String> rebindRequests) {
+      Set<String> rebindRequests, Set<String> propertyRequests) {
     this.options = new PrecompileTaskOptionsImpl(options);
     this.initialAst = initialAst;
     this.rebindRequests = Collections.unmodifiableSortedSet(Sets.newTreeSet(rebindRequests));
+    this.propertyRequests = Collections.unmodifiableSortedSet(Sets.newTreeSet(propertyRequests));
     this.serializedAstToken = singlePermutation ? -1 : diskCache.writeObject(initialAst);
   }
 
@@ -114,19 +130,21 @@ public class UnifiedAst implements Serializable {
    * @return the current AST object holding the Java and JavaScript trees.
    */
   public AST getFreshAst() {
+    byte[] bytes;
     synchronized (myLockObject) {
       if (initialAst != null) {
         AST result = initialAst;
         initialAst = null;
         return result;
-      } else {
-        if (serializedAstToken < 0) {
-          throw new IllegalStateException(
-              "No serialized AST was cached and AST was already consumed.");
-        }
-        return diskCache.readObject(serializedAstToken, AST.class);
       }
+      if (serializedAstToken < 0) {
+        throw new IllegalStateException(
+            "No serialized AST was cached and AST was already consumed.");
+      }
+      bytes = getSerializedAstBytes();
     }
+    // Deserialize outside the lock so that permutation workers can start at the same time.
+    return deserializeAst(bytes);
   }
 
   /**
@@ -157,6 +175,13 @@ public class UnifiedAst implements Serializable {
     return rebindRequests;
   }
 
+  /**
+   * Returns the binding properties read by live {@code System.getProperty()} calls in the AST.
+   */
+  public SortedSet<String> getPropertyRequests() {
+    return propertyRequests;
+  }
+
   /**
    * Internally prepares a new AST for compilation if one is not already
    * prepared.
@@ -164,7 +189,7 @@ public class UnifiedAst implements Serializable {
   public void prepare() {
     synchronized (myLockObject) {
       if (initialAst == null) {
-        initialAst = diskCache.readObject(serializedAstToken, AST.class);
+        initialAst = deserializeAst(getSerializedAstBytes());
       }
     }
   }
@@ -183,6 +208,29 @@ public class UnifiedAst implements Serializable {
     this.precompilationMetrics = metrics;
   }
 
+  private static AST deserializeAst(byte[] bytes) {
+    try {
+      ObjectInputStream in =
+          new StringInterningObjectInputStream(new ByteArrayInputStream(bytes));
+      return (AST) in.readObject();
+    } catch (ClassNotFoundException | IOException e) {
+      throw new RuntimeException("Unexpected exception deserializing the AST", e);
+    }
+  }
+
+  /**
+   * Returns the serialized AST, reading it from the disk cache if it isn't in memory.
+   */
+  private byte[] getSerializedAstBytes() {
+    assert Thread.holdsLock(myLockObject);
+    byte[] bytes = serializedAstBytes == null ? null : serializedAstBytes.get();
+    if (bytes == null) {
+      bytes = diskCache.readByteArray(serializedAstToken);
+      serializedAstBytes = new SoftReference<byte[]>(bytes);
+    }
+    return bytes;
+  }
+
   /**
    * Re-initialize lock object; copy serialized AST straight to cache.
    */
@@ -776,7 +776,7 @@ public class JProgram extends JNode implements ArrayTypeCreator {
    * Returns a sorted list of array types, so the returned set can be iterated
    * over without introducing nondeterminism.
    */
-  public List<JArrayType> getAllArrayTypes() {
+  public synchronized List<JArrayType> getAllArrayTypes() {
     List<JArrayType> result = Lists.newArrayList(arrayTypes.values());
     Collections.sort(result, ARRAYTYPE_COMPARATOR);
     return result;
@@ -1014,7 +1014,12 @@ public class JProgram extends JNode implements ArrayTypeCreator {
     return staticImpl;
   }
 
-  public JArrayType getTypeArray(JType elementType) {
+  /**
+   * Returns the array type for {@code elementType}, creating it if needed.
+   * <p>
+   * Synchronized since array types may be created by optimizations running in parallel.
+   */
+  public synchronized JArrayType getTypeArray(JType elementType) {
     JArrayType arrayType = arrayTypes.get(elementType);
     if (arrayType == null) {
       arrayType = new JArrayType(elementType);
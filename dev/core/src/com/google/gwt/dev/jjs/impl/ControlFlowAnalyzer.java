@@ -59,12 +59,12 @@ import com.google.gwt.dev.js.ast.JsFunction;
 import com.google.gwt.dev.js.ast.JsName;
 import com.google.gwt.dev.js.ast.JsNameRef;
 import com.google.gwt.dev.js.ast.JsVisitor;
+import com.google.gwt.dev.util.collect.IndexedSet;
 import com.google.gwt.thirdparty.guava.common.collect.ArrayListMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.ImmutableMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.ListMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Multimap;
-import com.google.gwt.thirdparty.guava.common.collect.Sets;
 
 import java.util.List;
 import java.util.Set;
@@ -921,13 +921,19 @@ public class ControlFlowAnalyzer {
    * Schrodinger set of classLiterals to be rescued if type is instantiated AND getClass()
    * is live.
    */
-  private Set<JReferenceType> classLiteralsToBeRescuedIfGetClassIsLive = Sets.newHashSet();
+  private Set<JReferenceType> classLiteralsToBeRescuedIfGetClassIsLive;
 
   private DependencyRecorder dependencyRecorder;
-  private Set<JField> fieldsWritten = Sets.newLinkedHashSet();
-  private Set<JReferenceType> instantiatedTypes = Sets.newLinkedHashSet();
-  private Set<JNode> liveFieldsAndMethods = Sets.newLinkedHashSet();
-  private Set<String> liveStrings = Sets.newLinkedHashSet();
+  private final Set<JField> fieldsWritten;
+  private final Set<JReferenceType> instantiatedTypes;
+  private final Set<JNode> liveFieldsAndMethods;
+  private final Set<String> liveStrings;
+
+  /**
+   * Ids for the types, members, parameters and locals in the liveness sets below, shared by this
+   * analyzer and all analyzers copied from it, so that copies are bit set copies.
+   */
+  private final IndexedSet.Index nodeIndex;
 
   /**
    * Schrodinger's members... aka "limbo". :) These are instance methods and
@@ -935,31 +941,43 @@ public class ControlFlowAnalyzer {
    * uninstantiable. We place these methods into purgatory until/unless the
    * enclosing type is found to be instantiable.
    */
-  private Set<JNode> membersToRescueIfTypeIsInstantiated = Sets.newHashSet();
+  private final Set<JNode> membersToRescueIfTypeIsInstantiated;
 
   private final JField getClassField;
   private final JMethod getClassMethod;
   private final JProgram program;
-  private Set<JReferenceType> referencedTypes = Sets.newHashSet();
+  private final Set<JReferenceType> referencedTypes;
   private final RescueVisitor rescuer;
+  private final IndexedSet.Index stringIndex;
   private final JMethod runAsyncOnSuccess;
   private JMethod stringValueOfChar = null;
   private final Multimap<JType, JDeclaredType> representedAsNativeTypesBySupertype;
 
+  /**
+   * Creates an analyzer that starts out with the results of {@code cfa}. The two share the ids of
+   * the nodes and strings they track, so the copy is cheap, and the liveness sets of the two can
+   * be compared and combined with bit set operations. Neither may be used while the other is
+   * used by another thread.
+   */
   public ControlFlowAnalyzer(ControlFlowAnalyzer cfa) {
     program = cfa.program;
     asyncFragmentOnLoad = cfa.asyncFragmentOnLoad;
     runAsyncOnSuccess = cfa.runAsyncOnSuccess;
     getClassField = cfa.getClassField;
     getClassMethod = cfa.getClassMethod;
-    fieldsWritten = Sets.newHashSet(cfa.fieldsWritten);
-    instantiatedTypes = Sets.newHashSet(cfa.instantiatedTypes);
-    liveFieldsAndMethods = Sets.newHashSet(cfa.liveFieldsAndMethods);
-    referencedTypes = Sets.newHashSet(cfa.referencedTypes);
+    nodeIndex = cfa.nodeIndex;
+    stringIndex = cfa.stringIndex;
+    classLiteralsToBeRescuedIfGetClassIsLive = new IndexedSet<JReferenceType>(nodeIndex);
+    fieldsWritten = new IndexedSet<JField>((IndexedSet<JField>) cfa.fieldsWritten);
+    instantiatedTypes =
+        new IndexedSet<JReferenceType>((IndexedSet<JReferenceType>) cfa.instantiatedTypes);
+    liveFieldsAndMethods = new IndexedSet<JNode>((IndexedSet<JNode>) cfa.liveFieldsAndMethods);
+    referencedTypes =
+        new IndexedSet<JReferenceType>((IndexedSet<JReferenceType>) cfa.referencedTypes);
     stringValueOfChar = cfa.stringValueOfChar;
-    liveStrings = Sets.newHashSet(cfa.liveStrings);
+    liveStrings = new IndexedSet<String>((IndexedSet<String>) cfa.liveStrings);
     membersToRescueIfTypeIsInstantiated =
-        Sets.newHashSet(cfa.membersToRescueIfTypeIsInstantiated);
+        new IndexedSet<JNode>((IndexedSet<JNode>) cfa.membersToRescueIfTypeIsInstantiated);
     if (cfa.argumentsToRescueIfParameterRead != null) {
       argumentsToRescueIfParameterRead =
           ArrayListMultimap.create(cfa.argumentsToRescueIfParameterRead);
@@ -974,6 +992,15 @@ public class ControlFlowAnalyzer {
     runAsyncOnSuccess = program.getIndexedMethod(RuntimeConstants.RUN_ASYNC_CALLBACK_ON_SUCCESS);
     getClassField = program.getIndexedField(RuntimeConstants.OBJECT_CLAZZ);
     getClassMethod = program.getIndexedMethod(RuntimeConstants.OBJECT_GET_CLASS);
+    nodeIndex = new IndexedSet.Index();
+    stringIndex = new IndexedSet.Index();
+    classLiteralsToBeRescuedIfGetClassIsLive = new IndexedSet<JReferenceType>(nodeIndex);
+    fieldsWritten = new IndexedSet<JField>(nodeIndex);
+    instantiatedTypes = new IndexedSet<JReferenceType>(nodeIndex);
+    liveFieldsAndMethods = new IndexedSet<JNode>(nodeIndex);
+    referencedTypes = new IndexedSet<JReferenceType>(nodeIndex);
+    liveStrings = new IndexedSet<String>(stringIndex);
+    membersToRescueIfTypeIsInstantiated = new IndexedSet<JNode>(nodeIndex);
     rescuer = new RescueVisitor();
 
     ImmutableMultimap.Builder<JType, JDeclaredType> representedAsNativeTypeBySuperTypeBuilder =
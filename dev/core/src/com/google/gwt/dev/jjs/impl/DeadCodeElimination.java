@@ -27,6 +27,7 @@ import com.google.gwt.dev.jjs.ast.JCastOperation;
 import com.google.gwt.dev.jjs.ast.JCharLiteral;
 import com.google.gwt.dev.jjs.ast.JClassType;
 import com.google.gwt.dev.jjs.ast.JConditional;
+import com.google.gwt.dev.jjs.ast.JConstructor;
 import com.google.gwt.dev.jjs.ast.JContinueStatement;
 import com.google.gwt.dev.jjs.ast.JDeclarationStatement;
 import com.google.gwt.dev.jjs.ast.JDeclaredType;
@@ -80,6 +81,7 @@ import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -2057,8 +2059,17 @@ public class DeadCodeElimination {
    * context).
    */
   public static OptimizerStats exec(JProgram program, OptimizerContext optimizerCtx) {
+    return exec(program, optimizerCtx, ParallelOptimizations.isEnabled());
+  }
+
+  @VisibleForTesting
+  static OptimizerStats exec(JProgram program, OptimizerContext optimizerCtx,
+      boolean inParallel) {
     Set<JMethod> affectedMethods = affectedMethods(optimizerCtx);
-    OptimizerStats stats = new DeadCodeElimination(program).execImpl(affectedMethods, optimizerCtx);
+    DeadCodeElimination deadCodeElimination = new DeadCodeElimination(program);
+    OptimizerStats stats = inParallel
+        ? deadCodeElimination.execInParallel(affectedMethods, optimizerCtx)
+        : deadCodeElimination.execImpl(affectedMethods, optimizerCtx);
     optimizerCtx.setLastStepFor(NAME, optimizerCtx.getOptimizationStep());
     optimizerCtx.incOptimizationStep();
     JavaAstVerifier.assertProgramIsConsistent(program);
@@ -2113,5 +2124,43 @@ public class DeadCodeElimination {
     return stats;
   }
 
+  /**
+   * Applies the optimization to each method independently on a pool of threads.
+   * <p>
+   * The only information {@link DeadCodeVisitor} reads from other methods is whether a
+   * constructor is empty (see {@link DeadCodeVisitor#endVisit(JNewInstance, Context)}), so
+   * constructors are processed first on the calling thread; the remaining methods are then visited
+   * concurrently against a stable set of constructor bodies, which keeps the result independent of
+   * scheduling.
+   */
+  private OptimizerStats execInParallel(Collection<JMethod> methods,
+      OptimizerContext optimizerCtx) {
+    OptimizerStats stats = new OptimizerStats(NAME);
+    Event optimizeEvent = SpeedTracerLogger.start(CompilerEventType.OPTIMIZE, "optimizer", NAME,
+        "parallel", "true");
+
+    List<JMethod> constructors = Lists.newArrayList();
+    List<JMethod> otherMethods = Lists.newArrayList();
+    for (JMethod method : methods) {
+      if (method instanceof JConstructor) {
+        constructors.add(method);
+      } else {
+        otherMethods.add(method);
+      }
+    }
+
+    DeadCodeVisitor deadCodeVisitor = new DeadCodeVisitor(optimizerCtx);
+    for (JMethod constructor : constructors) {
+      deadCodeVisitor.accept(constructor);
+    }
+    int numMods = deadCodeVisitor.getNumMods();
+    numMods += ParallelOptimizations.visitMethods(otherMethods, optimizerCtx,
+        chunkCtx -> new DeadCodeVisitor(chunkCtx));
+
+    stats.recordModified(numMods);
+    optimizeEvent.end("didChange", "" + stats.didChange());
+    return stats;
+  }
+
   private enum AnalysisResult { TRUE, FALSE, UNKNOWN }
 }
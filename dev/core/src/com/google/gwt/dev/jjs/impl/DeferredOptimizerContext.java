@@ -0,0 +1,151 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.ast.JField;
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JNode;
+import com.google.gwt.dev.jjs.ast.JVisitor;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An {@link OptimizerContext} that answers queries from a delegate but buffers all modification
+ * notifications until {@link #commit()} is called.
+ * <p>
+ * Used to let optimizers visit disjoint parts of the AST concurrently; the delegate is only ever
+ * read while the workers run and the buffered updates are applied afterwards, from a single thread
+ * and in a deterministic order.
+ */
+class DeferredOptimizerContext implements OptimizerContext {
+
+  private final OptimizerContext delegate;
+  private final List<Runnable> pendingUpdates = Lists.newArrayList();
+
+  DeferredOptimizerContext(OptimizerContext delegate) {
+    this.delegate = delegate;
+  }
+
+  /**
+   * Applies the buffered modifications to the delegate context in the order they were recorded.
+   */
+  public void commit() {
+    for (Runnable update : pendingUpdates) {
+      update.run();
+    }
+    pendingUpdates.clear();
+  }
+
+  @Override
+  public Set<JMethod> getCallees(Collection<JMethod> callerMethods) {
+    return delegate.getCallees(callerMethods);
+  }
+
+  @Override
+  public Set<JMethod> getCallers(Collection<JMethod> calleeMethods) {
+    return delegate.getCallers(calleeMethods);
+  }
+
+  @Override
+  public int getLastStepFor(String optimizerName) {
+    return delegate.getLastStepFor(optimizerName);
+  }
+
+  @Override
+  public Set<JMethod> getMethodsByReferencedFields(Collection<JField> fields) {
+    return delegate.getMethodsByReferencedFields(fields);
+  }
+
+  @Override
+  public Set<JField> getModifiedFieldsSince(int stepSince) {
+    return delegate.getModifiedFieldsSince(stepSince);
+  }
+
+  @Override
+  public Set<JMethod> getModifiedMethodsSince(int stepSince) {
+    return delegate.getModifiedMethodsSince(stepSince);
+  }
+
+  @Override
+  public int getOptimizationStep() {
+    return delegate.getOptimizationStep();
+  }
+
+  @Override
+  public Set<JField> getReferencedFieldsByMethods(Collection<JMethod> methods) {
+    return delegate.getReferencedFieldsByMethods(methods);
+  }
+
+  @Override
+  public Set<JMethod> getRemovedCalleeMethodsSince(int stepSince) {
+    return delegate.getRemovedCalleeMethodsSince(stepSince);
+  }
+
+  @Override
+  public void incOptimizationStep() {
+    // Steps are pass boundaries and must only be advanced on the shared context.
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void markModified(final JField modifiedField) {
+    pendingUpdates.add(() -> delegate.markModified(modifiedField));
+  }
+
+  @Override
+  public void markModified(final JMethod modifiedMethod) {
+    pendingUpdates.add(() -> delegate.markModified(modifiedMethod));
+  }
+
+  @Override
+  public void remove(final JField field) {
+    pendingUpdates.add(() -> delegate.remove(field));
+  }
+
+  @Override
+  public void remove(final JMethod method) {
+    pendingUpdates.add(() -> delegate.remove(method));
+  }
+
+  @Override
+  public void removeFields(Collection<JField> fields) {
+    final List<JField> fieldsCopy = ImmutableList.copyOf(fields);
+    pendingUpdates.add(() -> delegate.removeFields(fieldsCopy));
+  }
+
+  @Override
+  public void removeMethods(Collection<JMethod> methods) {
+    final List<JMethod> methodsCopy = ImmutableList.copyOf(methods);
+    pendingUpdates.add(() -> delegate.removeMethods(methodsCopy));
+  }
+
+  @Override
+  public void setLastStepFor(String optimizerName, int step) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void syncDeletedSubCallGraphsSince(int step, Collection<JMethod> prunedMethods) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void traverse(JVisitor visitor, Set<? extends JNode> nodes) {
+    delegate.traverse(visitor, nodes);
+  }
+}
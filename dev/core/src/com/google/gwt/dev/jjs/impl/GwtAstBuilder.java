@@ -4004,7 +4004,7 @@ public class GwtAstBuilder {
   /**
    * Manually tracked version count.
    */
-  private static final long AST_VERSION = 3;
+  private static final long AST_VERSION = 4;
   private static final int MAX_INLINEABLE_ENUM_SIZE = 10;
 
   private static final String CREATE_VALUE_OF_MAP_METHOD_NAME = "createValueOfMap";
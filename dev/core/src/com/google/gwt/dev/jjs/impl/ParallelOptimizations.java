@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs method-local optimizations over disjoint sets of methods concurrently.
+ * <p>
+ * Enabled by setting the {@value #PROP_PARALLEL_OPTIMIZE} system property to {@code true}. Methods
+ * are split into contiguous chunks that are visited on a shared pool, each with its own visitor and
+ * a {@link DeferredOptimizerContext}. Once all chunks are done the recorded modifications are
+ * applied to the shared {@link OptimizerContext} in the original method order, so the resulting
+ * optimizer state does not depend on scheduling.
+ * <p>
+ * Visitors run this way must only modify the method they are visiting and must not read the bodies
+ * of other methods.
+ */
+public final class ParallelOptimizations {
+
+  /**
+   * A Java property that enables parallel execution of method-local optimizations.
+   */
+  public static final String PROP_PARALLEL_OPTIMIZE = "gwt.jjs.parallelOptimize";
+
+  /**
+   * Number of chunks per worker thread; more chunks even out the cost of large methods.
+   */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  private static final int THREAD_COUNT = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * An executor service shared by all permutations compiled in this process.
+   */
+  private static final ExecutorService executor = createExecutor();
+
+  private static ExecutorService createExecutor() {
+    // With an unbounded queue the pool never grows past its core size, so all threads are core
+    // threads; they time out when idle.
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, 60L,
+        TimeUnit.SECONDS, Queues.<Runnable>newLinkedBlockingQueue(),
+        // Make sure this executor lets the whole process terminate correctly even if there
+        // are still live threads.
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ParallelOptimizer-%d").build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Returns whether method-local optimizations should be run in parallel.
+   */
+  public static boolean isEnabled() {
+    return Boolean.getBoolean(PROP_PARALLEL_OPTIMIZE);
+  }
+
+  /**
+   * Visits each method in {@code methods} with a visitor created by {@code visitorFactory} and
+   * returns the total number of modifications made.
+   */
+  public static int visitMethods(Collection<JMethod> methods, OptimizerContext optimizerCtx,
+      final Function<OptimizerContext, ? extends JChangeTrackingVisitor> visitorFactory) {
+    if (methods.isEmpty()) {
+      return 0;
+    }
+    List<JMethod> methodList = ImmutableList.copyOf(methods);
+    int chunkSize = Math.max(1,
+        (methodList.size() + THREAD_COUNT * CHUNKS_PER_THREAD - 1)
+            / (THREAD_COUNT * CHUNKS_PER_THREAD));
+
+    List<DeferredOptimizerContext> chunkContexts = Lists.newArrayList();
+    List<Future<Integer>> chunkResults = Lists.newArrayList();
+    for (final List<JMethod> chunk : Lists.partition(methodList, chunkSize)) {
+      final DeferredOptimizerContext chunkContext = new DeferredOptimizerContext(optimizerCtx);
+      chunkContexts.add(chunkContext);
+      chunkResults.add(executor.submit(() -> {
+        JChangeTrackingVisitor visitor = visitorFactory.apply(chunkContext);
+        for (JMethod method : chunk) {
+          visitor.accept(method);
+        }
+        return visitor.getNumMods();
+      }));
+    }
+
+    // Wait for every chunk, even when interrupted, so that no worker is still modifying the AST
+    // when we return; the interrupted state is preserved for the caller to act upon.
+    int numMods = 0;
+    Throwable failure = null;
+    for (Future<Integer> chunkResult : chunkResults) {
+      try {
+        numMods += Uninterruptibles.getUninterruptibly(chunkResult);
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      }
+    }
+    if (failure instanceof RuntimeException) {
+      throw (RuntimeException) failure;
+    }
+    if (failure instanceof Error) {
+      throw (Error) failure;
+    }
+    if (failure != null) {
+      throw new RuntimeException(failure);
+    }
+
+    for (DeferredOptimizerContext chunkContext : chunkContexts) {
+      chunkContext.commit();
+    }
+    return numMods;
+  }
+
+  private ParallelOptimizations() {
+  }
+}
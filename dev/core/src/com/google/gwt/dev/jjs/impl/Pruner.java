@@ -664,7 +664,10 @@ public class Pruner {
     }
     livenessAnalyzer.traverseEverything();
 
-    program.typeOracle.setInstantiatedTypes(livenessAnalyzer.getInstantiatedTypes());
+    // Copied so that the type oracle doesn't keep the analyzer's node ids (and with them every
+    // node it has seen, including the ones about to be pruned) alive.
+    program.typeOracle.setInstantiatedTypes(
+        Sets.newLinkedHashSet(livenessAnalyzer.getInstantiatedTypes()));
 
     PruneVisitor pruner =
         new PruneVisitor(livenessAnalyzer.getReferencedTypes(), livenessAnalyzer
@@ -27,14 +27,14 @@ import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import java.util.Set;
 
 /**
- * Records all live rebinds.
+ * Records all live rebinds, or all live reads of binding properties.
  */
 public class RecordRebinds {
 
   private class RebindVisitor extends JVisitor {
     @Override
     public void endVisit(JPermutationDependentValue x, Context ctx) {
-      if (x.isTypeRebind()) {
+      if (x.isTypeRebind() != recordProperties) {
         liveRebindRequests.add(x.getRequestedValue());
       }
     }
@@ -43,17 +43,32 @@ public class RecordRebinds {
   public static Set<String> exec(JProgram program) {
     Event recordRebindsEvent = SpeedTracerLogger.start(CompilerEventType.RECORD_REBINDS);
     Set<String> liveRebindRequests = Sets.newHashSet();
-    new RecordRebinds(program, liveRebindRequests).execImpl();
+    new RecordRebinds(program, liveRebindRequests, false).execImpl();
     recordRebindsEvent.end();
     return liveRebindRequests;
   }
 
+  /**
+   * Returns the names of the properties read by live {@code System.getProperty()} calls whose
+   * value depends on the permutation.
+   */
+  public static Set<String> execForProperties(JProgram program) {
+    Event recordRebindsEvent = SpeedTracerLogger.start(CompilerEventType.RECORD_REBINDS);
+    Set<String> livePropertyNames = Sets.newHashSet();
+    new RecordRebinds(program, livePropertyNames, true).execImpl();
+    recordRebindsEvent.end();
+    return livePropertyNames;
+  }
+
   private final Set<String> liveRebindRequests;
   private final JProgram program;
+  private final boolean recordProperties;
 
-  private RecordRebinds(JProgram program, Set<String> liveRebindRequests) {
+  private RecordRebinds(JProgram program, Set<String> liveRebindRequests,
+      boolean recordProperties) {
     this.program = program;
     this.liveRebindRequests = liveRebindRequests;
+    this.recordProperties = recordProperties;
   }
 
   private void execImpl() {
@@ -19,6 +19,7 @@ import com.google.gwt.dev.jjs.SourceOrigin;
 import com.google.gwt.dev.jjs.ast.CanBeAbstract;
 import com.google.gwt.dev.jjs.ast.CanBeStatic;
 import com.google.gwt.dev.jjs.ast.Context;
+import com.google.gwt.dev.jjs.ast.HasType;
 import com.google.gwt.dev.jjs.ast.JArrayRef;
 import com.google.gwt.dev.jjs.ast.JBinaryOperation;
 import com.google.gwt.dev.jjs.ast.JBinaryOperator;
@@ -36,6 +37,7 @@ import com.google.gwt.dev.jjs.ast.JLocal;
 import com.google.gwt.dev.jjs.ast.JMethod;
 import com.google.gwt.dev.jjs.ast.JMethodCall;
 import com.google.gwt.dev.jjs.ast.JNewInstance;
+import com.google.gwt.dev.jjs.ast.JNode;
 import com.google.gwt.dev.jjs.ast.JParameter;
 import com.google.gwt.dev.jjs.ast.JPermutationDependentValue;
 import com.google.gwt.dev.jjs.ast.JProgram;
@@ -58,14 +60,17 @@ import com.google.gwt.thirdparty.guava.common.base.Predicate;
 import com.google.gwt.thirdparty.guava.common.collect.FluentIterable;
 import com.google.gwt.thirdparty.guava.common.collect.HashMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Iterables;
+import com.google.gwt.thirdparty.guava.common.collect.LinkedHashMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import com.google.gwt.thirdparty.guava.common.collect.Multimap;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -119,9 +124,13 @@ import java.util.Stack;
  * 2) It creates some very interesting opportunities to optimize later, since we
  * know statically that the value of the variable is always null.
  *
- * Open issue: we don't handle recursion where a method passes (some of) its own
- * args to itself or returns its own call result. With our naive analysis, we
- * can't figure out that tightening might occur.
+ * Way points that feed into themselves, e.g. a method that passes (some of) its
+ * own args to itself or returns its own call result, can't be tightened by
+ * looking at the current types of what flows into them. Before the first
+ * tightening of an optimization run, a {@link TypeFlowSolver} therefore
+ * propagates types through the recorded flow in a single worklist sweep,
+ * starting from the null type, and the result caps the types the tightener
+ * assigns.
  *
  * Type flow is not supported for primitive types, only reference types.
  */
@@ -185,8 +194,8 @@ public class TypeTightener {
   }
 
   /*
-   * TODO(later): handle recursion, self-assignment, arrays, method tightening
-   * on invocations from within JSNI blocks
+   * TODO(later): handle arrays, method tightening on invocations from within
+   * JSNI blocks
    */
 
   /**
@@ -244,6 +253,9 @@ public class TypeTightener {
 
     @Override
     public void endVisit(JDeclarationStatement x, Context ctx) {
+      if (currentMethod != null && x.getVariableRef().getTarget() instanceof JLocal) {
+        enclosingMethods.put(x.getVariableRef().getTarget(), currentMethod);
+      }
       JExpression initializer = x.getInitializer();
       if (initializer != null) {
         addAssignment(x.getVariableRef().getTarget(), initializer);
@@ -311,6 +323,7 @@ public class TypeTightener {
       JMethod method = x.getTarget();
       for (JParameter param : method.getParams()) {
         addAssignment(param, param.makeRef(SourceOrigin.UNKNOWN));
+        variablesWithUnknownValues.add(param);
       }
     }
 
@@ -320,6 +333,7 @@ public class TypeTightener {
       // Fake an assignment-to-self to prevent tightening
       for (JTryStatement.CatchClause clause : x.getCatchClauses()) {
         addAssignment(clause.getArg().getTarget(), clause.getArg());
+        variablesWithUnknownValues.add(clause.getArg().getTarget());
       }
     }
 
@@ -330,6 +344,9 @@ public class TypeTightener {
     @Override
     public boolean visit(JMethod x, Context ctx) {
       currentMethod = x;
+      for (JParameter param : x.getParams()) {
+        enclosingMethods.put(param, x);
+      }
 
       if (x.canBePolymorphic()) {
         /*
@@ -531,7 +548,8 @@ public class TypeTightener {
          JjsUtils.getExpressionTypes(returns.get(x)),
          JjsUtils.getExpressionTypes(x.getOverridingMethods()));
 
-      JReferenceType strengthenedType = strongerType(returnType, returnTypes);
+      JReferenceType strengthenedType =
+          strengthenToFlowType(x, strongerType(returnType, returnTypes));
       if (returnType != strengthenedType) {
           x.setType(strengthenedType);
           madeChanges();
@@ -691,8 +709,8 @@ public class TypeTightener {
         return;
       }
 
-      JReferenceType strengthenedType = strongerType(varType,
-          Iterables.concat(assignmentTypes, JjsUtils.getExpressionTypes(paramUpRefs.get(x))));
+      JReferenceType strengthenedType = strengthenToFlowType(x, strongerType(varType,
+          Iterables.concat(assignmentTypes, JjsUtils.getExpressionTypes(paramUpRefs.get(x)))));
       if (varType != strengthenedType) {
         x.setType(strengthenedType);
         madeChanges();
@@ -720,6 +738,206 @@ public class TypeTightener {
     }
   }
 
+  /**
+   * Propagates the types recorded by {@link RecordVisitor} through all the way points at once,
+   * using a worklist. Every way point starts at the null type and is only widened when a wider
+   * type flows into it, so a way point that (directly or through others) feeds into itself ends up
+   * with the types that flow into the cycle from outside, rather than with its declared type.
+   * <p>
+   * Way points whose incoming type flow is not fully recorded, e.g. parameters of methods that can
+   * be called from JavaScript, keep their declared types.
+   */
+  private class TypeFlowSolver {
+    /**
+     * Each update generalizes a way point's previous type with the new one, so a way point only
+     * moves up the type hierarchy and the sweep terminates. Nullness and exactness are not strictly
+     * ordered by {@link JProgram#generalizeTypes}, though, so a way point that still changes after
+     * this many updates is given its declared type, which is always a sound answer.
+     */
+    private static final int MAX_UPDATES = 32;
+
+    private final LinkedHashMultimap<JNode, JNode> dependentsBySource = LinkedHashMultimap.create();
+    private final Map<JNode, Integer> updateCounts = Maps.newIdentityHashMap();
+    private final Set<JNode> queued = Sets.newIdentityHashSet();
+    private final Deque<JNode> worklist = new ArrayDeque<JNode>();
+
+    public void solve(Iterable<? extends JNode> wayPoints) {
+      for (JNode wayPoint : wayPoints) {
+        getFlowType(wayPoint, null);
+      }
+      while (!worklist.isEmpty()) {
+        JNode wayPoint = worklist.poll();
+        queued.remove(wayPoint);
+        JReferenceType previousType = flowTypes.get(wayPoint);
+        JReferenceType flowType =
+            strongerType(getDeclaredType(wayPoint), previousType, computeFlowType(wayPoint));
+        if (flowType == previousType) {
+          continue;
+        }
+        int updateCount = updateCounts.containsKey(wayPoint) ? updateCounts.get(wayPoint) : 0;
+        if (updateCount == MAX_UPDATES) {
+          flowType = getDeclaredType(wayPoint);
+        }
+        updateCounts.put(wayPoint, updateCount + 1);
+        flowTypes.put(wayPoint, flowType);
+        for (JNode dependent : dependentsBySource.get(wayPoint)) {
+          enqueue(dependent);
+        }
+      }
+    }
+
+    private JReferenceType computeFlowType(JNode wayPoint) {
+      JReferenceType declaredType = getDeclaredType(wayPoint);
+      if (updateCounts.containsKey(wayPoint) && updateCounts.get(wayPoint) > MAX_UPDATES) {
+        return declaredType;
+      }
+      Collection<JExpression> expressions;
+      Collection<? extends JNode> sources;
+      if (wayPoint instanceof JMethod) {
+        expressions = returns.get(wayPoint);
+        // A call may dispatch to any of the overriders.
+        sources = ((JMethod) wayPoint).getOverridingMethods();
+      } else {
+        expressions = assignments.get(wayPoint);
+        sources = paramUpRefs.get(wayPoint);
+      }
+
+      List<JReferenceType> types = Lists.newArrayList();
+      if (expressions != null) {
+        for (JExpression expression : expressions) {
+          JReferenceType type = getFlowType(expression, wayPoint);
+          if (type == null) {
+            return declaredType;
+          }
+          types.add(type);
+        }
+      }
+      if (sources != null) {
+        for (JNode source : sources) {
+          types.add(getFlowType(source, wayPoint));
+        }
+      }
+      return strongerType(declaredType, types);
+    }
+
+    private void enqueue(JNode wayPoint) {
+      if (queued.add(wayPoint)) {
+        worklist.add(wayPoint);
+      }
+    }
+
+    private JReferenceType getDeclaredType(JNode wayPoint) {
+      return (JReferenceType) ((HasType) wayPoint).getType();
+    }
+
+    /**
+     * Returns the type that flows out of {@code expression}, or {@code null} if it is not a
+     * reference type.
+     */
+    private JReferenceType getFlowType(JExpression expression, JNode dependent) {
+      if (!(expression.getType() instanceof JReferenceType)) {
+        return null;
+      }
+      JReferenceType type = (JReferenceType) expression.getType();
+      if (expression instanceof JConditional) {
+        JConditional conditional = (JConditional) expression;
+        JReferenceType thenType = getFlowType(conditional.getThenExpr(), dependent);
+        JReferenceType elseType = getFlowType(conditional.getElseExpr(), dependent);
+        if (thenType == null || elseType == null) {
+          return type;
+        }
+        return strongerType(type, thenType, elseType);
+      }
+      JNode source = getSource(expression);
+      return source == null ? type : program.strengthenType(type, getFlowType(source, dependent));
+    }
+
+    /**
+     * Returns the type that flows out of a way point, and records that {@code dependent} needs to
+     * be recomputed when it changes.
+     */
+    private JReferenceType getFlowType(JNode source, JNode dependent) {
+      if (!isTracked(source)) {
+        return getDeclaredType(source);
+      }
+      if (dependent != null) {
+        dependentsBySource.put(source, dependent);
+      }
+      JReferenceType flowType = flowTypes.get(source);
+      if (flowType == null) {
+        flowType = JReferenceType.NULL_TYPE;
+        flowTypes.put(source, flowType);
+        enqueue(source);
+      }
+      return flowType;
+    }
+
+    /**
+     * Returns the way point whose type {@code expression} has, if any.
+     */
+    private JNode getSource(JExpression expression) {
+      if (expression instanceof JsniFieldRef) {
+        return null;
+      }
+      if (expression instanceof JVariableRef) {
+        return ((JVariableRef) expression).getTarget();
+      }
+      if (expression instanceof JMethodCall && !(expression instanceof JNewInstance)
+          && !(expression instanceof JsniMethodRef)) {
+        JMethod target = ((JMethodCall) expression).getTarget();
+        return expression.getType() == target.getType() ? target : null;
+      }
+      return null;
+    }
+
+    /**
+     * Whether all the types flowing into {@code wayPoint} have been recorded.
+     */
+    private boolean isTracked(JNode wayPoint) {
+      if (!(((HasType) wayPoint).getType() instanceof JReferenceType)) {
+        return false;
+      }
+      if (wayPoint instanceof JField) {
+        JField field = (JField) wayPoint;
+        return !program.codeGenTypes.contains(field.getEnclosingType())
+            && !field.canBeReferencedExternally() && !field.canBeImplementedExternally()
+            && !field.isVolatile();
+      }
+      if (wayPoint instanceof JMethod) {
+        JMethod method = (JMethod) wayPoint;
+        return !program.codeGenTypes.contains(method.getEnclosingType())
+            && !method.isJsniMethod() && !method.canBeImplementedExternally();
+      }
+      JMethod method = enclosingMethods.get(wayPoint);
+      if (method == null || variablesWithUnknownValues.contains(wayPoint)
+          || program.codeGenTypes.contains(method.getEnclosingType()) || method.isJsniMethod()) {
+        return false;
+      }
+      if (!(wayPoint instanceof JParameter)) {
+        return true;
+      }
+      return !method.canBeReferencedExternally()
+          && !(((JParameter) wayPoint).isVarargs() && method.isJsMethodVarargs())
+          && !hasSyntheticAccidentalOverride(method);
+    }
+
+    /**
+     * Parameters of methods involved in accidental overrides are left alone; see
+     * {@link ComputeOverridesAndImplementDefaultMethods}.
+     */
+    private boolean hasSyntheticAccidentalOverride(JMethod method) {
+      if (method.isSyntheticAccidentalOverride()) {
+        return true;
+      }
+      for (JMethod overridingMethod : method.getOverridingMethods()) {
+        if (overridingMethod.isSyntheticAccidentalOverride()) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
   private static final String NAME = TypeTightener.class.getSimpleName();
 
   public static OptimizerStats exec(JProgram program, OptimizerContext optimizerCtx) {
@@ -781,7 +999,7 @@ public class TypeTightener {
    * of expressions that are assigned to them. Assignments include parameter instantiations.
    *
    */
-  private final Map<JVariable, Collection<JExpression>> assignments = Maps.newIdentityHashMap();
+  private final Map<JVariable, Collection<JExpression>> assignments = Maps.newLinkedHashMap();
   /**
    * For each type tracks all classes the extend or implement it.
    */
@@ -791,11 +1009,23 @@ public class TypeTightener {
    * For each parameter P (in method M) tracks the set of parameters that share its position in all
    * the methods that are overridden by M.
    */
-  private final Map<JParameter, Collection<JParameter>> paramUpRefs = Maps.newIdentityHashMap();
+  private final Map<JParameter, Collection<JParameter>> paramUpRefs = Maps.newLinkedHashMap();
   /**
    * For each method tracks the set of all expressions that are returned.
    */
-  private final Map<JMethod, Collection<JExpression>> returns = Maps.newIdentityHashMap();
+  private final Map<JMethod, Collection<JExpression>> returns = Maps.newLinkedHashMap();
+  /**
+   * The method that declares each parameter and local.
+   */
+  private final Map<JVariable, JMethod> enclosingMethods = Maps.newIdentityHashMap();
+  /**
+   * Variables that can be assigned values the RecordVisitor doesn't see.
+   */
+  private final Set<JVariable> variablesWithUnknownValues = Sets.newIdentityHashSet();
+  /**
+   * For each way point (variable or method) the type computed by {@link TypeFlowSolver}.
+   */
+  private final Map<JNode, JReferenceType> flowTypes = Maps.newLinkedHashMap();
 
   /**
    * For each method call, record the method calls and field references in its arguments.
@@ -815,6 +1045,19 @@ public class TypeTightener {
     OptimizerStats stats = new OptimizerStats(NAME);
     RecordVisitor recorder = new RecordVisitor();
     recorder.record(program);
+    int lastStep = optimizerCtx.getLastStepFor(NAME);
+    if (lastStep == 0) {
+      /*
+       * The solver sweeps every way point in the program, so it only runs the first time the
+       * tightener runs with this context. The declared types it tightens stay tightened, and later
+       * passes only lose the cycles that other optimizations create in between.
+       */
+      new TypeFlowSolver().solve(
+          Iterables.concat(assignments.keySet(), paramUpRefs.keySet(), returns.keySet()));
+    }
+    Set<JMethod> methodsToTighten = Sets.newLinkedHashSet();
+    Set<JField> fieldsToTighten = Sets.newLinkedHashSet();
+    collectTighterFlowTypes(methodsToTighten, fieldsToTighten);
 
     /*
      * We must iterate multiple times because each way point we tighten creates
@@ -825,7 +1068,6 @@ public class TypeTightener {
      * than completion if we compile with an option for less than 100% optimized
      * output.
      */
-    int lastStep = optimizerCtx.getLastStepFor(NAME);
     /*
      * Set the last step to the step at which TypeTightener does the first iteration. Since the
      * RecordVisitor is run only once, the information in {@code assignments} etc. is not updated.
@@ -838,6 +1080,11 @@ public class TypeTightener {
 
       Set<JMethod> affectedMethods = computeAffectedMethods(optimizerCtx, lastStep);
       Set<JField> affectedFields = computeAffectedFields(optimizerCtx, lastStep);
+      // The first iteration also applies what the type flow solver found.
+      affectedMethods.addAll(methodsToTighten);
+      affectedFields.addAll(fieldsToTighten);
+      methodsToTighten.clear();
+      fieldsToTighten.clear();
       optimizerCtx.traverse(tightener, affectedFields);
       optimizerCtx.traverse(tightener, affectedMethods);
       stats.recordModified(tightener.getNumMods());
@@ -900,6 +1147,27 @@ public class TypeTightener {
     return affectedMethods;
   }
 
+  /**
+   * Collects the methods and fields that declare a way point for which the type flow solver found
+   * a tighter type than the declared one.
+   */
+  private void collectTighterFlowTypes(Set<JMethod> methods, Set<JField> fields) {
+    for (Map.Entry<JNode, JReferenceType> entry : flowTypes.entrySet()) {
+      JNode wayPoint = entry.getKey();
+      JReferenceType declaredType = (JReferenceType) ((HasType) wayPoint).getType();
+      if (program.strengthenType(declaredType, entry.getValue()) == declaredType) {
+        continue;
+      }
+      if (wayPoint instanceof JField) {
+        fields.add((JField) wayPoint);
+      } else if (wayPoint instanceof JMethod) {
+        methods.add((JMethod) wayPoint);
+      } else {
+        methods.add(enclosingMethods.get(wayPoint));
+      }
+    }
+  }
+
   private Set<JField> computeAffectedFields(OptimizerContext optimizerCtx, int lastStep) {
     Set<JMethod> modifiedMethods = optimizerCtx.getModifiedMethodsSince(lastStep);
     Set<JField> modifiedFields = optimizerCtx.getModifiedFieldsSince(lastStep);
@@ -913,6 +1181,14 @@ public class TypeTightener {
     return !member.isStatic() && instance.getType().isNullType();
   }
 
+  /**
+   * Computes type ^ the type computed by the type flow solver for {@code wayPoint}, if any.
+   */
+  private JReferenceType strengthenToFlowType(JNode wayPoint, JReferenceType type) {
+    JReferenceType flowType = flowTypes.get(wayPoint);
+    return flowType == null ? type : program.strengthenType(type, flowType);
+  }
+
   /**
    * Computes type ^ (V assignedTypes).
    */
@@ -27,6 +27,7 @@ import com.google.gwt.dev.javac.CompilationProblemReporter;
 import com.google.gwt.dev.javac.CompilationState;
 import com.google.gwt.dev.javac.CompilationUnit;
 import com.google.gwt.dev.javac.CompiledClass;
+import com.google.gwt.dev.javac.StandardGeneratorContext;
 import com.google.gwt.dev.jdt.RebindPermutationOracle;
 import com.google.gwt.dev.jjs.PrecompilationContext;
 import com.google.gwt.dev.jjs.SourceInfo;
@@ -70,6 +71,7 @@ import com.google.gwt.dev.jjs.ast.JTryStatement;
 import com.google.gwt.dev.jjs.ast.JType;
 import com.google.gwt.dev.jjs.ast.JUnsafeTypeCoercion;
 import com.google.gwt.dev.jjs.ast.JVariable;
+import com.google.gwt.dev.jjs.ast.JVisitor;
 import com.google.gwt.dev.jjs.ast.RuntimeConstants;
 import com.google.gwt.dev.jjs.ast.js.JDebuggerStatement;
 import com.google.gwt.dev.jjs.ast.js.JsniFieldRef;
@@ -1403,11 +1405,55 @@ public class UnifyAst {
    */
   private void mainLoop() {
     UnifyVisitor visitor = new UnifyVisitor();
+    if (StandardGeneratorContext.CONCURRENT_GENERATORS && !incrementalCompile) {
+      // Work through the queue one generation at a time, letting the rebind oracle run the
+      // generators for all the GWT.create() calls of a generation concurrently.
+      while (!methodsPending.isEmpty()) {
+        prefetchRebindAnswers(methodsPending);
+        for (int i = methodsPending.size(); i > 0; --i) {
+          visitor.accept(methodsPending.poll());
+        }
+      }
+      return;
+    }
     while (!methodsPending.isEmpty()) {
       visitor.accept(methodsPending.poll());
     }
   }
 
+  /**
+   * Passes the types requested by the GWT.create() calls with class literal arguments in
+   * {@code methods} on to {@link RebindPermutationOracle#prefetchRebindAnswers}. The calls are
+   * still resolved as usual when they are reached.
+   */
+  private void prefetchRebindAnswers(Collection<JMethod> methods) {
+    final Set<String> requestedTypes = Sets.newLinkedHashSet();
+    JVisitor gwtCreateFinder = new JVisitor() {
+      @Override
+      public void endVisit(JMethodCall x, Context ctx) {
+        String targetName = x.getTarget().getQualifiedName();
+        if ((targetName.equals(GWT_CREATE) || targetName.equals(OLD_GWT_CREATE))
+            && x.getArgs().size() == 1 && x.getArgs().get(0) instanceof JClassLiteral) {
+          JType type = ((JClassLiteral) x.getArgs().get(0)).getRefType();
+          if (type instanceof JDeclaredType) {
+            requestedTypes.add(BinaryName.toSourceName(type.getName()));
+          }
+        }
+      }
+    };
+    for (JMethod method : methods) {
+      gwtCreateFinder.accept(method);
+    }
+    if (requestedTypes.isEmpty()) {
+      return;
+    }
+    try {
+      rebindPermutationOracle.prefetchRebindAnswers(logger, requestedTypes);
+    } catch (UnableToCompleteException e) {
+      // The requests are retried, and any errors reported, as the calls are reached.
+    }
+  }
+
   private void processType(JDeclaredType type) {
     assert !type.isExternal();
     for (JMember member : type.getMembers()) {
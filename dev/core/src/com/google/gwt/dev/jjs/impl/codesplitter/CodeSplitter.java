@@ -66,9 +66,9 @@ import java.util.Set;
  * the result is a partition of a subset of the runAsyncs. Currently two strategies are implemented:
  * (1) {@link OneToOneFragmentPartitionStrategy} that assigns each runAsync to one fragment (as in
  * the original CodeSplitter), and (2) {@link MergeBySimilarityFragmentPartitionStrategy}</p> where
- * runAsyncs are pairwise merged together into a predetermined maximum number of fragments is a
- * way that is estimated to minimize the leftover fragment size (which is the strategy previously
- * attempted in the now obsolete CodeSplitter2. Additionally if the option
+ * runAsyncs that share the most code are repeatedly merged together into a predetermined maximum
+ * number of fragments is a way that is estimated to minimize the leftover fragment size (which is
+ * the strategy previously attempted in the now obsolete CodeSplitter2. Additionally if the option
  * {@link CodeSplitters.MIN_FRAGMENT_SIZE} is set, this strategy also merge fragments that are
  * smaller than the minimum fragments size together and if the resulting combined fragment is still
  * smaller than the minimum fragment size it is left out of the fragmentation so that it is merged
@@ -104,7 +104,7 @@ public class CodeSplitter {
 
   public static void exec(TreeLogger logger, JProgram jprogram, JsProgram jsprogram,
       JavaToJavaScriptMap map, int expectedFragmentCount, int minFragmentSize,
-      MultipleDependencyGraphRecorder dependencyRecorder) {
+      int maxFragmentSize, MultipleDependencyGraphRecorder dependencyRecorder) {
     if (jprogram.getRunAsyncs().isEmpty()) {
       // Don't do anything if there is no call to runAsync
       return;
@@ -112,7 +112,7 @@ public class CodeSplitter {
     Event codeSplitterEvent = SpeedTracerLogger.start(CompilerEventType.CODE_SPLITTER);
     dependencyRecorder.open();
     new CodeSplitter(logger, jprogram, jsprogram, map, expectedFragmentCount, minFragmentSize,
-        dependencyRecorder).execImpl();
+        maxFragmentSize, dependencyRecorder).execImpl();
     dependencyRecorder.close();
     codeSplitterEvent.end();
   }
@@ -224,7 +224,7 @@ public class CodeSplitter {
 
   private CodeSplitter(TreeLogger logger, JProgram jprogram, JsProgram jsprogram,
       JavaToJavaScriptMap map, int expectedFragmentCount, int minFragmentSize,
-      MultipleDependencyGraphRecorder dependencyRecorder) {
+      int maxFragmentSize, MultipleDependencyGraphRecorder dependencyRecorder) {
     this.logger = logger.branch(TreeLogger.TRACE, "Splitting JavaScript for incremental download");
     this.jprogram = jprogram;
     this.jsprogram = jsprogram;
@@ -245,7 +245,8 @@ public class CodeSplitter {
     partitionStrategy = expectedFragmentCount > 0 ?
         new MergeBySimilarityFragmentPartitionStrategy(
             CodeSplitters.getNumberOfExclusiveFragmentFromExpectedFragmentCount(
-                initialLoadSequence.size(), expectedFragmentCount), minFragmentSize) :
+                initialLoadSequence.size(), expectedFragmentCount), minFragmentSize,
+            maxFragmentSize) :
         new OneToOneFragmentPartitionStrategy();
   }
 
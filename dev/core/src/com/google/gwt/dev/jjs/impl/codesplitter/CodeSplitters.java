@@ -183,6 +183,7 @@ public class CodeSplitters {
   static String PROP_LOG_FRAGMENT_MAP = "gwt.jjs.logFragmentMap";
   static final String PROP_INITIAL_SEQUENCE = "compiler.splitpoint.initial.sequence";
   public static final String MIN_FRAGMENT_SIZE = "compiler.splitpoint.leftovermerge.size";
+  public static final String MAX_FRAGMENT_SIZE = "compiler.splitpoint.merge.max.size";
 
   private static void logInitialLoadSequence(TreeLogger logger,
        LinkedHashSet<JRunAsync> initialLoadSequence) {
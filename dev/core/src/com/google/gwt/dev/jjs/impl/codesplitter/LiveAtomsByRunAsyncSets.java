@@ -21,27 +21,30 @@ import com.google.gwt.dev.jjs.ast.JNode;
 import com.google.gwt.dev.jjs.ast.JReferenceType;
 import com.google.gwt.dev.jjs.ast.JRunAsync;
 import com.google.gwt.dev.jjs.impl.ControlFlowAnalyzer;
-import com.google.gwt.thirdparty.guava.common.collect.LinkedHashMultiset;
+import com.google.gwt.dev.util.collect.IndexedSet;
 import com.google.gwt.thirdparty.guava.common.collect.Lists;
 import com.google.gwt.thirdparty.guava.common.collect.Maps;
-import com.google.gwt.thirdparty.guava.common.collect.Multiset;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.PriorityQueue;
+import java.util.Set;
 
 /**
- * Maps an atom to a set of runAsyncs that can be live (NOT necessary exclusively) when that
- * runAsync is activated. The runAsyncs are represented by a bit set where S[i] is set if the atom
- * needs to be live when runAsync i is live.<br />
+ * Records, for each runAsync, the set of atoms that become live when that runAsync is activated
+ * after the initial sequence, and estimates from that how much code runAsyncs share.<br />
  *
- * In this class "payload size" is the size of the atoms that will be loaded (beyond the set of
- * atoms already loaded in the initial sequence) as part of a particular exclusive fragment.
+ * Atoms are numbered as they are first seen and the atoms live for a runAsync are kept as a bit
+ * set of atom numbers. Atoms that are already live in the initial sequence are not recorded at
+ * all.<br />
  *
- * "Subset" refers to an arbitrary combination of runAsync ids.
+ * In this class "payload size" is the size of the atoms that will be loaded (beyond the set of
+ * atoms already loaded in the initial sequence) as part of a particular exclusive fragment. Only
+ * atoms that are live for one or two runAsyncs are taken into account (see
+ * {@link RunAsyncClusterer}).
  */
 class LiveAtomsByRunAsyncSets {
 
@@ -49,37 +52,10 @@ class LiveAtomsByRunAsyncSets {
     this.logger = logger;
   }
 
-  private static class SubsetWithSize implements Comparable<SubsetWithSize> {
-    private final int size;
-    private final BitSet subset;
-
-    public SubsetWithSize(BitSet subset, int size) {
-      this.subset = subset;
-      this.size = size;
-    }
-
-    @Override
-    public int compareTo(SubsetWithSize o) {
-      return Integer.valueOf(o.size).compareTo(Integer.valueOf(size));
-    }
-  }
-
   private static final int AVERAGE_METHOD_SIZE = 40;
   private static final int AVERAGE_NAME_SIZE = 2;
   private static final int FUNCTION_DEFINITION_CONSTANT_SIZE = "function".length() + "()".length();
 
-  private static BitSet computeComplement(BitSet bitSet, int count) {
-    BitSet notMergedSubset = (BitSet) bitSet.clone();
-    notMergedSubset.flip(0, count);
-    return notMergedSubset;
-  }
-
-  private static BitSet computeIntersection(BitSet thisSet, BitSet thatSet) {
-    BitSet intersectionBitSet = (BitSet) thisSet.clone();
-    intersectionBitSet.and(thatSet);
-    return intersectionBitSet;
-  }
-
   private static int getSizeEstimate(JDeclaredType type) {
     int defineClassSize = AVERAGE_NAME_SIZE + 50;
     int methodsSize = (3 + AVERAGE_NAME_SIZE) * type.getMethods().size();
@@ -114,71 +90,43 @@ class LiveAtomsByRunAsyncSets {
     return string.length();
   }
 
-  private static boolean isSubset(BitSet smallerSet, BitSet biggerSet) {
-    return computeIntersection(smallerSet, biggerSet).equals(smallerSet);
-  }
-
+  private int atomCount = 0;
+  private int[] atomSizes = new int[1024];
+  private RunAsyncClusterer clusterer;
+  private Collection<Collection<JRunAsync>> groupedRunAsyncs;
   private final Map<JRunAsync, Integer> idForRunAsync = Maps.newHashMap();
-  private Map<JField, BitSet> liveSubsetForField = Maps.newLinkedHashMap();
-  private Map<JMethod, BitSet> liveSubsetForMethod = Maps.newLinkedHashMap();
-  private Map<String, BitSet> liveSubsetForString = Maps.newLinkedHashMap();
-  private Map<JDeclaredType, BitSet> liveSubsetForType = Maps.newLinkedHashMap();
-  private int nextRunAsyncId = 0;
-  private final Multiset<BitSet> payloadSizeBySubset = LinkedHashMultiset.create();
-  private final Map<Integer, JRunAsync> runAsyncForId = Maps.newHashMap();
+  private final Map<Object, Integer> idForAtom = Maps.newHashMap();
+  private final List<BitSet> liveAtomsByRunAsyncId = Lists.newArrayList();
+  private final List<JRunAsync> runAsyncForId = Lists.newArrayList();
   private final TreeLogger logger;
-  private Collection<Collection<JRunAsync>> groupedRunAsyncs;
 
   public int getRunAsyncCount() {
     return idForRunAsync.size();
   }
 
   /**
-   * Returns a list of lists of runAsyncs where {@code pairCount} lists are the result of greedily
-   * accumulating the pairs of runAsyncs that together result in the largest payload, while
-   * referencing each runAsync only once.
+   * Returns a list of lists of runAsyncs, one per fragment, resulting from greedily merging the
+   * groups of runAsyncs that together result in the largest payload, until there are
+   * {@code fragmentCount} groups or nothing else is shared. The groupings prespecified by the user
+   * are kept together and merged as a whole.
+   *
+   * @param maxFragmentSize runAsyncs are not merged into fragments whose estimated payload is
+   *          larger than this, unless it is 0
    */
-  public Collection<Collection<JRunAsync>> mergeSimilarPairs(int pairCount) {
-    Collection<Collection<JRunAsync>> fragmentRunAsyncLists = Lists.newArrayList();
-    BitSet mergedSubset = new BitSet();
-    PriorityQueue<SubsetWithSize> subsetsDescending = computeSubsetsDescending();
-
-    // Exclude the groupings prespecified by the user.
-    // TODO(rluble): we could do better and treat a prespecified grouping as one runAsync for
-    // merging purpose. For now prespecified groupings are excluded from merge by similarity.
-    // will be treated better in v3.
+  public Collection<Collection<JRunAsync>> mergeSimilarRunAsyncs(int fragmentCount,
+      int maxFragmentSize) {
+    List<BitSet> initialClusters = Lists.newArrayList();
     for (Collection<JRunAsync> runAsyncGroup : groupedRunAsyncs) {
-      if (runAsyncGroup.size() <=  1) {
-        continue;
-      }
-      // Premptively add them to the output.
-      fragmentRunAsyncLists.add(runAsyncGroup);
-      // And mark them as used.
-      mergedSubset.or(asBitSet(runAsyncGroup));
+      initialClusters.add(asBitSet(runAsyncGroup));
     }
 
-    // While there are still combinations to examine
-    while (fragmentRunAsyncLists.size() < pairCount && !subsetsDescending.isEmpty()) {
-      BitSet largestSubset = subsetsDescending.poll().subset;
-
-      // If one of the runAsyncs in the current set of runAsyncs has already been used.
-      if (largestSubset.intersects(mergedSubset)) {
-        // Then throw this set out.
-        continue;
+    Collection<Collection<JRunAsync>> fragmentRunAsyncLists = Lists.newArrayList();
+    for (BitSet cluster : clusterer.cluster(initialClusters, fragmentCount, maxFragmentSize)) {
+      if (cluster.cardinality() > 1 && logger.isLoggable(TreeLogger.Type.DEBUG)) {
+        logger.log(TreeLogger.Type.DEBUG, "Merging " + cluster);
       }
-
-      logger.log(TreeLogger.Type.DEBUG, "Merging " + largestSubset);
-
-      fragmentRunAsyncLists.add(asRunAsyncList(largestSubset));
-
-      // Remember that the runAsyncs have already been used.
-      mergedSubset.or(largestSubset);
+      fragmentRunAsyncLists.add(asRunAsyncList(cluster));
     }
-
-    // Get the ones that are not merged
-    BitSet notMergedSubset = computeComplement(mergedSubset, getRunAsyncCount());
-
-    fragmentRunAsyncLists.addAll(CodeSplitters.getListOfLists(asRunAsyncList(notMergedSubset)));
     return fragmentRunAsyncLists;
   }
 
@@ -225,32 +173,58 @@ class LiveAtomsByRunAsyncSets {
       for (JRunAsync runAsync : runAsyncGroup) {
         ControlFlowAnalyzer withRunAsyncCfa = new ControlFlowAnalyzer(initialSequenceCfa);
         withRunAsyncCfa.traverseFromRunAsync(runAsync);
-        recordLiveSubset(withRunAsyncCfa, runAsync);
+        recordLiveSubset(initialSequenceCfa, withRunAsyncCfa, runAsync);
       }
     }
     accumulatePayloadSizes();
   }
 
-  private <T> void accumulatePayloadSizes(Map<T, BitSet> liveSubsetsByAtom) {
-    for (Map.Entry<T, BitSet> entry : liveSubsetsByAtom.entrySet()) {
-      BitSet liveSubset = entry.getValue();
-      T atom = entry.getKey();
-
-      // TODO(rluble): Underestimates the size of fragments resulting of merging more than 2
-      // fragments. With the current strategy it can only happen for the set of very small fragments
-      // and that is OK.
-      if (liveSubset.cardinality() > 2) {
-        continue;
+  /**
+   * Feeds the payload of every atom that is live for exactly one or two runAsyncs to a new
+   * {@link RunAsyncClusterer}.
+   */
+  private void accumulatePayloadSizes() {
+    // For each atom, the number of runAsyncs it is live for (only counted up to 3) and the first
+    // two of them.
+    int[] liveCount = new int[atomCount];
+    int[] firstRunAsyncId = new int[atomCount];
+    int[] secondRunAsyncId = new int[atomCount];
+    for (int runAsyncId = 0; runAsyncId < liveAtomsByRunAsyncId.size(); runAsyncId++) {
+      BitSet liveAtoms = liveAtomsByRunAsyncId.get(runAsyncId);
+      for (int atom = liveAtoms.nextSetBit(0); atom >= 0; atom = liveAtoms.nextSetBit(atom + 1)) {
+        switch (liveCount[atom]) {
+          case 0:
+            firstRunAsyncId[atom] = runAsyncId;
+            break;
+          case 1:
+            secondRunAsyncId[atom] = runAsyncId;
+            break;
+          default:
+            // TODO(rluble): Underestimates the size of fragments resulting of merging more than 2
+            // fragments. With the current strategy it can only happen for the set of very small
+            // fragments and that is OK.
+            continue;
+        }
+        liveCount[atom]++;
       }
+    }
 
-      payloadSizeBySubset.add(liveSubset, getSizeEstimate(atom));
+    clusterer = new RunAsyncClusterer(getRunAsyncCount());
+    for (int atom = 0; atom < atomCount; atom++) {
+      if (liveCount[atom] == 1) {
+        clusterer.addExclusivePayload(firstRunAsyncId[atom], atomSizes[atom]);
+      } else if (liveCount[atom] == 2) {
+        clusterer.addSharedPayload(firstRunAsyncId[atom], secondRunAsyncId[atom],
+            atomSizes[atom]);
+      }
     }
   }
 
-  private void addRunAsync(JRunAsync runAsync) {
-    int runAsyncId = nextRunAsyncId++;
+  private int addRunAsync(JRunAsync runAsync) {
+    int runAsyncId = runAsyncForId.size();
     idForRunAsync.put(runAsync, runAsyncId);
-    runAsyncForId.put(runAsyncId, runAsync);
+    runAsyncForId.add(runAsync);
+    return runAsyncId;
   }
 
   private BitSet asBitSet(Collection<JRunAsync> runAsyncs) {
@@ -270,26 +244,20 @@ class LiveAtomsByRunAsyncSets {
     return runAsyncs;
   }
 
-  private PriorityQueue<SubsetWithSize> computeSubsetsDescending() {
-    PriorityQueue<SubsetWithSize> subsetsDescending = new PriorityQueue<SubsetWithSize>();
-    for (BitSet subset : payloadSizeBySubset.elementSet()) {
-      if (subset.cardinality() != 2) {
-        continue;
-      }
-
-      subsetsDescending.add(new SubsetWithSize(subset, payloadSizeBySubset.count(subset)));
-    }
-    return subsetsDescending;
-  }
-
   /**
-   * Accumulate payload sizes.
+   * Returns the number of an atom, numbering it if it hasn't been seen before.
    */
-  private void accumulatePayloadSizes() {
-    accumulatePayloadSizes(liveSubsetForField);
-    accumulatePayloadSizes(liveSubsetForMethod);
-    accumulatePayloadSizes(liveSubsetForString);
-    accumulatePayloadSizes(liveSubsetForType);
+  private int getAtomId(Object atom) {
+    Integer atomId = idForAtom.get(atom);
+    if (atomId == null) {
+      atomId = atomCount++;
+      idForAtom.put(atom, atomId);
+      if (atomId == atomSizes.length) {
+        atomSizes = Arrays.copyOf(atomSizes, atomSizes.length * 2);
+      }
+      atomSizes[atomId] = getSizeEstimate(atom);
+    }
+    return atomId;
   }
 
   private int getIdForRunAsync(JRunAsync runAsync) {
@@ -297,63 +265,35 @@ class LiveAtomsByRunAsyncSets {
   }
 
   private boolean isFragmentTooSmall(Collection<JRunAsync> fragmentRunAsyncs, int minSize) {
-    BitSet fragmentSubset = asBitSet(fragmentRunAsyncs);
-
-    int size = 0;
-    // TODO(rluble): This might be quite inefficient as it compare to all possible (non trivially
-    // empty) subsets (bounded by the number of atoms). But is only run at most #runAsyncs times to
-    // determine whether to merge small fragments.
-    for (BitSet subset : payloadSizeBySubset.elementSet()) {
-      if (isSubset(subset, fragmentSubset)) {
-
-        size += payloadSizeBySubset.count(subset);
-        if (size >= minSize) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return clusterer.getPayloadSize(asBitSet(fragmentRunAsyncs)) < minSize;
   }
 
-  private ControlFlowAnalyzer recordLiveSubset(ControlFlowAnalyzer cfa, JRunAsync runAsync) {
+  private void recordLiveSubset(ControlFlowAnalyzer initialSequenceCfa, ControlFlowAnalyzer cfa,
+      JRunAsync runAsync) {
     addRunAsync(runAsync);
-    for (JNode node : cfa.getLiveFieldsAndMethods()) {
-      if (node instanceof JField) {
-        setLive(liveSubsetForField, (JField) node, runAsync);
+    BitSet liveAtoms = new BitSet();
+
+    // cfa is a copy of initialSequenceCfa, so these differences are bit set operations.
+    Set<JNode> newlyLiveFieldsAndMethods = IndexedSet.difference(cfa.getLiveFieldsAndMethods(),
+        initialSequenceCfa.getLiveFieldsAndMethods());
+    newlyLiveFieldsAndMethods.addAll(IndexedSet.difference(cfa.getFieldsWritten(),
+        initialSequenceCfa.getLiveFieldsAndMethods()));
+    newlyLiveFieldsAndMethods.removeAll(initialSequenceCfa.getFieldsWritten());
+    for (JNode node : newlyLiveFieldsAndMethods) {
+      if (node instanceof JField || node instanceof JMethod) {
+        liveAtoms.set(getAtomId(node));
       }
-      if (node instanceof JMethod) {
-        setLive(liveSubsetForMethod, (JMethod) node, runAsync);
-      }
-    }
-    for (JField field : cfa.getFieldsWritten()) {
-      setLive(liveSubsetForField, field, runAsync);
     }
-    for (String string : cfa.getLiveStrings()) {
-      setLive(liveSubsetForString, string, runAsync);
+    for (String string : IndexedSet.difference(cfa.getLiveStrings(),
+        initialSequenceCfa.getLiveStrings())) {
+      liveAtoms.set(getAtomId(string));
     }
-    for (JReferenceType type : cfa.getInstantiatedTypes()) {
+    for (JReferenceType type : IndexedSet.difference(cfa.getInstantiatedTypes(),
+        initialSequenceCfa.getInstantiatedTypes())) {
       if (type instanceof JDeclaredType) {
-        setLive(liveSubsetForType, (JDeclaredType) type, runAsync);
-      }
-    }
-    return cfa;
-  }
-
-  private <T> boolean setLive(Map<T, BitSet> liveSubsetsByAtom, T atom, JRunAsync runAsync) {
-    int runAsyncId = idForRunAsync.get(runAsync);
-    BitSet liveSubset = liveSubsetsByAtom.get(atom);
-    if (liveSubset == null) {
-      liveSubset = new BitSet();
-      liveSubset.set(runAsyncId);
-      liveSubsetsByAtom.put(atom, liveSubset);
-      return true;
-    } else {
-      if (liveSubset.get(runAsyncId)) {
-        return false;
-      } else {
-        liveSubset.set(runAsyncId);
-        return true;
+        liveAtoms.set(getAtomId(type));
       }
     }
+    liveAtomsByRunAsyncId.add(liveAtoms);
   }
 }
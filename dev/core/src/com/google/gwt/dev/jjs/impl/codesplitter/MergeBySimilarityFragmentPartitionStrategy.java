@@ -31,8 +31,10 @@ import java.util.List;
  * </p>
  *
  * <p>
- * A similarity graph is constructed (represented by a similarity matrix) from the results of the
- * control flow analysis, and fragments linked by the highest weights are merged.
+ * A similarity graph is constructed (represented by a sparse adjacency map) from the results of
+ * the control flow analysis, and fragments linked by the highest weights are merged repeatedly
+ * until the target number of fragments is reached. Fragments are not merged if the result would be
+ * larger than {@link CodeSplitters#MAX_FRAGMENT_SIZE}, if set.
  * </p>
  *
  * <p>
@@ -44,12 +46,15 @@ import java.util.List;
  * </p>
  */
 class MergeBySimilarityFragmentPartitionStrategy implements FragmentPartitionStrategy {
+  private final int maxSize;
   private final int minSize;
   private final int targetNumberOfFragments;
 
-  public MergeBySimilarityFragmentPartitionStrategy(int targetNumberOfFragments, int minSize) {
+  public MergeBySimilarityFragmentPartitionStrategy(int targetNumberOfFragments, int minSize,
+      int maxSize) {
     this.targetNumberOfFragments = targetNumberOfFragments;
     this.minSize = minSize;
+    this.maxSize = maxSize;
   }
 
   @Override
@@ -77,9 +82,8 @@ class MergeBySimilarityFragmentPartitionStrategy implements FragmentPartitionStr
         groupedRunAsyncs);
 
     // Merge by similarity.
-    int mergeCount = liveAtomsByRunAsyncSets.getRunAsyncCount() - targetNumberOfFragments;
     Collection<Collection<JRunAsync>> fragmentRunAsyncLists =
-        liveAtomsByRunAsyncSets.mergeSimilarPairs(mergeCount);
+        liveAtomsByRunAsyncSets.mergeSimilarRunAsyncs(targetNumberOfFragments, maxSize);
 
     // Merge by size if specified
     if (minSize > 0) {
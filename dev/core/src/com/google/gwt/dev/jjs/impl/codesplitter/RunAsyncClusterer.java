@@ -0,0 +1,227 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl.codesplitter;
+
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Groups runAsyncs (identified by consecutive ids starting at 0) into clusters, based on the
+ * estimated payload that is live for exactly one runAsync or exactly two runAsyncs.<br />
+ *
+ * Clustering is agglomerative: the two clusters that share the largest payload are merged, over
+ * and over, until the target number of clusters is reached or no two clusters share any payload.
+ * The payload shared by two clusters is the sum of the payload shared by their runAsyncs.<br />
+ *
+ * The shared payloads are kept as a sparse adjacency map per cluster and candidate merges in a
+ * priority queue. A merge only updates the neighbors of the merged clusters; queue entries that
+ * are out of date are discarded when they are polled. The cost therefore grows with the number of
+ * runAsync pairs that actually share code, not with the number of possible pairs of clusters.
+ */
+class RunAsyncClusterer {
+
+  /**
+   * A possible merge of two clusters, ordered by decreasing shared payload and then by cluster
+   * ids, so that the result doesn't depend on hashing order.
+   */
+  private static class Candidate implements Comparable<Candidate> {
+    private final int first;
+    private final int second;
+    private final long sharedPayload;
+
+    public Candidate(int first, int second, long sharedPayload) {
+      this.first = Math.min(first, second);
+      this.second = Math.max(first, second);
+      this.sharedPayload = sharedPayload;
+    }
+
+    @Override
+    public int compareTo(Candidate o) {
+      if (sharedPayload != o.sharedPayload) {
+        return Long.compare(o.sharedPayload, sharedPayload);
+      }
+      if (first != o.first) {
+        return Integer.compare(first, o.first);
+      }
+      return Integer.compare(second, o.second);
+    }
+  }
+
+  private final long[] exclusivePayloadByRunAsync;
+  private final List<Map<Integer, Long>> sharedPayloadByRunAsync;
+
+  RunAsyncClusterer(int runAsyncCount) {
+    exclusivePayloadByRunAsync = new long[runAsyncCount];
+    sharedPayloadByRunAsync = Lists.newArrayListWithCapacity(runAsyncCount);
+    for (int i = 0; i < runAsyncCount; i++) {
+      sharedPayloadByRunAsync.add(Maps.<Integer, Long>newHashMap());
+    }
+  }
+
+  /**
+   * Records payload that is only live for {@code runAsyncId}.
+   */
+  void addExclusivePayload(int runAsyncId, long size) {
+    exclusivePayloadByRunAsync[runAsyncId] += size;
+  }
+
+  /**
+   * Records payload that is live for exactly two runAsyncs.
+   */
+  void addSharedPayload(int runAsyncId, int otherRunAsyncId, long size) {
+    assert runAsyncId != otherRunAsyncId;
+    if (size == 0) {
+      return;
+    }
+    addTo(sharedPayloadByRunAsync.get(runAsyncId), otherRunAsyncId, size);
+    addTo(sharedPayloadByRunAsync.get(otherRunAsyncId), runAsyncId, size);
+  }
+
+  int getRunAsyncCount() {
+    return exclusivePayloadByRunAsync.length;
+  }
+
+  /**
+   * Returns the estimated payload of a fragment made of {@code runAsyncIds}.
+   */
+  long getPayloadSize(BitSet runAsyncIds) {
+    long size = 0;
+    for (int id = runAsyncIds.nextSetBit(0); id >= 0; id = runAsyncIds.nextSetBit(id + 1)) {
+      size += exclusivePayloadByRunAsync[id];
+      for (Map.Entry<Integer, Long> entry : sharedPayloadByRunAsync.get(id).entrySet()) {
+        int otherId = entry.getKey();
+        if (otherId > id && runAsyncIds.get(otherId)) {
+          size += entry.getValue();
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Merges clusters of runAsyncs that share code.
+   *
+   * @param initialClusters disjoint sets of runAsync ids to start from; runAsyncs not in any of
+   *          them are left out of the clustering
+   * @param targetClusterCount stop merging once there are this many clusters
+   * @param maxClusterSize do not create clusters whose estimated payload is larger than this, or
+   *          0 for no limit
+   * @return the resulting clusters, in the order of the initial cluster each one started from
+   */
+  List<BitSet> cluster(List<BitSet> initialClusters, int targetClusterCount,
+      long maxClusterSize) {
+    int clusterCount = initialClusters.size();
+    BitSet[] members = new BitSet[clusterCount];
+    long[] payloadSizes = new long[clusterCount];
+    List<Map<Integer, Long>> sharedPayloadByCluster = Lists.newArrayListWithCapacity(clusterCount);
+    int[] clusterForRunAsync = new int[getRunAsyncCount()];
+    Arrays.fill(clusterForRunAsync, -1);
+
+    for (int cluster = 0; cluster < clusterCount; cluster++) {
+      members[cluster] = (BitSet) initialClusters.get(cluster).clone();
+      payloadSizes[cluster] = getPayloadSize(members[cluster]);
+      sharedPayloadByCluster.add(Maps.<Integer, Long>newHashMap());
+      BitSet clusterMembers = members[cluster];
+      for (int id = clusterMembers.nextSetBit(0); id >= 0; id = clusterMembers.nextSetBit(id + 1)) {
+        clusterForRunAsync[id] = cluster;
+      }
+    }
+
+    for (int id = 0; id < getRunAsyncCount(); id++) {
+      int cluster = clusterForRunAsync[id];
+      if (cluster == -1) {
+        continue;
+      }
+      for (Map.Entry<Integer, Long> entry : sharedPayloadByRunAsync.get(id).entrySet()) {
+        int otherCluster = clusterForRunAsync[entry.getKey()];
+        // Count each pair once; payload shared inside a cluster is already in its size.
+        if (entry.getKey() < id || otherCluster == -1 || otherCluster == cluster) {
+          continue;
+        }
+        addTo(sharedPayloadByCluster.get(cluster), otherCluster, entry.getValue());
+        addTo(sharedPayloadByCluster.get(otherCluster), cluster, entry.getValue());
+      }
+    }
+
+    PriorityQueue<Candidate> candidates = new PriorityQueue<Candidate>();
+    for (int cluster = 0; cluster < members.length; cluster++) {
+      for (Map.Entry<Integer, Long> entry : sharedPayloadByCluster.get(cluster).entrySet()) {
+        if (entry.getKey() > cluster) {
+          candidates.add(new Candidate(cluster, entry.getKey(), entry.getValue()));
+        }
+      }
+    }
+
+    while (clusterCount > targetClusterCount && !candidates.isEmpty()) {
+      Candidate candidate = candidates.poll();
+      int into = candidate.first;
+      int from = candidate.second;
+      if (members[into] == null || members[from] == null) {
+        // One of them has been merged since.
+        continue;
+      }
+      Long sharedPayload = sharedPayloadByCluster.get(into).get(from);
+      if (sharedPayload == null || sharedPayload != candidate.sharedPayload) {
+        // Superseded by a candidate with the updated shared payload.
+        continue;
+      }
+      long mergedSize = payloadSizes[into] + payloadSizes[from] + sharedPayload;
+      if (maxClusterSize > 0 && mergedSize > maxClusterSize) {
+        continue;
+      }
+
+      // Merge into the cluster with the smaller id, which keeps the output order stable.
+      members[into].or(members[from]);
+      members[from] = null;
+      payloadSizes[into] = mergedSize;
+      clusterCount--;
+
+      Map<Integer, Long> intoNeighbors = sharedPayloadByCluster.get(into);
+      Map<Integer, Long> fromNeighbors = sharedPayloadByCluster.set(from, null);
+      intoNeighbors.remove(from);
+      for (Map.Entry<Integer, Long> entry : fromNeighbors.entrySet()) {
+        int neighbor = entry.getKey();
+        if (neighbor == into) {
+          continue;
+        }
+        Map<Integer, Long> neighborNeighbors = sharedPayloadByCluster.get(neighbor);
+        neighborNeighbors.remove(from);
+        long newSharedPayload = addTo(intoNeighbors, neighbor, entry.getValue());
+        neighborNeighbors.put(into, newSharedPayload);
+        candidates.add(new Candidate(into, neighbor, newSharedPayload));
+      }
+    }
+
+    List<BitSet> clusters = Lists.newArrayListWithCapacity(clusterCount);
+    for (BitSet clusterMembers : members) {
+      if (clusterMembers != null) {
+        clusters.add(clusterMembers);
+      }
+    }
+    return clusters;
+  }
+
+  private static long addTo(Map<Integer, Long> sizeByKey, int key, long size) {
+    Long oldSize = sizeByKey.get(key);
+    long newSize = oldSize == null ? size : oldSize + size;
+    sizeByKey.put(key, newSize);
+    return newSize;
+  }
+}
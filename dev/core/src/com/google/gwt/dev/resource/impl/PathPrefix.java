@@ -64,7 +64,11 @@ public final class PathPrefix {
   }
 
   private final Set<String> exclusions;
-  private ZipScanner exclusionScanner;
+  /**
+   * Created from {@link #exclusions} on first use. Resources may be judged by several threads at
+   * once, so it is only assigned once fully initialized.
+   */
+  private volatile ZipScanner exclusionScanner;
   private final List<ResourceFilter> filters;
   private final String prefix;
   private int priority = -1;
@@ -155,8 +159,11 @@ public final class PathPrefix {
       path = getRerootedPath(path);
     }
 
-    createExcludeFilter();
-    if (exclusionScanner != null && exclusionScanner.match(path)) {
+    ZipScanner scanner = exclusionScanner;
+    if (scanner == null && !exclusions.isEmpty()) {
+      scanner = createExcludeFilter();
+    }
+    if (scanner != null && scanner.match(path)) {
       return Judgement.EXCLUSION_EXCLUDE;
     }
     for (ResourceFilter filter : filters) {
@@ -252,12 +259,14 @@ public final class PathPrefix {
         && !prefix.endsWith("//") : "malformed prefix";
   }
 
-  private void createExcludeFilter() {
+  private synchronized ZipScanner createExcludeFilter() {
     if (exclusionScanner == null && !exclusions.isEmpty()) {
-      exclusionScanner = new ZipScanner();
-      exclusionScanner.setIncludes(exclusions.toArray(new String[exclusions.size()]));
-      exclusionScanner.init();
+      ZipScanner scanner = new ZipScanner();
+      scanner.setIncludes(exclusions.toArray(new String[exclusions.size()]));
+      scanner.init();
+      exclusionScanner = scanner;
       exclusions.clear();
     }
+    return exclusionScanner;
   }
 }
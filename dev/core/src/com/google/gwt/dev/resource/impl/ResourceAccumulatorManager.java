@@ -20,7 +20,6 @@ import com.google.gwt.thirdparty.guava.common.collect.Maps;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.nio.file.Path;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -98,7 +97,22 @@ class ResourceAccumulatorManager {
     }.start();
   }
 
-  public static synchronized Map<AbstractResource, ResourceResolution> getResources(
+  /**
+   * Returns the resources in a directory. Only the lookup of the accumulator holds the manager's
+   * lock, so different directories can be scanned at the same time.
+   */
+  public static Map<AbstractResource, ResourceResolution> getResources(
+      DirectoryClassPathEntry directoryClassPathEntry, PathPrefixSet pathPrefixSet)
+      throws IOException {
+    ResourceAccumulator resourceAccumulator =
+        getResourceAccumulator(directoryClassPathEntry, pathPrefixSet);
+    synchronized (resourceAccumulator) {
+      resourceAccumulator.refreshResources();
+      return ImmutableMap.copyOf(resourceAccumulator.getResources());
+    }
+  }
+
+  private static synchronized ResourceAccumulator getResourceAccumulator(
       DirectoryClassPathEntry directoryClassPathEntry, PathPrefixSet pathPrefixSet)
       throws IOException {
     DirectoryAndPathPrefix directoryAndPathPrefix =
@@ -110,22 +124,32 @@ class ResourceAccumulatorManager {
       resourceAccumulator = new ResourceAccumulator(path, pathPrefixSet);
       resourceAccumulators.put(directoryAndPathPrefix, resourceAccumulator);
     }
-    resourceAccumulator.refreshResources();
-    return ImmutableMap.copyOf(resourceAccumulator.getResources());
+    return resourceAccumulator;
   }
 
-  public static synchronized void refreshResources() throws IOException {
-    Iterator<Entry<DirectoryAndPathPrefix, ResourceAccumulator>> entriesIterator =
-        resourceAccumulators.entrySet().iterator();
-    while (entriesIterator.hasNext()) {
-      Entry<DirectoryAndPathPrefix, ResourceAccumulator> entry = entriesIterator.next();
+  public static void refreshResources() throws IOException {
+    Map<DirectoryAndPathPrefix, ResourceAccumulator> accumulatorsSnapshot;
+    synchronized (ResourceAccumulatorManager.class) {
+      accumulatorsSnapshot = Maps.newHashMap(resourceAccumulators);
+    }
+    for (Entry<DirectoryAndPathPrefix, ResourceAccumulator> entry
+        : accumulatorsSnapshot.entrySet()) {
       DirectoryAndPathPrefix directoryAndPathPrefix = entry.getKey();
       ResourceAccumulator resourceAccumulator = entry.getValue();
       if (directoryAndPathPrefix.isOld()) {
-        resourceAccumulator.shutdown();
-        entriesIterator.remove();
-      } else if (resourceAccumulator.isWatchServiceActive()) {
-        resourceAccumulator.refreshResources();
+        // Never take the manager's lock while holding an accumulator's, see getResources().
+        synchronized (ResourceAccumulatorManager.class) {
+          resourceAccumulators.remove(directoryAndPathPrefix, resourceAccumulator);
+        }
+        synchronized (resourceAccumulator) {
+          resourceAccumulator.shutdown();
+        }
+      } else {
+        synchronized (resourceAccumulator) {
+          if (resourceAccumulator.isWatchServiceActive()) {
+            resourceAccumulator.refreshResources();
+          }
+        }
       }
     }
   }
@@ -134,11 +158,13 @@ class ResourceAccumulatorManager {
   static int getActiveListenerCount() throws IOException {
     refreshResources();
 
-    return resourceAccumulators.size();
+    synchronized (ResourceAccumulatorManager.class) {
+      return resourceAccumulators.size();
+    }
   }
 
   @VisibleForTesting
-  static boolean isListening(DirectoryClassPathEntry directoryClassPathEntry,
+  static synchronized boolean isListening(DirectoryClassPathEntry directoryClassPathEntry,
       PathPrefixSet pathPrefixSet) {
     return resourceAccumulators.containsKey(
         new DirectoryAndPathPrefix(directoryClassPathEntry, pathPrefixSet));
@@ -24,11 +24,15 @@ import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger;
 import com.google.gwt.dev.util.log.speedtracer.SpeedTracerLogger.Event;
 import com.google.gwt.dev.util.msg.Message0;
 import com.google.gwt.dev.util.msg.Message1String;
+import com.google.gwt.thirdparty.guava.common.base.Throwables;
 import com.google.gwt.thirdparty.guava.common.collect.HashMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.MapMaker;
+import com.google.gwt.thirdparty.guava.common.collect.Queues;
 import com.google.gwt.thirdparty.guava.common.collect.SetMultimap;
 import com.google.gwt.thirdparty.guava.common.collect.Sets;
 import com.google.gwt.thirdparty.guava.common.io.Files;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
 import java.io.File;
 import java.io.IOException;
@@ -46,6 +50,11 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * The normal implementation of {@code ResourceOracle}.
@@ -63,6 +72,12 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
         "Refreshing resources");
   }
 
+  /**
+   * Scans classpath entries concurrently. Most of the time spent on a long classpath is reading
+   * and indexing independent jars, which can overlap.
+   */
+  private static final ExecutorService scanExecutor = createScanExecutor();
+
   /**
    * Wrapper object around a resource to change its path when it is rerooted.
    */
@@ -169,6 +184,18 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     classPathCache.clear();
   }
 
+  private static ExecutorService createScanExecutor() {
+    int threadCount = Runtime.getRuntime().availableProcessors();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threadCount, threadCount, 60L,
+        TimeUnit.SECONDS, Queues.<Runnable>newLinkedBlockingQueue(),
+        // Make sure this executor lets the whole process terminate correctly even if there
+        // are still live threads.
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("ResourceOracleScanner-%d")
+            .build());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
   public static ClassPathEntry createEntryForUrl(TreeLogger logger, URL url)
       throws URISyntaxException, IOException {
     if (url.getProtocol().equals("file")) {
@@ -213,13 +240,17 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     Event resourceOracle =
         SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase", "preload");
     List<ClassPathEntry> entries = getAllClassPathEntries(logger, resources);
+    List<Future<?>> indexed = new ArrayList<Future<?>>();
     for (ClassPathEntry entry : entries) {
       // We only handle pre-indexing jars, the file system could change.
       if (entry instanceof ZipFileClassPathEntry) {
-        ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
-        zpe.index(logger);
+        final ZipFileClassPathEntry zpe = (ZipFileClassPathEntry) entry;
+        indexed.add(scanExecutor.submit(() -> zpe.index(logger)));
       }
     }
+    for (Future<?> future : indexed) {
+      getScanResult(future);
+    }
     resourceOracle.end();
   }
 
@@ -236,6 +267,9 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
 
   /**
    * Scans the associated paths to recompute the available resources.
+   * <p>
+   * The classpath entries are scanned concurrently, but the results are combined in classpath
+   * order, so the outcome is the same as scanning them one after another.
    *
    * @param logger status and error details are written here
    */
@@ -244,15 +278,24 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
         SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase", "refresh");
     TreeLogger refreshBranch = Messages.REFRESHING_RESOURCES.branch(logger, null);
 
+    List<TreeLogger> branchesForClassPathEntries =
+        new ArrayList<TreeLogger>(classPathEntries.size());
+    List<Future<Map<AbstractResource, ResourceResolution>>> scans =
+        new ArrayList<Future<Map<AbstractResource, ResourceResolution>>>(classPathEntries.size());
+    for (final ClassPathEntry classPathEntry : classPathEntries) {
+      final TreeLogger branchForClassPathEntry =
+          Messages.EXAMINING_PATH_ROOT.branch(refreshBranch, classPathEntry.getLocation(), null);
+      branchesForClassPathEntries.add(branchForClassPathEntry);
+      scans.add(scanExecutor.submit(
+          () -> scanClassPathEntry(branchForClassPathEntry, classPathEntry, pathPrefixSet)));
+    }
+
     Map<String, ResourceDescription> resourceDescriptionsByPath =
         new LinkedHashMap<String, ResourceDescription>();
 
-    for (ClassPathEntry classPathEntry : classPathEntries) {
-      TreeLogger branchForClassPathEntry =
-          Messages.EXAMINING_PATH_ROOT.branch(refreshBranch, classPathEntry.getLocation(), null);
-
-      Map<AbstractResource, ResourceResolution> prefixesByResource =
-          classPathEntry.findApplicableResources(branchForClassPathEntry, pathPrefixSet);
+    for (int i = 0; i < scans.size(); i++) {
+      TreeLogger branchForClassPathEntry = branchesForClassPathEntries.get(i);
+      Map<AbstractResource, ResourceResolution> prefixesByResource = getScanResult(scans.get(i));
       for (Entry<AbstractResource, ResourceResolution> entry : prefixesByResource.entrySet()) {
         AbstractResource resource = entry.getKey();
         ResourceResolution resourceResolution = entry.getValue();
@@ -288,6 +331,39 @@ public class ResourceOracleImpl extends AbstractResourceOracle {
     resourceOracle.end();
   }
 
+  /**
+   * Finds the applicable resources in one classpath entry, recording how long it took.
+   */
+  private static Map<AbstractResource, ResourceResolution> scanClassPathEntry(TreeLogger logger,
+      ClassPathEntry classPathEntry, PathPrefixSet pathPrefixSet) {
+    Event scanEvent = SpeedTracerLogger.start(CompilerEventType.RESOURCE_ORACLE, "phase", "scan",
+        "entry", classPathEntry.getLocation());
+    long startNanos = System.nanoTime();
+    try {
+      Map<AbstractResource, ResourceResolution> prefixesByResource =
+          classPathEntry.findApplicableResources(logger, pathPrefixSet);
+      if (logger.isLoggable(TreeLogger.DEBUG)) {
+        logger.log(TreeLogger.DEBUG, "Found " + prefixesByResource.size() + " resources in "
+            + (System.nanoTime() - startNanos) / 1000000L + "ms");
+      }
+      return prefixesByResource;
+    } finally {
+      scanEvent.end();
+    }
+  }
+
+  /**
+   * Waits for a scan to finish, rethrowing anything it threw.
+   */
+  private static <T> T getScanResult(Future<T> scan) {
+    try {
+      return Uninterruptibles.getUninterruptibly(scan);
+    } catch (ExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
   private void maybeRecordTypeForModule(ResourceResolution resourceResolution,
       String resourcePath) {
     // If PathPrefix->Module associations are inaccurate because PathPrefixes have been merged.
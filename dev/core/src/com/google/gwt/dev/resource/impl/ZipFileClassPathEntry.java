@@ -26,7 +26,10 @@ import com.google.gwt.thirdparty.guava.common.collect.Maps;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.zip.ZipEntry;
@@ -93,7 +96,10 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     return entry;
   }
 
-  private Set<ZipFileResource> allZipFileResources;
+  /**
+   * Written once, while holding this object's monitor; read without locking.
+   */
+  private volatile Set<ZipFileResource> allZipFileResources;
 
   /**
    * The lifetime of the {@link PathPrefixSet} pins the life time of the associated
@@ -103,28 +109,50 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
    */
   private final Map<PathPrefixSet, ZipFileSnapshot> cachedSnapshots = new MapMaker().weakKeys().makeMap();
 
+  /**
+   * The resource names read from the {@link ZipFileIndexCache}, or null if they weren't cached.
+   * Cleared once the index has been built.
+   */
+  private List<String> cachedNames;
+
+  private final File file;
   private final long lastModified;
+  private final long length;
   private final String location;
-  private final ZipFile zipFile;
+
+  /**
+   * Opened on first use. Written while holding this object's monitor.
+   */
+  private volatile ZipFile zipFile;
 
   private ZipFileClassPathEntry(File zipFile) throws IOException {
     assert zipFile.isAbsolute();
+    this.file = zipFile;
     this.lastModified = zipFile.lastModified();
-    this.zipFile = new ZipFile(zipFile);
+    this.length = zipFile.length();
     this.location = zipFile.toURI().toString();
+    this.cachedNames = ZipFileIndexCache.DEFAULT.read(zipFile, length, lastModified);
+    if (cachedNames == null) {
+      // Opening the file also checks that it is a zip file.
+      this.zipFile = new ZipFile(zipFile);
+    }
   }
 
   /**
    * Indexes the zip file on-demand, and only once over the life of the process.
+   * <p>
+   * Snapshots are immutable and are read without locking, so different threads can search
+   * different zip files, or the same one for different path prefix sets, at the same time. If
+   * two threads compute the same snapshot at once, the last one wins; both answers are equal.
    */
   @Override
-  public synchronized Map<AbstractResource, ResourceResolution> findApplicableResources(
+  public Map<AbstractResource, ResourceResolution> findApplicableResources(
       TreeLogger logger, PathPrefixSet pathPrefixSet) {
-    index(logger);
+    Set<ZipFileResource> resources = index(logger);
     ZipFileSnapshot snapshot = cachedSnapshots.get(pathPrefixSet);
     if (snapshot == null || snapshot.prefixSetSize != pathPrefixSet.getSize()) {
       snapshot = new ZipFileSnapshot(pathPrefixSet.getSize(),
-          computeApplicableResources(logger, pathPrefixSet));
+          computeApplicableResources(logger, pathPrefixSet, resources));
       cachedSnapshots.put(pathPrefixSet, snapshot);
     }
     return snapshot.cachedAnswers;
@@ -135,25 +163,71 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
     return location;
   }
 
+  /**
+   * Returns the open zip file, opening it if the index was read from the
+   * {@link ZipFileIndexCache}.
+   *
+   * @throws UncheckedIOException if the zip file can't be opened
+   */
   public ZipFile getZipFile() {
-    return zipFile;
+    ZipFile result = zipFile;
+    if (result == null) {
+      synchronized (this) {
+        if (zipFile == null) {
+          try {
+            zipFile = new ZipFile(file);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        }
+        result = zipFile;
+      }
+    }
+    return result;
   }
 
   public long lastModified() {
     return lastModified;
   }
 
-  synchronized void index(TreeLogger logger) {
-    // Never re-index.
-    if (allZipFileResources == null) {
-      allZipFileResources = buildIndex(logger);
+  Set<ZipFileResource> index(TreeLogger logger) {
+    Set<ZipFileResource> resources = allZipFileResources;
+    if (resources != null) {
+      return resources;
+    }
+    synchronized (this) {
+      // Never re-index.
+      if (allZipFileResources == null) {
+        allZipFileResources = buildIndex(logger);
+      }
+      return allZipFileResources;
     }
   }
 
   private Set<ZipFileResource> buildIndex(TreeLogger logger) {
-    logger = Messages.BUILDING_INDEX.branch(logger, zipFile.getName(), null);
+    logger = Messages.BUILDING_INDEX.branch(logger, file.getPath(), null);
+
+    List<String> names = cachedNames;
+    if (names == null) {
+      names = readNames();
+      ZipFileIndexCache.DEFAULT.write(logger, file, length, lastModified, names);
+    }
+    cachedNames = null;
 
     Set<ZipFileResource> results = new IdentityHashSet<ZipFileResource>();
+    for (String name : names) {
+      ZipFileResource zipResource = new ZipFileResource(this, name);
+      results.add(zipResource);
+      Messages.READ_ZIP_ENTRY.log(logger, name, null);
+    }
+    return Sets.normalize(results);
+  }
+
+  /**
+   * Reads the names of the resources in the zip file's central directory.
+   */
+  private List<String> readNames() {
+    List<String> names = new ArrayList<String>();
     Enumeration<? extends ZipEntry> e = zipFile.entries();
     while (e.hasMoreElements()) {
       ZipEntry zipEntry = e.nextElement();
@@ -165,21 +239,19 @@ public class ZipFileClassPathEntry extends ClassPathEntry {
         // Skip META-INF since classloaders normally make this invisible.
         continue;
       }
-      ZipFileResource zipResource = new ZipFileResource(this, zipEntry.getName());
-      results.add(zipResource);
-      Messages.READ_ZIP_ENTRY.log(logger, zipEntry.getName(), null);
+      names.add(zipEntry.getName());
     }
-    return Sets.normalize(results);
+    return names;
   }
 
   private Map<AbstractResource, ResourceResolution> computeApplicableResources(
-      TreeLogger logger, PathPrefixSet pathPrefixSet) {
+      TreeLogger logger, PathPrefixSet pathPrefixSet, Set<ZipFileResource> resources) {
     logger = Messages.FINDING_INCLUDED_RESOURCES.branch(logger,
-        zipFile.getName(), null);
+        file.getPath(), null);
 
     Map<AbstractResource, ResourceResolution> results =
         new IdentityHashMap<AbstractResource, ResourceResolution>();
-    for (ZipFileResource r : allZipFileResources) {
+    for (ZipFileResource r : resources) {
       String path = r.getPath();
       String[] pathParts = r.getPathParts();
       ResourceResolution resourceResolution = null;
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.resource.impl;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.util.Util;
+import com.google.gwt.thirdparty.guava.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An on-disk cache of the resource names in jar and zip files, shared by every process that uses
+ * the same directory. When a jar's names are in the cache, a {@link ZipFileClassPathEntry} doesn't
+ * open the jar or read its central directory until a resource is actually read from it.
+ * <p>
+ * Each jar is cached in its own file, named after a hash of the jar's path, with this format:
+ *
+ * <pre>
+ * int magic (0x47575a49), int version (1), UTF jar path, long jar length,
+ * long jar last modified, int name count, UTF name (for each name)
+ * </pre>
+ *
+ * A cached file is only used if the jar's path, length and last modified time all match. (Hashing
+ * the jar's contents would cost more than reading its central directory.) Files are written to a
+ * temporary name and then renamed, so concurrent processes never see a partial file. Files that
+ * haven't been used for {@link #MAX_UNUSED_MILLIS} are deleted the first time the cache is used.
+ * <p>
+ * The cache is off unless the {@value #DIR_PROPERTY} system property names a directory. Since the
+ * cached names decide which resources the compiler sees, the directory is only used if it is owned
+ * by the current user.
+ */
+class ZipFileIndexCache {
+
+  static final String DIR_PROPERTY = "gwt.zipIndexDir";
+
+  /**
+   * The cache used by {@link ZipFileClassPathEntry}.
+   */
+  static final ZipFileIndexCache DEFAULT = new ZipFileIndexCache(getDefaultDir());
+
+  private static final int MAGIC = 0x47575a49;
+  private static final int VERSION = 1;
+
+  /**
+   * How long a cache file is kept after it was last written or read.
+   */
+  static final long MAX_UNUSED_MILLIS = TimeUnit.DAYS.toMillis(30);
+
+  /**
+   * Reads don't mark a cache file as used more often than this, to avoid a write per jar per
+   * compile.
+   */
+  private static final long TOUCH_INTERVAL_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+  private static File getDefaultDir() {
+    String dir = System.getProperty(DIR_PROPERTY);
+    return dir == null || dir.isEmpty() ? null : new File(dir);
+  }
+
+  private final File dir;
+
+  /**
+   * Whether {@link #dir} has been checked and swept. Guarded by "this".
+   */
+  private boolean initialized;
+
+  /**
+   * Whether {@link #dir} can be used, once {@link #initialized}. Guarded by "this".
+   */
+  private boolean usable;
+
+  /**
+   * @param dir where to keep the cache files, or null to cache nothing
+   */
+  ZipFileIndexCache(File dir) {
+    this.dir = dir;
+  }
+
+  /**
+   * Returns true if the directory exists, or could be created, and is owned by the current user.
+   * The first call also deletes cache files that haven't been used recently.
+   */
+  private synchronized boolean isUsable() {
+    if (initialized) {
+      return usable;
+    }
+    initialized = true;
+    if (dir == null) {
+      return false;
+    }
+    try {
+      if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+        return false;
+      }
+      if (!Util.isOwnedByCurrentUser(dir)) {
+        return false;
+      }
+    } catch (IOException e) {
+      return false;
+    }
+    usable = true;
+    deleteUnusedFiles();
+    return true;
+  }
+
+  /**
+   * Deletes cache files, and temporary files left by processes that died while writing, that
+   * haven't been used for {@link #MAX_UNUSED_MILLIS}.
+   */
+  private void deleteUnusedFiles() {
+    File[] files = dir.listFiles();
+    if (files == null) {
+      return;
+    }
+    long oldestToKeep = System.currentTimeMillis() - MAX_UNUSED_MILLIS;
+    for (File file : files) {
+      String name = file.getName();
+      if ((name.endsWith(".idx") || name.endsWith(".tmp")) && file.isFile()
+          && file.lastModified() < oldestToKeep) {
+        file.delete();
+      }
+    }
+  }
+
+  /**
+   * Returns the cached names for a jar, or null if they aren't cached or the jar has changed.
+   */
+  List<String> read(File zipFile, long length, long lastModified) {
+    if (!isUsable()) {
+      return null;
+    }
+    File cacheFile = getCacheFile(zipFile);
+    if (!cacheFile.isFile()) {
+      return null;
+    }
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(new FileInputStream(cacheFile)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION
+          || !in.readUTF().equals(zipFile.getAbsolutePath())
+          || in.readLong() != length || in.readLong() != lastModified) {
+        return null;
+      }
+      int count = in.readInt();
+      if (count < 0) {
+        return null;
+      }
+      List<String> names = new ArrayList<String>(Math.min(count, 65536));
+      for (int i = 0; i < count; i++) {
+        names.add(in.readUTF());
+      }
+      long now = System.currentTimeMillis();
+      if (cacheFile.lastModified() < now - TOUCH_INTERVAL_MILLIS) {
+        // Keep the file from being deleted as unused.
+        cacheFile.setLastModified(now);
+      }
+      return names;
+    } catch (IOException e) {
+      // A corrupt or truncated file; it will be overwritten once the jar has been read.
+      return null;
+    }
+  }
+
+  /**
+   * Saves the names for a jar. Failures are logged and otherwise ignored.
+   */
+  void write(TreeLogger logger, File zipFile, long length, long lastModified,
+      List<String> names) {
+    if (!isUsable()) {
+      return;
+    }
+    File tempFile = null;
+    try {
+      tempFile = File.createTempFile("zipIndex", ".tmp", dir);
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(zipFile.getAbsolutePath());
+        out.writeLong(length);
+        out.writeLong(lastModified);
+        out.writeInt(names.size());
+        for (String name : names) {
+          out.writeUTF(name);
+        }
+      }
+      File cacheFile = getCacheFile(zipFile);
+      try {
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+      tempFile = null;
+    } catch (IOException e) {
+      logger.log(TreeLogger.DEBUG, "Unable to cache the index of " + zipFile, e);
+    } finally {
+      if (tempFile != null) {
+        tempFile.delete();
+      }
+    }
+  }
+
+  private File getCacheFile(File zipFile) {
+    String hash = Hashing.murmur3_128()
+        .hashString(zipFile.getAbsolutePath(), StandardCharsets.UTF_8).toString();
+    return new File(dir, hash + ".idx");
+  }
+}
@@ -19,6 +19,7 @@ import com.google.gwt.dev.util.StringInterner;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.zip.ZipFile;
 
 /**
@@ -31,7 +32,6 @@ public class ZipFileResource extends AbstractResource {
   private String filePath;
   private final long lastModified;
   private final String[] pathParts;
-  private final ZipFile zipFile;
 
   /**
    * Constructs a ZipFileResource from a jar class path entry and a zip entry name.<br />
@@ -41,7 +41,6 @@ public class ZipFileResource extends AbstractResource {
     this.entryName = StringInterner.get().intern(entryName);
     this.pathParts = entryName.split("/");
 
-    this.zipFile = classPathEntry.getZipFile();
     this.filePath = classPathEntry.getLocation();
     assert filePath.startsWith("file:/");
     this.lastModified = classPathEntry.lastModified();
@@ -71,6 +70,12 @@ public class ZipFileResource extends AbstractResource {
 
   @Override
   public InputStream openContents() throws IOException {
+    ZipFile zipFile;
+    try {
+      zipFile = classPathEntry.getZipFile();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
     return zipFile.getInputStream(zipFile.getEntry(entryName));
   }
 }
@@ -24,6 +24,7 @@ import com.google.gwt.core.ext.TreeLogger;
 import com.google.gwt.core.ext.UnableToCompleteException;
 import com.google.gwt.core.ext.linker.ArtifactSet;
 import com.google.gwt.dev.RebindCache;
+import com.google.gwt.dev.cfg.RecordingPropertyOracle;
 import com.google.gwt.dev.cfg.Rule;
 import com.google.gwt.dev.javac.CachedGeneratorResultImpl;
 import com.google.gwt.dev.javac.StandardGeneratorContext;
@@ -46,6 +47,18 @@ public class StandardRebindOracle implements RebindOracle {
    */
   private final class Rebinder implements RebindRuleResolver {
 
+    private final StandardGeneratorContext genCtx;
+
+    /**
+     * Where the values of the selection properties that are read are put, or null.
+     */
+    private final Map<String, String> selectionPropertyValues;
+
+    Rebinder(StandardGeneratorContext genCtx, Map<String, String> selectionPropertyValues) {
+      this.genCtx = genCtx;
+      this.selectionPropertyValues = selectionPropertyValues;
+    }
+
     @Override
     public boolean checkRebindRuleResolvable(String typeName) {
       try {
@@ -60,8 +73,12 @@ public class StandardRebindOracle implements RebindOracle {
     public String rebind(TreeLogger logger, String typeName, ArtifactAcceptor artifactAcceptor)
         throws UnableToCompleteException {
       Event rebindEvent = SpeedTracerLogger.start(DevModeEventType.REBIND, "Type Name", typeName);
+      RecordingPropertyOracle recordingPropOracle = null;
       try {
-        genCtx.setPropertyOracle(propOracle);
+        if (selectionPropertyValues != null) {
+          recordingPropOracle = new RecordingPropertyOracle(propOracle);
+        }
+        genCtx.setPropertyOracle(recordingPropOracle == null ? propOracle : recordingPropOracle);
         genCtx.setRebindRuleResolver(this);
         Rule rule = getRebindRule(logger, typeName);
 
@@ -95,6 +112,9 @@ public class StandardRebindOracle implements RebindOracle {
         assert (resultTypeName != null);
         return resultTypeName;
       } finally {
+        if (recordingPropOracle != null) {
+          selectionPropertyValues.putAll(recordingPropOracle.getSelectionPropertyValues());
+        }
         rebindEvent.end();
       }
     }
@@ -253,12 +273,28 @@ public class StandardRebindOracle implements RebindOracle {
 
   public String rebind(TreeLogger logger, String typeName, ArtifactAcceptor artifactAcceptor)
       throws UnableToCompleteException {
+    return rebind(logger, typeName, artifactAcceptor, null);
+  }
+
+  /**
+   * Like {@link #rebind(TreeLogger, String)}, but also puts the current value of each selection
+   * property that was read to make the decision into {@code selectionPropertyValues}, or null for
+   * the ones that don't exist. The decision is the same in any permutation that has the same
+   * values. Nothing is put if the answer was already known.
+   */
+  public String rebindRecordingProperties(TreeLogger logger, String typeName,
+      Map<String, String> selectionPropertyValues) throws UnableToCompleteException {
+    return rebind(logger, typeName, null, selectionPropertyValues);
+  }
+
+  private String rebind(TreeLogger logger, String typeName, ArtifactAcceptor artifactAcceptor,
+      Map<String, String> selectionPropertyValues) throws UnableToCompleteException {
 
     String resultTypeName = typeNameBindingMap.get(typeName);
     if (resultTypeName == null) {
       logger = Messages.TRACE_TOPLEVEL_REBIND.branch(logger, typeName, null);
 
-      Rebinder rebinder = new Rebinder();
+      Rebinder rebinder = new Rebinder(genCtx, selectionPropertyValues);
       resultTypeName = rebinder.rebind(logger, typeName, artifactAcceptor);
       typeNameBindingMap.put(typeName, resultTypeName);
 
@@ -267,6 +303,34 @@ public class StandardRebindOracle implements RebindOracle {
     return resultTypeName;
   }
 
+  /**
+   * Makes the deferred binding decision for {@code typeName} in {@code fork}, a
+   * {@link StandardGeneratorContext#fork fork} of this oracle's context, without remembering it.
+   * Can be called on any thread, concurrently with other calls that use other forks, as long
+   * as no rebind cache is set. The answer is recorded with {@link #putRebindAnswer} once the
+   * fork has been merged. If {@code selectionPropertyValues} isn't null, the properties that were
+   * read are put into it as by {@link #rebindRecordingProperties}.
+   */
+  public String rebindInFork(TreeLogger logger, String typeName, StandardGeneratorContext fork,
+      Map<String, String> selectionPropertyValues) throws UnableToCompleteException {
+    assert rebindCache == null;
+    String resultTypeName = typeNameBindingMap.get(typeName);
+    if (resultTypeName == null) {
+      logger = Messages.TRACE_TOPLEVEL_REBIND.branch(logger, typeName, null);
+      resultTypeName =
+          new Rebinder(fork, selectionPropertyValues).rebind(logger, typeName, null);
+      Messages.TRACE_TOPLEVEL_REBIND_RESULT.log(logger, resultTypeName, null);
+    }
+    return resultTypeName;
+  }
+
+  /**
+   * Remembers the answer for {@code typeName} found by {@link #rebindInFork}.
+   */
+  public void putRebindAnswer(String typeName, String resultTypeName) {
+    typeNameBindingMap.put(typeName, resultTypeName);
+  }
+
   public void setRebindCache(RebindCache cache) {
     this.rebindCache = cache;
   }
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectStreamClass;
+
+/**
+ * Reads objects written by a {@link CompactObjectOutputStream}, looking up each class descriptor
+ * from the local class instead of reading it from the stream. Strings are interned, as in
+ * {@link StringInterningObjectInputStream}.
+ */
+public class CompactObjectInputStream extends StringInterningObjectInputStream {
+
+  public CompactObjectInputStream(InputStream inputStream) throws IOException {
+    super(inputStream);
+  }
+
+  @Override
+  protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+    String className = readUTF();
+    Class<?> clazz =
+        Class.forName(className, false, CompactObjectInputStream.class.getClassLoader());
+    ObjectStreamClass desc = ObjectStreamClass.lookup(clazz);
+    if (desc == null) {
+      throw new InvalidClassException(className, "Not serializable");
+    }
+    return desc;
+  }
+}
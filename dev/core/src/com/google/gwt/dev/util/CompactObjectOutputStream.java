@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+/**
+ * An ObjectOutputStream that writes each class descriptor as just the class name. The full
+ * descriptor, with its field names and types, often takes more room than the data in the small
+ * streams used for compilation unit ASTs.
+ * <p>
+ * The output can only be read by a {@link CompactObjectInputStream} that has the same versions
+ * of the classes, so this is only suitable for data that is versioned along with the compiler.
+ */
+public class CompactObjectOutputStream extends ObjectOutputStream {
+
+  public CompactObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+  }
+
+  @Override
+  protected void writeClassDescriptor(ObjectStreamClass desc) throws IOException {
+    writeUTF(desc.getName());
+  }
+}
@@ -17,19 +17,31 @@ package com.google.gwt.dev.util;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * A nifty class that lets you squirrel away data on the file system. Write
- * once, read many times. Instance of this are thread-safe by way of internal
- * synchronization.
+ * once, read many times. Instances of this are thread-safe.
+ *
+ * Reads use positional I/O on a shared {@link FileChannel} and never block
+ * each other or writers. Writes of a known size claim their space by atomically
+ * advancing the end offset; only streams that don't fit in a small buffer need
+ * exclusive access to the end of the file while they are copied.
  *
  * Note that in the current implementation, the backing temp file will get
  * arbitrarily large as you continue adding things to it. There is no internal
@@ -40,12 +52,19 @@ public class DiskCache {
    * For future thought: if we used Object tokens instead of longs, we could
    * actually track references and do GC/compaction on the underlying file.
    *
-   * I considered using memory mapping, but I didn't see any obvious way to make
-   * the map larger after the fact, which kind of defeats the infinite-append
-   * design. At any rate, I measured the current performance of this design to
-   * be so fast relative to what I'm using it for, I didn't pursue this further.
+   * Memory mapping is not used: a mapping can't grow with the file, and it
+   * keeps the file from being deleted on Windows until it is garbage
+   * collected. Positional reads already let readers proceed concurrently.
    */
 
+  /**
+   * An I/O operation on the channel. Retried with a fresh channel if the
+   * channel was closed by an interrupt, so it must be safe to run again.
+   */
+  private interface ChannelOperation<T> {
+    T run(FileChannel channel) throws IOException;
+  }
+
   /**
    * The size of a {@link #threadLocalBuf}, which should be large enough for
    * efficient data transfer but small enough to fit easily into the L2 cache of
@@ -64,15 +83,24 @@ public class DiskCache {
    */
   public static DiskCache INSTANCE = new DiskCache();
 
-  private boolean atEnd = true;
-  private final RandomAccessFile file;
+  /**
+   * Held shared by writes that claim their space up front, and exclusively by
+   * streaming writes that append at the end of the file as they go.
+   */
+  private final ReadWriteLock appendLock = new ReentrantReadWriteLock();
+
+  private volatile FileChannel channel;
+  private boolean closed;
+  private final AtomicLong end = new AtomicLong();
+  private final Path path;
 
   private DiskCache() {
     try {
       File temp = File.createTempFile("gwt", "byte-cache");
       temp.deleteOnExit();
-      file = new RandomAccessFile(temp, "rw");
-      file.setLength(0);
+      path = temp.toPath();
+      channel = openChannel(path);
+      channel.truncate(0);
       registerShutdownHook();
     } catch (IOException e) {
       throw new RuntimeException("Unable to initialize byte cache", e);
@@ -85,14 +113,13 @@ public class DiskCache {
    * @param token a previously returned token
    * @return the bytes that were written
    */
-  public synchronized byte[] readByteArray(long token) {
+  public byte[] readByteArray(long token) {
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
-      byte[] result = new byte[length];
-      file.readFully(result);
-      return result;
+      return withChannel(channel -> {
+        ByteBuffer result = ByteBuffer.allocate(readLength(channel, token));
+        readFully(channel, result, token + 4);
+        return result.array();
+      });
     } catch (IOException e) {
       throw new RuntimeException("Unable to read from byte cache", e);
     }
@@ -135,29 +162,21 @@ public class DiskCache {
    *
    * @return a token to retrieve the data later
    */
-  public synchronized long transferFromStream(InputStream in) throws IOException {
+  public long transferFromStream(InputStream in) throws IOException {
     assert in != null;
     byte[] buf = takeThreadLocalBuf();
     try {
-      long position = moveToEndPosition();
-
-      // Placeholder, we don't know the length yet.
-      file.writeInt(-1);
-
-      // Transfer all the bytes.
-      int length = 0;
-      int bytesRead;
-      while ((bytesRead = in.read(buf)) != -1) {
-        file.write(buf, 0, bytesRead);
-        length += bytesRead;
+      // Small streams are written like byte arrays, without blocking other writers.
+      int buffered = 0;
+      int bytesRead = 0;
+      while (buffered < buf.length && (bytesRead = in.read(buf, buffered,
+          buf.length - buffered)) != -1) {
+        buffered += bytesRead;
       }
-
-      // Now go back and fill in the length.
-      file.seek(position);
-      file.writeInt(length);
-      // Don't eagerly seek the end, the next operation might be a read.
-      atEnd = false;
-      return position;
+      if (bytesRead == -1) {
+        return append(buf, buffered);
+      }
+      return appendStream(buf, buffered, in);
     } finally {
       releaseThreadLocalBuf(buf);
     }
@@ -186,23 +205,31 @@ public class DiskCache {
    * @param token a previously returned token
    * @param out the stream to write into
    */
-  public synchronized void transferToStream(long token, OutputStream out) throws IOException {
-    byte[] buf = takeThreadLocalBuf();
+  public void transferToStream(final long token, final OutputStream out) throws IOException {
+    final byte[] buf = takeThreadLocalBuf();
     try {
-      atEnd = false;
-      file.seek(token);
-      int length = file.readInt();
-      int bufLen = buf.length;
-      while (length > bufLen) {
-        int read = file.read(buf, 0, bufLen);
-        length -= read;
-        out.write(buf, 0, read);
-      }
-      while (length > 0) {
-        int read = file.read(buf, 0, length);
-        length -= read;
-        out.write(buf, 0, read);
-      }
+      withChannel(new ChannelOperation<Void>() {
+        // Kept across retries, so that nothing is written to the stream twice.
+        long position = -1;
+        int remaining;
+
+        @Override
+        public Void run(FileChannel channel) throws IOException {
+          if (position < 0) {
+            remaining = readLength(channel, token);
+            position = token + 4;
+          }
+          ByteBuffer buffer = ByteBuffer.wrap(buf);
+          while (remaining > 0) {
+            buffer.clear().limit(Math.min(buf.length, remaining));
+            readFully(channel, buffer, position);
+            out.write(buf, 0, buffer.limit());
+            position += buffer.limit();
+            remaining -= buffer.limit();
+          }
+          return null;
+        }
+      });
     } finally {
       releaseThreadLocalBuf(buf);
     }
@@ -213,12 +240,9 @@ public class DiskCache {
    *
    * @return a token to retrieve the data later
    */
-  public synchronized long writeByteArray(byte[] bytes) {
+  public long writeByteArray(byte[] bytes) {
     try {
-      long position = moveToEndPosition();
-      file.writeInt(bytes.length);
-      file.write(bytes);
-      return position;
+      return append(bytes, bytes.length);
     } catch (IOException e) {
       throw new RuntimeException("Unable to write to byte cache", e);
     }
@@ -249,38 +273,144 @@ public class DiskCache {
   }
 
   /**
-   * Moves to the end of the file if necessary and returns the offset position.
-   * Caller must synchronize.
+   * Claims space at the end of the file and writes a record there.
    *
-   * @return the offset position of the end of the file
-   * @throws IOException
+   * @return the token of the new record
    */
-  private long moveToEndPosition() throws IOException {
-    // Get an end pointer.
-    if (atEnd) {
-      return file.getFilePointer();
-    } else {
-      long position = file.length();
-      file.seek(position);
-      atEnd = true;
+  private long append(byte[] bytes, int length) throws IOException {
+    ByteBuffer record = ByteBuffer.allocate(4 + length);
+    record.putInt(length);
+    record.put(bytes, 0, length);
+    record.flip();
+
+    appendLock.readLock().lock();
+    try {
+      long position = end.getAndAdd(record.remaining());
+      writeFully(record, position);
       return position;
+    } finally {
+      appendLock.readLock().unlock();
     }
   }
 
   /**
-   * Register a shutdown hook to close the RandomAccessFile associated with the temp file.<br>
+   * Copies a stream of unknown length to the end of the file. Other writers
+   * wait until it's done, since the length isn't known up front.
+   *
+   * @return the token of the new record
+   */
+  private long appendStream(byte[] buf, int buffered, InputStream in) throws IOException {
+    appendLock.writeLock().lock();
+    try {
+      long position = end.get();
+      long writePosition = position + 4;
+      long length = 0;
+      int bytesRead = buffered;
+      while (bytesRead != -1) {
+        writeFully(ByteBuffer.wrap(buf, 0, bytesRead), writePosition);
+        writePosition += bytesRead;
+        length += bytesRead;
+        bytesRead = in.read(buf);
+      }
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException("Stream too large for byte cache: " + length + " bytes");
+      }
+
+      // Now go back and fill in the length.
+      ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+      lengthBuf.putInt((int) length);
+      lengthBuf.flip();
+      writeFully(lengthBuf, position);
+      end.set(writePosition);
+      return position;
+    } finally {
+      appendLock.writeLock().unlock();
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer, long position) throws IOException {
+    withChannel(channel -> {
+      // Start over if a previous attempt was interrupted.
+      buffer.rewind();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, position + buffer.position());
+      }
+      return null;
+    });
+  }
+
+  private static int readLength(FileChannel channel, long token) throws IOException {
+    ByteBuffer lengthBuf = ByteBuffer.allocate(4);
+    readFully(channel, lengthBuf, token);
+    return lengthBuf.getInt(0);
+  }
+
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    buffer.rewind();
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new EOFException("Byte cache ended before the end of the data");
+      }
+    }
+  }
+
+  /**
+   * Runs an operation on the channel. Interrupting a thread that is using a
+   * {@link FileChannel} closes the channel for every thread, so in that case
+   * the channel is reopened and the operation is retried. The interrupt is
+   * preserved for the caller.
+   */
+  private <T> T withChannel(ChannelOperation<T> operation) throws IOException {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        FileChannel current = channel;
+        try {
+          return operation.run(current);
+        } catch (ClosedChannelException e) {
+          interrupted |= Thread.interrupted();
+          reopen(current, e);
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private synchronized void reopen(FileChannel closedChannel, ClosedChannelException e)
+      throws IOException {
+    if (closed) {
+      throw e;
+    }
+    if (channel == closedChannel) {
+      channel = openChannel(path);
+    }
+  }
+
+  private static FileChannel openChannel(Path path) throws IOException {
+    return FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+  }
+
+  /**
+   * Register a shutdown hook to close the FileChannel associated with the temp file.<br>
    * There is a known <a href="https://bugs.java.com/bugdatabase/view_bug.do?bug_id=4171239">bug</a>
    * in Windows that prevents the 'temp' file from being deleted by 'deleteOnExit'
-   * (see {@link DiskCache#DiskCache()}) because it is still open by the RandomAccessFile.<br>
-   * This hook forces the RandomAccessFile to be closed at shutdown to allow the correct
+   * (see {@link DiskCache#DiskCache()}) because it is still open by the FileChannel.<br>
+   * This hook forces the FileChannel to be closed at shutdown to allow the correct
    * 'temp' file removal.
    */
   private void registerShutdownHook() {
     Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
       @Override
       public void run() {
+        synchronized (DiskCache.this) {
+          closed = true;
+        }
         try {
-          file.close();
+          channel.close();
         } catch (IOException e) {
           // No exception handling in a shutdown hook
         }
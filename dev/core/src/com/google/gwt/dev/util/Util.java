@@ -367,6 +367,16 @@ public final class Util {
     return lastModified;
   }
 
+  /**
+   * Returns true if the file is owned by the user running this JVM.
+   */
+  public static boolean isOwnedByCurrentUser(File file) throws IOException {
+    String owner = Files.getOwner(file.toPath()).getName();
+    String user = System.getProperty("user.name");
+    // Windows prefixes owner names with a domain and a backslash.
+    return owner.equals(user) || owner.endsWith("\\" + user);
+  }
+
   /**
    * @deprecated Use {@link SourceVersion#isIdentifier(CharSequence)} instead.
    */
@@ -0,0 +1,244 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.collect;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A set stored as a bit set of ids handed out by an {@link Index}. Sets that share an index are
+ * copied, compared and combined with bit set operations instead of element by element, and
+ * adding an element never allocates once it has an id.
+ * <p>
+ * Elements are iterated in the order they were first given an id by the index. Null elements are
+ * not supported. Like the index, the set is not thread safe.
+ *
+ * @param <E> the element type
+ */
+public class IndexedSet<E> extends AbstractSet<E> {
+
+  /**
+   * Hands out dense, increasing ids to objects (compared with {@code equals}) the first time they
+   * are added to a set. Ids are never reclaimed, so an index should live as long as the sets that
+   * use it, not longer.
+   */
+  public static class Index {
+    private final List<Object> elements = new ArrayList<Object>();
+    private final HashMap<Object, Integer> idByElement = new HashMap<Object, Integer>();
+
+    /**
+     * Returns the id of {@code element}, or -1 if it has none.
+     */
+    public int getId(Object element) {
+      Integer id = idByElement.get(element);
+      return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the id of {@code element}, giving it the next id if it has none.
+     */
+    public int getOrCreateId(Object element) {
+      if (element == null) {
+        throw new NullPointerException();
+      }
+      Integer id = idByElement.get(element);
+      if (id == null) {
+        id = elements.size();
+        elements.add(element);
+        idByElement.put(element, id);
+      }
+      return id;
+    }
+
+    /**
+     * Returns the number of ids handed out.
+     */
+    public int size() {
+      return elements.size();
+    }
+
+    Object get(int id) {
+      return elements.get(id);
+    }
+  }
+
+  /**
+   * Returns a new set of the elements of {@code set} that are not in {@code toRemove}. If both are
+   * indexed sets that share an index, this is a bit set operation.
+   */
+  public static <E> Set<E> difference(Set<? extends E> set, Set<?> toRemove) {
+    Set<E> difference = set instanceof IndexedSet
+        ? new IndexedSet<E>((IndexedSet<? extends E>) set) : new LinkedHashSet<E>(set);
+    difference.removeAll(toRemove);
+    return difference;
+  }
+
+  private final BitSet ids;
+  private final Index index;
+  private int size;
+
+  /**
+   * Creates an empty set.
+   */
+  public IndexedSet(Index index) {
+    this.index = index;
+    this.ids = new BitSet();
+  }
+
+  /**
+   * Creates a set with the same elements and index as {@code set}.
+   */
+  public IndexedSet(IndexedSet<? extends E> set) {
+    this.index = set.index;
+    this.ids = (BitSet) set.ids.clone();
+    this.size = set.size;
+  }
+
+  @Override
+  public boolean add(E element) {
+    int id = index.getOrCreateId(element);
+    if (ids.get(id)) {
+      return false;
+    }
+    ids.set(id);
+    size++;
+    return true;
+  }
+
+  @Override
+  public boolean addAll(Collection<? extends E> elements) {
+    if (!sharesIndexWith(elements)) {
+      return super.addAll(elements);
+    }
+    ids.or(((IndexedSet<?>) elements).ids);
+    return updateSize();
+  }
+
+  @Override
+  public void clear() {
+    ids.clear();
+    size = 0;
+  }
+
+  @Override
+  public boolean contains(Object element) {
+    int id = index.getId(element);
+    return id != -1 && ids.get(id);
+  }
+
+  @Override
+  public boolean containsAll(Collection<?> elements) {
+    if (!sharesIndexWith(elements)) {
+      return super.containsAll(elements);
+    }
+    BitSet missing = (BitSet) ((IndexedSet<?>) elements).ids.clone();
+    missing.andNot(ids);
+    return missing.isEmpty();
+  }
+
+  /**
+   * Returns the index this set gets element ids from.
+   */
+  public Index getIndex() {
+    return index;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return new Iterator<E>() {
+      private int lastId = -1;
+      private int nextId = ids.nextSetBit(0);
+
+      @Override
+      public boolean hasNext() {
+        return nextId != -1;
+      }
+
+      @SuppressWarnings("unchecked")
+      @Override
+      public E next() {
+        if (nextId == -1) {
+          throw new NoSuchElementException();
+        }
+        lastId = nextId;
+        nextId = ids.nextSetBit(nextId + 1);
+        return (E) index.get(lastId);
+      }
+
+      @Override
+      public void remove() {
+        if (lastId == -1) {
+          throw new IllegalStateException();
+        }
+        ids.clear(lastId);
+        size--;
+        lastId = -1;
+      }
+    };
+  }
+
+  @Override
+  public boolean remove(Object element) {
+    int id = index.getId(element);
+    if (id == -1 || !ids.get(id)) {
+      return false;
+    }
+    ids.clear(id);
+    size--;
+    return true;
+  }
+
+  @Override
+  public boolean removeAll(Collection<?> elements) {
+    if (!sharesIndexWith(elements)) {
+      return super.removeAll(elements);
+    }
+    ids.andNot(((IndexedSet<?>) elements).ids);
+    return updateSize();
+  }
+
+  @Override
+  public boolean retainAll(Collection<?> elements) {
+    if (!sharesIndexWith(elements)) {
+      return super.retainAll(elements);
+    }
+    ids.and(((IndexedSet<?>) elements).ids);
+    return updateSize();
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  private boolean sharesIndexWith(Collection<?> elements) {
+    return elements instanceof IndexedSet && ((IndexedSet<?>) elements).index == index;
+  }
+
+  /**
+   * Recounts the elements after a bulk operation and returns whether the set changed.
+   */
+  private boolean updateSize() {
+    int oldSize = size;
+    size = ids.cardinality();
+    return size != oldSize;
+  }
+}
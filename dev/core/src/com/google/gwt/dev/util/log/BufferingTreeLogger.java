@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.log;
+
+import com.google.gwt.core.ext.TreeLogger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records log entries and branches so that they can be replayed into another logger later, or
+ * dropped. Lets work that runs on another thread log into the right place of a tree, in a
+ * deterministic order, once it is known whether its output is wanted.
+ * <p>
+ * Whether a type is loggable is answered by the logger the entries will be replayed into. A
+ * buffering logger and its branches must only be used by one thread at a time.
+ */
+public class BufferingTreeLogger extends TreeLogger {
+
+  private static class Entry {
+    private final Type type;
+    private final String msg;
+    private final Throwable caught;
+    private final HelpInfo helpInfo;
+    /**
+     * The entries of the branch, or null for a plain log entry.
+     */
+    private final BufferingTreeLogger branch;
+
+    Entry(Type type, String msg, Throwable caught, HelpInfo helpInfo,
+        BufferingTreeLogger branch) {
+      this.type = type;
+      this.msg = msg;
+      this.caught = caught;
+      this.helpInfo = helpInfo;
+      this.branch = branch;
+    }
+  }
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+  private final TreeLogger loggabilityLogger;
+
+  /**
+   * Creates a logger whose entries are meant to be replayed into {@code target}.
+   */
+  public BufferingTreeLogger(TreeLogger target) {
+    this.loggabilityLogger = target;
+  }
+
+  @Override
+  public TreeLogger branch(Type type, String msg, Throwable caught, HelpInfo helpInfo) {
+    BufferingTreeLogger branch = new BufferingTreeLogger(loggabilityLogger);
+    entries.add(new Entry(type, msg, caught, helpInfo, branch));
+    return branch;
+  }
+
+  @Override
+  public boolean isLoggable(Type type) {
+    return loggabilityLogger.isLoggable(type);
+  }
+
+  @Override
+  public void log(Type type, String msg, Throwable caught, HelpInfo helpInfo) {
+    if (isLoggable(type)) {
+      entries.add(new Entry(type, msg, caught, helpInfo, null));
+    }
+  }
+
+  /**
+   * Logs everything recorded so far into {@code logger}, in the order it was recorded.
+   */
+  public void replay(TreeLogger logger) {
+    for (Entry entry : entries) {
+      if (entry.branch == null) {
+        logger.log(entry.type, entry.msg, entry.caught, entry.helpInfo);
+      } else {
+        entry.branch.replay(logger.branch(entry.type, entry.msg, entry.caught, entry.helpInfo));
+      }
+    }
+  }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.util.tools.shared;
+
+/**
+ * Constants of the symbol map index format, which is written by
+ * {@code com.google.gwt.core.linker.SymbolMapsLinker} and read by
+ * {@code com.google.gwt.core.server.StackTraceDeobfuscator}:
+ *
+ * <pre>
+ * int magic ({@value #MAGIC}), int version ({@value #VERSION}), int entry count
+ * for each entry, sorted by symbol: int length, UTF-8 symbol, int length, UTF-8 data
+ * </pre>
+ */
+public class SymbolMapIndexFormat {
+
+  /**
+   * Appended to the strong name of a permutation to form the filename of its symbol map index.
+   */
+  public static final String FILE_SUFFIX = ".symbolMapIndex";
+
+  public static final int MAGIC = 0x47575349;
+
+  public static final int VERSION = 1;
+
+  private SymbolMapIndexFormat() {
+  }
+}
@@ -102,6 +102,46 @@ public class MinimalRebuildCacheTest extends TestCase {
     assertNotNull(minimalRebuildCache.getJs("Baz$Inner"));
   }
 
+  public void testComputeReachableTypeNames_reusedWhenControlFlowUnchanged() {
+    StringAnalyzableTypeEnvironment typeEnvironment = minimalRebuildCache.getTypeEnvironment();
+    typeEnvironment.recordTypeEnclosesMethod("Foo", "Foo::run()");
+    recordBarCallsFoo(typeEnvironment);
+    minimalRebuildCache.setEntryMethodNames(Lists.newArrayList("Bar::start()"));
+    assertEquals(Sets.newHashSet("Bar", "Foo"),
+        Sets.intersection(minimalRebuildCache.computeReachableTypeNames(),
+            Sets.newHashSet("Bar", "Foo", "Baz")));
+    assertFalse(typeEnvironment.isReachabilityAnalysisStale());
+
+    // Recompiling Bar without changing its control flow keeps the analysis valid.
+    typeEnvironment.removeControlFlowIndexesFor("Bar");
+    recordBarCallsFoo(typeEnvironment);
+    minimalRebuildCache.setEntryMethodNames(Lists.newArrayList("Bar::start()"));
+    assertFalse(typeEnvironment.isReachabilityAnalysisStale());
+    assertTrue(minimalRebuildCache.computeReachableTypeNames().contains("Foo"));
+
+    // Now Bar starts instantiating Baz.
+    typeEnvironment.removeControlFlowIndexesFor("Bar");
+    recordBarCallsFoo(typeEnvironment);
+    typeEnvironment.recordTypeEnclosesMethod("Baz", "Baz::Baz()");
+    typeEnvironment.recordMethodInstantiatesType("Bar::start()", "Baz");
+    assertTrue(typeEnvironment.isReachabilityAnalysisStale());
+    assertTrue(minimalRebuildCache.computeReachableTypeNames().contains("Baz"));
+    assertFalse(typeEnvironment.isReachabilityAnalysisStale());
+
+    // Changing the entry methods invalidates the analysis as well.
+    minimalRebuildCache.setEntryMethodNames(Lists.newArrayList("Baz::Baz()"));
+    assertTrue(typeEnvironment.isReachabilityAnalysisStale());
+  }
+
+  /**
+   * Records the control flow of Bar, whose only method calls a method of Foo.
+   */
+  private static void recordBarCallsFoo(StringAnalyzableTypeEnvironment typeEnvironment) {
+    typeEnvironment.recordTypeEnclosesMethod("Bar", "Bar::start()");
+    typeEnvironment.recordMethodCallsMethod("Bar::start()", "Foo::run()");
+    typeEnvironment.recordStaticReferenceInMethod("Foo", "Bar::start()");
+  }
+
   public void testComputeDeletedTypes() {
     // These three compilation units exist.
     Map<String, Long> currentModifiedBySourcePath = new ImmutableMap.Builder<String, Long>().put(
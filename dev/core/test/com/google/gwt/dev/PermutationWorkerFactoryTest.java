@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.PermutationWorkerFactory.Manager;
+import com.google.gwt.dev.PermutationWorkerFactory.Work;
+import com.google.gwt.dev.cfg.BindingProperties;
+import com.google.gwt.dev.cfg.BindingProperty;
+import com.google.gwt.dev.cfg.ConfigurationProperties;
+import com.google.gwt.dev.cfg.ConfigurationProperty;
+import com.google.gwt.dev.jjs.PermutationResult;
+import com.google.gwt.dev.util.PersistenceBackedObject;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tests for {@link PermutationWorkerFactory}.
+ */
+public class PermutationWorkerFactoryTest extends TestCase {
+
+  /**
+   * A worker that records which permutations it compiled and how many workers were compiling
+   * when each one started.
+   */
+  private static class FakeWorker implements PermutationWorker {
+    private static final Object lock = new Object();
+    private static int compiling;
+
+    private final List<Integer> compiledIds;
+    private final List<Integer> concurrentCompiles;
+
+    FakeWorker(List<Integer> compiledIds, List<Integer> concurrentCompiles) {
+      this.compiledIds = compiledIds;
+      this.concurrentCompiles = concurrentCompiles;
+    }
+
+    @Override
+    public void compile(TreeLogger logger, CompilerContext compilerContext,
+        Permutation permutation, PersistenceBackedObject<PermutationResult> resultFile) {
+      synchronized (lock) {
+        compiling++;
+        compiledIds.add(permutation.getId());
+        concurrentCompiles.add(compiling);
+      }
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        synchronized (lock) {
+          compiling--;
+        }
+      }
+    }
+
+    @Override
+    public String getName() {
+      return "FakeWorker";
+    }
+
+    @Override
+    public void shutdown() {
+    }
+  }
+
+  /**
+   * A manager that sees a 1000 byte heap, where the first compile peaks at 300 bytes over a 100
+   * byte baseline.
+   */
+  private static class FakeHeapManager extends Manager {
+    volatile long usedHeapBytes = 100;
+
+    @Override
+    long getMaxHeapBytes() {
+      return 1000;
+    }
+
+    @Override
+    long getPeakHeapBytes() {
+      return 400;
+    }
+
+    @Override
+    long getUsedHeapBytes() {
+      return usedHeapBytes;
+    }
+
+    @Override
+    void resetPeakHeapUsage() {
+    }
+  }
+
+  private final List<Integer> compiledIds =
+      Collections.synchronizedList(Lists.<Integer>newArrayList());
+  private final List<Integer> concurrentCompiles =
+      Collections.synchronizedList(Lists.<Integer>newArrayList());
+
+  public void testRun_largestPermutationsFirst() throws Exception {
+    List<Work> work = Lists.newArrayList(
+        makeWork(0, 1), makeWork(1, 3), makeWork(2, 2), makeWork(3, 3), makeWork(4, 1));
+    List<PermutationWorker> workers = Lists.<PermutationWorker>newArrayList(
+        new FakeWorker(compiledIds, concurrentCompiles));
+
+    new Manager().doRun(TreeLogger.NULL, work, workers, Collections.<PermutationWorker>emptySet());
+
+    // Ties keep the original order.
+    assertEquals(Lists.newArrayList(1, 3, 2, 0, 4), compiledIds);
+  }
+
+  public void testRun_inProcessCompilesFitInHeap() throws Exception {
+    runInProcess(new FakeHeapManager(), 4, 12);
+
+    // The first compile runs alone to measure it. The remaining 900 bytes of heap then fit three.
+    assertEquals(1, (int) concurrentCompiles.get(0));
+    assertEquals(3, (int) Collections.max(concurrentCompiles));
+  }
+
+  public void testRun_inProcessCompilesWaitForFreeHeap() throws Exception {
+    FakeHeapManager manager = new FakeHeapManager() {
+      @Override
+      long getPeakHeapBytes() {
+        // Once measured, pretend that the heap stays mostly full.
+        usedHeapBytes = 800;
+        return super.getPeakHeapBytes();
+      }
+    };
+    runInProcess(manager, 4, 6);
+
+    assertEquals(1, (int) Collections.max(concurrentCompiles));
+  }
+
+  private void runInProcess(Manager manager, int workerCount, int permutationCount)
+      throws Exception {
+    List<Work> work = Lists.newArrayList();
+    for (int i = 0; i < permutationCount; i++) {
+      work.add(makeWork(i, 1));
+    }
+    List<PermutationWorker> workers = Lists.newArrayList();
+    Set<PermutationWorker> inProcessWorkers = Sets.newIdentityHashSet();
+    for (int i = 0; i < workerCount; i++) {
+      PermutationWorker worker = new FakeWorker(compiledIds, concurrentCompiles);
+      workers.add(worker);
+      inProcessWorkers.add(worker);
+    }
+
+    manager.doRun(TreeLogger.NULL, work, workers, inProcessWorkers);
+
+    assertEquals(permutationCount, compiledIds.size());
+  }
+
+  /**
+   * Returns work for a permutation that the given number of soft permutations were collapsed into.
+   */
+  private static Work makeWork(int id, int softPermutationCount) {
+    BindingProperties properties = new BindingProperties(new BindingProperty[0], new String[0],
+        new ConfigurationProperties(Lists.<ConfigurationProperty>newArrayList()));
+    Permutation permutation = new Permutation(id, properties);
+    for (int i = 1; i < softPermutationCount; i++) {
+      permutation.mergeRebindsFromCollapsed(new Permutation(-1, properties));
+    }
+    return new Work(TreeLogger.NULL, null, permutation, null, id);
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev;
+
+import com.google.gwt.core.ext.RebindResult;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.cfg.BindingProperty;
+import com.google.gwt.dev.cfg.ConditionWhenPropertyIs;
+import com.google.gwt.dev.cfg.ConditionWhenTypeIs;
+import com.google.gwt.dev.cfg.MockModuleDef;
+import com.google.gwt.dev.cfg.ModuleDef;
+import com.google.gwt.dev.cfg.Properties;
+import com.google.gwt.dev.cfg.PropertyCombinations;
+import com.google.gwt.dev.cfg.RuleReplaceWith;
+import com.google.gwt.dev.javac.CompilationState;
+import com.google.gwt.dev.javac.CompilationStateBuilder;
+import com.google.gwt.dev.javac.StandardGeneratorContext;
+import com.google.gwt.dev.jdt.RebindPermutationOracle;
+import com.google.gwt.dev.jjs.PrecompilationContext;
+import com.google.gwt.dev.resource.Resource;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSet;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link PrecompilationContextCreator}.
+ */
+public class PrecompilationContextCreatorTest extends TestCase {
+
+  /**
+   * A replace-with rule that counts how many times it is realized.
+   */
+  private static class CountingRule extends RuleReplaceWith {
+    private final AtomicInteger realizeCount;
+
+    CountingRule(String typeName, String replacementTypeName, AtomicInteger realizeCount) {
+      super(replacementTypeName);
+      this.realizeCount = realizeCount;
+      getRootCondition().getConditions().add(new ConditionWhenTypeIs(typeName));
+    }
+
+    @Override
+    public RebindResult realize(TreeLogger logger, StandardGeneratorContext context,
+        String typeName) throws UnableToCompleteException {
+      realizeCount.incrementAndGet();
+      return super.realize(logger, context, typeName);
+    }
+  }
+
+  private static final List<String> REQUEST_TYPE_NAMES =
+      Lists.newArrayList("com.example.Foo", "com.example.Bar", "com.example.Baz");
+
+  private final AtomicInteger realizeCount = new AtomicInteger();
+  private boolean originalShareRebindAnswers;
+  private boolean originalConcurrentPrefetch;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    originalShareRebindAnswers = PrecompilationContextCreator.shareRebindAnswers;
+    originalConcurrentPrefetch = PrecompilationContextCreator.concurrentPrefetch;
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    PrecompilationContextCreator.shareRebindAnswers = originalShareRebindAnswers;
+    PrecompilationContextCreator.concurrentPrefetch = originalConcurrentPrefetch;
+    super.tearDown();
+  }
+
+  public void testRebind_answerDiffersWithReadProperty() throws Exception {
+    PrecompilationContextCreator.shareRebindAnswers = true;
+    PrecompilationContext context = createContext();
+    RebindPermutationOracle oracle = context.getRebindPermutationOracle();
+
+    assertEquals(ImmutableSet.of("com.example.FooA1", "com.example.FooA2"),
+        Sets.newHashSet(oracle.getAllPossibleRebindAnswers(TreeLogger.NULL, "com.example.Foo")));
+
+    for (Permutation permutation : context.getPermutations()) {
+      PropertyAndBindingInfo info = permutation.getPropertyAndBindingInfos().get(0);
+      assertEquals("a1".equals(info.getPropertyValue("a"))
+          ? "com.example.FooA1" : "com.example.FooA2", info.getReboundType("com.example.Foo"));
+    }
+    assertEquals(ImmutableSet.of("a"), oracle.getPropertiesReadForRebind("com.example.Foo"));
+  }
+
+  public void testRebind_answerSharedWhenUnreadPropertyDiffers() throws Exception {
+    PrecompilationContextCreator.shareRebindAnswers = false;
+    List<String> unsharedAnswers = rebindAll(createContext());
+    assertEquals(4 * REQUEST_TYPE_NAMES.size(), realizeCount.getAndSet(0));
+
+    PrecompilationContextCreator.shareRebindAnswers = true;
+    List<String> sharedAnswers = rebindAll(createContext());
+
+    assertEquals(unsharedAnswers, sharedAnswers);
+    // Foo and Baz each depend on one of the two properties, and Bar on neither.
+    assertEquals(2 + 1 + 2, realizeCount.get());
+  }
+
+  public void testPrefetch_sameAnswersAsSerial() throws Exception {
+    PrecompilationContextCreator.shareRebindAnswers = true;
+    PrecompilationContextCreator.concurrentPrefetch = false;
+    List<String> serialAnswers = rebindAll(createContext());
+    realizeCount.set(0);
+
+    PrecompilationContextCreator.concurrentPrefetch = true;
+    PrecompilationContext context = createContext();
+    context.getRebindPermutationOracle().prefetchRebindAnswers(TreeLogger.NULL,
+        REQUEST_TYPE_NAMES);
+
+    assertEquals(2 + 1 + 2, realizeCount.get());
+    assertEquals(serialAnswers, getAnswers(context));
+    assertEquals(serialAnswers, rebindAll(context));
+  }
+
+  /**
+   * Returns a context for a module with binding properties {@code a} and {@code b}, where Foo is
+   * replaced depending on {@code a}, Baz depending on {@code b} and Bar always the same way.
+   */
+  private PrecompilationContext createContext() throws UnableToCompleteException {
+    ModuleDef module = new MockModuleDef();
+    Properties properties = module.getProperties();
+    for (String name : new String[] {"a", "b"}) {
+      BindingProperty property = properties.createBinding(name);
+      property.addDefinedValue(property.getRootCondition(), name + "1");
+      property.addDefinedValue(property.getRootCondition(), name + "2");
+    }
+    for (String value : new String[] {"1", "2"}) {
+      CountingRule fooRule =
+          new CountingRule("com.example.Foo", "com.example.FooA" + value, realizeCount);
+      fooRule.getRootCondition().getConditions().add(new ConditionWhenPropertyIs("a", "a" + value));
+      module.addRule(fooRule);
+      CountingRule bazRule =
+          new CountingRule("com.example.Baz", "com.example.BazB" + value, realizeCount);
+      bazRule.getRootCondition().getConditions().add(new ConditionWhenPropertyIs("b", "b" + value));
+      module.addRule(bazRule);
+    }
+    module.addRule(new CountingRule("com.example.Bar", "com.example.BarImpl", realizeCount));
+
+    CompilerContext compilerContext = new CompilerContext.Builder().module(module).build();
+    CompilationState compilationState = CompilationStateBuilder.buildFrom(
+        TreeLogger.NULL, compilerContext, Collections.<Resource> emptySet());
+    return PrecompilationContextCreator.create(compilerContext, compilationState,
+        new PropertyCombinations(properties, module.getActiveLinkerNames()), new String[0],
+        new String[0], null);
+  }
+
+  /**
+   * Answers every request in the serial order and returns the answers in each permutation.
+   */
+  private static List<String> rebindAll(PrecompilationContext context)
+      throws UnableToCompleteException {
+    for (String requestTypeName : REQUEST_TYPE_NAMES) {
+      context.getRebindPermutationOracle().getAllPossibleRebindAnswers(TreeLogger.NULL,
+          requestTypeName);
+    }
+    return getAnswers(context);
+  }
+
+  private static List<String> getAnswers(PrecompilationContext context) {
+    List<String> answers = Lists.newArrayList();
+    for (Permutation permutation : context.getPermutations()) {
+      PropertyAndBindingInfo info = permutation.getPropertyAndBindingInfos().get(0);
+      for (String requestTypeName : REQUEST_TYPE_NAMES) {
+        answers.add(info.getReboundType(requestTypeName));
+      }
+    }
+    return answers;
+  }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.cfg;
+
+import com.google.gwt.core.ext.BadPropertyValueException;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSet;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Tests for RecordingPropertyOracle.
+ */
+public class RecordingPropertyOracleTest extends TestCase {
+
+  public void testRecordsLookups() throws BadPropertyValueException {
+    Properties properties = new Properties();
+    BindingProperty userAgentProperty = properties.createBinding("user.agent");
+    userAgentProperty.setFallback("safari");
+    properties.createBinding("locale").setFallback("en");
+    properties.createConfiguration("debug", false).setValue("true");
+    RecordingPropertyOracle oracle =
+        new RecordingPropertyOracle(new DynamicPropertyOracle(properties));
+
+    assertTrue(oracle.getSelectionPropertyNames().isEmpty());
+    assertTrue(oracle.getConfigurationPropertyNames().isEmpty());
+
+    assertEquals("safari",
+        oracle.getSelectionProperty(TreeLogger.NULL, "user.agent").getCurrentValue());
+    assertEquals(Collections.singletonList("true"),
+        oracle.getConfigurationProperty("debug").getValues());
+    try {
+      oracle.getSelectionProperty(TreeLogger.NULL, "missing");
+      fail("Expected BadPropertyValueException");
+    } catch (BadPropertyValueException expected) {
+    }
+    oracle.getSelectionProperty(TreeLogger.NULL, "user.agent");
+
+    assertEquals(ImmutableSet.of("user.agent", "missing"), oracle.getSelectionPropertyNames());
+    assertEquals(ImmutableSet.of("debug"), oracle.getConfigurationPropertyNames());
+    Map<String, String> expectedValues = Maps.newLinkedHashMap();
+    expectedValues.put("user.agent", "safari");
+    expectedValues.put("missing", null);
+    assertEquals(expectedValues, oracle.getSelectionPropertyValues());
+  }
+}
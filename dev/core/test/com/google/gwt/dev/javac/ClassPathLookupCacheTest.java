@@ -0,0 +1,233 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.dev.javac.ClassPathLookupCache.BinaryType;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.io.MoreFiles;
+import com.google.gwt.thirdparty.guava.common.io.RecursiveDeleteOption;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ClassPathLookupCache}.
+ */
+public class ClassPathLookupCacheTest extends TestCase {
+
+  private static final byte[] BYTES = {(byte) 0xca, (byte) 0xfe, (byte) 0xba, (byte) 0xbe};
+
+  private File cacheDir;
+  private File classPathDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    cacheDir = Files.createTempDirectory("classPathLookupCache").toFile();
+    classPathDir = new File(cacheDir, "classes");
+    assertTrue(new File(classPathDir, "com/example").mkdirs());
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(cacheDir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  public void testSaveAndRead() {
+    ClassPathLookupCache cache = new ClassPathLookupCache(cacheDir, "abc");
+    assertNull(cache.getType("com/example/Foo"));
+    assertNull(cache.isPackage("com/example"));
+
+    cache.putType("com/example/Foo", new BinaryType(BYTES, "jar:file:/lib.jar!/Foo.class"));
+    cache.putType("com/example/Missing", ClassPathLookupCache.NOT_FOUND);
+    cache.putPackage("com/example", true);
+    cache.putPackage("com/missing", false);
+    cache.save(TreeLogger.NULL);
+
+    ClassPathLookupCache reread = new ClassPathLookupCache(cacheDir, "abc");
+    BinaryType foo = reread.getType("com/example/Foo");
+    assertTrue(Arrays.equals(BYTES, foo.getBytes()));
+    assertEquals("jar:file:/lib.jar!/Foo.class", foo.getFileName());
+    assertSame(ClassPathLookupCache.NOT_FOUND, reread.getType("com/example/Missing"));
+    assertEquals(Boolean.TRUE, reread.isPackage("com/example"));
+    assertEquals(Boolean.FALSE, reread.isPackage("com/missing"));
+
+    assertNull(new ClassPathLookupCache(cacheDir, "other").getType("com/example/Foo"));
+  }
+
+  public void testRead_corruptFile() throws IOException {
+    ClassPathLookupCache cache = new ClassPathLookupCache(cacheDir, "abc");
+    cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+    cache.save(TreeLogger.NULL);
+    File file = new File(cacheDir, "abc.cpl");
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+
+    assertNull(new ClassPathLookupCache(cacheDir, "abc").getType("com/example/Foo"));
+  }
+
+  public void testSave_appendsNewAnswers() throws IOException {
+    ClassPathLookupCache cache = new ClassPathLookupCache(cacheDir, "abc");
+    cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+    cache.save(TreeLogger.NULL);
+    File file = new File(cacheDir, "abc.cpl");
+    byte[] firstSave = Files.readAllBytes(file.toPath());
+
+    cache.save(TreeLogger.NULL);
+    assertEquals(firstSave.length, file.length());
+
+    cache.putType("com/example/Bar", ClassPathLookupCache.NOT_FOUND);
+    cache.save(TreeLogger.NULL);
+    byte[] secondSave = Files.readAllBytes(file.toPath());
+    assertTrue(secondSave.length > firstSave.length);
+    assertTrue(Arrays.equals(firstSave, Arrays.copyOf(secondSave, firstSave.length)));
+
+    // Saved class files are read back from the file.
+    assertTrue(Arrays.equals(BYTES, cache.getType("com/example/Foo").getBytes()));
+    ClassPathLookupCache reread = new ClassPathLookupCache(cacheDir, "abc");
+    assertTrue(Arrays.equals(BYTES, reread.getType("com/example/Foo").getBytes()));
+    assertSame(ClassPathLookupCache.NOT_FOUND, reread.getType("com/example/Bar"));
+  }
+
+  public void testDisabled() {
+    ClassPathLookupCache cache = new ClassPathLookupCache(null, "abc");
+    cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+    cache.putType("com/example/Missing", ClassPathLookupCache.NOT_FOUND);
+    cache.putPackage("com/example", true);
+    cache.save(TreeLogger.NULL);
+
+    // Class files are only kept on disk.
+    assertNull(cache.getType("com/example/Foo"));
+    assertSame(ClassPathLookupCache.NOT_FOUND, cache.getType("com/example/Missing"));
+    assertEquals(Boolean.TRUE, cache.isPackage("com/example"));
+    assertFalse(new File(cacheDir, "abc.cpl").exists());
+  }
+
+  public void testDeletesUnusedFiles() throws IOException {
+    File unusedDir = new File(cacheDir, "unused");
+    assertTrue(unusedDir.mkdir());
+    File unused = new File(unusedDir, "unused.cpl");
+    File recent = new File(unusedDir, "recent.cpl");
+    File other = new File(unusedDir, "other.txt");
+    long longAgo = System.currentTimeMillis() - ClassPathLookupCache.MAX_UNUSED_MILLIS - 1000;
+    for (File file : ImmutableList.of(unused, recent, other)) {
+      Files.write(file.toPath(), BYTES);
+      if (file != recent) {
+        assertTrue(file.setLastModified(longAgo));
+      }
+    }
+
+    new ClassPathLookupCache(unusedDir, "abc");
+
+    assertFalse(unused.exists());
+    assertTrue(recent.exists());
+    assertTrue(other.exists());
+  }
+
+  public void testForClassLoader_refingerprintsClassDirectories() throws IOException {
+    File jar = new File(cacheDir, "lib.jar");
+    Files.write(jar.toPath(), BYTES);
+    URLClassLoader classLoader = new URLClassLoader(new URL[] {classPathDir.toURI().toURL()}, null);
+    URLClassLoader jarClassLoader = new URLClassLoader(new URL[] {jar.toURI().toURL()}, null);
+    String dir = System.getProperty(ClassPathLookupCache.DIR_PROPERTY);
+    System.clearProperty(ClassPathLookupCache.DIR_PROPERTY);
+    try {
+      ClassPathLookupCache cache = ClassPathLookupCache.forClassLoader(classLoader);
+      ClassPathLookupCache jarCache = ClassPathLookupCache.forClassLoader(jarClassLoader);
+      cache.putType("com/example/sub/Foo", ClassPathLookupCache.NOT_FOUND);
+      assertSame(cache, ClassPathLookupCache.forClassLoader(classLoader));
+
+      // A new class file may be in the new directory.
+      assertTrue(new File(classPathDir, "com/example/sub").mkdir());
+      ClassPathLookupCache changedCache = ClassPathLookupCache.forClassLoader(classLoader);
+      assertNotSame(cache, changedCache);
+      assertNull(changedCache.getType("com/example/sub/Foo"));
+
+      // Jars are only fingerprinted once per class loader.
+      Files.write(jar.toPath(), Arrays.copyOf(BYTES, 2));
+      assertSame(jarCache, ClassPathLookupCache.forClassLoader(jarClassLoader));
+      assertNotSame(jarCache, ClassPathLookupCache.forClassLoader(
+          new URLClassLoader(new URL[] {jar.toURI().toURL()}, null)));
+    } finally {
+      if (dir != null) {
+        System.setProperty(ClassPathLookupCache.DIR_PROPERTY, dir);
+      }
+      classLoader.close();
+      jarClassLoader.close();
+    }
+  }
+
+  public void testForClassLoader_diskCacheIsOptIn() throws IOException {
+    URLClassLoader classLoader = new URLClassLoader(new URL[] {classPathDir.toURI().toURL()}, null);
+    String dir = System.getProperty(ClassPathLookupCache.DIR_PROPERTY);
+    System.clearProperty(ClassPathLookupCache.DIR_PROPERTY);
+    try {
+      ClassPathLookupCache cache = ClassPathLookupCache.forClassLoader(classLoader);
+      cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+      cache.save(TreeLogger.NULL);
+      // Class files are only kept on disk.
+      assertNull(cache.getType("com/example/Foo"));
+
+      File lookupDir = new File(cacheDir, "lookups");
+      System.setProperty(ClassPathLookupCache.DIR_PROPERTY, lookupDir.getPath());
+      assertTrue(new File(classPathDir, "com/other").mkdir());
+      cache = ClassPathLookupCache.forClassLoader(classLoader);
+      cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+      cache.save(TreeLogger.NULL);
+      assertTrue(Arrays.equals(BYTES, cache.getType("com/example/Foo").getBytes()));
+      assertEquals(1, lookupDir.listFiles().length);
+    } finally {
+      if (dir == null) {
+        System.clearProperty(ClassPathLookupCache.DIR_PROPERTY);
+      } else {
+        System.setProperty(ClassPathLookupCache.DIR_PROPERTY, dir);
+      }
+      classLoader.close();
+    }
+  }
+
+  public void testUnknownClassPath() {
+    ClassPathLookupCache cache = new ClassPathLookupCache(cacheDir, null);
+    cache.putType("com/example/Foo", new BinaryType(BYTES, "Foo.class"));
+    cache.putPackage("com/example", true);
+
+    assertNull(cache.getType("com/example/Foo"));
+    assertNull(cache.isPackage("com/example"));
+  }
+
+  public void testFingerprint() throws IOException {
+    File jar = new File(cacheDir, "lib.jar");
+    Files.write(jar.toPath(), BYTES);
+    List<File> classPath = ImmutableList.of(classPathDir, jar);
+    String fingerprint = ClassPathLookupCache.fingerprint(classPath);
+    assertEquals(fingerprint, ClassPathLookupCache.fingerprint(classPath));
+
+    assertTrue(new File(classPathDir, "com/example/sub").mkdir());
+    String withSubdirectory = ClassPathLookupCache.fingerprint(classPath);
+    assertFalse(fingerprint.equals(withSubdirectory));
+
+    Files.write(jar.toPath(), Arrays.copyOf(BYTES, 2));
+    assertFalse(withSubdirectory.equals(ClassPathLookupCache.fingerprint(classPath)));
+
+    assertFalse(fingerprint.equals(
+        ClassPathLookupCache.fingerprint(ImmutableList.of(jar, classPathDir))));
+  }
+}
@@ -15,8 +15,15 @@
  */
 package com.google.gwt.dev.javac;
 
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.CompilerContext;
 import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
 import com.google.gwt.dev.javac.testing.impl.MockJavaResource;
+import com.google.gwt.dev.javac.testing.impl.MockResourceOracle;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import java.util.List;
 
 /**
  * Regression tests for {@link CompilationStateBuilder}.
@@ -66,4 +73,44 @@ public class CompilationStateBuilderTest extends CheckerTestCase {
 
     shouldGenerateError(buggy, 6, "The nested type A cannot hide an enclosing type");
   }
+
+  /**
+   * Tests that building compilation units on several threads gives the same units, in the same
+   * order, as building them on one.
+   */
+  public void testParallelCompilation_sameUnitsAsSerial() throws UnableToCompleteException {
+    boolean parallelCompilation = JdtCompiler.parallelCompilation;
+    try {
+      JdtCompiler.parallelCompilation = false;
+      List<String> serialClasses = getCompiledClasses(buildStandardCompilationState());
+      JdtCompiler.parallelCompilation = true;
+      List<String> parallelClasses = getCompiledClasses(buildStandardCompilationState());
+
+      assertFalse(serialClasses.isEmpty());
+      assertEquals(serialClasses, parallelClasses);
+    } finally {
+      JdtCompiler.parallelCompilation = parallelCompilation;
+    }
+  }
+
+  private static CompilationState buildStandardCompilationState()
+      throws UnableToCompleteException {
+    MockResourceOracle oracle = new MockResourceOracle(JavaResourceBase.getStandardResources());
+    return new CompilationStateBuilder().doBuildFrom(
+        TreeLogger.NULL, new CompilerContext(), oracle.getResources());
+  }
+
+  /**
+   * Returns the unit, name and signature hash of every compiled class, in unit order.
+   */
+  private static List<String> getCompiledClasses(CompilationState state) {
+    List<String> compiledClasses = Lists.newArrayList();
+    for (CompilationUnit unit : state.getCompilationUnits()) {
+      for (CompiledClass compiledClass : unit.getCompiledClasses()) {
+        compiledClasses.add(unit.getTypeName() + " " + compiledClass.getInternalName() + " "
+            + compiledClass.getSignatureHash());
+      }
+    }
+    return compiledClasses;
+  }
 }
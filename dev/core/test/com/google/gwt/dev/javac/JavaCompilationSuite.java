@@ -42,6 +42,7 @@ public class JavaCompilationSuite {
 
     suite.addTestSuite(BinaryTypeReferenceRestrictionsCheckerTest.class);
     suite.addTestSuite(BytecodeSignatureMakerTest.class);
+    suite.addTestSuite(ClassPathLookupCacheTest.class);
     suite.addTestSuite(CompilationStateTest.class);
     suite.addTestSuite(CompilationUnitFileReferenceTest.class);
     suite.addTestSuite(CompiledClassTest.class);
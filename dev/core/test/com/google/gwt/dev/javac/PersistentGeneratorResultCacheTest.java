@@ -0,0 +1,184 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.javac;
+
+import com.google.gwt.core.ext.BadPropertyValueException;
+import com.google.gwt.core.ext.ConfigurationProperty;
+import com.google.gwt.core.ext.DefaultConfigurationProperty;
+import com.google.gwt.core.ext.DefaultSelectionProperty;
+import com.google.gwt.core.ext.PropertyOracle;
+import com.google.gwt.core.ext.RebindMode;
+import com.google.gwt.core.ext.SelectionProperty;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.linker.impl.StandardGeneratedResource;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSortedSet;
+import com.google.gwt.thirdparty.guava.common.io.MoreFiles;
+import com.google.gwt.thirdparty.guava.common.io.RecursiveDeleteOption;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Tests for {@link PersistentGeneratorResultCache}.
+ */
+public class PersistentGeneratorResultCacheTest extends TestCase {
+
+  private File cacheDir;
+
+  @Override
+  protected void setUp() throws Exception {
+    cacheDir = Files.createTempDirectory("generatorResultCache").toFile();
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(cacheDir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  public void testPutAndGet() {
+    PersistentGeneratorResultCache cache = new PersistentGeneratorResultCache(cacheDir, "abc");
+    assertTrue(cache.get("key").isEmpty());
+
+    PersistentGeneratorResultCache.Result en = createResult("en");
+    en.sourcesByTypeName.put("com.example.Foo_en", "class Foo_en {}");
+    en.resourceHashes.put("com/example/Foo.properties", "1234");
+    en.existingTypeNames.add("com.example.Shared");
+    en.artifacts.add(new StandardGeneratedResource("foo.txt", new byte[] {1, 2, 3}));
+    cache.put(TreeLogger.NULL, "key", en);
+    cache.put(TreeLogger.NULL, "key", createResult("fr"));
+
+    List<PersistentGeneratorResultCache.Result> results =
+        new PersistentGeneratorResultCache(cacheDir, "abc").get("key");
+    assertEquals(2, results.size());
+    assertEquals("s:locale=fr", results.get(0).propertyValues.get("s:locale"));
+    PersistentGeneratorResultCache.Result reread = results.get(1);
+    assertEquals("com.example.Foo_en", reread.resultTypeName);
+    assertEquals(RebindMode.USE_ALL_NEW_WITH_NO_CACHING, reread.rebindMode);
+    assertEquals("class Foo_en {}", reread.sourcesByTypeName.get("com.example.Foo_en"));
+    assertEquals("1234", reread.resourceHashes.get("com/example/Foo.properties"));
+    assertTrue(reread.existingTypeNames.contains("com.example.Shared"));
+    assertEquals(1, reread.artifacts.size());
+
+    assertTrue(new PersistentGeneratorResultCache(cacheDir, "other").get("key").isEmpty());
+    assertTrue(cache.get("otherKey").isEmpty());
+  }
+
+  public void testPut_replacesResultForSameInputs() {
+    PersistentGeneratorResultCache cache = new PersistentGeneratorResultCache(cacheDir, "abc");
+    cache.put(TreeLogger.NULL, "key", createResult("en"));
+    PersistentGeneratorResultCache.Result newer = createResult("en");
+    newer.resultTypeName = "com.example.Newer";
+    cache.put(TreeLogger.NULL, "key", newer);
+
+    List<PersistentGeneratorResultCache.Result> results = cache.get("key");
+    assertEquals(1, results.size());
+    assertEquals("com.example.Newer", results.get(0).resultTypeName);
+  }
+
+  public void testGet_corruptFile() throws IOException {
+    PersistentGeneratorResultCache cache = new PersistentGeneratorResultCache(cacheDir, "abc");
+    cache.put(TreeLogger.NULL, "key", createResult("en"));
+    File[] files = cacheDir.listFiles();
+    assertEquals(1, files.length);
+    Files.write(files[0].toPath(), new byte[] {0x47, 0x57});
+
+    assertTrue(cache.get("key").isEmpty());
+  }
+
+  public void testEvictUnusedFiles() throws IOException {
+    long now = System.currentTimeMillis();
+    File unused = createFile("unused.gen", 10, now - PersistentGeneratorResultCache.MAX_UNUSED_MILLIS
+        - 1000);
+    File oldest = createFile("oldest.gen", 10, now - 3000);
+    File older = createFile("older.gen", 10, now - 2000);
+    File newest = createFile("newest.gen", 10, now - 1000);
+    File other = createFile("other.txt", 100, now - 3000);
+
+    PersistentGeneratorResultCache.evictUnusedFiles(cacheDir, 25);
+
+    assertFalse(unused.exists());
+    assertFalse(oldest.exists());
+    assertTrue(older.exists());
+    assertTrue(newest.exists());
+    assertTrue(other.exists());
+
+    // Only swept once per process.
+    createFile("later.gen", 100, now);
+    PersistentGeneratorResultCache.evictUnusedFiles(cacheDir, 25);
+    assertTrue(older.exists());
+  }
+
+  public void testDescribeProperty() {
+    PropertyOracle propertyOracle = new PropertyOracle() {
+      @Override
+      public ConfigurationProperty getConfigurationProperty(String propertyName)
+          throws BadPropertyValueException {
+        if (!propertyName.equals("config")) {
+          throw new BadPropertyValueException(propertyName);
+        }
+        return new DefaultConfigurationProperty("config", ImmutableList.of("a", "b"));
+      }
+
+      @Override
+      public SelectionProperty getSelectionProperty(TreeLogger logger, String propertyName)
+          throws BadPropertyValueException {
+        if (!propertyName.equals("locale")) {
+          throw new BadPropertyValueException(propertyName);
+        }
+        return new DefaultSelectionProperty("fr", "en", "locale",
+            ImmutableSortedSet.of("en", "fr"));
+      }
+    };
+
+    assertEquals("[a, b]", PersistentGeneratorResultCache.describeProperty(propertyOracle,
+        "c:config"));
+    assertEquals("fr|en|[en, fr]", PersistentGeneratorResultCache.describeProperty(propertyOracle,
+        "s:locale"));
+    assertEquals("", PersistentGeneratorResultCache.describeProperty(propertyOracle, "s:config"));
+  }
+
+  public void testFingerprintClassPath() throws IOException {
+    File classes = new File(cacheDir, "classes");
+    File classFile = new File(classes, "com/example/Generator.class");
+    assertTrue(classFile.getParentFile().mkdirs());
+    Files.write(classFile.toPath(), new byte[] {1, 2, 3});
+    List<File> classPath = ImmutableList.of(classes);
+    String fingerprint = PersistentGeneratorResultCache.fingerprintClassPath(classPath);
+    assertEquals(fingerprint, PersistentGeneratorResultCache.fingerprintClassPath(classPath));
+
+    // Changed in place, which doesn't touch the directory.
+    Files.write(classFile.toPath(), new byte[] {1, 2, 3, 4});
+    assertFalse(fingerprint.equals(PersistentGeneratorResultCache.fingerprintClassPath(classPath)));
+  }
+
+  private static PersistentGeneratorResultCache.Result createResult(String locale) {
+    PersistentGeneratorResultCache.Result result = new PersistentGeneratorResultCache.Result();
+    result.propertyValues.put("s:locale", "s:locale=" + locale);
+    result.resultTypeName = "com.example.Foo_" + locale;
+    result.rebindMode = RebindMode.USE_ALL_NEW_WITH_NO_CACHING;
+    return result;
+  }
+
+  private File createFile(String name, int length, long lastModified) throws IOException {
+    File file = new File(cacheDir, name);
+    Files.write(file.toPath(), new byte[length]);
+    assertTrue(file.setLastModified(lastModified));
+    return file;
+  }
+}
@@ -29,6 +29,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
 import java.io.UncheckedIOException;
 import java.util.Arrays;
@@ -87,6 +88,57 @@ public class PersistentUnitCacheTest extends TestCase {
     checkInvalidObjectInCache(new ThrowsClassNotFoundException());
   }
 
+  /**
+   * When the cache files are over the size limit, compaction keeps the most recently used units.
+   */
+  public void testEvictLeastRecentlyUsed() throws IOException, InterruptedException,
+      UnableToCompleteException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("persistentCacheTest", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    cache.internalAdd(new MockCompilationUnit("com.example.Foo", "Foo: source1")).get();
+    cache.internalAdd(new MockCompilationUnit("com.example.Bar", "Bar: source1")).get();
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+
+    // Room for one of the two (similarly sized) units.
+    long fileLength = unitCacheDir.listFiles()[0].length();
+    cache = new PersistentUnitCache(logger, parentDir, hash1, fileLength / 2, 0);
+    Thread.sleep(10);
+    assertNotNull(cache.find("com/example/Foo.java"));
+    cache.cleanup(logger);
+    cache.waitForCleanup();
+    assertNull(cache.find("com/example/Bar.java"));
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+
+    cache = new PersistentUnitCache(logger, parentDir, hash1);
+    assertNotNull(cache.find("com/example/Foo.java"));
+    assertNull(cache.find("com/example/Bar.java"));
+    cache.shutdown();
+  }
+
+  /**
+   * Units that were not used within the maximum age are evicted.
+   */
+  public void testEvictExpired() throws IOException, InterruptedException,
+      UnableToCompleteException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("persistentCacheTest", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    cache.internalAdd(new MockCompilationUnit("com.example.Foo", "Foo: source1")).get();
+    cache.shutdown();
+
+    Thread.sleep(50);
+    cache = new PersistentUnitCache(logger, parentDir, hash1, 0, 10);
+    cache.compact(logger);
+    assertNull(cache.find("com/example/Foo.java"));
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 0);
+  }
+
   /**
    * Test if a file already exists with the name we want to put the cache dir
    * in.
@@ -320,6 +372,40 @@ public class PersistentUnitCacheTest extends TestCase {
     cache.shutdown();
   }
 
+  /**
+   * If the compiler was killed while appending to a cache file, the units written before the
+   * incomplete record should still be usable.
+   */
+  public void testTruncatedCacheFile() throws IOException, InterruptedException,
+      UnableToCompleteException, ExecutionException {
+    File parentDir = lastParentDir = File.createTempFile("persistentCacheTest", "");
+    File unitCacheDir = mkCacheDir(parentDir);
+
+    PersistentUnitCache cache = new PersistentUnitCache(logger, parentDir, hash1);
+    MockCompilationUnit foo = new MockCompilationUnit("com.example.Foo", "Foo: source1");
+    cache.internalAdd(foo).get();
+    cache.internalAdd(new MockCompilationUnit("com.example.Bar", "Bar: source1")).get();
+    cache.shutdown();
+    assertNumCacheFiles(unitCacheDir, 1);
+
+    // Cut off the end of the last record.
+    File cacheFile = unitCacheDir.listFiles()[0];
+    RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+    try {
+      file.setLength(file.length() - 10);
+    } finally {
+      file.close();
+    }
+
+    cache = new PersistentUnitCache(logger, parentDir, hash1);
+    CompilationUnit result = cache.find("com/example/Foo.java");
+    assertNotNull(result);
+    assertEquals(foo.getContentId(), result.getContentId());
+    assertSame(result, cache.find(foo.getContentId()));
+    assertNull(cache.find("com/example/Bar.java"));
+    cache.shutdown();
+  }
+
   private void assertNumCacheFiles(File unitCacheDir, int expected) {
     String[] actualFiles = unitCacheDir.list();
     if (expected == actualFiles.length) {
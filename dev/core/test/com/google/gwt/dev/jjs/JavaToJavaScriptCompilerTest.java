@@ -0,0 +1,174 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.dev.Compiler;
+import com.google.gwt.dev.CompilerOptionsImpl;
+import com.google.gwt.dev.cfg.ModuleDef;
+import com.google.gwt.dev.cfg.ModuleDefLoader;
+import com.google.gwt.dev.cfg.ResourceLoader;
+import com.google.gwt.dev.cfg.ResourceLoaders;
+import com.google.gwt.dev.javac.UnitCacheSingleton;
+import com.google.gwt.dev.javac.testing.impl.JavaResourceBase;
+import com.google.gwt.dev.javac.testing.impl.MockResource;
+import com.google.gwt.thirdparty.guava.common.base.Charsets;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+import com.google.gwt.thirdparty.guava.common.io.MoreFiles;
+import com.google.gwt.thirdparty.guava.common.io.RecursiveDeleteOption;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Tests for {@link JavaToJavaScriptCompiler}.
+ */
+public class JavaToJavaScriptCompilerTest extends TestCase {
+
+  private static final String MODULE_NAME = "com.foo.SplitModule";
+
+  private static final List<MockResource> RESOURCES = Arrays.<MockResource>asList(
+      JavaResourceBase.createMockResource("com/foo/SplitModule.gwt.xml",
+          "<module rename-to='split'>",
+          "  <inherits name='com.google.gwt.core.Core'/>",
+          "  <source path=''/>",
+          "  <set-property name='compiler.useSourceMaps' value='true'/>",
+          "  <entry-point class='com.foo.SplitEntryPoint'/>",
+          "</module>"),
+      JavaResourceBase.createMockJavaResource("com.foo.SplitEntryPoint",
+          "package com.foo;",
+          "import com.google.gwt.core.client.EntryPoint;",
+          "import com.google.gwt.core.client.GWT;",
+          "import com.google.gwt.core.client.RunAsyncCallback;",
+          "public class SplitEntryPoint implements EntryPoint {",
+          "  static String log = \"\";",
+          "  static class Split implements RunAsyncCallback {",
+          "    private final String name;",
+          "    Split(String name) { this.name = name; }",
+          "    public void onFailure(Throwable reason) { log += reason; }",
+          "    public void onSuccess() { log += name + new java.util.ArrayList<String>(); }",
+          "  }",
+          "  public void onModuleLoad() {",
+          "    GWT.runAsync(new RunAsyncCallback() {",
+          "      public void onFailure(Throwable reason) {}",
+          "      public void onSuccess() { log += new java.util.HashMap<String, String>(); }",
+          "    });",
+          "    GWT.runAsync(new RunAsyncCallback() {",
+          "      public void onFailure(Throwable reason) {}",
+          "      public void onSuccess() { log += new java.util.TreeMap<String, String>(); }",
+          "    });",
+          "    GWT.runAsync(new Split(\"third\"));",
+          "  }",
+          "}"));
+
+  private File workDir;
+  private boolean originalConcurrentFragments;
+  private String originalPersistentUnitCache;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    workDir = Files.createTempDirectory("JavaToJavaScriptCompilerTest").toFile();
+    originalConcurrentFragments = JavaToJavaScriptCompiler.concurrentFragments;
+    originalPersistentUnitCache =
+        System.setProperty(UnitCacheSingleton.GWT_PERSISTENTUNITCACHE, "false");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    JavaToJavaScriptCompiler.concurrentFragments = originalConcurrentFragments;
+    if (originalPersistentUnitCache == null) {
+      System.clearProperty(UnitCacheSingleton.GWT_PERSISTENTUNITCACHE);
+    } else {
+      System.setProperty(UnitCacheSingleton.GWT_PERSISTENTUNITCACHE, originalPersistentUnitCache);
+    }
+    MoreFiles.deleteRecursively(workDir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+    super.tearDown();
+  }
+
+  public void testGenerateJavaScriptCode_concurrentSameAsSerial() throws Exception {
+    JavaToJavaScriptCompiler.concurrentFragments = false;
+    Map<String, String> serialOutput = compile("serial");
+    JavaToJavaScriptCompiler.concurrentFragments = true;
+    Map<String, String> concurrentOutput = compile("concurrent");
+
+    int fragmentCount = 0;
+    int sourceMapCount = 0;
+    for (String path : serialOutput.keySet()) {
+      if (path.contains("/deferredjs/")) {
+        fragmentCount++;
+      } else if (path.contains("_sourceMap")) {
+        sourceMapCount++;
+      }
+    }
+    assertTrue("Expected several fragments, got " + fragmentCount, fragmentCount > 1);
+    assertEquals(fragmentCount + 1, sourceMapCount);
+    assertEquals(serialOutput.keySet(), concurrentOutput.keySet());
+    for (String path : serialOutput.keySet()) {
+      assertEquals(path, serialOutput.get(path), concurrentOutput.get(path));
+    }
+  }
+
+  /**
+   * Compiles the module into a new output directory and returns the contents of each output file,
+   * by its path relative to that directory. The sources are shared, so that the paths recorded in
+   * source maps are the same for every compile.
+   */
+  private Map<String, String> compile(String outputDirName)
+      throws IOException, UnableToCompleteException {
+    File applicationDir = new File(workDir, "src");
+    for (MockResource resource : RESOURCES) {
+      File resourceFile = new File(applicationDir, resource.getPath());
+      resourceFile.getParentFile().mkdirs();
+      Files.write(resourceFile.toPath(), List.of(resource.getContent()), Charsets.UTF_8);
+    }
+    ResourceLoader resourceLoader = ResourceLoaders.forPathAndFallback(
+        ImmutableList.of(applicationDir), ResourceLoaders.fromContextClassLoader());
+
+    File outputDir = new File(workDir, outputDirName);
+    CompilerOptionsImpl options = new CompilerOptionsImpl();
+    options.setModuleNames(ImmutableList.of(MODULE_NAME));
+    options.setWarDir(new File(outputDir, "war"));
+    options.setExtraDir(new File(outputDir, "extra"));
+
+    ModuleDefLoader.clearModuleCache();
+    ModuleDef module =
+        ModuleDefLoader.loadFromResources(TreeLogger.NULL, MODULE_NAME, resourceLoader, true);
+    assertTrue(Compiler.compile(TreeLogger.NULL, options, module));
+
+    Map<String, String> contentsByPath = Maps.newTreeMap();
+    Path root = outputDir.toPath();
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Path path : (Iterable<Path>) paths::iterator) {
+        if (Files.isRegularFile(path)) {
+          contentsByPath.put(root.relativize(path).toString().replace(File.separatorChar, '/'),
+              new String(Files.readAllBytes(path), Charsets.ISO_8859_1));
+        }
+      }
+    }
+    return contentsByPath;
+  }
+}
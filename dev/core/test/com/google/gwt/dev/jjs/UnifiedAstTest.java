@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs;
+
+import com.google.gwt.dev.MinimalRebuildCache;
+import com.google.gwt.dev.PrecompileTaskOptionsImpl;
+import com.google.gwt.dev.jjs.UnifiedAst.AST;
+import com.google.gwt.dev.jjs.ast.AccessModifier;
+import com.google.gwt.dev.jjs.ast.JClassType;
+import com.google.gwt.dev.jjs.ast.JDeclaredType;
+import com.google.gwt.dev.jjs.ast.JField;
+import com.google.gwt.dev.jjs.ast.JPrimitiveType;
+import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.js.ast.JsProgram;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for {@link UnifiedAst}.
+ */
+public class UnifiedAstTest extends TestCase {
+
+  private static final int THREAD_COUNT = 4;
+
+  public void testGetFreshAst_concurrentCallsReturnIndependentEqualAsts() throws Exception {
+    UnifiedAst unifiedAst = new UnifiedAst(new PrecompileTaskOptionsImpl(), createAst(), false,
+        Collections.<String> emptySet(), Collections.<String> emptySet());
+    // The first call hands out the original AST; the following ones deserialize copies of it.
+    AST initialAst = unifiedAst.getFreshAst();
+
+    List<AST> asts = getFreshAstsConcurrently(unifiedAst);
+
+    byte[] expectedBytes = serialize(asts.get(0));
+    for (int i = 0; i < asts.size(); i++) {
+      AST ast = asts.get(i);
+      assertNotSame(initialAst, ast);
+      assertEquals(1, getFoo(ast).getFields().size());
+      assertTrue(Arrays.equals(expectedBytes, serialize(ast)));
+      for (int j = 0; j < i; j++) {
+        assertNotSame(asts.get(j).getJProgram(), ast.getJProgram());
+        assertNotSame(asts.get(j).getJsProgram(), ast.getJsProgram());
+        assertNotSame(getFoo(asts.get(j)), getFoo(ast));
+      }
+    }
+
+    // Changing one copy leaves the others as they were.
+    JClassType foo = getFoo(asts.get(0));
+    foo.addField(new JField(foo.getSourceInfo(), "added", foo, JPrimitiveType.INT, false,
+        JField.Disposition.NONE, AccessModifier.PRIVATE));
+    assertFalse(Arrays.equals(expectedBytes, serialize(asts.get(0))));
+    for (AST ast : asts.subList(1, asts.size())) {
+      assertEquals(1, getFoo(ast).getFields().size());
+      assertTrue(Arrays.equals(expectedBytes, serialize(ast)));
+    }
+  }
+
+  /**
+   * Returns a program with a single class that has a field.
+   */
+  private static AST createAst() {
+    JProgram program = new JProgram(new MinimalRebuildCache());
+    SourceInfo info = SourceOrigin.create(1, "com/example/Foo.java");
+    JClassType type = new JClassType(info, "com.example.Foo", false, false);
+    type.addField(new JField(info, "count", type, JPrimitiveType.INT, false,
+        JField.Disposition.NONE, AccessModifier.PRIVATE));
+    program.addType(type);
+    return new AST(program, new JsProgram());
+  }
+
+  private static JClassType getFoo(AST ast) {
+    for (JDeclaredType type : ast.getJProgram().getDeclaredTypes()) {
+      if (type.getName().equals("com.example.Foo")) {
+        return (JClassType) type;
+      }
+    }
+    throw new AssertionError("com.example.Foo not found");
+  }
+
+  /**
+   * Calls {@link UnifiedAst#getFreshAst()} from {@link #THREAD_COUNT} threads that are released
+   * at the same time.
+   */
+  private static List<AST> getFreshAstsConcurrently(final UnifiedAst unifiedAst)
+      throws Exception {
+    final CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    try {
+      List<Future<AST>> futures = Lists.newArrayList();
+      for (int i = 0; i < THREAD_COUNT; i++) {
+        futures.add(executor.submit(new Callable<AST>() {
+          @Override
+          public AST call() throws Exception {
+            start.await();
+            return unifiedAst.getFreshAst();
+          }
+        }));
+      }
+      start.countDown();
+      List<AST> asts = Lists.newArrayList();
+      for (Future<AST> future : futures) {
+        asts.add(future.get());
+      }
+      return asts;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static byte[] serialize(AST ast) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(ast);
+    out.close();
+    return bytes.toByteArray();
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl;
+
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JMethodBody;
+import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.thirdparty.guava.common.collect.Sets;
+
+import java.util.Set;
+
+/**
+ * Tests {@link ParallelOptimizations}.
+ */
+public class ParallelOptimizationsTest extends JJSTestBase {
+
+  @Override
+  public void setUp() throws Exception {
+    addSnippetClassDecl("static volatile boolean b;");
+    addSnippetClassDecl("static volatile int i;");
+    for (int n = 0; n < 50; n++) {
+      addSnippetClassDecl("static int m" + n + "() { if (false) { i = " + n + "; } "
+          + "return b ? " + n + " : " + n + "; }");
+    }
+  }
+
+  public void testDeadCodeElimination_sameAsSequential() throws Exception {
+    StringBuilder snippet = new StringBuilder();
+    for (int n = 0; n < 50; n++) {
+      snippet.append("i += m" + n + "();\n");
+    }
+    JProgram sequentialProgram = compileSnippet("void", snippet.toString(), true);
+    JProgram parallelProgram = compileSnippet("void", snippet.toString(), true);
+
+    OptimizerContext sequentialCtx = new FullOptimizerContext(sequentialProgram);
+    OptimizerContext parallelCtx = new FullOptimizerContext(parallelProgram);
+    int firstStep = sequentialCtx.getOptimizationStep();
+
+    OptimizerStats sequentialStats =
+        DeadCodeElimination.exec(sequentialProgram, sequentialCtx, false);
+    OptimizerStats parallelStats = DeadCodeElimination.exec(parallelProgram, parallelCtx, true);
+
+    assertTrue(parallelStats.didChange());
+    assertEquals(sequentialStats.getNumMods(), parallelStats.getNumMods());
+    assertEquals(sequentialProgram.toSource(), parallelProgram.toSource());
+    assertEquals(sequentialCtx.getOptimizationStep(), parallelCtx.getOptimizationStep());
+    assertEquals(
+        methodNames(sequentialCtx.getModifiedMethodsSince(firstStep)),
+        methodNames(parallelCtx.getModifiedMethodsSince(firstStep)));
+    assertFalse(findMethod(parallelProgram, "m7").getBody().toSource().contains("if"));
+  }
+
+  public void testDeadCodeElimination_constructorsFirst() throws Exception {
+    addSnippetClassDecl("static class A { A() { if (false) { i = 1; } } }");
+    JProgram program = compileSnippet("void", "new A();", true);
+
+    DeadCodeElimination.exec(program, new FullOptimizerContext(program), true);
+
+    // The constructor is emptied before its callers are visited, so the allocation goes away.
+    JMethodBody body = (JMethodBody) findMethod(program, MAIN_METHOD_NAME).getBody();
+    assertTrue(body.getStatements().isEmpty());
+  }
+
+  private static Set<String> methodNames(Set<JMethod> methods) {
+    Set<String> names = Sets.newHashSet();
+    for (JMethod method : methods) {
+      names.add(method.toString());
+    }
+    return names;
+  }
+}
@@ -212,6 +212,96 @@ public class TypeTightenerTest extends OptimizerTestBase {
         OptimizerTestBase.findField(result.findClass("EntryPoint$C"), "a").toString());
   }
 
+  public void testTightenRecursiveMethod() throws Exception {
+    addSnippetClassDecl("static class A {}");
+    addSnippetClassDecl("static class B extends A {}");
+    addSnippetClassDecl("static class C extends B {}");
+    addSnippetClassDecl("static class D extends B {}");
+    // a and the result only ever receive themselves besides a C or a D.
+    addSnippetClassDecl("static A fun(A a, int n) { return n == 0 ? a : fun(a, n - 1); }");
+    Result result = optimize("void", "fun(new C(), 3);", "fun(new D(), 3);");
+    assertParameterTypes(result, "fun", "EntryPoint$B", "int");
+    assertReturnType(result, "fun", "EntryPoint$B");
+  }
+
+  public void testTightenNeverAssignedField() throws Exception {
+    addClassHierarchy("static class T { A a; A get() { return a; } }");
+    Result result = optimize("void", "new T().get();");
+    // Only the default value flows into the field.
+    assertEquals("null a",
+        OptimizerTestBase.findField(result.findClass("EntryPoint$T"), "a").toString());
+  }
+
+  public void testDoNotTighten_jsniReferencedParameter() throws Exception {
+    addClassHierarchy("static A fun(A a, int n) { return n == 0 ? a : fun(a, n - 1); }");
+    addSnippetClassDecl(
+        "static native void callFromJsni() /*-{",
+        "  @test.EntryPoint::fun(Ltest/EntryPoint$A;I)(null, 0);",
+        "}-*/;");
+    Result result = optimize("void", "fun(new C(), 3);", "fun(new D(), 3);", "callFromJsni();");
+    assertParameterTypes(result, "fun", "EntryPoint$A", "int");
+  }
+
+  public void testDoNotTighten_catchArgument() throws Exception {
+    Result result = optimize("void",
+        "try {",
+        "  throw new IllegalStateException();",
+        "} catch (RuntimeException e) {",
+        "  RuntimeException x = e;",
+        "  throw x;",
+        "}");
+    assertEquals("RuntimeException x",
+        OptimizerTestBase.findLocal(result.findMethod(MAIN_METHOD_NAME), "x").toString());
+  }
+
+  public void testDoNotTighten_exportedMethodParameter() throws Exception {
+    addSnippetImport("jsinterop.annotations.JsMethod");
+    addClassHierarchy(
+        "@JsMethod public static A fun(A a, int n) { return n == 0 ? a : fun(a, n - 1); }");
+    Result result = optimize("void", "fun(new C(), 3);", "fun(new D(), 3);");
+    assertParameterTypes(result, "fun", "EntryPoint$A", "int");
+  }
+
+  public void testDoNotTighten_jsFunctionParameter() throws Exception {
+    addSnippetImport("jsinterop.annotations.JsFunction");
+    addClassHierarchy("@JsFunction interface F { A apply(A a); }");
+    addSnippetClassDecl("static class G implements F { public A apply(A a) { return a; } }");
+    Result result = optimize("void", "new G().apply(new C());");
+    assertParameterTypes(
+        result, "EntryPoint$G.apply(Ltest/EntryPoint$A;)Ltest/EntryPoint$A;", "EntryPoint$A");
+  }
+
+  public void testDoNotTighten_nativeField() throws Exception {
+    addSnippetImport("jsinterop.annotations.JsType");
+    addClassHierarchy("@JsType(isNative = true) static class N { public A a; }");
+    Result result = optimize("void", "N n = new N();", "n.a = new C();");
+    assertEquals("EntryPoint$A a",
+        OptimizerTestBase.findField(result.findClass("EntryPoint$N"), "a").toString());
+  }
+
+  public void testDoNotTighten_volatileField() throws Exception {
+    addClassHierarchy("static class T { volatile A a; }");
+    Result result = optimize("void", "T t = new T();", "t.a = new C();", "A a = t.a;");
+    assertEquals("EntryPoint$A a",
+        OptimizerTestBase.findField(result.findClass("EntryPoint$T"), "a").toString());
+  }
+
+  public void testDoNotTighten_accidentalOverrideParameter() throws Exception {
+    addClassHierarchy(
+        "interface I { Object m(Object o, int n); }",
+        "static class E {",
+        "  public Object m(Object o, int n) { return n == 0 ? o : m(o, n - 1); }",
+        "}",
+        "static class F extends E implements I {}");
+    Result result = optimize("void",
+        "new E().m(new C(), 3);",
+        "I i = new F();",
+        "i.m(new D(), 3);");
+    // F.m is a synthetic accidental override that forwards to E.m.
+    assertParameterTypes(
+        result, "EntryPoint$E.m(Ljava/lang/Object;I)Ljava/lang/Object;", "Object", "int");
+  }
+
   public void testDoNotTighten_staticDispatch() throws Exception {
     addSnippetClassDecl("abstract static class A { public void m() {} }");
     addSnippetClassDecl("static class B extends A { public void m() { super.m(); }}");
@@ -242,4 +332,15 @@ public class TypeTightenerTest extends OptimizerTestBase {
     }
     return didChange;
   }
+
+  /**
+   * Adds the classes A, B extends A, and C and D extends B, followed by {@code decl}.
+   */
+  private void addClassHierarchy(String... decl) {
+    addSnippetClassDecl("static class A {}");
+    addSnippetClassDecl("static class B extends A {}");
+    addSnippetClassDecl("static class C extends B {}");
+    addSnippetClassDecl("static class D extends B {}");
+    addSnippetClassDecl(decl);
+  }
 }
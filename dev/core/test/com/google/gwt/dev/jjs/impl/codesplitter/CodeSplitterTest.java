@@ -89,6 +89,7 @@ public class CodeSplitterTest extends FullCompileTestBase {
       "public static void functionAllocateFooString() { new Foo(\"Hello\"); }";
 
   public int leftOverMergeSize = 0;
+  public int maxFragmentSize = 0;
   public int expectedFragmentCount = 0;
 
   private ConfigurationProperty initialSequenceProp =
@@ -702,7 +703,7 @@ public class CodeSplitterTest extends FullCompileTestBase {
       throws UnableToCompleteException {
     currentJjsMap = super.compileSnippetToJS(code).getLeft();
     CodeSplitter.exec(logger, jProgram, jsProgram, currentJjsMap, expectedFragmentCount,
-        leftOverMergeSize,
+        leftOverMergeSize, maxFragmentSize,
        NULL_RECORDER);
     return null;
   }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl.codesplitter;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long fragment partitioning takes for growing numbers of split points, using
+ * synthetic similarity data. Not run as part of the test suite; run {@link #main} directly.
+ * <p>
+ * Arguments (all optional): the number of split points to start from, the number to stop at
+ * (each run doubles the count), the number of other split points each one shares code with and
+ * the target number of fragments.
+ */
+public class RunAsyncClustererBenchmark {
+
+  private static final int WARMUP_RUNS = 3;
+  private static final int MEASURED_RUNS = 5;
+
+  public static void main(String[] args) {
+    int fromCount = args.length > 0 ? Integer.parseInt(args[0]) : 125;
+    int toCount = args.length > 1 ? Integer.parseInt(args[1]) : 4000;
+    int neighborCount = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+    int fragmentCount = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+
+    System.out.println("splitPoints\tfragments\tmillis");
+    for (int count = fromCount; count <= toCount; count *= 2) {
+      RunAsyncClusterer clusterer =
+          RunAsyncClustererTest.createRandomClusterer(new Random(count), count, neighborCount);
+      List<BitSet> singletons = RunAsyncClustererTest.singletons(count);
+
+      int clusterCount = 0;
+      for (int i = 0; i < WARMUP_RUNS; i++) {
+        clusterCount = partition(clusterer, singletons, fragmentCount);
+      }
+      long start = System.nanoTime();
+      for (int i = 0; i < MEASURED_RUNS; i++) {
+        partition(clusterer, singletons, fragmentCount);
+      }
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) / MEASURED_RUNS;
+      System.out.println(count + "\t" + clusterCount + "\t" + millis);
+    }
+  }
+
+  /**
+   * Merges by similarity and then sizes every fragment, as
+   * {@link MergeBySimilarityFragmentPartitionStrategy} does when a minimum size is set.
+   */
+  private static int partition(RunAsyncClusterer clusterer, List<BitSet> singletons,
+      int fragmentCount) {
+    List<BitSet> clusters = clusterer.cluster(singletons, fragmentCount, 0);
+    long totalSize = 0;
+    for (BitSet cluster : clusters) {
+      totalSize += clusterer.getPayloadSize(cluster);
+    }
+    assert totalSize >= 0;
+    return clusters.size();
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.jjs.impl.codesplitter;
+
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link RunAsyncClusterer}.
+ */
+public class RunAsyncClustererTest extends TestCase {
+
+  public void testPayloadSize() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(3);
+    clusterer.addExclusivePayload(0, 10);
+    clusterer.addExclusivePayload(1, 20);
+    clusterer.addSharedPayload(0, 1, 5);
+    clusterer.addSharedPayload(1, 2, 7);
+
+    assertEquals(10, clusterer.getPayloadSize(bits(0)));
+    assertEquals(35, clusterer.getPayloadSize(bits(0, 1)));
+    assertEquals(42, clusterer.getPayloadSize(bits(0, 1, 2)));
+  }
+
+  public void testMergesMostSimilarFirst() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(4);
+    clusterer.addSharedPayload(0, 1, 10);
+    clusterer.addSharedPayload(2, 3, 30);
+    clusterer.addSharedPayload(1, 2, 20);
+
+    assertEquals(Lists.newArrayList(bits(0), bits(1), bits(2, 3)),
+        clusterer.cluster(singletons(4), 3, 0));
+    assertEquals(Lists.newArrayList(bits(0), bits(1, 2, 3)),
+        clusterer.cluster(singletons(4), 2, 0));
+    assertEquals(Lists.newArrayList(bits(0, 1, 2, 3)),
+        clusterer.cluster(singletons(4), 1, 0));
+  }
+
+  public void testSharedPayloadIsSummedOnMerge() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(4);
+    // 0 shares a little with each of 2 and 3, but once they are merged that adds up to more than
+    // what it shares with 1.
+    clusterer.addSharedPayload(2, 3, 50);
+    clusterer.addSharedPayload(0, 1, 15);
+    clusterer.addSharedPayload(0, 2, 10);
+    clusterer.addSharedPayload(0, 3, 10);
+
+    assertEquals(Lists.newArrayList(bits(0, 2, 3), bits(1)),
+        clusterer.cluster(singletons(4), 2, 0));
+  }
+
+  public void testDoesNotMergeUnrelated() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(3);
+    clusterer.addExclusivePayload(0, 10);
+    clusterer.addExclusivePayload(1, 10);
+    clusterer.addExclusivePayload(2, 10);
+
+    assertEquals(singletons(3), clusterer.cluster(singletons(3), 1, 0));
+  }
+
+  public void testMaxClusterSize() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(3);
+    clusterer.addExclusivePayload(0, 100);
+    clusterer.addExclusivePayload(1, 100);
+    clusterer.addExclusivePayload(2, 10);
+    clusterer.addSharedPayload(0, 1, 30);
+    clusterer.addSharedPayload(1, 2, 20);
+
+    // 0 and 1 share the most, but together they would be too big.
+    assertEquals(Lists.newArrayList(bits(0), bits(1, 2)),
+        clusterer.cluster(singletons(3), 2, 200));
+    assertEquals(Lists.newArrayList(bits(0, 1), bits(2)),
+        clusterer.cluster(singletons(3), 2, 0));
+  }
+
+  public void testInitialClusters() {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(5);
+    clusterer.addSharedPayload(0, 1, 100);
+    clusterer.addSharedPayload(2, 4, 5);
+    clusterer.addSharedPayload(3, 4, 5);
+
+    // Runasync 0 and 1 are in different groups, 2 and 3 are grouped together and share 10 with 4.
+    List<BitSet> initialClusters = Lists.newArrayList(bits(0), bits(2, 3), bits(4));
+    assertEquals(Lists.newArrayList(bits(0), bits(2, 3, 4)),
+        clusterer.cluster(initialClusters, 1, 0));
+  }
+
+  /**
+   * Clusters a thousand runAsyncs that each share code with a few others down to a few fragments,
+   * which must not take long.
+   */
+  public void testManyRunAsyncs() {
+    RunAsyncClusterer clusterer = createRandomClusterer(new Random(42), 1000, 8);
+    List<BitSet> clusters = clusterer.cluster(singletons(1000), 20, 0);
+
+    assertTrue(clusters.size() >= 20);
+    BitSet all = new BitSet();
+    for (BitSet cluster : clusters) {
+      assertFalse(all.intersects(cluster));
+      all.or(cluster);
+    }
+    assertEquals(1000, all.cardinality());
+  }
+
+  /**
+   * Builds a clusterer for {@code runAsyncCount} runAsyncs, each sharing code with about
+   * {@code neighborCount} others, mostly ones with nearby ids.
+   */
+  static RunAsyncClusterer createRandomClusterer(Random random, int runAsyncCount,
+      int neighborCount) {
+    RunAsyncClusterer clusterer = new RunAsyncClusterer(runAsyncCount);
+    for (int id = 0; id < runAsyncCount; id++) {
+      clusterer.addExclusivePayload(id, random.nextInt(10000));
+      for (int i = 0; i < neighborCount; i++) {
+        int otherId = random.nextInt(4) == 0
+            ? random.nextInt(runAsyncCount)
+            : Math.min(runAsyncCount - 1, id + 1 + random.nextInt(20));
+        if (otherId != id) {
+          clusterer.addSharedPayload(id, otherId, random.nextInt(1000));
+        }
+      }
+    }
+    return clusterer;
+  }
+
+  static List<BitSet> singletons(int count) {
+    List<BitSet> singletons = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      singletons.add(bits(i));
+    }
+    return singletons;
+  }
+
+  private static BitSet bits(int... ids) {
+    BitSet bits = new BitSet();
+    for (int id : ids) {
+      bits.set(id);
+    }
+    return bits;
+  }
+}
@@ -65,6 +65,28 @@ public class ResourceOracleImplTest extends AbstractResourceOrientedTestBase {
     }
   }
 
+  /**
+   * Holds up its scan, so that entries after it on the class path finish scanning first.
+   */
+  private static class SlowClassPathEntry extends MockClassPathEntry {
+    public SlowClassPathEntry() {
+      super("/slow/");
+      addResource("org/example/bar/client/BarClient2.txt");
+      addResource("org/example/foo/client/BarClient1.txt");
+    }
+
+    @Override
+    public Map<AbstractResource, ResourceResolution> findApplicableResources(
+        TreeLogger logger, PathPrefixSet pathPrefixes) {
+      try {
+        Thread.sleep(100);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return super.findApplicableResources(logger, pathPrefixes);
+    }
+  }
+
   private static class ResourceOracleSnapshot {
     private final Set<String> pathNames;
     private final Set<Resource> resources;
@@ -264,6 +286,41 @@ public class ResourceOracleImplTest extends AbstractResourceOrientedTestBase {
         makeRerootBarPrefix());
   }
 
+  /**
+   * Test that the first class path entry that has a resource wins, even though entries are
+   * scanned concurrently and the slow first entry finishes last.
+   */
+  public void testConcurrentScanHonorsClassPathOrder() throws IOException,
+      URISyntaxException {
+    TreeLogger logger = createTestTreeLogger();
+    ClassPathEntry slow = new SlowClassPathEntry();
+    ClassPathEntry cpe2dir = getClassPathEntry2AsDirectory();
+    ClassPathEntry cpe1jar = getClassPathEntry1AsJar();
+    ClassPathEntry cpe2zip = getClassPathEntry2AsZip();
+    ClassPathEntry cpe1dir = getClassPathEntry1AsDirectory();
+    ClassPathEntry cpe2jar = getClassPathEntry2AsJar();
+
+    for (int i = 0; i < 3; i++) {
+      ResourceOracleImpl oracle =
+          createResourceOracle(slow, cpe2dir, cpe1jar, cpe2zip, cpe1dir, cpe2jar);
+      ResourceOracleSnapshot s = refreshAndSnapshot(logger, oracle);
+      s.assertCollectionsConsistent(10);
+      // In every entry but cpe1, and shadowed by the slow one.
+      s.assertPathIncluded("org/example/bar/client/BarClient2.txt", slow);
+      s.assertPathIncluded("org/example/foo/client/BarClient1.txt", slow);
+      // Only in cpe2, and shadowed by the directory that comes first.
+      s.assertPathIncluded("org/example/bar/client/BarClient3.txt", cpe2dir);
+      s.assertPathIncluded("com/google/gwt/i18n/client/Messages.java", cpe2dir);
+      // Only in cpe1, and shadowed by the jar that comes first.
+      s.assertPathIncluded("org/example/bar/client/BarClient1.txt", cpe1jar);
+      s.assertPathIncluded("org/example/bar/client/etc/BarEtc.txt", cpe1jar);
+      s.assertPathIncluded("org/example/foo/client/FooClient.java", cpe1jar);
+      s.assertPathIncluded("com/google/gwt/user/client/Command.java", cpe1jar);
+      s.assertPathIncluded("com/google/gwt/user/client/Timer.java", cpe1jar);
+      s.assertPathIncluded("com/google/gwt/user/client/ui/Widget.java", cpe1jar);
+    }
+  }
+
   public void testNoClassPathEntries() {
     TreeLogger logger = createTestTreeLogger();
     ResourceOracleImpl oracle = createResourceOracle(new MOCK_CPE0());
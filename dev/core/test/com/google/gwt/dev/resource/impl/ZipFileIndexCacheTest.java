@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.resource.impl;
+
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.io.MoreFiles;
+import com.google.gwt.thirdparty.guava.common.io.RecursiveDeleteOption;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ZipFileIndexCache}.
+ */
+public class ZipFileIndexCacheTest extends TestCase {
+
+  private static final List<String> NAMES =
+      ImmutableList.of("com/example/Foo.java", "com/example/Bar.class", "café.txt");
+
+  private File cacheDir;
+  private File zipFile;
+
+  @Override
+  protected void setUp() throws Exception {
+    cacheDir = Files.createTempDirectory("zipIndexCache").toFile();
+    zipFile = new File(cacheDir, "lib.jar").getAbsoluteFile();
+  }
+
+  @Override
+  protected void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(cacheDir.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  public void testReadWrite() {
+    ZipFileIndexCache cache = new ZipFileIndexCache(new File(cacheDir, "index"));
+    assertNull(cache.read(zipFile, 100, 42));
+
+    cache.write(TreeLogger.NULL, zipFile, 100, 42, NAMES);
+    assertEquals(NAMES, cache.read(zipFile, 100, 42));
+    assertEquals(NAMES, new ZipFileIndexCache(new File(cacheDir, "index"))
+        .read(zipFile, 100, 42));
+  }
+
+  public void testRead_changedJar() {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    cache.write(TreeLogger.NULL, zipFile, 100, 42, NAMES);
+
+    assertNull(cache.read(zipFile, 101, 42));
+    assertNull(cache.read(zipFile, 100, 43));
+    assertNull(cache.read(new File(cacheDir, "other.jar").getAbsoluteFile(), 100, 42));
+  }
+
+  public void testRead_corruptFile() throws IOException {
+    ZipFileIndexCache cache = new ZipFileIndexCache(cacheDir);
+    cache.write(TreeLogger.NULL, zipFile, 100, 42, NAMES);
+    for (File file : cacheDir.listFiles()) {
+      byte[] bytes = Files.readAllBytes(file.toPath());
+      Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 3));
+    }
+
+    assertNull(cache.read(zipFile, 100, 42));
+  }
+
+  public void testDeletesUnusedFiles() throws IOException {
+    File indexDir = new File(cacheDir, "index");
+    new ZipFileIndexCache(indexDir).write(TreeLogger.NULL, zipFile, 100, 42, NAMES);
+    File unused = new File(indexDir, "unused.idx");
+    File leftover = new File(indexDir, "zipIndex123.tmp");
+    File other = new File(indexDir, "other.txt");
+    long longAgo = System.currentTimeMillis() - ZipFileIndexCache.MAX_UNUSED_MILLIS - 60000;
+    for (File file : Arrays.asList(unused, leftover, other)) {
+      Files.write(file.toPath(), new byte[1]);
+      assertTrue(file.setLastModified(longAgo));
+    }
+
+    ZipFileIndexCache cache = new ZipFileIndexCache(indexDir);
+    assertEquals(NAMES, cache.read(zipFile, 100, 42));
+    assertFalse(unused.exists());
+    assertFalse(leftover.exists());
+    assertTrue(other.exists());
+  }
+
+  public void testDisabled() {
+    ZipFileIndexCache cache = new ZipFileIndexCache(null);
+    cache.write(TreeLogger.NULL, zipFile, 100, 42, NAMES);
+
+    assertNull(cache.read(zipFile, 100, 42));
+    assertEquals(0, cacheDir.listFiles().length);
+  }
+}
@@ -32,6 +32,7 @@ import com.google.gwt.dev.javac.StandardGeneratorContext;
 import com.google.gwt.dev.resource.Resource;
 import com.google.gwt.thirdparty.guava.common.io.MoreFiles;
 import com.google.gwt.thirdparty.guava.common.io.RecursiveDeleteOption;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.Uninterruptibles;
 
 import junit.framework.TestCase;
 
@@ -40,12 +41,14 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * A wide variety of tests on {@link StandardGeneratorContext}.
@@ -60,6 +63,38 @@ public class StandardGeneratorContextTest extends TestCase {
     }
   }
 
+  /**
+   * Generates an implementation of the requested type that uses a helper type, which
+   * {@link SecondGenerator} generates too.
+   */
+  public static class FirstGenerator extends Generator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName) {
+      createType(logger, context, "Helper");
+      return createType(logger, context, "FirstImpl");
+    }
+
+    String createType(TreeLogger logger, GeneratorContext context, String simpleTypeName) {
+      PrintWriter pw = context.tryCreate(logger, "com.example", simpleTypeName);
+      if (pw != null) {
+        pw.println("package com.example; public class " + simpleTypeName + " {}");
+        context.commit(logger, pw);
+      }
+      return "com.example." + simpleTypeName;
+    }
+  }
+
+  /**
+   * Like {@link FirstGenerator}, with the same helper type.
+   */
+  public static class SecondGenerator extends FirstGenerator {
+    @Override
+    public String generate(TreeLogger logger, GeneratorContext context, String typeName) {
+      createType(logger, context, "Helper");
+      return createType(logger, context, "SecondImpl");
+    }
+  }
+
   private static class MockPropertyOracle implements PropertyOracle {
     @Override
     public ConfigurationProperty getConfigurationProperty(String name) {
@@ -99,6 +134,82 @@ public class StandardGeneratorContextTest extends TestCase {
     genCtx.setCurrentGenerator(Generator.class);
   }
 
+  public void testFork_discardReleasesTypeNames() {
+    StandardGeneratorContext fork1 = fork();
+    StandardGeneratorContext fork2 = fork();
+    assertNotNull(fork1.tryCreate(mockLogger, "com.example", "Generated"));
+    assertNull(fork2.tryCreate(mockLogger, "com.example", "Generated"));
+    assertNull(genCtx.tryCreate(mockLogger, "com.example", "Generated"));
+
+    genCtx.discard(fork1);
+    assertNotNull(fork2.tryCreate(mockLogger, "com.example", "Generated"));
+  }
+
+  public void testFork_generatorsSharingTypeCollide() throws UnableToCompleteException {
+    StandardGeneratorContext fork1 = fork();
+    StandardGeneratorContext fork2 = fork();
+    assertEquals("com.example.FirstImpl",
+        fork1.runGenerator(mockLogger, FirstGenerator.class, "com.example.First"));
+    assertEquals("com.example.SecondImpl",
+        fork2.runGenerator(mockLogger, SecondGenerator.class, "com.example.Second"));
+
+    assertFalse(fork1.collidedWithOtherFork());
+    assertTrue(fork2.collidedWithOtherFork());
+  }
+
+  public void testFork_generatorsSharingTypeCollideConcurrently() throws Exception {
+    for (int i = 0; i < 20; i++) {
+      final StandardGeneratorContext fork1 = fork();
+      final StandardGeneratorContext fork2 = fork();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread thread = new Thread() {
+        @Override
+        public void run() {
+          Uninterruptibles.awaitUninterruptibly(start);
+          try {
+            fork2.runGenerator(mockLogger, SecondGenerator.class, "com.example.Second");
+          } catch (UnableToCompleteException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      };
+      thread.start();
+      start.countDown();
+      fork1.runGenerator(mockLogger, FirstGenerator.class, "com.example.First");
+      thread.join();
+
+      // Whichever generator ran second collided, so the forks are never both merged.
+      assertTrue(fork1.collidedWithOtherFork() != fork2.collidedWithOtherFork());
+      genCtx.discard(fork1);
+      genCtx.discard(fork2);
+    }
+  }
+
+  public void testFork_typesCreatedBeforeForkingDontCollide() throws UnableToCompleteException {
+    assertNotNull(genCtx.tryCreate(mockLogger, "com.example", "Helper"));
+    StandardGeneratorContext fork1 = fork();
+    StandardGeneratorContext fork2 = fork();
+    fork1.runGenerator(mockLogger, FirstGenerator.class, "com.example.First");
+    fork2.runGenerator(mockLogger, SecondGenerator.class, "com.example.Second");
+
+    assertFalse(fork1.collidedWithOtherFork());
+    assertFalse(fork2.collidedWithOtherFork());
+  }
+
+  public void testFork_mergeAddsCommittedResources()
+      throws UnableToCompleteException, IOException {
+    StandardGeneratorContext fork = fork();
+    OutputStream os = fork.tryCreateResource(mockLogger, "forked.txt");
+    os.write(new byte[] {1, 2, 3});
+    fork.commitResource(mockLogger, os);
+    assertEquals(0, artifactSet.size());
+
+    genCtx.merge(fork);
+    genCtx.finish(mockLogger);
+    assertEquals(1, artifactSet.size());
+    assertEquals("forked.txt", artifactSet.find(GeneratedResource.class).first().getPartialPath());
+  }
+
   public void testTryCreateResource_badFileName() {
     try {
       genCtx.tryCreateResource(mockLogger, null);
@@ -297,6 +408,13 @@ public class StandardGeneratorContextTest extends TestCase {
     }
   }
 
+  private StandardGeneratorContext fork() {
+    StandardGeneratorContext fork = genCtx.fork();
+    fork.setPropertyOracle(mockPropOracle);
+    fork.setCurrentGenerator(Generator.class);
+    return fork;
+  }
+
   private void testTryCreateResource_normalCompletion(String name)
       throws UnableToCompleteException, IOException {
     OutputStream os = genCtx.tryCreateResource(mockLogger, name);
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util;
+
+import com.google.gwt.dev.jjs.SourceOrigin;
+import com.google.gwt.dev.jjs.ast.AccessModifier;
+import com.google.gwt.dev.jjs.ast.JBinaryOperation;
+import com.google.gwt.dev.jjs.ast.JBinaryOperator;
+import com.google.gwt.dev.jjs.ast.JClassType;
+import com.google.gwt.dev.jjs.ast.JDeclaredType;
+import com.google.gwt.dev.jjs.ast.JField;
+import com.google.gwt.dev.jjs.ast.JFieldRef;
+import com.google.gwt.dev.jjs.ast.JMethod;
+import com.google.gwt.dev.jjs.ast.JMethodBody;
+import com.google.gwt.dev.jjs.ast.JParameter;
+import com.google.gwt.dev.jjs.ast.JPrimitiveType;
+import com.google.gwt.dev.jjs.ast.JProgram;
+import com.google.gwt.dev.jjs.ast.JReturnStatement;
+import com.google.gwt.dev.jjs.ast.JThisRef;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link CompactObjectOutputStream} and {@link CompactObjectInputStream}.
+ */
+public class CompactObjectStreamTest extends TestCase {
+
+  private enum Color {
+    RED, GREEN
+  }
+
+  private static class Node implements Serializable {
+    private final String name;
+    private final Color color;
+    private final int[] values;
+    private final Node next;
+
+    Node(String name, Color color, int[] values, Node next) {
+      this.name = name;
+      this.color = color;
+      this.values = values;
+      this.next = next;
+    }
+  }
+
+  public void testRoundTrip() throws IOException, ClassNotFoundException {
+    List<Node> nodes = createNodes();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new CompactObjectOutputStream(bytes);
+    out.writeObject(nodes);
+    out.close();
+
+    @SuppressWarnings("unchecked")
+    List<Node> result = (List<Node>) new CompactObjectInputStream(
+        new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    assertEquals(nodes.size(), result.size());
+    for (int i = 0; i < nodes.size(); i++) {
+      Node expected = nodes.get(i);
+      Node actual = result.get(i);
+      assertEquals(expected.name, actual.name);
+      assertSame(expected.color, actual.color);
+      assertTrue(Arrays.equals(expected.values, actual.values));
+      assertEquals(expected.next == null, actual.next == null);
+    }
+    assertSame(result.get(0), result.get(1).next);
+  }
+
+  public void testSmallerThanObjectOutputStream() throws IOException {
+    List<Node> nodes = createNodes();
+
+    ByteArrayOutputStream compactBytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new CompactObjectOutputStream(compactBytes);
+    out.writeObject(nodes);
+    out.close();
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    out = new ObjectOutputStream(bytes);
+    out.writeObject(nodes);
+    out.close();
+
+    assertTrue(compactBytes.size() < bytes.size());
+  }
+
+  /**
+   * Checks that a GWT AST unit, which relies on custom serialization hooks, is read back the same
+   * way as from an ObjectOutputStream, and takes less room.
+   */
+  public void testGwtAst_sameAsObjectOutputStream() throws IOException, ClassNotFoundException {
+    List<JDeclaredType> types = createTypes();
+    byte[] compactBytes = serializeTypes(types, true);
+    byte[] bytes = serializeTypes(types, false);
+
+    List<JDeclaredType> compactResult = JProgram.deserializeTypes(
+        new CompactObjectInputStream(new ByteArrayInputStream(compactBytes)));
+    List<JDeclaredType> result = JProgram.deserializeTypes(
+        new StringInterningObjectInputStream(new ByteArrayInputStream(bytes)));
+    assertTrue(Arrays.equals(serializeTypes(result, false),
+        serializeTypes(compactResult, false)));
+    assertEquals("com.example.Foo", compactResult.get(0).getName());
+    assertEquals(3, compactResult.get(0).getMethods().size());
+    assertTrue(compactBytes.length < bytes.length);
+  }
+
+  private static byte[] serializeTypes(List<JDeclaredType> types, boolean compact)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out =
+        compact ? new CompactObjectOutputStream(bytes) : new ObjectOutputStream(bytes);
+    JProgram.serializeTypes(types, out);
+    out.close();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Returns a class with a field and methods that add their parameter to it.
+   */
+  private static List<JDeclaredType> createTypes() {
+    SourceOrigin info = SourceOrigin.create(1, "com/example/Foo.java");
+    JClassType type = new JClassType(info, "com.example.Foo", false, false);
+    JField field = new JField(info, "count", type, JPrimitiveType.INT, false,
+        JField.Disposition.NONE, AccessModifier.PRIVATE);
+    type.addField(field);
+    for (int i = 0; i < 3; i++) {
+      JMethod method = new JMethod(info, "add" + i, type, JPrimitiveType.INT, false, false, false,
+          AccessModifier.PUBLIC);
+      JParameter parameter = method.createParameter(info, "value", JPrimitiveType.INT);
+      method.freezeParamTypes();
+      JMethodBody body = new JMethodBody(info);
+      body.getBlock().addStmt(new JReturnStatement(info,
+          new JBinaryOperation(info, JPrimitiveType.INT, JBinaryOperator.ADD,
+              parameter.makeRef(info), new JFieldRef(info, new JThisRef(info, type), field, type))));
+      method.setBody(body);
+      type.addMethod(method);
+    }
+    return Collections.<JDeclaredType>singletonList(type);
+  }
+
+  private static List<Node> createNodes() {
+    List<Node> nodes = new ArrayList<Node>();
+    Node first = new Node("first", Color.RED, new int[] {1, 2}, null);
+    nodes.add(first);
+    nodes.add(new Node("second", Color.GREEN, new int[0], first));
+    return nodes;
+  }
+}
@@ -15,9 +15,19 @@
  */
 package com.google.gwt.dev.util;
 
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+
 import junit.framework.TestCase;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Tests {@link DiskCache}.
@@ -49,6 +59,62 @@ public class DiskCacheTest extends TestCase {
     }
   }
 
+  public void testConcurrentAccess() throws Exception {
+    final byte[] big = new byte[100 * 1024];
+    for (int i = 1; i < big.length; ++i) {
+      big[i] = (byte) (i * 31 + big[i - 1]);
+    }
+    final long bigToken = diskCache.transferFromStream(new ByteArrayInputStream(big));
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Callable<Void>> tasks = Lists.newArrayList();
+      for (int t = 0; t < 8; ++t) {
+        final int thread = t;
+        tasks.add(new Callable<Void>() {
+          @Override
+          public Void call() throws IOException {
+            for (int i = 0; i < 100; ++i) {
+              String value = "thread " + thread + " value " + i;
+              long token = i % 10 == 0
+                  ? diskCache.transferFromStream(new ByteArrayInputStream(big))
+                  : diskCache.writeString(value);
+              if (i % 10 == 0) {
+                assertTrue(Arrays.equals(big, diskCache.readByteArray(token)));
+              } else {
+                assertEquals(value, diskCache.readString(token));
+              }
+              ByteArrayOutputStream out = new ByteArrayOutputStream();
+              diskCache.transferToStream(bigToken, out);
+              assertTrue(Arrays.equals(big, out.toByteArray()));
+            }
+            return null;
+          }
+        });
+      }
+      for (Future<Void> result : executor.invokeAll(tasks)) {
+        result.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Interrupting a thread closes the underlying channel; the cache should recover.
+   */
+  public void testInterrupted() {
+    long token = diskCache.writeString("before");
+    Thread.currentThread().interrupt();
+    try {
+      assertEquals("before", diskCache.readString(token));
+      assertTrue(Thread.currentThread().isInterrupted());
+    } finally {
+      Thread.interrupted();
+    }
+    assertEquals("after", diskCache.readString(diskCache.writeString("after")));
+  }
+
   public void testStrings() {
     String a = "";
     String b = "abjdsfkl;jasdf";
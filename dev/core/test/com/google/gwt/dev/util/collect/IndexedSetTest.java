@@ -0,0 +1,77 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.dev.util.collect;
+
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableList;
+import com.google.gwt.thirdparty.guava.common.collect.ImmutableSet;
+
+import org.apache.commons.collections.set.AbstractTestSet;
+
+import java.util.Set;
+
+/**
+ * Test for {@link IndexedSet}.
+ */
+public class IndexedSetTest extends AbstractTestSet {
+  public IndexedSetTest(String testName) {
+    super(testName);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public Set makeEmptySet() {
+    return new IndexedSet(new IndexedSet.Index());
+  }
+
+  @Override
+  public boolean isFailFastSupported() {
+    return false;
+  }
+
+  @Override
+  public boolean isNullSupported() {
+    return false;
+  }
+
+  @Override
+  public boolean isTestSerialization() {
+    return false;
+  }
+
+  public void testSharedIndex() {
+    IndexedSet.Index index = new IndexedSet.Index();
+    IndexedSet<String> abc = new IndexedSet<String>(index);
+    abc.addAll(ImmutableList.of("c", "a", "b"));
+    IndexedSet<String> copy = new IndexedSet<String>(abc);
+    copy.add("d");
+    copy.remove("a");
+
+    assertEquals(ImmutableList.of("c", "a", "b"), ImmutableList.copyOf(abc));
+    assertEquals(ImmutableList.of("c", "b", "d"), ImmutableList.copyOf(copy));
+    assertEquals(4, index.size());
+
+    assertEquals(ImmutableSet.of("d"), IndexedSet.difference(copy, abc));
+    assertEquals(ImmutableSet.of("a"), IndexedSet.difference(abc, copy));
+    assertFalse(abc.containsAll(copy));
+
+    assertTrue(copy.retainAll(abc));
+    assertEquals(ImmutableSet.of("b", "c"), copy);
+    assertTrue(abc.containsAll(copy));
+    assertTrue(abc.removeAll(copy));
+    assertEquals(ImmutableSet.of("a"), abc);
+    assertFalse(abc.removeAll(copy));
+    assertTrue(abc.addAll(copy));
+    assertEquals(3, abc.size());
+  }
+}
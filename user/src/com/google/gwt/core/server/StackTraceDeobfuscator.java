@@ -18,6 +18,11 @@ package com.google.gwt.core.server;
 import com.google.gwt.thirdparty.debugging.sourcemap.OriginalMapping;
 import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapConsumerFactory;
 import com.google.gwt.thirdparty.debugging.sourcemap.SourceMapping;
+import com.google.gwt.thirdparty.guava.common.annotations.VisibleForTesting;
+import com.google.gwt.thirdparty.guava.common.cache.Cache;
+import com.google.gwt.thirdparty.guava.common.cache.CacheBuilder;
+import com.google.gwt.thirdparty.guava.common.cache.Weigher;
+import com.google.gwt.thirdparty.guava.common.util.concurrent.UncheckedExecutionException;
 
 import java.io.BufferedReader;
 import java.io.File;
@@ -32,7 +37,9 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -143,24 +150,97 @@ public abstract class StackTraceDeobfuscator {
     }
   }
 
+  /**
+   * A parsed source map and the size of the file it was parsed from.
+   */
+  private static class LoadedSourceMap {
+    private final SourceMapping sourceMapping;
+    private final int size;
+
+    LoadedSourceMap(SourceMapping sourceMapping, int size) {
+      this.sourceMapping = sourceMapping;
+      this.size = size;
+    }
+  }
+
+  /**
+   * The default for {@link #setSymbolMapCacheMaxBytes}.
+   */
+  public static final long DEFAULT_SYMBOL_MAP_CACHE_MAX_BYTES = 64L * 1024 * 1024;
+
+  /**
+   * The default for {@link #setSourceMapCacheMaxChars}.
+   */
+  public static final long DEFAULT_SOURCE_MAP_CACHE_MAX_CHARS = 100L * 1000 * 1000;
+
   private static final Pattern JsniRefPattern = Pattern.compile("@?([^:]+)::([^(]+)(\\((.*)\\))?");
   private static final Pattern fragmentIdPattern = Pattern.compile(".*(\\d+)\\.js");
   private static final int LINE_NUMBER_UNKNOWN = -1;
   private static final String SYMBOL_DATA_UNKNOWN = "";
 
-  private final Map<String, SourceMapping> sourceMaps = new HashMap<String, SourceMapping>();
+  private volatile Cache<String, LoadedSourceMap> sourceMaps =
+      createSourceMapCache(DEFAULT_SOURCE_MAP_CACHE_MAX_CHARS);
   private final SymbolCache symbolCache = new SymbolCache();
   private boolean lazyLoad = false;
 
+  /**
+   * The method symbols of each recently used permutation, by strong name. Reads don't lock;
+   * updates and {@link #symbolMapIndexBytes} are guarded by this map.
+   */
+  private final ConcurrentHashMap<String, SymbolMapIndex> symbolMapIndexes =
+      new ConcurrentHashMap<String, SymbolMapIndex>();
+  private long symbolMapIndexBytes = 0;
+  private volatile long symbolMapCacheMaxBytes = DEFAULT_SYMBOL_MAP_CACHE_MAX_BYTES;
+
+  /**
+   * Strong names whose symbol map has no index and is loaded lazily.
+   */
+  private final Set<String> strongNamesWithoutIndex = ConcurrentHashMap.newKeySet();
+
   /**
    * If set to {@code true}, only symbols requested to be deobfuscated are cached and the rest is
    * discarded. This provides a large memory savings at the expense of occasional extra disk reads.
-   * Note that, this will only have effect on symbol maps that haven't been fully loaded yet.
+   * Note that, this will only have effect on symbol maps that haven't been fully loaded yet, and
+   * not on those that have a <code>.symbolMapIndex</code> file, which are already compact.
    */
   public void setLazyLoad(boolean lazyLoad) {
     this.lazyLoad = lazyLoad;
   }
 
+  /**
+   * Sets roughly how much memory may be used to keep symbol maps loaded, across all permutations.
+   * When the limit is exceeded, the least recently used symbol maps are dropped and read again
+   * when needed. The most recently loaded symbol map is always kept. Defaults to
+   * {@value #DEFAULT_SYMBOL_MAP_CACHE_MAX_BYTES} bytes.
+   */
+  public void setSymbolMapCacheMaxBytes(long maxBytes) {
+    this.symbolMapCacheMaxBytes = maxBytes;
+  }
+
+  /**
+   * Sets the maximum total size, in characters, of the source map files whose parsed form is kept
+   * in memory across permutations and fragments. The least recently used source maps are dropped
+   * first. Defaults to {@value #DEFAULT_SOURCE_MAP_CACHE_MAX_CHARS}. Clears the source map cache
+   * and its statistics.
+   */
+  public void setSourceMapCacheMaxChars(long maxChars) {
+    sourceMaps = createSourceMapCache(maxChars);
+  }
+
+  /**
+   * Returns how many times a parsed source map was found in the cache.
+   */
+  public long getSourceMapCacheHitCount() {
+    return sourceMaps.stats().hitCount();
+  }
+
+  /**
+   * Returns how many times a source map had to be read and parsed, because it wasn't in the cache.
+   */
+  public long getSourceMapCacheMissCount() {
+    return sourceMaps.stats().missCount();
+  }
+
   /**
    * Replaces the stack traces in the given Throwable and its causes with deobfuscated stack traces
    * wherever possible.
@@ -356,6 +436,19 @@ public abstract class StackTraceDeobfuscator {
     return openInputStream(permutationStrongName + ".symbolMap");
   }
 
+  /**
+   * Retrieves a new {@link InputStream} for the index of the given permutation's symbol map. This
+   * implementation, which subclasses may override, returns a {@link InputStream} for the <code>
+   * <i>permutation-strong-name</i>.symbolMapIndex</code> file.
+   *
+   * @param permutationStrongName the GWT permutation strong name
+   * @return a new {@link InputStream}
+   */
+  protected InputStream getSymbolMapIndexInputStream(String permutationStrongName)
+      throws IOException {
+    return openInputStream(permutationStrongName + SymbolMapIndex.FILE_SUFFIX);
+  }
+
   /**
    * Opens a new {@link InputStream} for a symbol or source map file.
    *
@@ -365,22 +458,50 @@ public abstract class StackTraceDeobfuscator {
    */
   protected abstract InputStream openInputStream(String fileName) throws IOException;
 
-  private SourceMapping loadSourceMap(String permutationStrongName, int fragmentId) {
-    SourceMapping toReturn = sourceMaps.get(permutationStrongName + fragmentId);
-    if (toReturn == null) {
-      try {
-        String sourceMapString = loadStreamAsString(
-            getSourceMapInputStream(permutationStrongName, fragmentId));
-        toReturn = SourceMapConsumerFactory.parse(sourceMapString);
-        sourceMaps.put(permutationStrongName + fragmentId, toReturn);
-      } catch (Exception e) {
-      }
+  private static Cache<String, LoadedSourceMap> createSourceMapCache(long maxChars) {
+    return CacheBuilder.newBuilder()
+        // The maximum weight is split between segments, so with more than one a large source map
+        // could be dropped as soon as it is loaded.
+        .concurrencyLevel(1)
+        .maximumWeight(maxChars)
+        .weigher(new Weigher<String, LoadedSourceMap>() {
+          @Override
+          public int weigh(String key, LoadedSourceMap value) {
+            return value.size;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the parsed source map of a fragment, or null if it can't be loaded. Failures aren't
+   * cached, so a source map that is deployed later is still found.
+   */
+  @VisibleForTesting
+  SourceMapping loadSourceMap(final String permutationStrongName, final int fragmentId) {
+    try {
+      return sourceMaps.get(permutationStrongName + "_" + fragmentId,
+          new Callable<LoadedSourceMap>() {
+            @Override
+            public LoadedSourceMap call() throws Exception {
+              String sourceMapString = loadStreamAsString(
+                  getSourceMapInputStream(permutationStrongName, fragmentId));
+              return new LoadedSourceMap(SourceMapConsumerFactory.parse(sourceMapString),
+                  sourceMapString.length());
+            }
+          }).sourceMapping;
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      return null;
     }
-    return toReturn;
   }
 
-  private String loadStreamAsString(InputStream stream) {
-    return new Scanner(stream).useDelimiter("\\A").next();
+  private String loadStreamAsString(InputStream stream) throws IOException {
+    try {
+      return new Scanner(stream).useDelimiter("\\A").next();
+    } finally {
+      stream.close();
+    }
   }
 
   private String loadOneSymbol(String strongName, String symbol) {
@@ -397,6 +518,16 @@ public abstract class StackTraceDeobfuscator {
    */
   private Map<String, String> loadSymbolMap(
       String strongName, Set<String> requiredSymbols) {
+    SymbolMapIndex index = loadSymbolMapIndex(strongName);
+    if (index != null) {
+      Map<String, String> toReturn = new HashMap<String, String>();
+      for (String symbol : requiredSymbols) {
+        String symbolData = index.get(symbol);
+        toReturn.put(symbol, symbolData == null ? SYMBOL_DATA_UNKNOWN : symbolData);
+      }
+      return toReturn;
+    }
+
     Map<String, String> toReturn = symbolCache.getAll(strongName, requiredSymbols);
     if (toReturn.size() == requiredSymbols.size()) {
       return toReturn;
@@ -446,6 +577,67 @@ public abstract class StackTraceDeobfuscator {
     return toReturn;
   }
 
+  /**
+   * Returns the method symbols for the given strong name, reading the symbol map index or, if
+   * there is none, the whole symbol map. Returns an empty index if neither can be read, and null if
+   * the symbol map should be read lazily.
+   */
+  private SymbolMapIndex loadSymbolMapIndex(String strongName) {
+    if (strongName == null) {
+      return null;
+    }
+    SymbolMapIndex index = symbolMapIndexes.get(strongName);
+    if (index != null || strongNamesWithoutIndex.contains(strongName)) {
+      return index;
+    }
+
+    try {
+      index = SymbolMapIndex.read(getSymbolMapIndexInputStream(strongName));
+    } catch (IOException e) {
+      // Symbol maps from older compiles don't have an index.
+      if (lazyLoad) {
+        strongNamesWithoutIndex.add(strongName);
+        return null;
+      }
+      try {
+        index = SymbolMapIndex.parseSymbolMap(getSymbolMapInputStream(strongName));
+      } catch (IOException e2) {
+        // Remember that there is no symbol map, to avoid trying again for every stack trace.
+        index = SymbolMapIndex.empty();
+      }
+    }
+
+    synchronized (symbolMapIndexes) {
+      SymbolMapIndex existingIndex = symbolMapIndexes.putIfAbsent(strongName, index);
+      if (existingIndex != null) {
+        return existingIndex;
+      }
+      symbolMapIndexBytes += index.getEstimatedBytes();
+      evictSymbolMapIndexes(strongName);
+    }
+    return index;
+  }
+
+  /**
+   * Drops the least recently used symbol map indexes other than the given one until they fit in
+   * the memory limit.
+   */
+  private void evictSymbolMapIndexes(String keepStrongName) {
+    while (symbolMapIndexBytes > symbolMapCacheMaxBytes && symbolMapIndexes.size() > 1) {
+      String lruStrongName = null;
+      long lruNanos = Long.MAX_VALUE;
+      for (Map.Entry<String, SymbolMapIndex> entry : symbolMapIndexes.entrySet()) {
+        long lastUsedNanos = entry.getValue().getLastUsedNanos();
+        if (!entry.getKey().equals(keepStrongName)
+            && (lruStrongName == null || lastUsedNanos - lruNanos < 0)) {
+          lruStrongName = entry.getKey();
+          lruNanos = lastUsedNanos;
+        }
+      }
+      symbolMapIndexBytes -= symbolMapIndexes.remove(lruStrongName).getEstimatedBytes();
+    }
+  }
+
   /**
    * Extracts the declaring class and method name from a JSNI ref, or null if the information cannot
    * be extracted.
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.util.tools.shared.SymbolMapIndexFormat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An immutable, compact lookup table from obfuscated method names to their symbol data, for one
+ * permutation. Lookups don't lock, so an index can be shared by any number of threads.
+ * <p>
+ * Indexes are normally read from the <code><i>strongName</i>.symbolMapIndex</code> file written
+ * by {@code com.google.gwt.core.linker.SymbolMapsLinker}, in the {@link SymbolMapIndexFormat}
+ * format. The data of a symbol is the rest of its line in the text symbol map. Only method
+ * symbols are included. If there is no index file, one can be built from the text symbol map instead.
+ */
+final class SymbolMapIndex {
+
+  static final String FILE_SUFFIX = SymbolMapIndexFormat.FILE_SUFFIX;
+
+  /**
+   * Returns an index without any symbols.
+   */
+  static SymbolMapIndex empty() {
+    return new SymbolMapIndex(new String[0], new int[] {0}, new byte[0]);
+  }
+
+  /**
+   * Reads an index written by the linker.
+   */
+  static SymbolMapIndex read(InputStream stream) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+    try {
+      if (in.readInt() != SymbolMapIndexFormat.MAGIC
+          || in.readInt() != SymbolMapIndexFormat.VERSION) {
+        throw new IOException("Not a symbol map index in a supported format");
+      }
+      int count = in.readInt();
+      if (count < 0) {
+        throw new IOException("Invalid symbol count " + count);
+      }
+      String[] symbols = new String[count];
+      int[] dataOffsets = new int[count + 1];
+      byte[] data = new byte[0];
+      for (int i = 0; i < count; i++) {
+        symbols[i] = new String(readBytes(in), StandardCharsets.UTF_8);
+        if (i > 0 && symbols[i - 1].compareTo(symbols[i]) >= 0) {
+          throw new IOException("Symbol map index isn't sorted at " + symbols[i]);
+        }
+        byte[] symbolData = readBytes(in);
+        if (data.length - dataOffsets[i] < symbolData.length) {
+          data = Arrays.copyOf(data,
+              Math.max(data.length * 2, dataOffsets[i] + symbolData.length));
+        }
+        System.arraycopy(symbolData, 0, data, dataOffsets[i], symbolData.length);
+        dataOffsets[i + 1] = dataOffsets[i] + symbolData.length;
+      }
+      return new SymbolMapIndex(symbols, dataOffsets, Arrays.copyOf(data, dataOffsets[count]));
+    } finally {
+      in.close();
+    }
+  }
+
+  /**
+   * Builds an index of the method symbols in a text symbol map.
+   */
+  static SymbolMapIndex parseSymbolMap(InputStream stream) throws IOException {
+    SortedMap<String, String> dataBySymbol = new TreeMap<String, String>();
+    BufferedReader reader = new BufferedReader(new InputStreamReader(stream));
+    try {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty() || line.charAt(0) == '#') {
+          continue;
+        }
+        int idx = line.indexOf(',');
+        String symbol = line.substring(0, idx);
+        String symbolData = line.substring(idx + 1);
+
+        // Methods jsni names have to contain parens.
+        if (symbolData.substring(0, symbolData.indexOf(',')).contains(")")) {
+          dataBySymbol.put(symbol, symbolData);
+        }
+      }
+    } finally {
+      reader.close();
+    }
+
+    String[] symbols = new String[dataBySymbol.size()];
+    int[] dataOffsets = new int[symbols.length + 1];
+    byte[][] encodedData = new byte[symbols.length][];
+    int i = 0;
+    for (Map.Entry<String, String> entry : dataBySymbol.entrySet()) {
+      symbols[i] = entry.getKey();
+      encodedData[i] = entry.getValue().getBytes(StandardCharsets.UTF_8);
+      dataOffsets[i + 1] = dataOffsets[i] + encodedData[i].length;
+      i++;
+    }
+    byte[] data = new byte[dataOffsets[symbols.length]];
+    for (i = 0; i < symbols.length; i++) {
+      System.arraycopy(encodedData[i], 0, data, dataOffsets[i], encodedData[i].length);
+    }
+    return new SymbolMapIndex(symbols, dataOffsets, data);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid length " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private final byte[] data;
+  private final int[] dataOffsets;
+  private final long estimatedBytes;
+  private final String[] symbols;
+
+  /**
+   * When the index was last used, as reported by {@link System#nanoTime}. (Only used to decide
+   * what to evict, so it doesn't matter if an update is lost.)
+   */
+  private volatile long lastUsedNanos = System.nanoTime();
+
+  private SymbolMapIndex(String[] symbols, int[] dataOffsets, byte[] data) {
+    this.symbols = symbols;
+    this.dataOffsets = dataOffsets;
+    this.data = data;
+
+    long bytes = data.length + 4L * dataOffsets.length + 8L * symbols.length;
+    for (String symbol : symbols) {
+      // Object headers and one byte per (usually Latin-1) character.
+      bytes += 40 + symbol.length();
+    }
+    this.estimatedBytes = bytes;
+  }
+
+  /**
+   * Returns the symbol data for a method symbol, or null if it isn't in the index.
+   */
+  String get(String symbol) {
+    lastUsedNanos = System.nanoTime();
+    int i = Arrays.binarySearch(symbols, symbol);
+    if (i < 0) {
+      return null;
+    }
+    return new String(data, dataOffsets[i], dataOffsets[i + 1] - dataOffsets[i],
+        StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns roughly how many bytes of heap the index uses.
+   */
+  long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  long getLastUsedNanos() {
+    return lastUsedNanos;
+  }
+}
@@ -27,6 +27,9 @@ import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamReader;
 import com.google.gwt.user.server.rpc.impl.ServerSerializationStreamWriter;
 import com.google.gwt.user.server.rpc.impl.TypeNameObfuscator;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Type;
@@ -56,6 +59,49 @@ import java.util.Set;
  */
 public final class RPC {
 
+  /**
+   * A response that has been serialized, but not encoded as a String yet, so
+   * that it can be written out directly.
+   */
+  static final class SerializedResponse {
+    private final ServerSerializationStreamWriter stream;
+    private final boolean wasThrown;
+
+    private SerializedResponse(ServerSerializationStreamWriter stream, boolean wasThrown) {
+      this.stream = stream;
+      this.wasThrown = wasThrown;
+    }
+
+    /**
+     * Returns roughly how many characters the encoded response has.
+     */
+    long getEstimatedLength() {
+      return 4 + stream.getEstimatedLength();
+    }
+
+    /**
+     * Writes the encoded response, the same as {@link #toString()}.
+     */
+    void writeTo(Writer out) throws IOException {
+      out.write(getPreamble());
+      stream.writeTo(out);
+    }
+
+    @Override
+    public String toString() {
+      return getPreamble() + stream.toString();
+    }
+
+    private String getPreamble() {
+      return wasThrown ? "//EX" : "//OK";
+    }
+  }
+
+  /**
+   * The most parameters a Java method can have.
+   */
+  private static final int MAX_PARAMETER_COUNT = 255;
+
   /**
    * Maps primitive wrapper classes to their corresponding primitive class.
    */
@@ -233,12 +279,66 @@ public final class RPC {
     }
 
     ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    ServerSerializationStreamReader streamReader =
+        new ServerSerializationStreamReader(classLoader, serializationPolicyProvider);
+    try {
+      streamReader.prepareToRead(encodedRequest);
+    } catch (SerializationException ex) {
+      throw new IncompatibleRemoteServiceException(ex.getMessage(), ex);
+    }
+    return decodeRequest(streamReader, type, classLoader, streamReader.getNumberOfTokens());
+  }
+
+  /**
+   * Returns an {@link RPCRequest} that is built by decoding the contents of an
+   * encoded RPC request read from a {@link Reader}, such as the body of an HTTP
+   * request. This is the same as
+   * {@link #decodeRequest(String, Class, SerializationPolicyProvider)}, except
+   * that the request is tokenized as it is read, so the whole request never has
+   * to be held in memory as a single String. The reader is not closed.
+   *
+   * @param encodedRequest a reader for the encoded request
+   * @param type if not <code>null</code>, the implementation checks that the
+   *          type is assignable to the {@link RemoteService} interface encoded
+   *          in the encoded request
+   * @param serializationPolicyProvider if not <code>null</code>, the
+   *          implementation asks this provider for a
+   *          {@link SerializationPolicy} which will be used to restrict the set
+   *          of types that can be decoded from this request
+   * @return an {@link RPCRequest} instance
+   *
+   * @throws NullPointerException if the encodedRequest is <code>null</code>
+   * @throws IncompatibleRemoteServiceException if the request can't be read or
+   *           decoded, for the same reasons as
+   *           {@link #decodeRequest(String, Class, SerializationPolicyProvider)}
+   */
+  public static RPCRequest decodeRequest(Reader encodedRequest, Class<?> type,
+      SerializationPolicyProvider serializationPolicyProvider) {
+    if (encodedRequest == null) {
+      throw new NullPointerException("encodedRequest cannot be null");
+    }
 
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    ServerSerializationStreamReader streamReader =
+        new ServerSerializationStreamReader(classLoader, serializationPolicyProvider);
     try {
-      ServerSerializationStreamReader streamReader =
-          new ServerSerializationStreamReader(classLoader, serializationPolicyProvider);
       streamReader.prepareToRead(encodedRequest);
+    } catch (SerializationException ex) {
+      throw new IncompatibleRemoteServiceException(ex.getMessage(), ex);
+    }
+    // The number of tokens isn't known up front, so only check that the
+    // parameter count is possible for a Java method.
+    return decodeRequest(streamReader, type, classLoader, MAX_PARAMETER_COUNT);
+  }
 
+  /**
+   * Decodes the rest of a request once the stream reader has read the header.
+   *
+   * @param maxParamCount the most parameters the request could have
+   */
+  private static RPCRequest decodeRequest(ServerSerializationStreamReader streamReader,
+      Class<?> type, ClassLoader classLoader, int maxParamCount) {
+    try {
       RpcToken rpcToken = null;
       if (streamReader.hasFlags(AbstractSerializationStream.FLAG_RPC_TOKEN_INCLUDED)) {
         // Read the RPC token
@@ -277,7 +377,7 @@ public final class RPC {
       String serviceMethodName = streamReader.readString();
 
       int paramCount = streamReader.readInt();
-      if (paramCount > streamReader.getNumberOfTokens()) {
+      if (paramCount > maxParamCount) {
         throw new IncompatibleRemoteServiceException("Invalid number of parameters");
       }
       Class<?>[] parameterTypes = new Class[paramCount];
@@ -341,13 +441,7 @@ public final class RPC {
    */
   public static String encodeResponseForFailedRequest(RPCRequest rpcRequest, Throwable cause)
       throws SerializationException {
-    if (rpcRequest == null) {
-      return RPC.encodeResponseForFailure(null, cause,
-          getDefaultSerializationPolicy(), AbstractSerializationStream.DEFAULT_FLAGS);
-    } else {
-      return RPC.encodeResponseForFailure(null, cause,
-          rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
-    }
+    return serializeResponseForFailedRequest(rpcRequest, cause).toString();
   }
 
   /**
@@ -403,20 +497,8 @@ public final class RPC {
 
   public static String encodeResponseForFailure(Method serviceMethod, Throwable cause,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
-    if (cause == null) {
-      throw new NullPointerException("cause cannot be null");
-    }
-
-    if (serializationPolicy == null) {
-      throw new NullPointerException("serializationPolicy");
-    }
-
-    if (serviceMethod != null && !RPCServletUtils.isExpectedException(serviceMethod, cause)) {
-      throw new UnexpectedException("Service method '" + getSourceRepresentation(serviceMethod)
-          + "' threw an unexpected exception: " + cause.toString(), cause);
-    }
-
-    return encodeResponse(cause.getClass(), cause, true, flags, serializationPolicy);
+    return serializeResponseForFailure(serviceMethod, cause, serializationPolicy, flags)
+        .toString();
   }
 
   /**
@@ -470,31 +552,8 @@ public final class RPC {
 
   public static String encodeResponseForSuccess(Method serviceMethod, Object object,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
-    if (serviceMethod == null) {
-      throw new NullPointerException("serviceMethod cannot be null");
-    }
-
-    if (serializationPolicy == null) {
-      throw new NullPointerException("serializationPolicy");
-    }
-
-    Class<?> methodReturnType = serviceMethod.getReturnType();
-    if (methodReturnType != void.class && object != null) {
-      Class<?> actualReturnType;
-      if (methodReturnType.isPrimitive()) {
-        actualReturnType = getPrimitiveClassFromWrapper(object.getClass());
-      } else {
-        actualReturnType = object.getClass();
-      }
-
-      if (actualReturnType == null || !methodReturnType.isAssignableFrom(actualReturnType)) {
-        throw new IllegalArgumentException("Type '" + printTypeName(object.getClass())
-            + "' does not match the return type in the method's signature: '"
-            + getSourceRepresentation(serviceMethod) + "'");
-      }
-    }
-
-    return encodeResponse(methodReturnType, object, false, flags, serializationPolicy);
+    return serializeResponseForSuccess(serviceMethod, object, serializationPolicy, flags)
+        .toString();
   }
 
   /**
@@ -574,6 +633,17 @@ public final class RPC {
 
   public static String invokeAndEncodeResponse(Object target, Method serviceMethod, Object[] args,
       SerializationPolicy serializationPolicy, int flags) throws SerializationException {
+    return invokeAndSerializeResponse(target, serviceMethod, args, serializationPolicy, flags)
+        .toString();
+  }
+
+  /**
+   * Like {@link #invokeAndEncodeResponse(Object, Method, Object[], SerializationPolicy, int)},
+   * but returns the response before it's encoded as a String.
+   */
+  static SerializedResponse invokeAndSerializeResponse(Object target, Method serviceMethod,
+      Object[] args, SerializationPolicy serializationPolicy, int flags)
+      throws SerializationException {
     if (serviceMethod == null) {
       throw new NullPointerException("serviceMethod");
     }
@@ -582,11 +652,12 @@ public final class RPC {
       throw new NullPointerException("serializationPolicy");
     }
 
-    String responsePayload;
+    SerializedResponse responsePayload;
     try {
       Object result = serviceMethod.invoke(target, args);
 
-      responsePayload = encodeResponseForSuccess(serviceMethod, result, serializationPolicy, flags);
+      responsePayload =
+          serializeResponseForSuccess(serviceMethod, result, serializationPolicy, flags);
     } catch (IllegalAccessException e) {
       SecurityException securityException =
           new SecurityException(formatIllegalAccessErrorMessage(target, serviceMethod));
@@ -602,12 +673,83 @@ public final class RPC {
       //
       Throwable cause = e.getCause();
 
-      responsePayload = encodeResponseForFailure(serviceMethod, cause, serializationPolicy, flags);
+      responsePayload =
+          serializeResponseForFailure(serviceMethod, cause, serializationPolicy, flags);
     }
 
     return responsePayload;
   }
 
+  /**
+   * Like {@link #encodeResponseForFailedRequest(RPCRequest, Throwable)}, but
+   * returns the response before it's encoded as a String.
+   */
+  static SerializedResponse serializeResponseForFailedRequest(RPCRequest rpcRequest,
+      Throwable cause) throws SerializationException {
+    if (rpcRequest == null) {
+      return serializeResponseForFailure(null, cause,
+          getDefaultSerializationPolicy(), AbstractSerializationStream.DEFAULT_FLAGS);
+    } else {
+      return serializeResponseForFailure(null, cause,
+          rpcRequest.getSerializationPolicy(), rpcRequest.getFlags());
+    }
+  }
+
+  /**
+   * Like {@link #encodeResponseForFailure(Method, Throwable, SerializationPolicy, int)}, but
+   * returns the response before it's encoded as a String.
+   */
+  static SerializedResponse serializeResponseForFailure(Method serviceMethod, Throwable cause,
+      SerializationPolicy serializationPolicy, int flags) throws SerializationException {
+    if (cause == null) {
+      throw new NullPointerException("cause cannot be null");
+    }
+
+    if (serializationPolicy == null) {
+      throw new NullPointerException("serializationPolicy");
+    }
+
+    if (serviceMethod != null && !RPCServletUtils.isExpectedException(serviceMethod, cause)) {
+      throw new UnexpectedException("Service method '" + getSourceRepresentation(serviceMethod)
+          + "' threw an unexpected exception: " + cause.toString(), cause);
+    }
+
+    return serializeResponse(cause.getClass(), cause, true, flags, serializationPolicy);
+  }
+
+  /**
+   * Like {@link #encodeResponseForSuccess(Method, Object, SerializationPolicy, int)}, but
+   * returns the response before it's encoded as a String.
+   */
+  static SerializedResponse serializeResponseForSuccess(Method serviceMethod, Object object,
+      SerializationPolicy serializationPolicy, int flags) throws SerializationException {
+    if (serviceMethod == null) {
+      throw new NullPointerException("serviceMethod cannot be null");
+    }
+
+    if (serializationPolicy == null) {
+      throw new NullPointerException("serializationPolicy");
+    }
+
+    Class<?> methodReturnType = serviceMethod.getReturnType();
+    if (methodReturnType != void.class && object != null) {
+      Class<?> actualReturnType;
+      if (methodReturnType.isPrimitive()) {
+        actualReturnType = getPrimitiveClassFromWrapper(object.getClass());
+      } else {
+        actualReturnType = object.getClass();
+      }
+
+      if (actualReturnType == null || !methodReturnType.isAssignableFrom(actualReturnType)) {
+        throw new IllegalArgumentException("Type '" + printTypeName(object.getClass())
+            + "' does not match the return type in the method's signature: '"
+            + getSourceRepresentation(serviceMethod) + "'");
+      }
+    }
+
+    return serializeResponse(methodReturnType, object, false, flags, serializationPolicy);
+  }
+
   private static int getRpcVersion() throws SerializationException {
     int version =
         Integer.getInteger("gwt.rpc.version",
@@ -622,18 +764,19 @@ public final class RPC {
   }
 
   /**
-   * Returns a string that encodes the results of an RPC call. Private overload
-   * that takes a flag signaling the preamble of the response payload.
+   * Serializes the results of an RPC call. Private overload that takes a flag
+   * signaling the preamble of the response payload.
    * 
    * @param object the object that we wish to send back to the client
    * @param wasThrown if true, the object being returned was an exception thrown
    *          by the service method; if false, it was the result of the service
    *          method's invocation
-   * @return a string that encodes the response from a service method
+   * @return the serialized response from a service method
    * @throws SerializationException if the object cannot be serialized
    */
-  private static String encodeResponse(Class<?> responseClass, Object object, boolean wasThrown,
-      int flags, SerializationPolicy serializationPolicy) throws SerializationException {
+  private static SerializedResponse serializeResponse(Class<?> responseClass, Object object,
+      boolean wasThrown, int flags, SerializationPolicy serializationPolicy)
+      throws SerializationException {
 
     ServerSerializationStreamWriter stream =
         new ServerSerializationStreamWriter(serializationPolicy, getRpcVersion());
@@ -644,8 +787,7 @@ public final class RPC {
       stream.serializeValue(object, responseClass);
     }
 
-    String bufferStr = (wasThrown ? "//EX" : "//OK") + stream.toString();
-    return bufferStr;
+    return new SerializedResponse(stream, wasThrown);
   }
 
   private static String formatIllegalAccessErrorMessage(Object target, Method serviceMethod) {
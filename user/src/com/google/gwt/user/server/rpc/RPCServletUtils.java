@@ -16,9 +16,15 @@
 package com.google.gwt.user.server.rpc;
 
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Method;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -116,7 +122,15 @@ public class RPCServletUtils {
    *         length exceeds 256 bytes
    */
   public static boolean exceedsUncompressedContentLengthLimit(String content) {
-    return (content.length() * 2) > UNCOMPRESSED_BYTE_SIZE_LIMIT;
+    return exceedsUncompressedContentLengthLimit(content.length());
+  }
+
+  /**
+   * Like {@link #exceedsUncompressedContentLengthLimit(String)}, for content
+   * of the given length in characters.
+   */
+  static boolean exceedsUncompressedContentLengthLimit(long contentLength) {
+    return (contentLength * 2) > UNCOMPRESSED_BYTE_SIZE_LIMIT;
   }
 
   /**
@@ -181,6 +195,55 @@ public class RPCServletUtils {
     return false;
   }
 
+  /**
+   * Starts a successful response and returns a writer for its content. This is
+   * an alternative to {@link #writeResponse} for content that is written as it
+   * is encoded, rather than built into a String first. Since the content length
+   * isn't known up front, it isn't set. Closing the writer finishes the
+   * response.
+   *
+   * @param response response instance
+   * @param gzipResponse if <code>true</code> the content will be gzip encoded
+   *          as it is written
+   * @return a writer that encodes the content using <code>UTF-8</code>
+   * @throws IOException if the response's output stream cannot be accessed
+   */
+  public static Writer openResponseWriter(HttpServletResponse response,
+      boolean gzipResponse) throws IOException {
+    response.setContentType(CONTENT_TYPE_APPLICATION_JSON_UTF8);
+    response.setStatus(HttpServletResponse.SC_OK);
+    response.setHeader(CONTENT_DISPOSITION, ATTACHMENT);
+    if (gzipResponse) {
+      setGzipEncodingHeader(response);
+    }
+    OutputStream out = response.getOutputStream();
+    if (gzipResponse) {
+      out = new GZIPOutputStream(out, BUFFER_SIZE);
+    }
+    return new BufferedWriter(new OutputStreamWriter(out, CHARSET_UTF8),
+        BUFFER_SIZE);
+  }
+
+  /**
+   * Returns a reader that decodes the content of an {@link HttpServletRequest}
+   * as it is read, after verifying a <code>text/x-gwt-rpc; charset=utf-8</code>
+   * content type. Unlike {@link #readContentAsGwtRpc}, this doesn't read the
+   * whole request into memory first. The caller must close the reader.
+   *
+   * @param request the servlet request whose content we want to read
+   * @return a reader for the content of the request, decoding it using
+   *         <code>UTF-8</code>
+   * @throws IOException if the request's input stream cannot be accessed
+   * @throws ServletException if the request's content type is not
+   *         <code>text/x-gwt-rpc; charset=utf-8</code>, ignoring case
+   */
+  public static Reader openContentReaderAsGwtRpc(HttpServletRequest request)
+      throws IOException, ServletException {
+    checkContentTypeIgnoreCase(request, GWT_RPC_CONTENT_TYPE);
+    checkCharacterEncodingIgnoreCase(request, CHARSET_UTF8_NAME);
+    return new InputStreamReader(request.getInputStream(), CHARSET_UTF8);
+  }
+
   /**
    * Returns the content of an {@link HttpServletRequest} by decoding it using
    * <code>expectedCharSet</code>, or <code>UTF-8</code> if
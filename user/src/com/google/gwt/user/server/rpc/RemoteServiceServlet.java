@@ -25,6 +25,8 @@ import com.google.gwt.user.client.rpc.SerializationException;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.text.ParseException;
@@ -158,6 +160,18 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
    */
   private int codeServerPort = 0;
 
+  /**
+   * Whether {@link #shouldStreamRequests()} returns true by default, or null
+   * if not computed yet.
+   */
+  private volatile Boolean canStreamRequests;
+
+  /**
+   * Whether {@link #shouldStreamResponses()} returns true by default, or null
+   * if not computed yet.
+   */
+  private volatile Boolean canStreamResponses;
+
   /**
    * The default constructor used by service implementations that
    * extend this class.  The servlet will delegate AJAX requests to
@@ -375,6 +389,41 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
   public final void processPost(HttpServletRequest request,
       HttpServletResponse response) throws IOException, ServletException,
       SerializationException {
+    if (shouldStreamResponses()) {
+      // Write the response as it's encoded, without holding it as a String.
+      //
+      RPC.SerializedResponse responsePayload;
+      if (shouldStreamRequests()) {
+        Reader requestReader = RPCServletUtils.openContentReaderAsGwtRpc(request);
+        try {
+          responsePayload = serializeCall(null, requestReader);
+        } finally {
+          requestReader.close();
+        }
+      } else {
+        String requestPayload = readContent(request);
+        onBeforeRequestDeserialized(requestPayload);
+        responsePayload = serializeCall(requestPayload, null);
+      }
+      writeResponse(request, response, responsePayload);
+      return;
+    }
+
+    if (shouldStreamRequests()) {
+      // Decode the request as it's read, without holding it as a String.
+      //
+      String responsePayload;
+      Reader requestReader = RPCServletUtils.openContentReaderAsGwtRpc(request);
+      try {
+        responsePayload = serializeCall(null, requestReader).toString();
+      } finally {
+        requestReader.close();
+      }
+      onAfterResponseSerialized(responsePayload);
+      writeResponse(request, response, responsePayload);
+      return;
+    }
+
     // Read the request fully.
     //
     String requestPayload = readContent(request);
@@ -521,6 +570,61 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     return RPCServletUtils.exceedsUncompressedContentLengthLimit(responsePayload);
   }
 
+  /**
+   * Determines whether requests are decoded as they are read from the HTTP
+   * request, rather than first being read into a String. Streaming saves
+   * memory and time on large requests, but skips {@link #readContent},
+   * {@link #onBeforeRequestDeserialized(String)},
+   * {@link #processCall(String)} and {@link #processCall(RPCRequest)}, since
+   * there is no payload String to pass to them and the request is decoded and
+   * invoked in one step.
+   * <p>
+   * By default, requests are streamed unless a subclass overrides one of
+   * those methods. Subclasses may override this method to choose explicitly.
+   * </p>
+   *
+   * @return <code>true</code> if requests should be streamed
+   */
+  protected boolean shouldStreamRequests() {
+    Boolean result = canStreamRequests;
+    if (result == null) {
+      result = !overridesMethod("readContent", HttpServletRequest.class)
+          && !overridesMethod("onBeforeRequestDeserialized", String.class)
+          && !overridesMethod("processCall", String.class)
+          && !overridesMethod("processCall", RPCRequest.class);
+      canStreamRequests = result;
+    }
+    return result;
+  }
+
+  /**
+   * Determines whether responses are written to the HTTP response as they are
+   * encoded, rather than first being built into a String. Streaming saves
+   * memory and time on large responses, but skips
+   * {@link #processCall(String)}, {@link #processCall(RPCRequest)},
+   * {@link #onAfterResponseSerialized(String)} and
+   * {@link #shouldCompressResponse}, since there is no payload String to pass
+   * to or return from them. Streamed responses don't have a content length.
+   * <p>
+   * By default, responses are streamed unless a subclass overrides one of
+   * those methods. Subclasses may override this method to choose explicitly.
+   * </p>
+   *
+   * @return <code>true</code> if responses should be streamed
+   */
+  protected boolean shouldStreamResponses() {
+    Boolean result = canStreamResponses;
+    if (result == null) {
+      result = !overridesMethod("processCall", String.class)
+          && !overridesMethod("processCall", RPCRequest.class)
+          && !overridesMethod("onAfterResponseSerialized", String.class)
+          && !overridesMethod("shouldCompressResponse", HttpServletRequest.class,
+              HttpServletResponse.class, String.class);
+      canStreamResponses = result;
+    }
+    return result;
+  }
+
   private SerializationPolicy getCachedSerializationPolicy(
       String moduleBaseURL, String strongName) {
     synchronized (serializationPolicyCache) {
@@ -528,6 +632,54 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     }
   }
 
+  /**
+   * Returns true if a subclass declares a method with the given signature.
+   */
+  private boolean overridesMethod(String name, Class<?>... parameterTypes) {
+    for (Class<?> c = getClass(); c != RemoteServiceServlet.class;
+        c = c.getSuperclass()) {
+      try {
+        c.getDeclaredMethod(name, parameterTypes);
+        return true;
+      } catch (NoSuchMethodException e) {
+        // Keep looking in the superclass.
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Like {@link #processCall(String)}, but decodes the request from either a
+   * payload String or a reader, and returns the response before it's encoded
+   * as a String. Exactly one of {@code payload} and {@code requestReader} must
+   * be non-null.
+   */
+  private RPC.SerializedResponse serializeCall(String payload,
+      Reader requestReader) throws SerializationException {
+    // First, check for possible XSRF situation
+    checkPermutationStrongName();
+
+    RPCRequest rpcRequest = null;
+    try {
+      rpcRequest = payload != null
+          ? RPC.decodeRequest(payload, delegate.getClass(), this)
+          : RPC.decodeRequest(requestReader, delegate.getClass(), this);
+      onAfterRequestDeserialized(rpcRequest);
+      return RPC.invokeAndSerializeResponse(delegate, rpcRequest.getMethod(),
+          rpcRequest.getParameters(), rpcRequest.getSerializationPolicy(),
+          rpcRequest.getFlags());
+    } catch (IncompatibleRemoteServiceException ex) {
+      log(
+          "An IncompatibleRemoteServiceException was thrown while processing this call.",
+          ex);
+      return RPC.serializeResponseForFailedRequest(rpcRequest, ex);
+    } catch (RpcTokenException tokenException) {
+      log("An RpcTokenException was thrown while processing this call.",
+          tokenException);
+      return RPC.serializeResponseForFailedRequest(rpcRequest, tokenException);
+    }
+  }
+
   private void putCachedSerializationPolicy(String moduleBaseURL,
       String strongName, SerializationPolicy serializationPolicy) {
     synchronized (serializationPolicyCache) {
@@ -544,4 +696,19 @@ public class RemoteServiceServlet extends AbstractRemoteServiceServlet
     RPCServletUtils.writeResponse(getServletContext(), response,
         responsePayload, gzipEncode);
   }
+
+  private void writeResponse(HttpServletRequest request,
+      HttpServletResponse response, RPC.SerializedResponse responsePayload)
+      throws IOException {
+    boolean gzipEncode = RPCServletUtils.acceptsGzipEncoding(request)
+        && RPCServletUtils.exceedsUncompressedContentLengthLimit(
+            responsePayload.getEstimatedLength());
+
+    Writer out = RPCServletUtils.openResponseWriter(response, gzipEncode);
+    try {
+      responsePayload.writeTo(out);
+    } finally {
+      out.close();
+    }
+  }
 }
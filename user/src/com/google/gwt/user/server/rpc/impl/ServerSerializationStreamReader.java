@@ -28,6 +28,7 @@ import com.google.gwt.user.server.rpc.ServerCustomFieldSerializer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.io.Reader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
@@ -58,6 +59,11 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
    */
   private static final Pattern ALLOWED_STRONG_NAME = Pattern.compile("[a-zA-Z0-9_]+");
 
+  /**
+   * The number of characters read at a time when reading a request from a {@link Reader}.
+   */
+  private static final int READ_BUFFER_SIZE = 8192;
+
   /**
    * Used to accumulate elements while deserializing array types. The generic
    * type of the BoundedList will vary from the component type of the array it
@@ -382,6 +388,28 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   private int tokenListIndex;
 
+  /**
+   * The source of the tokens when reading a request incrementally, or null if the whole request
+   * was split into {@link #tokenList} up front.
+   */
+  private Reader tokenReader;
+
+  private char[] readBuffer;
+
+  private int readBufferLimit;
+
+  private int readBufferPosition;
+
+  /**
+   * A token that was read from {@link #tokenReader} but not consumed yet.
+   */
+  private String pendingToken;
+
+  /**
+   * Accumulates the characters of the token being read from {@link #tokenReader}.
+   */
+  private final StringBuilder tokenBuilder = new StringBuilder();
+
   {
     CLASS_TO_VECTOR_READER.put(boolean[].class, VectorReader.BOOLEAN_VECTOR);
     CLASS_TO_VECTOR_READER.put(byte[].class, VectorReader.BYTE_VECTOR);
@@ -433,6 +461,11 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
     }
   }
 
+  /**
+   * Returns the number of tokens in a request prepared with {@link #prepareToRead(String)}. For a
+   * request read incrementally with {@link #prepareToRead(Reader)}, the total isn't known and this
+   * returns 0.
+   */
   public int getNumberOfTokens() {
     return tokenList.size();
   }
@@ -443,9 +476,7 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
 
   @Override
   public void prepareToRead(String encodedTokens) throws SerializationException {
-    tokenList.clear();
-    tokenListIndex = 0;
-    stringTable = null;
+    resetTokens();
 
     int idx = 0, nextIdx;
     while (-1 != (nextIdx = encodedTokens.indexOf(RPC_SEPARATOR_CHAR, idx))) {
@@ -454,59 +485,37 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
       idx = nextIdx + 1;
     }
     if (idx == 0) {
-      // Didn't find any separator, assume an older version with different
-      // separators and get the version as the sequence of digits at the
-      // beginning of the encoded string.
-      while (idx < encodedTokens.length() && Character.isDigit(encodedTokens.charAt(idx))) {
-        ++idx;
-      }
-      if (idx == 0) {
-        throw new IncompatibleRemoteServiceException(
-            "Malformed or old RPC message received - expecting version between "
-                + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION);
-      } else {
-        int version = Integer.valueOf(encodedTokens.substring(0, idx));
-        throw new IncompatibleRemoteServiceException("Expecting version between "
-            + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION
-            + " from client, got " + version + ".");
-      }
+      throw newIncompatibleVersionException(encodedTokens);
     }
 
     super.prepareToRead(encodedTokens);
+    readHeader();
+  }
 
-    // Check the RPC version number sent by the client
-    if (getVersion() < SERIALIZATION_STREAM_MIN_VERSION
-        || getVersion() > SERIALIZATION_STREAM_MAX_VERSION) {
-      throw new IncompatibleRemoteServiceException("Expecting version between "
-          + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION
-          + " from client, got " + getVersion() + ".");
-    }
-
-    // Check the flags
-    if (!areFlagsValid()) {
-      throw new IncompatibleRemoteServiceException("Got an unknown flag from " + "client: "
-          + getFlags());
+  /**
+   * Prepares to read a request incrementally from a {@link Reader}, without first reading it into
+   * a String and splitting it into tokens. Only the header and string table are read here; the
+   * rest of the tokens are read as they are needed, so the reader must stay open until the request
+   * has been deserialized. Closing it is up to the caller.
+   *
+   * @param encodedTokens a reader positioned at the start of the request
+   * @throws SerializationException if the request is invalid or can't be read
+   */
+  public void prepareToRead(Reader encodedTokens) throws SerializationException {
+    resetTokens();
+    tokenReader = encodedTokens;
+    readBuffer = new char[READ_BUFFER_SIZE];
+
+    String firstToken = readToken();
+    if (firstToken == null) {
+      // Didn't find any separator; the whole request is in the token builder.
+      throw newIncompatibleVersionException(tokenBuilder.toString());
     }
+    pendingToken = firstToken;
 
-    // Read the type name table
-    deserializeStringTable();
-
-    // Load the serialization policy
-    String moduleBaseURL = readString();
-    String strongName = readString();
-    if (serializationPolicyProvider != null) {
-      if (strongName != null && !ALLOWED_STRONG_NAME.matcher(strongName).matches()) {
-        throw new SerializationException(
-            "GWT-RPC request is invalid because the strong name contains invalid characters");
-      }
-
-      serializationPolicy =
-          serializationPolicyProvider.getSerializationPolicy(moduleBaseURL, strongName);
-
-      if (serializationPolicy == null) {
-        throw new NullPointerException("serializationPolicyProvider.getSerializationPolicy()");
-      }
-    }
+    // The superclass only reads the version and flags as tokens.
+    super.prepareToRead(null);
+    readHeader();
   }
 
   @Override
@@ -908,6 +917,29 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
     return instance;
   }
 
+  /**
+   * Returns an exception for a request without any separators, which is either malformed or from
+   * an older client with different separators. In the latter case, the version is the sequence of
+   * digits at the beginning of the encoded string.
+   */
+  private static IncompatibleRemoteServiceException newIncompatibleVersionException(
+      String encodedTokens) {
+    int idx = 0;
+    while (idx < encodedTokens.length() && Character.isDigit(encodedTokens.charAt(idx))) {
+      ++idx;
+    }
+    if (idx == 0) {
+      return new IncompatibleRemoteServiceException(
+          "Malformed or old RPC message received - expecting version between "
+              + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION);
+    } else {
+      int version = Integer.valueOf(encodedTokens.substring(0, idx));
+      return new IncompatibleRemoteServiceException("Expecting version between "
+          + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION
+          + " from client, got " + version + ".");
+    }
+  }
+
   private void deserializeStringTable() throws SerializationException {
     int typeNameCount = readInt();
     BoundedList<String> buffer = new BoundedList<String>(String.class, typeNameCount);
@@ -989,6 +1021,18 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
   }
 
   private String extract() throws SerializationException {
+    if (tokenReader != null) {
+      String token = pendingToken;
+      if (token != null) {
+        pendingToken = null;
+      } else {
+        token = readToken();
+      }
+      if (token == null) {
+        throw new SerializationException("Too few tokens in RPC request");
+      }
+      return token;
+    }
     try {
       return tokenList.get(tokenListIndex++);
     } catch (IndexOutOfBoundsException e) {
@@ -996,6 +1040,91 @@ public final class ServerSerializationStreamReader extends AbstractSerialization
     }
   }
 
+  /**
+   * Checks the version and flags and reads the string table and serialization policy.
+   */
+  private void readHeader() throws SerializationException {
+    // Check the RPC version number sent by the client
+    if (getVersion() < SERIALIZATION_STREAM_MIN_VERSION
+        || getVersion() > SERIALIZATION_STREAM_MAX_VERSION) {
+      throw new IncompatibleRemoteServiceException("Expecting version between "
+          + SERIALIZATION_STREAM_MIN_VERSION + " and " + SERIALIZATION_STREAM_MAX_VERSION
+          + " from client, got " + getVersion() + ".");
+    }
+
+    // Check the flags
+    if (!areFlagsValid()) {
+      throw new IncompatibleRemoteServiceException("Got an unknown flag from " + "client: "
+          + getFlags());
+    }
+
+    // Read the type name table
+    deserializeStringTable();
+
+    // Load the serialization policy
+    String moduleBaseURL = readString();
+    String strongName = readString();
+    if (serializationPolicyProvider != null) {
+      if (strongName != null && !ALLOWED_STRONG_NAME.matcher(strongName).matches()) {
+        throw new SerializationException(
+            "GWT-RPC request is invalid because the strong name contains invalid characters");
+      }
+
+      serializationPolicy =
+          serializationPolicyProvider.getSerializationPolicy(moduleBaseURL, strongName);
+
+      if (serializationPolicy == null) {
+        throw new NullPointerException("serializationPolicyProvider.getSerializationPolicy()");
+      }
+    }
+  }
+
+  /**
+   * Reads the next token from {@link #tokenReader}.
+   *
+   * @return the token, or null if the reader ended before the next separator, in which case the
+   *     characters read are left in {@link #tokenBuilder}
+   */
+  private String readToken() throws SerializationException {
+    tokenBuilder.setLength(0);
+    try {
+      while (true) {
+        if (readBufferPosition == readBufferLimit) {
+          int count = tokenReader.read(readBuffer);
+          if (count < 0) {
+            return null;
+          }
+          readBufferPosition = 0;
+          readBufferLimit = count;
+        }
+        int start = readBufferPosition;
+        while (readBufferPosition < readBufferLimit
+            && readBuffer[readBufferPosition] != RPC_SEPARATOR_CHAR) {
+          ++readBufferPosition;
+        }
+        tokenBuilder.append(readBuffer, start, readBufferPosition - start);
+        if (readBufferPosition < readBufferLimit) {
+          // Skip the separator.
+          ++readBufferPosition;
+          return tokenBuilder.toString();
+        }
+      }
+    } catch (IOException e) {
+      throw new SerializationException("Unable to read the RPC request", e);
+    }
+  }
+
+  private void resetTokens() {
+    tokenList.clear();
+    tokenListIndex = 0;
+    tokenReader = null;
+    readBuffer = null;
+    readBufferLimit = 0;
+    readBufferPosition = 0;
+    pendingToken = null;
+    stringTable = null;
+  }
+
   /**
    * Returns a suitable NumberFormatException with an explanatory message when a
    * numerical value cannot be parsed according to its expected type.
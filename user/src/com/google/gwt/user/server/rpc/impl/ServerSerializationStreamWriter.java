@@ -24,6 +24,8 @@ import com.google.gwt.user.server.rpc.SerializationPolicy;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
@@ -55,6 +57,10 @@ public final class ServerSerializationStreamWriter extends
     private final StringBuffer buffer;
     private final int maximumArrayLength = Integer.getInteger("gwt.rpc.maxPayloadChunkSize",
             MAXIMUM_ARRAY_LENGTH_DEFAULT);
+    /**
+     * Where the array is written as tokens are added, or null if it's buffered.
+     */
+    private final Writer out;
     private int count = 0;
     private boolean needsComma = false;
     private int total = 0;
@@ -62,32 +68,29 @@ public final class ServerSerializationStreamWriter extends
 
     public LengthConstrainedArray() {
       buffer = new StringBuffer();
+      out = null;
     }
 
     public LengthConstrainedArray(int capacityGuess) {
       buffer = new StringBuffer(capacityGuess);
+      out = null;
     }
 
-    public void addToken(CharSequence token) {
-      total++;
-      if (count++ == maximumArrayLength) {
-        if (total == maximumArrayLength + 1) {
-          buffer.append(PRELUDE);
-          javascript = true;
-        } else {
-          buffer.append("],[");
-        }
-        count = 0;
-        needsComma = false;
-      }
-
-      if (needsComma) {
-        buffer.append(",");
-      } else {
-        needsComma = true;
-      }
+    /**
+     * Creates an array that is written to a writer as tokens are added, rather
+     * than buffered until {@link #toString()}. I/O errors are thrown as
+     * {@link UncheckedIOException}, and {@link #finish()} must be called after
+     * the last token.
+     */
+    private LengthConstrainedArray(Writer out) {
+      this.buffer = null;
+      this.out = out;
+      append("[");
+    }
 
-      buffer.append(token);
+    public void addToken(CharSequence token) {
+      startToken();
+      append(token);
     }
 
     public void addEscapedToken(String token) {
@@ -114,6 +117,53 @@ public final class ServerSerializationStreamWriter extends
         return "[" + buffer.toString() + "]";
       }
     }
+
+    /**
+     * Adds a nested array as the next token of a streamed array.
+     */
+    private LengthConstrainedArray addNestedArray() {
+      startToken();
+      return new LengthConstrainedArray(out);
+    }
+
+    private void append(CharSequence chars) {
+      if (out == null) {
+        buffer.append(chars);
+        return;
+      }
+      try {
+        out.append(chars);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    /**
+     * Closes a streamed array.
+     */
+    private void finish() {
+      append(total > maximumArrayLength ? POSTLUDE : "]");
+    }
+
+    private void startToken() {
+      total++;
+      if (count++ == maximumArrayLength) {
+        if (total == maximumArrayLength + 1) {
+          append(PRELUDE);
+          javascript = true;
+        } else {
+          append("],[");
+        }
+        count = 0;
+        needsComma = false;
+      }
+
+      if (needsComma) {
+        append(",");
+      } else {
+        needsComma = true;
+      }
+    }
   }
 
   /**
@@ -630,6 +680,41 @@ public final class ServerSerializationStreamWriter extends
 
     return stream.toString();
   }
+
+  /**
+   * Returns roughly how many characters {@link #toString()} would return,
+   * without escaping anything.
+   */
+  public long getEstimatedLength() {
+    long length = tokenListCharCount + tokenList.size();
+    for (String s : getStringTable()) {
+      length += s.length() + 3;
+    }
+    return length + 16;
+  }
+
+  /**
+   * Writes the same characters as {@link #toString()}, but without building
+   * them into a String first. Only the escaped form of one string at a time is
+   * held in memory.
+   */
+  public void writeTo(Writer out) throws IOException {
+    try {
+      LengthConstrainedArray stream = new LengthConstrainedArray(out);
+      writePayload(stream);
+      LengthConstrainedArray tableStream = stream.addNestedArray();
+      for (String s : getStringTable()) {
+        tableStream.addEscapedToken(s);
+      }
+      tableStream.finish();
+      stream.setJavaScript(stream.isJavaScript() || tableStream.isJavaScript());
+      writeHeader(stream);
+      stream.finish();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
   
   @Override
   public void writeLong(long value) {
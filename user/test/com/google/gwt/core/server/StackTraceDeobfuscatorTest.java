@@ -0,0 +1,167 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import com.google.gwt.thirdparty.guava.common.base.Strings;
+import com.google.gwt.thirdparty.guava.common.collect.Lists;
+import com.google.gwt.thirdparty.guava.common.collect.Maps;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for {@link StackTraceDeobfuscator}.
+ */
+public class StackTraceDeobfuscatorTest extends TestCase {
+
+  /**
+   * A deobfuscator that has no files and records which ones it was asked for.
+   */
+  private static class MissingFilesDeobfuscator extends StackTraceDeobfuscator {
+    private final List<String> openedFileNames = Lists.newArrayList();
+
+    @Override
+    protected InputStream openInputStream(String fileName) throws IOException {
+      openedFileNames.add(fileName);
+      throw new FileNotFoundException(fileName);
+    }
+  }
+
+  /**
+   * A deobfuscator whose files are kept in memory, and that records which ones it was asked for.
+   */
+  private static class InMemoryDeobfuscator extends StackTraceDeobfuscator {
+    private final Map<String, String> contentsByFileName = Maps.newHashMap();
+    private final List<String> openedFileNames = Lists.newArrayList();
+
+    @Override
+    protected InputStream openInputStream(String fileName) throws IOException {
+      openedFileNames.add(fileName);
+      String contents = contentsByFileName.get(fileName);
+      if (contents == null) {
+        throw new FileNotFoundException(fileName);
+      }
+      return new ByteArrayInputStream(contents.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Adds a source map for a fragment, padded to {@code length} characters, and returns it.
+     */
+    String putSourceMap(String strongName, int fragmentId, int length) {
+      String prefix = "{\"version\":3,\"file\":\"";
+      String suffix = "\",\"sources\":[\"Foo.java\"],\"names\":[],\"mappings\":\"AAAA\"}";
+      String sourceMap = prefix + Strings.repeat("x", length - prefix.length() - suffix.length())
+          + suffix;
+      contentsByFileName.put(strongName + "_sourceMap" + fragmentId + ".json", sourceMap);
+      return sourceMap;
+    }
+  }
+
+  public void testResymbolize_missingSymbolMapIsNotReadAgain() {
+    MissingFilesDeobfuscator deobfuscator = new MissingFilesDeobfuscator();
+    StackTraceElement element = new StackTraceElement("Unknown", "a", "foo.js", 12);
+
+    assertEquals(element, deobfuscator.resymbolize(element, "ABC"));
+    assertFalse(deobfuscator.openedFileNames.isEmpty());
+
+    deobfuscator.openedFileNames.clear();
+    assertEquals(element, deobfuscator.resymbolize(element, "ABC"));
+    StackTraceElement other = new StackTraceElement("Unknown", "b", "foo.js", 12);
+    assertEquals(other, deobfuscator.resymbolize(other, "ABC"));
+    assertTrue(deobfuscator.openedFileNames.toString(),
+        deobfuscator.openedFileNames.isEmpty());
+  }
+
+  public void testLoadSourceMap_countsHitsAndMisses() {
+    InMemoryDeobfuscator deobfuscator = new InMemoryDeobfuscator();
+    deobfuscator.putSourceMap("ABC", 0, 1000);
+
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNull(deobfuscator.loadSourceMap("ABC", 1));
+
+    assertEquals(1, deobfuscator.getSourceMapCacheHitCount());
+    assertEquals(2, deobfuscator.getSourceMapCacheMissCount());
+    assertEquals(Lists.newArrayList("ABC_sourceMap0.json", "ABC_sourceMap1.json"),
+        deobfuscator.openedFileNames);
+  }
+
+  public void testLoadSourceMap_evictsLeastRecentlyUsedByWeight() {
+    InMemoryDeobfuscator deobfuscator = new InMemoryDeobfuscator();
+    for (int fragmentId = 0; fragmentId < 3; fragmentId++) {
+      deobfuscator.putSourceMap("ABC", fragmentId, 1000);
+    }
+    deobfuscator.setSourceMapCacheMaxChars(2500);
+
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 1));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    // Only two fit, so the least recently used one, fragment 1, is dropped.
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 2));
+    deobfuscator.openedFileNames.clear();
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 1));
+
+    assertEquals(Lists.newArrayList("ABC_sourceMap1.json"), deobfuscator.openedFileNames);
+  }
+
+  public void testLoadSourceMap_keepsSourceMapNearTheLimit() {
+    InMemoryDeobfuscator deobfuscator = new InMemoryDeobfuscator();
+    deobfuscator.putSourceMap("ABC", 0, 9000);
+    deobfuscator.setSourceMapCacheMaxChars(10000);
+
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+
+    assertEquals(1, deobfuscator.getSourceMapCacheHitCount());
+    assertEquals(1, deobfuscator.openedFileNames.size());
+  }
+
+  public void testLoadSourceMap_failuresAreNotCached() {
+    InMemoryDeobfuscator deobfuscator = new InMemoryDeobfuscator();
+    assertNull(deobfuscator.loadSourceMap("ABC", 0));
+
+    // Deployed after the first request.
+    deobfuscator.putSourceMap("ABC", 0, 1000);
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertEquals(2, deobfuscator.openedFileNames.size());
+  }
+
+  public void testSetSourceMapCacheMaxChars_clearsCacheAndStatistics() {
+    InMemoryDeobfuscator deobfuscator = new InMemoryDeobfuscator();
+    deobfuscator.putSourceMap("ABC", 0, 1000);
+    deobfuscator.loadSourceMap("ABC", 0);
+    deobfuscator.loadSourceMap("ABC", 0);
+
+    deobfuscator.setSourceMapCacheMaxChars(500);
+    assertEquals(0, deobfuscator.getSourceMapCacheHitCount());
+    assertEquals(0, deobfuscator.getSourceMapCacheMissCount());
+
+    // Too big to be kept at all.
+    deobfuscator.openedFileNames.clear();
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertNotNull(deobfuscator.loadSourceMap("ABC", 0));
+    assertEquals(2, deobfuscator.openedFileNames.size());
+    assertEquals(0, deobfuscator.getSourceMapCacheHitCount());
+  }
+}
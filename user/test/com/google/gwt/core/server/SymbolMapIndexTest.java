@@ -0,0 +1,98 @@
+/*
+ * Copyright 2026 GWT Project Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.google.gwt.core.server;
+
+import junit.framework.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Tests for {@link SymbolMapIndex}.
+ */
+public class SymbolMapIndexTest extends TestCase {
+
+  private static final String BAR_DATA =
+      "Lcom/example/Foo;::bar(I),com.example.Foo,bar,jar:file:/Foo.java,12,0";
+  private static final String BAZ_DATA =
+      "Lcom/example/Foo;::baz(),com.example.Foo,baz,Unknown,-1,2";
+
+  public void testRead() throws IOException {
+    SymbolMapIndex index = SymbolMapIndex.read(new ByteArrayInputStream(
+        writeIndex(0x47575349, 1, "a", BAR_DATA, "b\u00e9", BAZ_DATA)));
+
+    assertEquals(BAR_DATA, index.get("a"));
+    assertEquals(BAZ_DATA, index.get("b\u00e9"));
+    assertNull(index.get("c"));
+    assertTrue(index.getEstimatedBytes() > BAR_DATA.length() + BAZ_DATA.length());
+  }
+
+  public void testRead_badHeader() throws IOException {
+    try {
+      SymbolMapIndex.read(new ByteArrayInputStream(writeIndex(0x47575349, 2)));
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testRead_unsorted() throws IOException {
+    try {
+      SymbolMapIndex.read(new ByteArrayInputStream(
+          writeIndex(0x47575349, 1, "b", BAR_DATA, "a", BAZ_DATA)));
+      fail("Expected IOException");
+    } catch (IOException expected) {
+    }
+  }
+
+  public void testParseSymbolMap() throws IOException {
+    String symbolMap = "# { 0 }\n"
+        + "# jsName, jsniIdent, className, memberName, sourceUri, sourceLine, fragmentNumber\n"
+        + "b," + BAZ_DATA + "\n"
+        + "a," + BAR_DATA + "\n"
+        + "f,Lcom/example/Foo;::f,com.example.Foo,f,Unknown,3,0\n"
+        + "Foo,,com.example.Foo,,Unknown,1,-1\n";
+    SymbolMapIndex index = SymbolMapIndex.parseSymbolMap(
+        new ByteArrayInputStream(symbolMap.getBytes(StandardCharsets.UTF_8)));
+
+    assertEquals(BAR_DATA, index.get("a"));
+    assertEquals(BAZ_DATA, index.get("b"));
+    // Only methods are indexed.
+    assertNull(index.get("f"));
+    assertNull(index.get("Foo"));
+  }
+
+  /**
+   * Writes an index the way SymbolMapsLinker does, from alternating symbols and data.
+   */
+  private static byte[] writeIndex(int magic, int version, String... symbolsAndData)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(magic);
+    out.writeInt(version);
+    out.writeInt(symbolsAndData.length / 2);
+    for (String string : symbolsAndData) {
+      byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(utf8.length);
+      out.write(utf8);
+    }
+    out.close();
+    return bytes.toByteArray();
+  }
+}
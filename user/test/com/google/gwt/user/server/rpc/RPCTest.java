@@ -29,7 +29,9 @@ import com.google.gwt.user.server.rpc.impl.TypeNameObfuscator;
 
 import junit.framework.TestCase;
 
+import java.io.Reader;
 import java.io.Serializable;
+import java.io.StringReader;
 import java.lang.reflect.Method;
 import java.util.Set;
 
@@ -469,6 +471,41 @@ public class RPCTest extends TestCase {
     }
   }
 
+  /**
+   * Tests for method
+   * {@link RPC#decodeRequest(Reader, Class, SerializationPolicyProvider)}.
+   */
+  public void testDecodeRequestReader() throws NoSuchMethodException {
+    RPCRequest request = RPC.decodeRequest(new StringReader(VALID_ENCODED_REQUEST), A.class,
+        null);
+    assertEquals(A.class.getMethod("method2"), request.getMethod());
+    assertEquals(0, request.getParameters().length);
+
+    try {
+      RPC.decodeRequest(new StringReader(INVALID_METHOD_REQUEST), A.class, null);
+      fail("Expected IncompatibleRemoteServiceException");
+    } catch (IncompatibleRemoteServiceException e) {
+      // should get here
+    }
+
+    try {
+      RPC.decodeRequest(new StringReader(VALID_V4_ENCODED_REQUEST), A.class, null);
+      fail("Expected IncompatibleRemoteServiceException");
+    } catch (IncompatibleRemoteServiceException e) {
+      // should get here
+    }
+
+    // Cut off before the method name.
+    String truncatedRequest =
+        VALID_ENCODED_REQUEST.substring(0, VALID_ENCODED_REQUEST.indexOf("method2"));
+    try {
+      RPC.decodeRequest(new StringReader(truncatedRequest), A.class, null);
+      fail("Expected IncompatibleRemoteServiceException");
+    } catch (IncompatibleRemoteServiceException e) {
+      // should get here
+    }
+  }
+
   private static class TestRpcToken implements RpcToken {
     String tokenValue;
     public TestRpcToken() { }
@@ -18,6 +18,9 @@ package com.google.gwt.user.server.rpc.impl;
 
 import junit.framework.TestCase;
 
+import java.io.IOException;
+import java.io.StringWriter;
+
 /**
  * Tests {@link ServerSerializationStreamWriter}.
  */
@@ -146,4 +149,32 @@ public class ServerSerializationStreamWriterTest extends TestCase {
     assertEquals("7", encoded.substring(encoded.lastIndexOf(",") + 1, encoded.lastIndexOf("]")));
   }
 
+  public void testWriteTo() throws IOException {
+    StringBuilder longString = new StringBuilder(660000);
+    for (int i = 0; i < 660000; i++) {
+      longString.append(i % 100 == 0 ? '\n' : 'a');
+    }
+    int maxArrayLength =
+        ServerSerializationStreamWriter.LengthConstrainedArray.MAXIMUM_ARRAY_LENGTH_DEFAULT + 100;
+
+    ServerSerializationStreamWriter writer = new ServerSerializationStreamWriter(null, 8);
+    writer.writeString("short \"string\"");
+    writer.writeString(longString.toString());
+    for (int i = 0; i < maxArrayLength; i++) {
+      writer.writeInt(i);
+      writer.writeString("s" + (i % 50000));
+    }
+    assertWriteToMatchesToString(writer);
+
+    writer = new ServerSerializationStreamWriter(null, 8);
+    writer.writeDouble(Double.NaN);
+    assertWriteToMatchesToString(writer);
+  }
+
+  private static void assertWriteToMatchesToString(ServerSerializationStreamWriter writer)
+      throws IOException {
+    StringWriter out = new StringWriter();
+    writer.writeTo(out);
+    assertEquals(writer.toString(), out.toString());
+  }
 }